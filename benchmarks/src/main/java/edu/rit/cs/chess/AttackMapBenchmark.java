@@ -0,0 +1,101 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of asking which pieces can move to every cell of the board, as
+ * hint and analysis features do after each move: by checking every piece
+ * against the cell, and from a game's attack map. Also the cost of a move
+ * and its undo in a game that keeps a map, against one that does not.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class AttackMapBenchmark {
+
+    @Param( { "board-std.txt", "board13x13.txt", "random-30-200" } )
+    public String board;
+
+    private Game plain, mapped;
+    private int[] pieces;
+    private int fromRow, fromCol, toRow, toCol;
+
+    @Setup
+    public void setUp() throws IOException {
+        final String path = Boards.named( this.board );
+        this.plain = new Game( path );
+        this.mapped = new Game( path );
+        this.mapped.attackersOf( 0, 0 );
+        this.pieces = new int[ this.plain.pieceCount() ];
+        this.plain.listOccupied( this.pieces );
+        MoveList moves = new MoveList();
+        this.plain.generateAllMoves( moves );
+        final int cols = this.plain.numCols();
+        this.fromRow = moves.from( 0 ) / cols;
+        this.fromCol = moves.from( 0 ) % cols;
+        this.toRow = moves.to( 0 ) / cols;
+        this.toCol = moves.to( 0 ) % cols;
+    }
+
+    /**
+     * Count the pieces that can move to a cell by checking each one.
+     */
+    private int scan( int row, int col ) {
+        final int cols = this.plain.numCols();
+        int count = 0;
+        for ( int cell: this.pieces ) {
+            final int r = cell / cols, c = cell % cols;
+            if ( ( r != row || c != col ) &&
+                 Piece.rules( this.plain.pieceCode( r, c ) ).checkMove(
+                         this.plain, r, c, row, col ) == MoveStatus.OK ) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int attackersScan() {
+        int count = 0;
+        for ( int r = 0; r < this.plain.numRows(); ++r ) {
+            for ( int c = 0; c < this.plain.numCols(); ++c ) {
+                count += scan( r, c );
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int attackersMap() {
+        int count = 0;
+        for ( int r = 0; r < this.mapped.numRows(); ++r ) {
+            for ( int c = 0; c < this.mapped.numCols(); ++c ) {
+                count += this.mapped.attackersOf( r, c ).length;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public MoveStatus moveUndoPlain() {
+        MoveStatus status = this.plain.tryMove( this.fromRow, this.fromCol,
+                                                this.toRow, this.toCol );
+        this.plain.unmakeMove();
+        return status;
+    }
+
+    @Benchmark
+    public MoveStatus moveUndoMapped() {
+        MoveStatus status = this.mapped.tryMove( this.fromRow, this.fromCol,
+                                                 this.toRow, this.toCol );
+        this.mapped.unmakeMove();
+        return status;
+    }
+}
@@ -0,0 +1,74 @@
+package edu.rit.cs.chess;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+
+/**
+ * Setup files for the benchmarks: the ones in Tests/ and generated ones.
+ * @author RIT CS
+ */
+final class Boards {
+
+    /**
+     * Where the test boards and scripts are, relative to the working
+     * directory (the project root when run with gradle :benchmarks:jmh)
+     */
+    static final String TEST_DIR = "Tests" + File.separator;
+
+    private Boards() {}
+
+    /**
+     * Write a setup file.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param pieces lines of the form "name row column"
+     * @return the file's path; it is deleted when the JVM exits
+     * @throws IOException if the file cannot be written
+     */
+    static String write( int rows, int cols, String... pieces )
+            throws IOException {
+        File file = File.createTempFile( "bench", ".txt" );
+        file.deleteOnExit();
+        try ( PrintWriter out = new PrintWriter( file ) ) {
+            out.println( rows + " " + cols );
+            for ( String piece: pieces ) out.println( piece );
+        }
+        return file.getPath();
+    }
+
+    /**
+     * Write a square setup file with pieces of random types in random
+     * cells. The same arguments always give the same board.
+     * @param size number of rows and columns
+     * @param count number of pieces
+     * @return the file's path; it is deleted when the JVM exits
+     * @throws IOException if the file cannot be written
+     */
+    static String random( int size, int count ) throws IOException {
+        Random random = new Random( size * 31L + count );
+        String[] pieces = new String[ count ];
+        for ( int i = 0; i < count; ++i ) {
+            pieces[ i ] = PieceType.of( random.nextInt( PieceType.COUNT ) )
+                                  .letter + Integer.toString( i % 10 ) + " " +
+                          random.nextInt( size ) + " " + random.nextInt( size );
+        }
+        return write( size, size, pieces );
+    }
+
+    /**
+     * Find a board by benchmark parameter value.
+     * @param name a file name in Tests/, or "random-SIZE-COUNT"
+     * @return the path of the setup file
+     * @throws IOException if a random board cannot be written
+     */
+    static String named( String name ) throws IOException {
+        if ( name.startsWith( "random-" ) ) {
+            String[] parts = name.split( "-" );
+            return random( Integer.parseInt( parts[ 1 ] ),
+                           Integer.parseInt( parts[ 2 ] ) );
+        }
+        return TEST_DIR + name;
+    }
+}
@@ -0,0 +1,145 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking long paths, and of finding the first piece in the
+ * way, by stepping from cell to cell of an array store and by searching
+ * a {@link LineIndex}. Each call checks the lines from every piece to
+ * the edge of the board in all eight directions. On boards small enough
+ * for {@link AttackTables}, the game checks paths with the tables, so
+ * its numbers are given too.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class LineIndexBenchmark {
+
+    @Param( { "board13x13.txt", "random-1000-2000" } )
+    public String board;
+
+    private Game game;
+    private ArrayBoardStore array;
+    private LineIndex index;
+
+    /**
+     * For each path: the starting row and column, the step, and the
+     * ending row and column
+     */
+    private int[] paths;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.game = new Game( Boards.named( this.board ),
+                              BoardStore.Kind.ARRAY );
+        final int rows = this.game.numRows(), cols = this.game.numCols();
+        this.array = new ArrayBoardStore( rows, cols );
+        this.index = new LineIndex( rows, cols );
+        int[] cells = new int[ this.game.pieceCount() ];
+        final int n = this.game.listOccupied( cells );
+        this.paths = new int[ n * 8 * 6 ];
+        int at = 0;
+        for ( int i = 0; i < n; ++i ) {
+            final int row = cells[ i ] / cols, col = cells[ i ] % cols;
+            this.array.put( row, col, 1 );
+            this.index.add( row, col );
+            for ( int dr = -1; dr <= 1; ++dr ) {
+                for ( int dc = -1; dc <= 1; ++dc ) {
+                    if ( dr == 0 && dc == 0 ) continue;
+                    int r = row, c = col;
+                    while ( this.game.inBounds( r + dr, c + dc ) ) {
+                        r += dr;
+                        c += dc;
+                    }
+                    if ( r == row && c == col ) continue;
+                    this.paths[ at++ ] = row;
+                    this.paths[ at++ ] = col;
+                    this.paths[ at++ ] = dr;
+                    this.paths[ at++ ] = dc;
+                    this.paths[ at++ ] = r;
+                    this.paths[ at++ ] = c;
+                }
+            }
+        }
+        this.paths = Arrays.copyOf( this.paths, at );
+    }
+
+    @Benchmark
+    public int clearPathLoop() {
+        int clear = 0;
+        for ( int i = 0; i < this.paths.length; i += 6 ) {
+            final int dr = this.paths[ i + 2 ], dc = this.paths[ i + 3 ];
+            final int toRow = this.paths[ i + 4 ], toCol = this.paths[ i + 5 ];
+            int r = this.paths[ i ] + dr, c = this.paths[ i + 1 ] + dc;
+            while ( ( r != toRow || c != toCol ) &&
+                    !this.array.occupied( r, c ) ) {
+                r += dr;
+                c += dc;
+            }
+            if ( r == toRow && c == toCol ) ++clear;
+        }
+        return clear;
+    }
+
+    @Benchmark
+    public int clearPathIndex() {
+        int clear = 0;
+        for ( int i = 0; i < this.paths.length; i += 6 ) {
+            if ( this.index.isClear( this.paths[ i ], this.paths[ i + 1 ],
+                                     this.paths[ i + 4 ],
+                                     this.paths[ i + 5 ] ) ) {
+                ++clear;
+            }
+        }
+        return clear;
+    }
+
+    @Benchmark
+    public int clearPathGame() {
+        int clear = 0;
+        for ( int i = 0; i < this.paths.length; i += 6 ) {
+            if ( this.game.isClearPath( this.paths[ i ], this.paths[ i + 1 ],
+                                        this.paths[ i + 4 ],
+                                        this.paths[ i + 5 ] ) ) {
+                ++clear;
+            }
+        }
+        return clear;
+    }
+
+    @Benchmark
+    public int nearestLoop() {
+        final int cols = this.game.numCols();
+        int sum = 0;
+        for ( int i = 0; i < this.paths.length; i += 6 ) {
+            final int dr = this.paths[ i + 2 ], dc = this.paths[ i + 3 ];
+            for ( int r = this.paths[ i ] + dr, c = this.paths[ i + 1 ] + dc;
+                  this.game.inBounds( r, c ); r += dr, c += dc ) {
+                if ( this.array.occupied( r, c ) ) {
+                    sum += r * cols + c;
+                    break;
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int nearestIndex() {
+        int sum = 0;
+        for ( int i = 0; i < this.paths.length; i += 6 ) {
+            sum += this.index.nearest( this.paths[ i ], this.paths[ i + 1 ],
+                                       this.paths[ i + 2 ],
+                                       this.paths[ i + 3 ] );
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,47 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a {@link Game} from a setup file, and from a snapshot
+ * of the same board held in memory.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class LoadBenchmark {
+
+    @Param( { "board-std.txt", "board13x13.txt", "random-200-4000" } )
+    public String board;
+
+    private String path;
+    private byte[] snapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.path = Boards.named( this.board );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new Game( this.path ).writeSnapshot( bytes );
+        this.snapshot = bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Game load() throws FileNotFoundException {
+        return new Game( this.path );
+    }
+
+    @Benchmark
+    public Game loadSnapshot() throws IOException {
+        return Game.readSnapshot( new ByteArrayInputStream( this.snapshot ) );
+    }
+}
@@ -0,0 +1,72 @@
+package edu.rit.cs.chess;
+
+import edu.rit.cs.util.ActionResult;
+import edu.rit.cs.util.Coordinates;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one move of each type of piece on a 13x13 board, through the
+ * ActionResult API and through the primitive tryMove, plus the cost of a
+ * rejected move. Each move is taken back so that every call starts from
+ * the same position.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class MoveBenchmark {
+
+    @Param( { "ROOK", "KNIGHT", "BISHOP", "QUEEN", "KING", "PAWN" } )
+    public PieceType type;
+
+    @Param( { "ARRAY", "BITBOARD" } )
+    public BoardStore.Kind store;
+
+    private Game game;
+    private Coordinates start, end, illegal;
+
+    @Setup
+    public void setUp() throws IOException {
+        // The moving piece is in the middle; others are off its path.
+        this.game = new Game( Boards.write( 13, 13,
+                                            this.type.letter + " 6 6",
+                                            "K1 12 1", "R1 1 11", "N1 11 11" ),
+                              this.store );
+        this.start = new Coordinates( 6, 6 );
+        switch ( this.type ) {
+            case ROOK: this.end = new Coordinates( 6, 0 ); break;
+            case KNIGHT: this.end = new Coordinates( 4, 7 ); break;
+            case BISHOP: this.end = new Coordinates( 0, 0 ); break;
+            case QUEEN: this.end = new Coordinates( 0, 12 ); break;
+            default: this.end = new Coordinates( 5, 6 ); break;
+        }
+        this.illegal = new Coordinates( 7, 9 );
+    }
+
+    @Benchmark
+    public ActionResult makeMove() {
+        ActionResult result = this.game.makeMove( this.start, this.end );
+        this.game.unmakeMove();
+        return result;
+    }
+
+    @Benchmark
+    public MoveStatus tryMove() {
+        MoveStatus status = this.game.tryMove(
+                this.start.row(), this.start.column(),
+                this.end.row(), this.end.column() );
+        this.game.unmakeMove();
+        return status;
+    }
+
+    @Benchmark
+    public ActionResult makeIllegalMove() {
+        return this.game.makeMove( this.start, this.illegal );
+    }
+}
@@ -0,0 +1,55 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of asking the same legality questions over and over, as analysis
+ * tools do, with and without a {@link MoveCache}: listing the legal moves
+ * of every piece in one position. With a cache big enough for the work,
+ * every question after the first round is a hit.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class MoveCacheBenchmark {
+
+    @Param( { "board-std.txt", "board13x13.txt" } )
+    public String board;
+
+    @Param( { "false", "true" } )
+    public boolean cached;
+
+    private Game game;
+    private int[] cells;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.game = new Game( Boards.named( this.board ) );
+        if ( this.cached ) this.game.useMoveCache( new MoveCache( 1 << 12 ) );
+        this.cells = new int[ this.game.pieceCount() ];
+        final int cols = this.game.numCols();
+        int n = 0;
+        for ( int cell = 0; cell < this.game.numRows() * cols; ++cell ) {
+            if ( this.game.occupied( cell / cols, cell % cols ) ) {
+                this.cells[ n++ ] = cell;
+            }
+        }
+    }
+
+    @Benchmark
+    public int legalMoves() {
+        final int cols = this.game.numCols();
+        int count = 0;
+        for ( int cell: this.cells ) {
+            count += this.game.legalMoves( cell / cols, cell % cols ).length;
+        }
+        return count;
+    }
+}
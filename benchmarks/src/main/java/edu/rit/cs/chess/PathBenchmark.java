@@ -0,0 +1,46 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link Game#isClearPath(int, int, int, int)} along a clear
+ * line from one edge of an empty board to the other.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class PathBenchmark {
+
+    @Param( { "13", "100", "1000" } )
+    public int size;
+
+    @Param( { "ARRAY", "BITBOARD", "SPARSE" } )
+    public BoardStore.Kind store;
+
+    @Param( { "ROW", "COLUMN", "DIAGONAL" } )
+    public String line;
+
+    private Game game;
+    private int toRow, toCol;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.game = new Game( Boards.write( this.size, this.size ),
+                              this.store );
+        final int last = this.size - 1;
+        this.toRow = this.line.equals( "ROW" ) ? 0 : last;
+        this.toCol = this.line.equals( "COLUMN" ) ? 0 : last;
+    }
+
+    @Benchmark
+    public boolean isClearPath() {
+        return this.game.isClearPath( 0, 0, this.toRow, this.toCol );
+    }
+}
@@ -0,0 +1,60 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of keeping a position: copying a whole {@link Game}, with its
+ * board store and undo stack, against taking an unchanging
+ * {@link Position} of it, making the next position from one, and
+ * rebuilding a game from one. Run with "-prof gc" to see the bytes
+ * each takes (gc.alloc.rate.norm).
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class PositionBenchmark {
+
+    @Param( { "board-std.txt", "board13x13.txt" } )
+    public String board;
+
+    private Game game;
+    private Position position;
+    private int from, to;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.game = new Game( Boards.named( this.board ) );
+        this.position = this.game.position();
+        this.game.generateAllMoves( ( from, to ) -> {
+            this.from = from;
+            this.to = to;
+        } );
+    }
+
+    @Benchmark
+    public Game copyGame() {
+        return new Game( this.game );
+    }
+
+    @Benchmark
+    public Position takePosition() {
+        return this.game.position();
+    }
+
+    @Benchmark
+    public Position nextPosition() {
+        return this.position.move( this.from, this.to );
+    }
+
+    @Benchmark
+    public Game rebuildGame() {
+        return new Game( this.position );
+    }
+}
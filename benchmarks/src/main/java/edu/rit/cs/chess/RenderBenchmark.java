@@ -0,0 +1,54 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of drawing the board, to standard output and to a writer, with
+ * the output thrown away.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class RenderBenchmark {
+
+    @Param( { "board-std.txt", "board13x13.txt", "random-100-500" } )
+    public String board;
+
+    private Game game;
+    private PrintStream console;
+    private PrintWriter nowhere;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.game = new Game( Boards.named( this.board ) );
+        this.console = System.out;
+        System.setOut( new PrintStream( OutputStream.nullOutputStream() ) );
+        this.nowhere = new PrintWriter( Writer.nullWriter() );
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut( this.console );
+    }
+
+    @Benchmark
+    public void showBoard() {
+        this.game.showBoard();
+    }
+
+    @Benchmark
+    public void showBoardToWriter() {
+        this.game.showBoard( this.nowhere );
+    }
+}
@@ -0,0 +1,64 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of running ChessMoves on one of the move scripts in
+ * Tests/, from loading the board to the final "quit", with echo on and
+ * standard output thrown away.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ReplayBenchmark {
+
+    @Param( { "board-std_in1.txt", "board-std_in2.txt", "board4x2P_in1.txt",
+              "board4x4A_in1.txt", "board4x4A_in2.txt" } )
+    public String script;
+
+    private String[] args;
+    private byte[] input;
+    private Method main;
+    private InputStream keyboard;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() throws Exception {
+        String board = this.script.substring( 0, this.script.indexOf( "_in" ) );
+        this.args = new String[]{ Boards.TEST_DIR + board + ".txt", "echo" };
+        this.input = Files.readAllBytes(
+                Paths.get( Boards.TEST_DIR + this.script ) );
+        // ChessMoves is in the unnamed package, so it can only be
+        // reached by reflection from here.
+        this.main = Class.forName( "ChessMoves" )
+                         .getMethod( "main", String[].class );
+        this.keyboard = System.in;
+        this.console = System.out;
+        System.setOut( new PrintStream( OutputStream.nullOutputStream() ) );
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setIn( this.keyboard );
+        System.setOut( this.console );
+    }
+
+    @Benchmark
+    public void replay() throws Exception {
+        System.setIn( new ByteArrayInputStream( this.input ) );
+        this.main.invoke( null, (Object)this.args );
+    }
+}
@@ -0,0 +1,208 @@
+package edu.rit.cs.chess;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A load generator for {@link GameServer}: opens many sessions on one
+ * board, then has a few threads send commands round-robin across them,
+ * timing each from sending the command to receiving the prompt after
+ * it. Each session plays random legal moves, which it works out on a
+ * copy of the game of its own, and sometimes takes one back.
+ * <br/>
+ * Arguments, all optional, in order: the number of sessions (1000), the
+ * number of client threads (16), the number of commands per session
+ * (100), the board in Tests/ (board-std.txt), "changes" or "full" for
+ * what the server displays after each command (full), and the port of a
+ * server that is already running. Without a port a server is started in
+ * this process.
+ * @author RIT CS
+ */
+public final class ServerLoad {
+
+    /**
+     * One open session and the client's copy of its game
+     */
+    private static final class Client {
+        final Socket socket;
+        final InputStream in;
+        final OutputStream out;
+        final Game game;
+        final Random random;
+        int[] moves = new int[ 256 ];
+        int count;
+
+        Client( Socket socket, Game game, long seed ) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream( socket.getInputStream() );
+            this.out = socket.getOutputStream();
+            this.game = game;
+            this.random = new Random( seed );
+        }
+
+        /**
+         * Send a command and wait for the prompt after its result.
+         */
+        void send( String command ) throws IOException {
+            this.out.write( ( command + "\n" ).getBytes(
+                    StandardCharsets.UTF_8 ) );
+            this.out.flush();
+            awaitPrompt();
+        }
+
+        /**
+         * Read everything up to and including the next prompt.
+         */
+        void awaitPrompt() throws IOException {
+            int last2 = 0, last = 0;
+            for ( int b = this.in.read(); ; b = this.in.read() ) {
+                if ( b < 0 ) throw new IOException( "Session ended" );
+                if ( last2 == '\n' && last == '>' && b == ' ' ) return;
+                last2 = last;
+                last = b;
+            }
+        }
+
+        /**
+         * Choose the next command: a random legal move, or now and then
+         * (and always when there are none) an undo. The client's copy of
+         * the game is updated to match.
+         */
+        String next() {
+            this.count = 0;
+            this.game.generateAllMoves( ( from, to ) -> {
+                if ( this.count == this.moves.length ) {
+                    this.moves = Arrays.copyOf( this.moves,
+                                                2 * this.moves.length );
+                }
+                this.moves[ this.count++ ] = from;
+                this.moves[ this.count++ ] = to;
+            } );
+            if ( this.count == 0 ||
+                 this.game.undoDepth() > 0 && this.random.nextInt( 4 ) == 0 ) {
+                this.game.unmakeMove();
+                return Session.UNDO;
+            }
+            final int i = 2 * this.random.nextInt( this.count / 2 );
+            final int cols = this.game.numCols();
+            final int from = this.moves[ i ], to = this.moves[ i + 1 ];
+            this.game.tryMove( from / cols, from % cols, to / cols, to % cols );
+            return ( from / cols ) + " " + ( from % cols ) + " " +
+                   ( to / cols ) + " " + ( to % cols );
+        }
+    }
+
+    private ServerLoad() {}
+
+    /**
+     * Run the load.
+     * @param args see the class description
+     * @throws Exception if a session cannot be opened or breaks off
+     */
+    public static void main( String[] args ) throws Exception {
+        final int sessions = args.length > 0 ? Integer.parseInt( args[ 0 ] )
+                                             : 1000;
+        final int threads = args.length > 1 ? Integer.parseInt( args[ 1 ] )
+                                            : 16;
+        final int commands = args.length > 2 ? Integer.parseInt( args[ 2 ] )
+                                             : 100;
+        final String board = args.length > 3 ? args[ 3 ] : "board-std.txt";
+        final boolean changes = args.length > 4 &&
+                                args[ 4 ].equals( GameServer.CHANGES );
+        GameServer server = null;
+        int port;
+        if ( args.length > 5 ) {
+            port = Integer.parseInt( args[ 5 ] );
+        }
+        else {
+            server = new GameServer( new File( Boards.TEST_DIR ),
+                                     BoardStore.Kind.ARRAY );
+            server.start( 0 );
+            port = server.port();
+        }
+
+        Game start = new Game( Boards.TEST_DIR + board );
+        Client[] clients = new Client[ sessions ];
+        String first = GameServer.BOARD + " " + board +
+                       ( changes ? " " + GameServer.CHANGES : "" ) + "\n";
+        for ( int i = 0; i < sessions; ++i ) {
+            Socket socket = new Socket( InetAddress.getLoopbackAddress(),
+                                        port );
+            socket.setTcpNoDelay( true );
+            clients[ i ] = new Client( socket, new Game( start ), i );
+            clients[ i ].out.write( first.getBytes( StandardCharsets.UTF_8 ) );
+            clients[ i ].out.flush();
+            clients[ i ].awaitPrompt();
+        }
+
+        long[][] latencies = new long[ threads ][];
+        Thread[] workers = new Thread[ threads ];
+        Exception[] failure = new Exception[ 1 ];
+        final long begin = System.nanoTime();
+        for ( int t = 0; t < threads; ++t ) {
+            final int id = t;
+            workers[ t ] = new Thread( () -> {
+                int mine = ( sessions - id + threads - 1 ) / threads;
+                long[] times = new long[ mine * commands ];
+                int n = 0;
+                try {
+                    for ( int round = 0; round < commands; ++round ) {
+                        for ( int c = id; c < sessions; c += threads ) {
+                            String command = clients[ c ].next();
+                            final long sent = System.nanoTime();
+                            clients[ c ].send( command );
+                            times[ n++ ] = System.nanoTime() - sent;
+                        }
+                    }
+                }
+                catch ( IOException e ) {
+                    failure[ 0 ] = e;
+                }
+                latencies[ id ] = Arrays.copyOf( times, n );
+            } );
+            workers[ t ].start();
+        }
+        for ( Thread worker: workers ) worker.join();
+        final long elapsed = System.nanoTime() - begin;
+
+        for ( Client client: clients ) {
+            client.out.write( ( Session.END_GAME + "\n" ).getBytes(
+                    StandardCharsets.UTF_8 ) );
+            client.socket.close();
+        }
+        if ( server != null ) server.close();
+        if ( failure[ 0 ] != null ) throw failure[ 0 ];
+
+        long[] all = Arrays.stream( latencies ).flatMapToLong( Arrays::stream )
+                           .sorted().toArray();
+        System.out.printf( "%d sessions on %s (%s), %d client threads, " +
+                           "%d commands%n",
+                           sessions, board, changes ? "changes" : "full",
+                           threads, all.length );
+        System.out.printf( "throughput %.0f commands/s%n",
+                           all.length / ( elapsed / 1e9 ) );
+        System.out.printf( "latency us: p50 %.1f  p90 %.1f  p99 %.1f  " +
+                           "p99.9 %.1f  max %.1f%n",
+                           percentile( all, 0.50 ), percentile( all, 0.90 ),
+                           percentile( all, 0.99 ), percentile( all, 0.999 ),
+                           all[ all.length - 1 ] / 1e3 );
+    }
+
+    /**
+     * @param sorted latencies in nanoseconds, in increasing order
+     * @param p the fraction of latencies wanted at or below the result
+     * @return the latency in microseconds
+     */
+    private static double percentile( long[] sorted, double p ) {
+        final int i = (int)Math.ceil( p * sorted.length ) - 1;
+        return sorted[ Math.max( 0, i ) ] / 1e3;
+    }
+}
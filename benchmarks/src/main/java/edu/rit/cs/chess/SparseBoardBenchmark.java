@@ -0,0 +1,63 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a big board holding few pieces in an array store and in a
+ * sparse one: loading it, copying it, checking a path across it, and
+ * drawing it. Run with -prof gc to see the memory each store takes.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SparseBoardBenchmark {
+
+    @Param( { "random-300-300", "random-2000-300" } )
+    public String board;
+
+    @Param( { "ARRAY", "SPARSE" } )
+    public BoardStore.Kind store;
+
+    private String path;
+    private Game game;
+    private int last;
+    private PrintWriter nowhere;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.path = Boards.named( this.board );
+        this.game = new Game( this.path, this.store );
+        this.last = this.game.numRows() - 1;
+        this.nowhere = new PrintWriter( Writer.nullWriter() );
+    }
+
+    @Benchmark
+    public Game load() throws FileNotFoundException {
+        return new Game( this.path, this.store );
+    }
+
+    @Benchmark
+    public Game copy() {
+        return new Game( this.game );
+    }
+
+    @Benchmark
+    public boolean isClearPath() {
+        return this.game.isClearPath( 0, 0, this.last, this.last );
+    }
+
+    @Benchmark
+    public void showBoardToWriter() {
+        this.game.showBoard( this.nowhere );
+    }
+}
@@ -0,0 +1,87 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of solving puzzles whose starting position is its own mirror
+ * image, where the solver keys dead positions by their canonical hashes,
+ * and of others, where it does not. Also the cost of a move and its undo
+ * in a game that keeps its mirrored hashes up to date, against one that
+ * does not.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SymmetryBenchmark {
+
+    @Param( { "board-std.txt", "random-8-11", "mirror-7x7", "mirror-6x6P" } )
+    public String board;
+
+    private Game plain, tracked;
+    private int fromRow, fromCol, toRow, toCol;
+
+    /**
+     * Find a board by parameter value.
+     */
+    private static String path( String name ) throws IOException {
+        switch ( name ) {
+            case "mirror-7x7":
+                return Boards.write( 7, 7, "R0 0 2", "R1 0 4", "B2 6 1",
+                                     "B3 6 5", "K4 4 1", "K5 4 5", "N6 5 2",
+                                     "N7 5 4", "N8 6 0", "N9 6 6", "B10 2 0",
+                                     "B11 2 6" );
+            case "mirror-6x6P":
+                return Boards.write( 6, 6, "K0 0 0", "K1 0 5", "N2 5 0",
+                                     "N3 5 5", "R4 0 2", "R5 0 3", "P6 1 1",
+                                     "P7 1 4", "R8 1 2", "R9 1 3", "N10 2 2",
+                                     "N11 2 3" );
+            default:
+                return Boards.named( name );
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        final String path = path( this.board );
+        this.plain = new Game( path );
+        this.tracked = new Game( path );
+        this.tracked.canonicalHash();
+        MoveList moves = new MoveList();
+        this.plain.generateAllMoves( moves );
+        final int cols = this.plain.numCols();
+        this.fromRow = moves.from( 0 ) / cols;
+        this.fromCol = moves.from( 0 ) % cols;
+        this.toRow = moves.to( 0 ) / cols;
+        this.toCol = moves.to( 0 ) % cols;
+    }
+
+    @Benchmark
+    public long solve() {
+        Solver solver = new Solver( this.plain );
+        solver.solve();
+        return solver.nodes();
+    }
+
+    @Benchmark
+    public MoveStatus moveUndoPlain() {
+        MoveStatus status = this.plain.tryMove( this.fromRow, this.fromCol,
+                                                this.toRow, this.toCol );
+        this.plain.unmakeMove();
+        return status;
+    }
+
+    @Benchmark
+    public MoveStatus moveUndoTracked() {
+        MoveStatus status = this.tracked.tryMove( this.fromRow, this.fromCol,
+                                                  this.toRow, this.toCol );
+        this.tracked.unmakeMove();
+        return status;
+    }
+}
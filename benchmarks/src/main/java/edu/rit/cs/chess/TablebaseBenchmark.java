@@ -0,0 +1,58 @@
+package edu.rit.cs.chess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding out whether a small puzzle can be solved: by searching,
+ * and by looking it up in a tablebase. The tablebase covers 4x4 boards
+ * with up to 5 pieces and is made once per fork, which takes some
+ * seconds. One puzzle can be solved and the other cannot, so the search
+ * must try every series of captures.
+ * @author RIT CS
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class TablebaseBenchmark {
+
+    @Param( { "solvable", "unsolvable" } )
+    public String puzzle;
+
+    private Game searched, looked;
+
+    @Setup
+    public void setUp() throws IOException {
+        File file = File.createTempFile( "bench", ".tb" );
+        file.deleteOnExit();
+        file.delete();
+        Tablebase table = Tablebase.generate(
+                file.toPath(), 4, 4, 5,
+                Runtime.getRuntime().availableProcessors() );
+        final String path = this.puzzle.equals( "solvable" )
+                ? Boards.write( 4, 4, "Q1 0 0", "N2 1 2", "R3 3 0",
+                                "B4 2 1", "K5 3 3" )
+                : Boards.write( 4, 4, "B1 0 0", "B2 1 1", "B3 3 2",
+                                "N4 2 3", "N5 3 3" );
+        this.searched = new Game( path );
+        this.looked = new Game( path );
+        this.looked.useTablebase( table );
+    }
+
+    @Benchmark
+    public boolean search() {
+        return new Solver( this.searched ).solve();
+    }
+
+    @Benchmark
+    public boolean lookUp() {
+        return this.looked.isSolvable();
+    }
+}
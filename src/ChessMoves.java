@@ -1,9 +1,20 @@
-import edu.rit.cs.util.ActionResult;
-import edu.rit.cs.util.Coordinates;
+import edu.rit.cs.chess.Batch;
+import edu.rit.cs.chess.BoardStore;
 import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.Metrics;
+import edu.rit.cs.chess.MoveLog;
+import edu.rit.cs.chess.MoveRecorder;
+import edu.rit.cs.chess.Session;
+import edu.rit.cs.chess.Solver;
+import edu.rit.cs.chess.Tablebase;
 
 import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.Arrays;
+import javax.management.JMException;
 
 /**
  * Top-level class that runs the ChessMoves game
@@ -15,12 +26,12 @@ public class ChessMoves {
     /**
      * What the user types to end the program
      */
-    public static final String END_GAME = "quit";
+    public static final String END_GAME = Session.END_GAME;
 
     /**
-     * "Universal" new line
+     * What the user types to take back the last move
      */
-    private static final String NL = System.lineSeparator();
+    public static final String UNDO = Session.UNDO;
 
     /**
      * If true, the user's input is echoed in the output.
@@ -28,17 +39,86 @@ public class ChessMoves {
      */
     private static boolean echo = false;
 
+    /**
+     * Which representation the game uses for its board.
+     * Chosen with the --board=array|bitboard|sparse|auto option; by
+     * default it is chosen by how full the board is.
+     */
+    private static BoardStore.Kind boardKind = BoardStore.Kind.AUTO;
+
+    /**
+     * If true, instead of playing, search for a solution to the puzzle
+     * and print its moves. Chosen with the --solve option.
+     */
+    private static boolean solve = false;
+
+    /**
+     * Number of threads for work that can be split up.
+     * Chosen with the --threads option.
+     */
+    private static int threads = 1;
+
+    /**
+     * If not null, instead of playing, replay the games in this directory
+     * or manifest and check their output. Chosen with the --batch option.
+     */
+    private static String batch = null;
+
+    /**
+     * If not null, the file of a tablebase that the solver looks
+     * positions up in. Chosen with the --tablebase option.
+     */
+    private static String tablebase = null;
+
+    /**
+     * If true, after the first display of the board only the rows that
+     * have changed are displayed. Chosen with the --changes option.
+     */
+    private static boolean changes = false;
+
+    /**
+     * If not null, every command is recorded in a binary move log with
+     * this name. Chosen with the --record option.
+     */
+    private static String record = null;
+
+    /**
+     * If not null, the commands are read from a binary move log with this
+     * name instead of from standard input. Chosen with the --replay option.
+     */
+    private static String replay = null;
+
+    /**
+     * If true, moves, path checks, board loads and board drawings are
+     * counted and timed; the figures can be watched over JMX and are
+     * written to standard error when the program ends.
+     * Chosen with the --metrics option.
+     */
+    private static boolean metrics = false;
+
+    /**
+     * Prefix that distinguishes options from the other arguments
+     */
+    private static final String OPTION = "--";
+
     /** Failure code for bad command line */
     public static final int BAD_CMD_LINE = 1;
 
     /** Failure code for game initialization from file */
     public static final int BAD_CONFIG_FILE = 2;
 
+    /** Failure code for a puzzle that has no solution */
+    public static final int NO_SOLUTION = 3;
+
+    /** Failure code for a batch in which some game's output was wrong */
+    public static final int BATCH_FAILED = 4;
+
     /**
      * Run the chess moves program.
      * Board configuration comes from a file.
      * User move commands come from standard input.
-     * @param args [0]: configuration file name; [1] (opt) echo option
+     * @param args [0]: configuration file name; [1] (opt) echo option;
+     *             options starting with "--" may appear anywhere
      * @throws FileNotFoundException if the configuration file cannot be opened
      * @throws NumberFormatException if non-numerical coordinates are given
      */
@@ -46,9 +126,18 @@ public class ChessMoves {
             throws FileNotFoundException // when config file can't be read
     {
 
-        checkCommandLineArgs( args );
+        args = checkCommandLineArgs( args );
+
+        if ( metrics ) {
+            startMetrics();
+        }
+
+        if ( batch != null ) {
+            runBatch();
+            return;
+        }
 
-        Game game = new Game( args[ 0 ] );
+        Game game = new Game( args[ 0 ], boardKind );
 
         if ( !game.ok ) {
             // If something went wrong the Game object,
@@ -56,7 +145,84 @@ public class ChessMoves {
             System.exit( BAD_CONFIG_FILE ); // Exit program.
         }
 
-        playGame( game );
+        if ( solve ) {
+            solveGame( game );
+        }
+        else {
+            playGame( game );
+        }
+    }
+
+    /**
+     * Turn on the {@link Metrics}, make them visible over JMX, and have
+     * them written to standard error when the program ends, however it
+     * ends.
+     */
+    private static void startMetrics() {
+        Metrics recorded = Metrics.enable();
+        try {
+            recorded.register();
+        }
+        catch ( JMException e ) {
+            System.err.println( "Metrics not visible over JMX: " +
+                                e.getMessage() );
+        }
+        Runtime.getRuntime().addShutdownHook( new Thread( () -> {
+            System.out.flush();
+            System.err.print( recorded.getReport() );
+            System.err.flush();
+        } ) );
+    }
+
+    /**
+     * Search for a series of captures that leaves one piece, and print
+     * its moves in the form this program reads, so that they can be
+     * piped back into it. Statistics go to standard error.
+     * If there is no solution the program exits with a
+     * {@link ChessMoves#NO_SOLUTION} status.
+     *
+     * @param game The main object containing the board and pieces
+     */
+    private static void solveGame( Game game ) {
+        if ( tablebase != null ) {
+            try {
+                game.useTablebase( Tablebase.open( Path.of( tablebase ) ) );
+            }
+            catch ( IOException e ) {
+                System.err.println( "Tablebase not used: " +
+                                    e.getMessage() );
+            }
+        }
+        Solver solver = new Solver( game, threads );
+        boolean found = solver.solve();
+        solver.printStatistics( System.err );
+        if ( !found ) {
+            System.err.println( "No solution" );
+            System.exit( NO_SOLUTION );
+        }
+        solver.printSolution( System.out );
+    }
+
+    /**
+     * Replay the games named by the --batch option, all in this process,
+     * and print whether each one's output was right, with timings.
+     * If the games cannot be found the program exits with a
+     * {@link ChessMoves#BAD_CONFIG_FILE} status; if any fail, with a
+     * {@link ChessMoves#BATCH_FAILED} status.
+     */
+    private static void runBatch() {
+        Batch games;
+        try {
+            games = new Batch( batch, boardKind, threads );
+        }
+        catch ( IOException e ) {
+            System.out.println( "Cannot read batch: " + e.getMessage() );
+            System.exit( BAD_CONFIG_FILE );
+            return;
+        }
+        if ( games.run( System.out ) > 0 ) {
+            System.exit( BATCH_FAILED );
+        }
     }
 
     /**
@@ -69,70 +235,184 @@ public class ChessMoves {
      * its value, all input will be echoed to standard output.
      * This option should be used when user commands are coming from a test
      * file instead of from an actual console.
+     * <br/>
+     * Arguments starting with "--" are options, and are removed before
+     * the others are counted:
+     * <ul>
+     *     <li>--board=array|bitboard|sparse|auto chooses the board
+     *         representation</li>
+     *     <li>--solve prints a solution instead of reading moves</li>
+     *     <li>--threads N sets the number of threads to use</li>
+     *     <li>--tablebase FILE has the solver look positions up in a
+     *         tablebase made by {@link Tablebase}</li>
+     *     <li>--changes displays only the rows of the board that changed
+     *         after each move</li>
+     *     <li>--record FILE records the commands in a binary move log</li>
+     *     <li>--replay FILE reads the commands from a binary move log</li>
+     *     <li>--batch PATH replays the games in a directory or manifest
+     *         instead; no other arguments are then allowed</li>
+     *     <li>--metrics counts and times moves and board drawing, and
+     *         writes the figures to standard error at the end</li>
+     * </ul>
+     * Options with values may be written "--name=value" or "--name value".
      *
      * @param args the command line arguments
+     * @return the arguments that remain once options are removed
      */
-    private static void checkCommandLineArgs( String[] args ) {
-        if ( args.length == 2 ) {
+    private static String[] checkCommandLineArgs( String[] args ) {
+        int count = 0;
+        for ( int i = 0; i < args.length; ++i ) {
+            final String arg = args[ i ];
+            if ( !arg.startsWith( OPTION ) ) {
+                args[ count++ ] = arg;
+                continue;
+            }
+            final int eq = arg.indexOf( '=' );
+            String name = arg.substring( OPTION.length() );
+            String value = "";
+            if ( eq >= 0 ) {
+                name = arg.substring( OPTION.length(), eq );
+                value = arg.substring( eq + 1 );
+            }
+            else if ( takesValue( name ) && i + 1 < args.length ) {
+                value = args[ ++i ];
+            }
+            if ( !parseOption( name, value ) ) {
+                count = -1;
+                break;
+            }
+        }
+
+        if ( count == 2 ) {
             echo = true; // Echo all user input on the output.
         }
 
-        if ( args.length < 1 || args.length > 2 ) {
+        if ( batch != null ? count != 0 : count < 1 || count > 2 ) {
             System.out.println(
-                    "Usage: java ChessMoves board-setup-file [echo]" );
+                    "Usage: java ChessMoves " +
+                    "[--board=array|bitboard|sparse|auto] " +
+                    "[--solve] [--threads N] [--tablebase file] " +
+                    "[--changes] " +
+                    "[--record log-file] [--replay log-file] " +
+                    "[--metrics] board-setup-file [echo]" +
+                    System.lineSeparator() +
+                    "       java ChessMoves " +
+                    "[--board=array|bitboard|sparse|auto] " +
+                    "[--threads N] [--metrics] " +
+                    "--batch manifest-or-directory" );
             System.exit( BAD_CMD_LINE );
         }
+        return Arrays.copyOf( args, count );
     }
 
     /**
-     * The main game loop.
-     * User commands are read in.
-     * They are verified, and the game object is told to execute them.
-     * If a user command is not valid, an error message is printed and
-     * the game continues.
-     *
-     * @param game The main object containing the board and pieces
+     * Does an option need a value? If so, the value may follow an "="
+     * or be given as the next argument.
+     * @param name the option without its leading "--"
+     * @return true iff the option has a value
      */
-    private static void playGame( Game game ) {
-        Scanner console = new Scanner( System.in ); // User's move commands
-
-        game.showBoard();
-        System.out.print( NL + "> " ); // prompt
-
-        // Continue loop until end of file reached, or user quits.
-        while ( console.hasNextLine() ) {
-
-            // Read start row, start column, end row, end column.
-            //
-            String move = console.nextLine();
-            if ( echo ) System.out.println( move );
-            String[] parts = move.split( "\\s+" );
+    private static boolean takesValue( String name ) {
+        return name.equals( "board" ) || name.equals( "threads" ) ||
+               name.equals( "batch" ) || name.equals( "record" ) ||
+               name.equals( "replay" ) || name.equals( "tablebase" );
+    }
 
-            if ( parts.length != 4 ) {
-                // Special case for quitting below:
-                if ( parts.length == 1 &&
-                     parts[ 0 ].equalsIgnoreCase( END_GAME ) ) {
-                    break;
+    /**
+     * Set the static option fields from one option argument.
+     * @param name the option without its leading "--"
+     * @param value the option's value, or "" if it has none
+     * @return true iff the option and its value were recognized
+     */
+    private static boolean parseOption( String name, String value ) {
+        switch ( name ) {
+            case "board":
+                for ( BoardStore.Kind kind: BoardStore.Kind.values() ) {
+                    if ( kind.name().equalsIgnoreCase( value ) ) {
+                        boardKind = kind;
+                        return true;
+                    }
                 }
-                else {
-                    System.out.println( "Illegal move specification: " + move );
-                    continue; // Just have the user try again.
+                return false;
+            case "solve":
+                solve = value.isEmpty();
+                return solve;
+            case "threads":
+                try {
+                    threads = Integer.parseInt( value );
                 }
-            }
-
-            Coordinates pieceLoc =
-                    new Coordinates( parts[ 0 ], parts[ 1 ] );
-            Coordinates dest = new Coordinates( parts[ 2 ], parts[ 3 ] );
+                catch ( NumberFormatException e ) {
+                    return false;
+                }
+                return threads > 0;
+            case "changes":
+                changes = value.isEmpty();
+                return changes;
+            case "metrics":
+                metrics = value.isEmpty();
+                return metrics;
+            case "record":
+                record = value.isEmpty() ? null : value;
+                return record != null;
+            case "replay":
+                replay = value.isEmpty() ? null : value;
+                return replay != null;
+            case "tablebase":
+                tablebase = value.isEmpty() ? null : value;
+                return tablebase != null;
+            case "batch":
+                batch = value.isEmpty() ? null : value;
+                return batch != null;
+            default:
+                return false;
+        }
+    }
 
-            ActionResult result = game.makeMove( pieceLoc, dest );
-            if ( !result.ok ) {
-                System.out.println( result.message() );
+    /**
+     * Play the game on the console.
+     * User commands are read from standard input, or from a move log if
+     * the --replay option was given, and the board and messages go to
+     * standard output. If the --record option was given, the commands are
+     * also recorded in a move log.
+     * If the move log to replay cannot be read or is for a board of a
+     * different size, the program exits with a
+     * {@link ChessMoves#BAD_CONFIG_FILE} status.
+     * @see Session#play
+     *
+     * @param game The main object containing the board and pieces
+     * @throws FileNotFoundException if the move log cannot be created
+     */
+    private static void playGame( Game game ) throws FileNotFoundException {
+        Session session = new Session( game, echo, changes );
+        MoveLog log = null;
+        if ( replay != null ) {
+            try {
+                log = MoveLog.open( replay );
             }
+            catch ( IOException e ) {
+                System.out.println( "Cannot read move log: " + e.getMessage() );
+                System.exit( BAD_CONFIG_FILE );
+            }
+            if ( log.numRows() != game.numRows() ||
+                 log.numCols() != game.numCols() ) {
+                System.out.println( "Move log is for a " + log.numRows() +
+                                    "x" + log.numCols() + " board" );
+                System.exit( BAD_CONFIG_FILE );
+            }
+        }
+        MoveRecorder recorder = null;
+        if ( record != null ) {
+            recorder = new MoveRecorder( new FileOutputStream( record ),
+                                         game.numRows(), game.numCols() );
+            session.record( recorder );
+        }
 
-            // Get next move.
-            game.showBoard();
-            System.out.print( NL + "> " ); // prompt
+        PrintWriter out = new PrintWriter( System.out );
+        if ( log != null ) {
+            session.replay( log, out );
+        }
+        else {
+            session.play( System.in, out );
         }
-        console.close();
+        if ( recorder != null ) recorder.close();
     }
 }
@@ -0,0 +1,101 @@
+package edu.rit.cs.chess;
+
+/**
+ * A board store that keeps each cell's piece code in a plain array,
+ * row by row. This is the original representation used by {@link Game},
+ * and copying it is a single array copy.
+ * @author RIT CS
+ */
+class ArrayBoardStore implements BoardStore {
+
+    /**
+     * Board dimensions
+     */
+    private final int numRows, numCols;
+
+    /**
+     * The board cells, row by row: a piece code, or 0 if empty
+     */
+    private final int[] board;
+
+    /**
+     * Create a board of empty cells.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     */
+    ArrayBoardStore( int numRows, int numCols ) {
+        this( numRows, numCols, new int[ numRows * numCols ] );
+    }
+
+    private ArrayBoardStore( int numRows, int numCols, int[] board ) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.board = board;
+    }
+
+    @Override
+    public int numRows() { return this.numRows; }
+
+    @Override
+    public int numCols() { return this.numCols; }
+
+    @Override
+    public BoardStore copy() {
+        return new ArrayBoardStore( this.numRows, this.numCols,
+                                    this.board.clone() );
+    }
+
+    @Override
+    public int get( int row, int col ) {
+        return this.board[ row * this.numCols + col ];
+    }
+
+    @Override
+    public boolean occupied( int row, int col ) {
+        return this.board[ row * this.numCols + col ] != 0;
+    }
+
+    @Override
+    public void put( int row, int col, int piece ) {
+        this.board[ row * this.numCols + col ] = piece;
+    }
+
+    @Override
+    public void clear( int row, int col ) {
+        this.board[ row * this.numCols + col ] = 0;
+    }
+
+    @Override
+    public int move( int fromRow, int fromCol, int toRow, int toCol ) {
+        final int from = fromRow * this.numCols + fromCol;
+        final int to = toRow * this.numCols + toCol;
+        final int captured = this.board[ to ];
+        this.board[ to ] = this.board[ from ];
+        this.board[ from ] = 0;
+        return captured;
+    }
+
+    @Override
+    public boolean isEmpty( long[] mask, int offset ) {
+        final int words = ( this.board.length + 63 ) >>> 6;
+        for ( int w = 0; w < words; ++w ) {
+            for ( long bits = mask[ offset + w ]; bits != 0;
+                  bits &= bits - 1 ) {
+                final int i = ( w << 6 ) + Long.numberOfTrailingZeros( bits );
+                if ( this.board[ i ] != 0 ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int listOccupied( int[] cells ) {
+        int n = 0;
+        for ( int i = 0; i < this.board.length; ++i ) {
+            if ( this.board[ i ] != 0 ) cells[ n++ ] = i;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,248 @@
+package edu.rit.cs.chess;
+
+/**
+ * Which pieces of a {@link Game} can move to each cell, and which cells
+ * each piece can move to, kept up to date as the pieces move.
+ * Both are kept as bitsets of cells numbered row by row, as in
+ * {@link AttackTables}: one bitset of attackers per cell, and one bitset
+ * of targets per occupied cell, so asking either question costs a few
+ * words.
+ * <br/>
+ * When the pieces in some cells change, only what those cells can
+ * affect is worked out again. The targets of a king, knight, or pawn do
+ * not depend on where the other pieces are, so only the pieces in the
+ * changed cells need new targets; and a rook, bishop, or queen elsewhere
+ * is affected only if it could move to one of the changed cells, and
+ * then only along the one ray through that cell, which now stops sooner
+ * or goes further.
+ * <br/>
+ * The bitsets take 2 * cells * cells bits, so maps are kept only for
+ * boards of up to {@link #MAX_CELLS} cells.
+ * @author RIT CS
+ */
+final class AttackMap implements MoveSink {
+
+    /**
+     * Largest board, in cells, that a map is kept for
+     */
+    static final int MAX_CELLS = 1024;
+
+    /**
+     * The game whose pieces are mapped
+     */
+    private final Game game;
+
+    /**
+     * Board dimensions and the derived sizes
+     */
+    private final int numRows, numCols, cells, words;
+
+    /**
+     * attackers[cell * words ...] has bit i set iff the piece in cell i
+     * can move to the cell.
+     */
+    private final long[] attackers;
+
+    /**
+     * targets[cell * words ...] has bit i set iff the piece in the cell
+     * can move to cell i; all clear if the cell is empty.
+     */
+    private final long[] targets;
+
+    /**
+     * Attackers of the changed cells, saved before they are updated
+     */
+    private final long[] saved;
+
+    /**
+     * Map the pieces of a game as they are now.
+     * @param game the game
+     * @rit.pre the board has at most {@link #MAX_CELLS} cells
+     */
+    AttackMap( Game game ) {
+        this.game = game;
+        this.numRows = game.numRows();
+        this.numCols = game.numCols();
+        this.cells = this.numRows * this.numCols;
+        this.words = ( this.cells + 63 ) >>> 6;
+        this.attackers = new long[ this.cells * this.words ];
+        this.targets = new long[ this.cells * this.words ];
+        this.saved = new long[ 2 * this.words ];
+        game.generateAllMoves( this );
+    }
+
+    /**
+     * Note that a piece can move from one cell to another.
+     * @param from the piece's cell
+     * @param to the cell it can move to
+     */
+    @Override
+    public void move( int from, int to ) {
+        this.targets[ from * this.words + ( to >>> 6 ) ] |= 1L << to;
+        this.attackers[ to * this.words + ( from >>> 6 ) ] |= 1L << from;
+    }
+
+    /**
+     * Bring the map up to date after the pieces in one or two cells have
+     * changed, e.g. because a piece moved from one to the other.
+     * @param a a changed cell
+     * @param b another changed cell, or the same one
+     * @rit.pre the board already shows the change
+     */
+    void changed( int a, int b ) {
+        // Forget what the pieces that were in the cells could do.
+        clearTargets( a );
+        if ( b != a ) clearTargets( b );
+
+        // Lengthen or shorten the rays through the cells.
+        final int words = this.words;
+        System.arraycopy( this.attackers, a * words, this.saved, 0, words );
+        System.arraycopy( this.attackers, b * words, this.saved, words,
+                          words );
+        redoRays( a, 0 );
+        if ( b != a ) redoRays( b, words );
+
+        // Work out what the pieces now in the cells can do.
+        addTargets( a );
+        if ( b != a ) addTargets( b );
+    }
+
+    /**
+     * Remove what the piece in a cell could do.
+     * @param cell the cell
+     */
+    private void clearTargets( int cell ) {
+        final int words = this.words;
+        final long bit = 1L << cell;
+        final int word = cell >>> 6;
+        for ( int w = 0; w < words; ++w ) {
+            long bits = this.targets[ cell * words + w ];
+            this.targets[ cell * words + w ] = 0;
+            for ( ; bits != 0; bits &= bits - 1 ) {
+                final int to = ( w << 6 ) + Long.numberOfTrailingZeros( bits );
+                this.attackers[ to * words + word ] &= ~bit;
+            }
+        }
+    }
+
+    /**
+     * Add what the piece in a cell can do, if there is one.
+     * @param cell the cell
+     */
+    private void addTargets( int cell ) {
+        final int row = cell / this.numCols, col = cell % this.numCols;
+        final int piece = this.game.pieceCode( row, col );
+        if ( piece != 0 ) {
+            Piece.rules( piece ).generateMoves( this.game, row, col, this );
+        }
+    }
+
+    /**
+     * Work out again the ray through a cell of every rook, bishop, and
+     * queen that could move to it.
+     * @param cell the cell
+     * @param offset where the cell's attackers were saved in
+     *               {@link #saved}
+     */
+    private void redoRays( int cell, int offset ) {
+        final int row = cell / this.numCols, col = cell % this.numCols;
+        for ( int w = 0; w < this.words; ++w ) {
+            for ( long bits = this.saved[ offset + w ]; bits != 0;
+                  bits &= bits - 1 ) {
+                final int from =
+                        ( w << 6 ) + Long.numberOfTrailingZeros( bits );
+                final int r = from / this.numCols, c = from % this.numCols;
+                final PieceType type =
+                        Piece.typeOf( this.game.pieceCode( r, c ) );
+                if ( type == PieceType.ROOK || type == PieceType.BISHOP ||
+                     type == PieceType.QUEEN ) {
+                    redoRay( from, r, c, Integer.signum( row - r ),
+                             Integer.signum( col - c ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * Work out again one ray of a sliding piece: the cells up to and
+     * including the first occupied one. Both the old ray and the new one
+     * start at the piece, so the walk stops where both have ended.
+     * @param from the piece's cell
+     * @param row the piece's row
+     * @param col the piece's column
+     * @param dRow row step
+     * @param dCol column step
+     */
+    private void redoRay( int from, int row, int col, int dRow, int dCol ) {
+        final int words = this.words;
+        final long fromBit = 1L << from;
+        boolean open = true;
+        for ( int r = row + dRow, c = col + dCol;
+              0 <= r && r < this.numRows && 0 <= c && c < this.numCols;
+              r += dRow, c += dCol ) {
+            final int to = r * this.numCols + c;
+            final int t = from * words + ( to >>> 6 );
+            final long toBit = 1L << to;
+            final boolean had = ( this.targets[ t ] & toBit ) != 0;
+            if ( !open && !had ) break;
+            if ( open != had ) {
+                this.targets[ t ] ^= toBit;
+                this.attackers[ to * words + ( from >>> 6 ) ] ^= fromBit;
+            }
+            if ( open && this.game.occupied( r, c ) ) open = false;
+        }
+    }
+
+    /**
+     * List the set bits of one cell's bitset.
+     * @param bitsets the attackers or the targets
+     * @param cell the cell
+     * @return the cell numbers, in increasing order
+     */
+    private int[] list( long[] bitsets, int cell ) {
+        final int first = cell * this.words;
+        int count = 0;
+        for ( int w = 0; w < this.words; ++w ) {
+            count += Long.bitCount( bitsets[ first + w ] );
+        }
+        int[] list = new int[ count ];
+        int n = 0;
+        for ( int w = 0; w < this.words; ++w ) {
+            for ( long bits = bitsets[ first + w ]; bits != 0;
+                  bits &= bits - 1 ) {
+                list[ n++ ] = ( w << 6 ) + Long.numberOfTrailingZeros( bits );
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @param cell a cell
+     * @return the cells of the pieces that can move to it, in increasing
+     *         order
+     */
+    int[] attackersOf( int cell ) {
+        return list( this.attackers, cell );
+    }
+
+    /**
+     * @param cell a cell
+     * @return the cells the piece in it can move to, in increasing order,
+     *         or none if it is empty
+     */
+    int[] targetsOf( int cell ) {
+        return list( this.targets, cell );
+    }
+
+    /**
+     * @param cell a cell
+     * @return the number of pieces that can move to it
+     */
+    int attackerCount( int cell ) {
+        int count = 0;
+        for ( int w = 0; w < this.words; ++w ) {
+            count += Long.bitCount( this.attackers[ cell * this.words + w ] );
+        }
+        return count;
+    }
+}
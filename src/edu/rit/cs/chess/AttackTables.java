@@ -0,0 +1,185 @@
+package edu.rit.cs.chess;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed move geometry for one board size.
+ * For every cell there is a bitset of the cells each kind of piece could
+ * reach from it on an empty board, and for every pair of cells on a
+ * common line there is a bitset of the cells strictly between them.
+ * Cells are numbered row by row, as in {@link BitboardStore}.
+ * <br/>
+ * Tables are built the first time a board of a given size is created and
+ * are then shared by every {@link Game} of that size. They are immutable.
+ * Boards with more than {@link AttackTables#MAX_CELLS} cells get no tables;
+ * the pieces fall back to working out the geometry on each move.
+ * @author RIT CS
+ */
+final class AttackTables {
+
+    /**
+     * Largest board, in cells, for which tables are built.
+     * The between masks grow with the cube of the board width.
+     */
+    static final int MAX_CELLS = 256;
+
+    /**
+     * One set of tables per board size, keyed by rows and columns
+     */
+    private static final ConcurrentHashMap< Long, AttackTables > CACHE =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Board dimensions and the derived sizes
+     */
+    final int numRows, numCols, cells, words;
+
+    /**
+     * targets[t] holds, for each cell, words longs of the cells a piece of
+     * type t can move to from that cell on an empty board.
+     * Bishops and queens include their own cell, since the original rules
+     * let them "move" to where they already are.
+     */
+    private final long[][] targets;
+
+    /**
+     * For each ordered pair (from, to), the offset into between of the
+     * bitset of cells strictly between them, or -1 if they are not on a
+     * common horizontal, vertical, or diagonal line.
+     */
+    private final int[] betweenOffset;
+
+    /**
+     * All the between bitsets, words longs each.
+     * The first one, at offset 0, is empty.
+     */
+    final long[] between;
+
+    /**
+     * Get the tables for a board size, building them if this is the first
+     * board of that size.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     * @return the shared tables, or null if the board is too big
+     */
+    static AttackTables forBoard( int numRows, int numCols ) {
+        if ( numRows <= 0 || numCols <= 0 ||
+             (long)numRows * numCols > MAX_CELLS ) {
+            return null;
+        }
+        return CACHE.computeIfAbsent(
+                ( (long)numRows << 32 ) | numCols,
+                key -> new AttackTables( numRows, numCols ) );
+    }
+
+    /**
+     * Build all tables for a board size.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     */
+    private AttackTables( int numRows, int numCols ) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.cells = numRows * numCols;
+        this.words = ( this.cells + 63 ) >>> 6;
+
+        this.targets = new long[ PieceType.COUNT ][ this.cells * this.words ];
+        for ( int from = 0; from < this.cells; ++from ) {
+            final int r = from / numCols, c = from % numCols;
+            for ( int to = 0; to < this.cells; ++to ) {
+                final int dr = to / numCols - r, dc = to % numCols - c;
+                final int ar = Math.abs( dr ), ac = Math.abs( dc );
+                final boolean line = ( dr == 0 ) != ( dc == 0 );
+                final boolean diagonal = ar == ac;
+                if ( line ) set( PieceType.ROOK, from, to );
+                if ( diagonal ) set( PieceType.BISHOP, from, to );
+                if ( line || diagonal ) set( PieceType.QUEEN, from, to );
+                if ( ar * ac == 2 ) set( PieceType.KNIGHT, from, to );
+                if ( Math.max( ar, ac ) == 1 ) set( PieceType.KING, from, to );
+                if ( dr == -1 && dc == 0 ) set( PieceType.PAWN, from, to );
+            }
+        }
+
+        // Count the aligned pairs first so that the pool is allocated once.
+        this.betweenOffset = new int[ this.cells * this.cells ];
+        int masks = 1;
+        for ( int pair = 0; pair < this.betweenOffset.length; ++pair ) {
+            if ( attacks( PieceType.QUEEN, pair / this.cells,
+                          pair % this.cells ) ) {
+                ++masks;
+            }
+        }
+        this.between = new long[ masks * this.words ];
+        int next = this.words;
+        for ( int from = 0; from < this.cells; ++from ) {
+            for ( int to = 0; to < this.cells; ++to ) {
+                final int pair = from * this.cells + to;
+                if ( !attacks( PieceType.QUEEN, from, to ) ) {
+                    this.betweenOffset[ pair ] = -1;
+                    continue;
+                }
+                this.betweenOffset[ pair ] = next;
+                final int step =
+                        Integer.signum( to / numCols - from / numCols ) *
+                        numCols +
+                        Integer.signum( to % numCols - from % numCols );
+                for ( int i = from + step; step != 0 && i != to; i += step ) {
+                    this.between[ next + ( i >>> 6 ) ] |= 1L << i;
+                }
+                next += this.words;
+            }
+        }
+    }
+
+    /**
+     * Mark a cell as reachable for a type of piece.
+     * @param type the kind of piece
+     * @param from where it starts
+     * @param to where it can go
+     */
+    private void set( PieceType type, int from, int to ) {
+        this.targets[ type.ordinal() ][ from * this.words + ( to >>> 6 ) ] |=
+                1L << to;
+    }
+
+    /**
+     * Could a piece of the given type move between the cells if the board
+     * were empty?
+     * @param type the kind of piece
+     * @param from the starting cell number
+     * @param to the destination cell number
+     * @return true iff the geometry of the move is right for the piece
+     */
+    boolean attacks( PieceType type, int from, int to ) {
+        return ( this.targets[ type.ordinal() ]
+                         [ from * this.words + ( to >>> 6 ) ] &
+                 ( 1L << to ) ) != 0;
+    }
+
+    /**
+     * Could a piece of the given type move between the cells if the board
+     * were empty?
+     * @param type the kind of piece
+     * @param fromRow the starting row
+     * @param fromCol the starting column
+     * @param toRow the destination row
+     * @param toCol the destination column
+     * @return true iff the geometry of the move is right for the piece
+     */
+    boolean attacks( PieceType type, int fromRow, int fromCol,
+                     int toRow, int toCol ) {
+        return attacks( type, fromRow * this.numCols + fromCol,
+                        toRow * this.numCols + toCol );
+    }
+
+    /**
+     * Find the cells strictly between two cells.
+     * @param from the starting cell number
+     * @param to the ending cell number
+     * @return the offset into {@link AttackTables#between} of the bitset,
+     *         or -1 if the cells are not on a common line
+     */
+    int betweenOffset( int from, int to ) {
+        return this.betweenOffset[ from * this.cells + to ];
+    }
+}
@@ -0,0 +1,313 @@
+package edu.rit.cs.chess;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays many recorded games in one run and checks each one's output
+ * against what was expected. A game is a board setup file, a file of
+ * move commands, and a file holding the output ChessMoves should print,
+ * with echo on, when given those moves.
+ * <br/>
+ * The games come either from a directory, following the naming used in
+ * Tests/ (boardX.txt, boardX_inN.txt, boardX_outN.txt), or from a
+ * manifest file with one game per line: "board moves expected", paths
+ * relative to the manifest's directory. Blank lines and lines starting
+ * with {@link Game#COMMENT} are ignored.
+ * @author RIT CS
+ */
+public class Batch {
+
+    /**
+     * What the move file names have between the board's name and N
+     */
+    private static final String IN = "_in";
+
+    /**
+     * What the expected output file names have between the board's name
+     * and N
+     */
+    private static final String OUT = "_out";
+
+    /**
+     * The extension of all the files in a test directory
+     */
+    private static final String TXT = ".txt";
+
+    /**
+     * The files of one game
+     */
+    private static final class Replay {
+        final File board, moves, expected;
+
+        Replay( File board, File moves, File expected ) {
+            this.board = board;
+            this.moves = moves;
+            this.expected = expected;
+        }
+    }
+
+    /**
+     * How one game went
+     */
+    private static final class Outcome {
+        final boolean passed;
+        final long nanos;
+        final String why;
+
+        Outcome( boolean passed, long nanos, String why ) {
+            this.passed = passed;
+            this.nanos = nanos;
+            this.why = why;
+        }
+    }
+
+    /**
+     * The games to replay, in order
+     */
+    private final List< Replay > replays = new ArrayList<>();
+
+    /**
+     * The board representation to use
+     */
+    private final BoardStore.Kind kind;
+
+    /**
+     * How many games to replay at once
+     */
+    private final int threads;
+
+    /**
+     * Find the games to replay.
+     * @param path a directory of games or a manifest file
+     * @param kind the board representation to use
+     * @param threads how many games to replay at once
+     * @throws IOException if the directory or manifest cannot be read, or a
+     *                     manifest line does not name three files
+     * @rit.pre threads &gt; 0
+     */
+    public Batch( String path, BoardStore.Kind kind, int threads )
+            throws IOException {
+        this.kind = kind;
+        this.threads = threads;
+        File file = new File( path );
+        if ( file.isDirectory() ) {
+            findReplays( file );
+        }
+        else {
+            readManifest( file );
+        }
+    }
+
+    /**
+     * Add every boardX.txt / boardX_inN.txt / boardX_outN.txt triple in a
+     * directory, ordered by move file name.
+     * @param dir the directory
+     * @throws IOException if the directory cannot be listed
+     */
+    private void findReplays( File dir ) throws IOException {
+        String[] names = dir.list();
+        if ( names == null ) {
+            throw new IOException( "Cannot list " + dir );
+        }
+        Arrays.sort( names );
+        for ( String name: names ) {
+            int in = name.lastIndexOf( IN );
+            if ( in < 0 || !name.endsWith( TXT ) ) continue;
+            File board = new File( dir, name.substring( 0, in ) + TXT );
+            File expected = new File( dir, name.substring( 0, in ) + OUT +
+                                           name.substring( in + IN.length() ) );
+            if ( board.isFile() && expected.isFile() ) {
+                this.replays.add(
+                        new Replay( board, new File( dir, name ), expected ) );
+            }
+        }
+    }
+
+    /**
+     * Add the games listed in a manifest.
+     * @param manifest the manifest file
+     * @throws IOException if the manifest cannot be read or has a bad line
+     */
+    private void readManifest( File manifest ) throws IOException {
+        File dir = manifest.getAbsoluteFile().getParentFile();
+        try ( Scanner in = new Scanner( manifest, StandardCharsets.UTF_8 ) ) {
+            while ( in.hasNextLine() ) {
+                String line = in.nextLine().trim();
+                if ( line.isEmpty() || line.charAt( 0 ) == Game.COMMENT ) {
+                    continue;
+                }
+                String[] parts = line.split( "\\s+" );
+                if ( parts.length != 3 ) {
+                    throw new IOException( "Improper manifest line: " + line );
+                }
+                this.replays.add( new Replay( resolve( dir, parts[ 0 ] ),
+                                              resolve( dir, parts[ 1 ] ),
+                                              resolve( dir, parts[ 2 ] ) ) );
+            }
+        }
+    }
+
+    /**
+     * Find a file named in a manifest.
+     * @param dir the manifest's directory
+     * @param name an absolute path, or one relative to dir
+     * @return the file
+     */
+    private static File resolve( File dir, String name ) {
+        File file = new File( name );
+        return file.isAbsolute() ? file : new File( dir, name );
+    }
+
+    /**
+     * @return the number of games found
+     */
+    public int size() {
+        return this.replays.size();
+    }
+
+    /**
+     * Replay all the games, then report how each went, in order, followed
+     * by a summary line.
+     * @param report where to print the results
+     * @return the number of games that failed
+     */
+    public int run( PrintStream report ) {
+        long start = System.nanoTime();
+        List< Outcome > outcomes = new ArrayList<>();
+        if ( this.threads == 1 ) {
+            for ( Replay replay: this.replays ) {
+                outcomes.add( replay( replay ) );
+            }
+        }
+        else {
+            ExecutorService pool = Executors.newFixedThreadPool( this.threads );
+            try {
+                List< Future< Outcome > > futures = new ArrayList<>();
+                for ( Replay replay: this.replays ) {
+                    futures.add( pool.submit( () -> replay( replay ) ) );
+                }
+                for ( Future< Outcome > future: futures ) {
+                    outcomes.add( future.get() );
+                }
+            }
+            catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( e );
+            }
+            catch ( ExecutionException e ) {
+                throw new IllegalStateException( e.getCause() );
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int failed = 0;
+        for ( int i = 0; i < outcomes.size(); ++i ) {
+            Outcome outcome = outcomes.get( i );
+            report.printf( "%s %s %.3f ms%s%n",
+                           outcome.passed ? "PASS" : "FAIL",
+                           this.replays.get( i ).moves.getPath(),
+                           outcome.nanos / 1e6,
+                           outcome.passed ? "" : ": " + outcome.why );
+            if ( !outcome.passed ) ++failed;
+        }
+        report.printf( "%d game(s), %d passed, %d failed, %d thread(s), " +
+                       "%.3f s%n",
+                       outcomes.size(), outcomes.size() - failed, failed,
+                       this.threads, elapsed / 1e9 );
+        return failed;
+    }
+
+    /**
+     * Play one game with echo on and compare its output to what was
+     * expected. Differences in line endings are ignored.
+     * @param replay the game's files
+     * @return how it went
+     */
+    private Outcome replay( Replay replay ) {
+        long start = System.nanoTime();
+        StringWriter output = new StringWriter();
+        String expected;
+        try {
+            byte[] moves = read( replay.moves );
+            expected = new String( read( replay.expected ),
+                                   StandardCharsets.UTF_8 );
+            // Complaints about the setup file are part of the output, and
+            // a game that cannot be set up ends there, as in ChessMoves.
+            PrintWriter out = new PrintWriter( output );
+            Game game = new Game( replay.board.getPath(), this.kind, out );
+            if ( game.ok ) {
+                new Session( game, true ).play(
+                        new ByteArrayInputStream( moves ), out );
+            }
+            out.flush();
+        }
+        catch ( FileNotFoundException e ) {
+            return new Outcome( false, System.nanoTime() - start,
+                                "no such file " + e.getMessage() );
+        }
+        catch ( IOException | RuntimeException e ) {
+            return new Outcome( false, System.nanoTime() - start,
+                                e.toString() );
+        }
+        long nanos = System.nanoTime() - start;
+        String actual = output.toString().replace( "\r\n", "\n" );
+        expected = expected.replace( "\r\n", "\n" );
+        if ( actual.equals( expected ) ) {
+            return new Outcome( true, nanos, null );
+        }
+        return new Outcome( false, nanos, firstDifference( expected, actual ) );
+    }
+
+    /**
+     * Read a whole file.
+     * @param file the file
+     * @return its contents
+     * @throws IOException if it cannot be read
+     */
+    private static byte[] read( File file ) throws IOException {
+        if ( !file.isFile() ) {
+            throw new FileNotFoundException( file.getPath() );
+        }
+        return Files.readAllBytes( file.toPath() );
+    }
+
+    /**
+     * Describe where two outputs first differ.
+     * @param expected the output wanted
+     * @param actual the output printed
+     * @return the line number and the two versions of that line
+     * @rit.pre expected and actual are not equal
+     */
+    private static String firstDifference( String expected, String actual ) {
+        String[] want = expected.split( "\n", -1 );
+        String[] got = actual.split( "\n", -1 );
+        int line = 0;
+        while ( line < want.length && line < got.length &&
+                want[ line ].equals( got[ line ] ) ) {
+            ++line;
+        }
+        return "line " + ( line + 1 ) + ": expected " +
+               ( line < want.length ? '"' + want[ line ] + '"' : "end" ) +
+               " but got " +
+               ( line < got.length ? '"' + got[ line ] + '"' : "end" );
+    }
+}
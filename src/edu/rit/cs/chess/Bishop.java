@@ -1,43 +1,80 @@
 package edu.rit.cs.chess;
 
-import edu.rit.cs.util.ActionResult;
-import edu.rit.cs.util.Coordinates;
-
 /**
- * This is the class representing the bishop.
+ * This is the class holding the rules for the bishop.
  * @author Ryan Nowak
  */
 public class Bishop extends Piece{
 
     /**
-     * Constructs a new bishop
-     * @param name Name of chess piece
-     * @param pos Position of piece on board
-     * @param board Board to place the piece on
+     * The four directions a bishop slides in
+     */
+    private static final int[][] DIAGONAL = {
+            { -1, -1 }, { -1, 1 }, { 1, 1 }, { 1, -1 }
+    };
+
+    /**
+     * Constructs the rules for bishops; there is only one
      */
-    public Bishop(String name, Coordinates pos, Game board) {
-        super(name, pos, board);
+    Bishop() {}
+
+    /**
+     * Gets the kind of piece this is
+     * @return PieceType.BISHOP
+     */
+    @Override
+    public PieceType type() {
+        return PieceType.BISHOP;
     }
 
     /**
      * Checks if move is legal for bishop
-     * @param newPos Coordinates of new position
-     * @return ActionResult.OK if move is legal.
-     * Else, returns ActionResult w/ error message.
+     * @param board Board the bishop is on
+     * @param row Row of the bishop
+     * @param column Column of the bishop
+     * @param newRow Row of new position
+     * @param newCol Column of new position
+     * @return MoveStatus.OK if move is legal.
+     * Else, returns the reason it is not.
      */
-    public ActionResult isLegalMove(Coordinates newPos) {
-        Coordinates pos = this.getPos();
-        if ((newPos.row() + newPos.column() == pos.row() + pos.column()) ||
-                (newPos.row() - pos.row() == newPos.column() - pos.column())) {
-            if (!getBoard().isClearPath(pos, newPos)) {
-                return new ActionResult("The way is blocked: " + getPos() + " -> " + newPos);
+    @Override
+    protected MoveStatus checkMove(Game board, int row, int column,
+                                   int newRow, int newCol) {
+        AttackTables tables = board.tables();
+        boolean reachable;
+        if (tables != null) {
+            reachable = tables.attacks(PieceType.BISHOP, row, column,
+                                       newRow, newCol);
+        }
+        else {
+            reachable = (newRow + newCol == row + column) ||
+                    (newRow - row == newCol - column);
+        }
+        if (reachable) {
+            if (!board.isClearPath(row, column, newRow, newCol)) {
+                return MoveStatus.BLOCKED;
             }
             else {
-                return ActionResult.OK;
+                return MoveStatus.OK;
             }
         }
         else {
-            return new ActionResult("Illegal bishop move " + newPos);
+            return MoveStatus.ILLEGAL;
+        }
+    }
+
+    /**
+     * Reports every legal move for bishop
+     * @param board Board the bishop is on
+     * @param row Row of the bishop
+     * @param column Column of the bishop
+     * @param sink receives each move as a pair of cell numbers
+     */
+    @Override
+    public void generateMoves(Game board, int row, int column,
+                              MoveSink sink) {
+        for (int[] d : DIAGONAL) {
+            slide(board, row, column, d[0], d[1], sink);
         }
     }
 }
@@ -0,0 +1,182 @@
+package edu.rit.cs.chess;
+
+/**
+ * A board store that packs occupancy into bitsets of longs, one bit per
+ * cell, numbered row by row. There is one bitset for all occupied cells
+ * and one for each {@link PieceType}. Boards with more than 64 cells,
+ * such as 13x13, use several words per bitset.
+ * Piece codes themselves are kept in a flat array indexed the same way
+ * so that names can still be shown.
+ * @author RIT CS
+ */
+class BitboardStore implements BoardStore {
+
+    /**
+     * Board dimensions
+     */
+    private final int numRows, numCols;
+
+    /**
+     * Bit i is set iff cell i is occupied.
+     */
+    private final long[] occupied;
+
+    /**
+     * byType[t] has bit i set iff cell i holds a piece of type t.
+     */
+    private final long[][] byType;
+
+    /**
+     * The code of the piece in each cell, or 0
+     */
+    private final int[] pieces;
+
+    /**
+     * Create a board of empty cells.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     */
+    BitboardStore( int numRows, int numCols ) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        final int cells = numRows * numCols;
+        final int words = ( cells + 63 ) >>> 6;
+        this.occupied = new long[ words ];
+        this.byType = new long[ PieceType.COUNT ][ words ];
+        this.pieces = new int[ cells ];
+    }
+
+    /**
+     * Copy a store.
+     * @param other the store to copy
+     */
+    private BitboardStore( BitboardStore other ) {
+        this.numRows = other.numRows;
+        this.numCols = other.numCols;
+        this.occupied = other.occupied.clone();
+        this.byType = new long[ PieceType.COUNT ][];
+        for ( int t = 0; t < PieceType.COUNT; ++t ) {
+            this.byType[ t ] = other.byType[ t ].clone();
+        }
+        this.pieces = other.pieces.clone();
+    }
+
+    @Override
+    public int numRows() { return this.numRows; }
+
+    @Override
+    public int numCols() { return this.numCols; }
+
+    @Override
+    public BoardStore copy() {
+        return new BitboardStore( this );
+    }
+
+    /**
+     * Convert coordinates to a cell (bit) number.
+     * @param row the row
+     * @param col the column
+     * @return the cell's index in row-major order
+     */
+    private int cell( int row, int col ) {
+        return row * this.numCols + col;
+    }
+
+    /**
+     * Is bit i of the occupancy set?
+     * @param i the cell index
+     * @return true iff cell i is occupied
+     */
+    private boolean test( int i ) {
+        return ( this.occupied[ i >>> 6 ] & ( 1L << i ) ) != 0;
+    }
+
+    /**
+     * Set the bits for a piece in cell i.
+     * @param i the cell index
+     * @param piece the code of the piece now in that cell
+     */
+    private void set( int i, int piece ) {
+        final long bit = 1L << i;
+        this.occupied[ i >>> 6 ] |= bit;
+        this.byType[ Piece.typeOf( piece ).ordinal() ][ i >>> 6 ] |= bit;
+        this.pieces[ i ] = piece;
+    }
+
+    /**
+     * Clear the bits for cell i.
+     * @param i the cell index
+     * @return the code of the piece that was there, or 0
+     */
+    private int reset( int i ) {
+        final int piece = this.pieces[ i ];
+        if ( piece != 0 ) {
+            final long mask = ~( 1L << i );
+            this.occupied[ i >>> 6 ] &= mask;
+            this.byType[ Piece.typeOf( piece ).ordinal() ][ i >>> 6 ] &= mask;
+            this.pieces[ i ] = 0;
+        }
+        return piece;
+    }
+
+    /**
+     * Get the occupancy bitset for one kind of piece.
+     * @param type the kind of piece
+     * @return the live bitset (do not modify)
+     */
+    long[] occupancy( PieceType type ) {
+        return this.byType[ type.ordinal() ];
+    }
+
+    @Override
+    public int get( int row, int col ) {
+        return this.pieces[ cell( row, col ) ];
+    }
+
+    @Override
+    public boolean occupied( int row, int col ) {
+        return test( cell( row, col ) );
+    }
+
+    @Override
+    public void put( int row, int col, int piece ) {
+        final int i = cell( row, col );
+        reset( i );
+        set( i, piece );
+    }
+
+    @Override
+    public void clear( int row, int col ) {
+        reset( cell( row, col ) );
+    }
+
+    @Override
+    public int move( int fromRow, int fromCol, int toRow, int toCol ) {
+        final int to = cell( toRow, toCol );
+        final int captured = reset( to );
+        set( to, reset( cell( fromRow, fromCol ) ) );
+        return captured;
+    }
+
+    @Override
+    public boolean isEmpty( long[] mask, int offset ) {
+        for ( int w = 0; w < this.occupied.length; ++w ) {
+            if ( ( this.occupied[ w ] & mask[ offset + w ] ) != 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int listOccupied( int[] cells ) {
+        int n = 0;
+        for ( int w = 0; w < this.occupied.length; ++w ) {
+            for ( long bits = this.occupied[ w ]; bits != 0;
+                  bits &= bits - 1 ) {
+                cells[ n++ ] = ( w << 6 ) + Long.numberOfTrailingZeros( bits );
+            }
+        }
+        return n;
+    }
+}
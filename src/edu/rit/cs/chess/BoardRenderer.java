@@ -0,0 +1,350 @@
+package edu.rit.cs.chess;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Draws a game's board as text. The whole picture is built in a reused
+ * buffer and handed to the output in one call, so drawing a board whose
+ * pieces have been drawn before allocates nothing. The pieces of a game
+ * are found from the list of occupied cells, and the runs of empty cells
+ * between them are copied in one go, so the cost of drawing a big board
+ * with few pieces is little more than that of copying its text.
+ * The text is exactly what the original printf-based showBoard printed:
+ * <pre>
+ *
+ *      0  1  2
+ *  0  __ R1 __
+ *  1  K  __ __
+ *
+ * </pre>
+ * The renderer remembers the last picture it drew, so it can also draw
+ * just the rows that have changed since then.
+ * @author RIT CS
+ */
+final class BoardRenderer {
+
+    /**
+     * "Universal" new line, as println writes it
+     */
+    private static final String NL = System.lineSeparator();
+
+    /**
+     * What an empty cell looks like
+     */
+    private static final String EMPTY = "__ ";
+
+    /**
+     * Width of a cell, and of a column number
+     */
+    private static final int CELL = 3;
+
+    /**
+     * The game whose board is drawn, or null if it is given by
+     * {@link #names}
+     */
+    private final Game game;
+
+    /**
+     * The names of the pieces on the board being drawn, row by row, with
+     * null for an empty cell; or null if it is given by {@link #game}
+     */
+    private final String[] names;
+
+    /**
+     * Board dimensions
+     */
+    private final int numRows, numCols;
+
+    /**
+     * The blank line and column number line that start every picture
+     */
+    private final String header;
+
+    /**
+     * A row of empty cells
+     */
+    private final String emptyRow;
+
+    /**
+     * The occupied cells of the game's board, in increasing order
+     */
+    private int[] cells = new int[ 0 ];
+
+    /**
+     * The picture being built
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * The rows of the last picture drawn, one after the other, without
+     * their line separators
+     */
+    private char[] last = new char[ 0 ];
+
+    /**
+     * Where each row of the last picture starts in {@link #last}; the
+     * entry after the last row is where it ends. Null until a picture
+     * has been drawn.
+     */
+    private int[] lastStart;
+
+    /**
+     * Where each row of the picture being built starts in {@link #text}
+     */
+    private final int[] rowStart;
+
+    /**
+     * The numbers of the rows that have changed, in order
+     */
+    private final int[] changed;
+
+    /**
+     * Copy of {@link #text} for writers, which take char arrays
+     */
+    private char[] chars = new char[ 0 ];
+
+    /**
+     * Set up a renderer for a game's board.
+     * @param game the game whose board to draw
+     */
+    BoardRenderer( Game game ) {
+        this( game, null, game.numRows(), game.numCols() );
+    }
+
+    /**
+     * Set up a renderer for a board given by the names of its pieces.
+     * @param names the names, row by row, with null for an empty cell;
+     *              they must not change
+     * @param numRows number of rows
+     * @param numCols number of columns
+     */
+    BoardRenderer( String[] names, int numRows, int numCols ) {
+        this( null, names, numRows, numCols );
+    }
+
+    private BoardRenderer( Game game, String[] names,
+                           int numRows, int numCols ) {
+        this.game = game;
+        this.names = names;
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.rowStart = new int[ numRows + 1 ];
+        this.changed = new int[ numRows ];
+        StringBuilder header = new StringBuilder( NL ).append( "    " );
+        for ( int c = 0; c < numCols; ++c ) {
+            pad( header, c ).append( ' ' );
+        }
+        this.header = header.append( NL ).toString();
+        this.emptyRow = EMPTY.repeat( numCols );
+    }
+
+    /**
+     * Draw the whole board.
+     * @param out where to draw it
+     * @throws IOException if out does
+     */
+    void render( Appendable out ) throws IOException {
+        final Metrics metrics = Metrics.current();
+        final long start = metrics == null ? 0 : System.nanoTime();
+        build();
+        out.append( this.text );
+        copyRows();
+        if ( metrics != null ) {
+            metrics.recordRender( System.nanoTime() - start );
+        }
+    }
+
+    /**
+     * Draw the whole board.
+     * @param out where to draw it
+     */
+    void render( PrintWriter out ) {
+        final Metrics metrics = Metrics.current();
+        final long start = metrics == null ? 0 : System.nanoTime();
+        build();
+        write( out );
+        copyRows();
+        if ( metrics != null ) {
+            metrics.recordRender( System.nanoTime() - start );
+        }
+    }
+
+    /**
+     * Draw the column numbers and the rows that differ from the last
+     * picture drawn, with the same blank lines around them as a whole
+     * board. If nothing has been drawn yet, the whole board is drawn.
+     * @param out where to draw it
+     */
+    void renderChanges( PrintWriter out ) {
+        final Metrics metrics = Metrics.current();
+        final long start = metrics == null ? 0 : System.nanoTime();
+        build();
+        if ( this.lastStart == null ) {
+            write( out );
+            copyRows();
+        }
+        else {
+            keepChangedRows();
+            write( out );
+        }
+        if ( metrics != null ) {
+            metrics.recordRender( System.nanoTime() - start );
+        }
+    }
+
+    /**
+     * Build the whole picture in {@link #text}, noting where each
+     * row starts.
+     */
+    private void build() {
+        StringBuilder text = this.text;
+        text.setLength( 0 );
+        text.append( this.header );
+        final int rows = this.numRows, cols = this.numCols;
+        int count = 0;
+        if ( this.game != null ) {
+            if ( this.cells.length < this.game.pieceCount() ) {
+                this.cells = new int[ this.game.pieceCount() ];
+            }
+            count = this.game.listOccupied( this.cells );
+        }
+        int next = 0;
+        for ( int r = 0; r < rows; ++r ) {
+            this.rowStart[ r ] = text.length();
+            pad( text, r ).append( "  " );
+            if ( this.names != null ) {
+                for ( int c = 0; c < cols; ++c ) {
+                    cell( text, this.names[ r * cols + c ] );
+                }
+            }
+            else {
+                // Copy the empty cells before each piece in the row,
+                // then those after the last one.
+                final int first = r * cols;
+                int c = 0;
+                for ( ; next < count && this.cells[ next ] < first + cols;
+                      ++next ) {
+                    final int col = this.cells[ next ] - first;
+                    text.append( this.emptyRow, 0, ( col - c ) * CELL );
+                    cell( text, this.game.pieceName( r, col ) );
+                    c = col + 1;
+                }
+                text.append( this.emptyRow, 0, ( cols - c ) * CELL );
+            }
+            text.append( NL );
+        }
+        this.rowStart[ rows ] = text.length();
+        text.append( NL );
+    }
+
+    /**
+     * Append one cell.
+     * @param text where to append it
+     * @param name the name of the piece in the cell, or null if it is
+     *             empty
+     */
+    private static void cell( StringBuilder text, String name ) {
+        if ( name == null ) {
+            text.append( EMPTY );
+        }
+        else {
+            text.append( name );
+            for ( int i = name.length(); i < CELL; ++i ) {
+                text.append( ' ' );
+            }
+        }
+    }
+
+    /**
+     * Copy the rows of the whole picture in {@link #text} into
+     * {@link #last}, so the next picture can be compared with it.
+     * @rit.pre {@link #build()} has just been called
+     */
+    private void copyRows() {
+        final int rows = this.numRows;
+        if ( this.lastStart == null ) {
+            this.lastStart = new int[ rows + 1 ];
+        }
+        final int nl = NL.length();
+        int length = 0;
+        for ( int r = 0; r < rows; ++r ) {
+            length += this.rowStart[ r + 1 ] - this.rowStart[ r ] - nl;
+        }
+        if ( this.last.length < length ) {
+            this.last = new char[ length ];
+        }
+        int at = 0;
+        for ( int r = 0; r < rows; ++r ) {
+            this.lastStart[ r ] = at;
+            final int start = this.rowStart[ r ];
+            final int end = this.rowStart[ r + 1 ] - nl;
+            this.text.getChars( start, end, this.last, at );
+            at += end - start;
+        }
+        this.lastStart[ rows ] = at;
+    }
+
+    /**
+     * Save the rows of the whole picture, then cut the rows that are the
+     * same as in the last picture out of {@link #text}.
+     * @rit.pre {@link #build()} has just been called, and a picture has
+     *          been drawn before
+     */
+    private void keepChangedRows() {
+        final int rows = this.numRows;
+        final int nl = NL.length();
+        final int[] changed = this.changed;
+        int count = 0;
+        for ( int r = 0; r < rows; ++r ) {
+            final int start = this.rowStart[ r ];
+            final int length = this.rowStart[ r + 1 ] - nl - start;
+            final int lastFrom = this.lastStart[ r ];
+            boolean same = this.lastStart[ r + 1 ] - lastFrom == length;
+            for ( int i = 0; same && i < length; ++i ) {
+                same = this.text.charAt( start + i ) ==
+                       this.last[ lastFrom + i ];
+            }
+            if ( !same ) changed[ count++ ] = r;
+        }
+        copyRows();
+
+        // Slide the changed rows down over the unchanged ones.
+        int at = this.header.length();
+        for ( int i = 0; i < count; ++i ) {
+            final int start = this.rowStart[ changed[ i ] ];
+            final int end = this.rowStart[ changed[ i ] + 1 ];
+            for ( int j = start; j < end; ++j ) {
+                this.text.setCharAt( at++, this.text.charAt( j ) );
+            }
+        }
+        this.text.setLength( at );
+        this.text.append( NL );
+    }
+
+    /**
+     * Hand the picture in {@link #text} to a writer in one call.
+     * @param out the writer
+     */
+    private void write( PrintWriter out ) {
+        final int length = this.text.length();
+        if ( this.chars.length < length ) {
+            this.chars = Arrays.copyOf( this.chars, length );
+        }
+        this.text.getChars( 0, length, this.chars, 0 );
+        out.write( this.chars, 0, length );
+    }
+
+    /**
+     * Append a number right-justified in two characters, as "%2d" would.
+     * @param text where to append it
+     * @param n the number
+     * @return text
+     * @rit.pre n &ge; 0
+     */
+    private static StringBuilder pad( StringBuilder text, int n ) {
+        if ( n < 10 ) text.append( ' ' );
+        return text.append( n );
+    }
+}
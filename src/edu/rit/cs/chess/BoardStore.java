@@ -0,0 +1,158 @@
+package edu.rit.cs.chess;
+
+/**
+ * Storage for the cells of a {@link Game} board.
+ * The game delegates every question about what is where to an
+ * implementation of this interface, so that the representation
+ * can be chosen to suit the board and the workload.
+ * Pieces are stored as the int codes described in {@link Piece}, with
+ * 0 for an empty cell, so a store holds no objects per piece.
+ * All coordinates are assumed to be in bounds; the Game checks them.
+ * @author RIT CS
+ */
+public interface BoardStore {
+
+    /**
+     * The available implementations
+     */
+    enum Kind {
+        /** A plain array of piece codes */
+        ARRAY,
+        /** Occupancy bitsets per piece type, one bit per cell */
+        BITBOARD,
+        /** A hash table of the occupied cells only */
+        SPARSE,
+        /**
+         * ARRAY or SPARSE, whichever suits how full the board is; see
+         * {@link #forDensity(int, int, int)}. A store of this kind starts
+         * out SPARSE, and the {@link Game} moves its pieces into an ARRAY
+         * store once they have all been placed, if that suits them better.
+         */
+        AUTO;
+
+        /**
+         * Smallest board, in cells, that {@link #AUTO} keeps sparse
+         */
+        public static final int SPARSE_MIN_CELLS = 1 << 12;
+
+        /**
+         * {@link #AUTO} keeps a board sparse if at most one cell in this
+         * many is occupied.
+         */
+        public static final int SPARSE_MAX_DENSITY = 16;
+
+        /**
+         * Choose the representation for a board and the pieces on it.
+         * An array takes 4 bytes per cell and a hash table takes some
+         * 24 to 48 bytes per piece, and finding a piece in an array is
+         * quicker, so only big, thinly filled boards are kept sparse.
+         * @param numRows number of rows on the board
+         * @param numCols number of columns on the board
+         * @param pieces number of pieces on the board
+         * @return SPARSE or ARRAY
+         */
+        public static Kind forDensity( int numRows, int numCols,
+                                       int pieces ) {
+            final long cells = (long)numRows * numCols;
+            return cells >= SPARSE_MIN_CELLS &&
+                   (long)pieces * SPARSE_MAX_DENSITY <= cells
+                   ? SPARSE : ARRAY;
+        }
+
+        /**
+         * Create an empty store of this kind.
+         * @param numRows number of rows on the board
+         * @param numCols number of columns on the board
+         * @return the new store
+         */
+        public BoardStore create( int numRows, int numCols ) {
+            switch ( this ) {
+                case BITBOARD:
+                    return new BitboardStore( numRows, numCols );
+                case SPARSE:
+                case AUTO:
+                    return new SparseBoardStore( numRows, numCols );
+                default:
+                    return new ArrayBoardStore( numRows, numCols );
+            }
+        }
+    }
+
+    /**
+     * @return the number of rows on the board
+     */
+    int numRows();
+
+    /**
+     * @return the number of columns on the board
+     */
+    int numCols();
+
+    /**
+     * Make an independent copy of this store, with the same pieces.
+     * @return the copy
+     */
+    BoardStore copy();
+
+    /**
+     * Get a piece on the board.
+     * @param row the cell's row
+     * @param col the cell's column
+     * @return the code of the piece at that cell, or 0 if the cell is empty
+     */
+    int get( int row, int col );
+
+    /**
+     * Is any piece at this location?
+     * @param row the cell's row
+     * @param col the cell's column
+     * @return true iff there is a piece in the cell
+     */
+    boolean occupied( int row, int col );
+
+    /**
+     * Put a piece in a cell, replacing whatever was there.
+     * @param row the cell's row
+     * @param col the cell's column
+     * @param piece the code of the piece to put there (not 0)
+     */
+    void put( int row, int col, int piece );
+
+    /**
+     * Empty a cell.
+     * @param row the cell's row
+     * @param col the cell's column
+     */
+    void clear( int row, int col );
+
+    /**
+     * Move the piece in one cell to another, removing any piece
+     * already at the destination.
+     * @param fromRow row of the moving piece
+     * @param fromCol column of the moving piece
+     * @param toRow destination row
+     * @param toCol destination column
+     * @return the code of the piece that was removed from the destination,
+     *         or 0
+     * @rit.pre the start cell is occupied and differs from the destination
+     */
+    int move( int fromRow, int fromCol, int toRow, int toCol );
+
+    /**
+     * Are all cells in a bitset empty?
+     * Cells are numbered row by row, bit i of the set being bit i % 64
+     * of word offset + i / 64.
+     * @param mask the array holding the bitset
+     * @param offset the index of the bitset's first word
+     * @return true iff none of the cells in the set is occupied
+     */
+    boolean isEmpty( long[] mask, int offset );
+
+    /**
+     * List the occupied cells, numbered row by row, in increasing order.
+     * @param cells where to put the cell numbers; it must be long enough
+     *              to hold one per piece on the board
+     * @return the number of cells listed
+     */
+    int listOccupied( int[] cells );
+}
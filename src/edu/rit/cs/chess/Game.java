@@ -2,15 +2,24 @@ package edu.rit.cs.chess;
 
 import edu.rit.cs.util.ActionResult;
 import edu.rit.cs.util.Coordinates;
+import edu.rit.cs.util.FieldReader;
 
-import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
 
 /**
  * This is the class representing the entire solitaire chess game.
  * An instance of this class contains the board and the pieces currently
- * on the board.
+ * on the board. The pieces are kept as int codes (see {@link Piece}),
+ * so copying a game copies its board as one array, and the pieces' names
+ * are kept once each in a table of names.
  * @author RIT CS
  * @author Ryan Nowak
  */
@@ -34,29 +43,204 @@ public class Game {
     public final boolean ok;
 
     /**
-     * A 2D array of board cells
+     * The board cells
      */
-    private Piece[][] board;
+    private BoardStore board;
+
+    /**
+     * Which representation the board uses; AUTO only until the game has
+     * been set up
+     */
+    private BoardStore.Kind kind;
+
+    /**
+     * Move geometry shared by all boards of this size, or null if the
+     * board is too big to have tables
+     */
+    private AttackTables tables;
+
+    /**
+     * The occupied cells by row, column, and diagonal, for checking paths
+     * on boards too big to have tables; null if the board has tables
+     */
+    private LineIndex lines;
+
+    /**
+     * The code of the piece removed by the most recent successful move,
+     * or 0
+     */
+    private int captured;
+
+    /**
+     * The other pieces' names, by number, starting at 1.
+     * Names are added only while a game is being set up, so a copy of a
+     * game shares the table until it adds a name of its own.
+     */
+    private String[] names = new String[ 8 ];
+
+    /**
+     * Number of entries in use in {@link #names}, counting entry 0
+     */
+    private int nameCount = 1;
+
+    /**
+     * Is {@link #names} shared with the game this one is a copy of?
+     */
+    private boolean namesShared;
+
+    /**
+     * The number of each name in {@link #names}; made when a name is
+     * first looked up
+     */
+    private HashMap< String, Integer > nameIds;
+
+    /**
+     * The Zobrist keys for boards of this size
+     */
+    private Zobrist zobrist;
+
+    /**
+     * Zobrist hash of the types of the pieces on each cell, kept up to date
+     * as pieces are placed, removed, and moved
+     */
+    private long hash;
+
+    /**
+     * Draws the board; created when it is first displayed
+     */
+    private BoardRenderer renderer;
+
+    /**
+     * Number of pieces on the board
+     */
+    private int pieceCount;
+
+    /**
+     * Reusable list of occupied cells for move generation
+     */
+    private int[] pieceCells = new int[ 16 ];
+
+    /**
+     * Where the moves of one piece are listed when they are not in the
+     * move cache; made when first needed
+     */
+    private MoveList pieceMoves;
+
+    /**
+     * What {@link Game#legalMoves(int, int)} returns for an empty cell
+     */
+    private static final int[] NO_MOVES = new int[ 0 ];
+
+    /**
+     * The cells each piece can move to in positions seen before, or null
+     * if legality is always worked out afresh
+     */
+    private MoveCache moveCache;
+
+    /**
+     * Which pieces can move to each cell, kept up to date as the pieces
+     * move; made when first asked for, and only for boards of up to
+     * {@link AttackMap#MAX_CELLS} cells
+     */
+    private AttackMap attacks;
+
+    /**
+     * Solved positions to look this game's positions up in, or null
+     */
+    private Tablebase tablebase;
+
+    /**
+     * The hashes of the position seen through each symmetry of the board,
+     * kept up to date as the pieces move; made when a canonical hash is
+     * first asked for
+     */
+    private SymmetricHashes symmetric;
+
+    /**
+     * The undo stack, kept in a ring. For each successful move still on
+     * the stack, undoCells holds the starting and ending cell numbers
+     * (row-major), and undoCaptured holds the code of the piece it
+     * captured, or 0. The arrays grow by doubling up to the undo limit;
+     * once the stack is that deep, each new move takes the place of the
+     * oldest one. So making a move allocates nothing except while the
+     * stack is still growing, and a long game takes bounded memory.
+     */
+    private int[] undoCells = new int[ 2 * 16 ];
+    private int[] undoCaptured = new int[ 16 ];
+
+    /**
+     * Where in the ring the oldest move on the undo stack is
+     */
+    private int undoStart;
+
+    /**
+     * Number of moves on the undo stack
+     */
+    private int undoDepth;
+
+    /**
+     * Most moves the undo stack holds
+     */
+    private int undoLimit = DEFAULT_UNDO_LIMIT;
+
+    /**
+     * Most moves a new game's undo stack holds
+     */
+    public static final int DEFAULT_UNDO_LIMIT = 1 << 12;
 
     /**
      * Initialize the game -- both the board and the pieces.
+     * The board's representation is chosen by how full it is
+     * ({@link BoardStore.Kind#AUTO}).
      * @param setupFileName Line 1 contains dimensions. The rest are pieces.
      * @throws FileNotFoundException if the file could not be processed
      * @throws NumberFormatException if non-integer data is provided in the file
      *                               where integers were required
      */
     public Game( String setupFileName ) throws FileNotFoundException {
-        Scanner setupFile = new Scanner( new File( setupFileName ) );
+        this( setupFileName, BoardStore.Kind.AUTO );
+    }
+
+    /**
+     * Initialize the game -- both the board and the pieces.
+     * @param setupFileName Line 1 contains dimensions. The rest are pieces.
+     * @param kind the representation to use for the board
+     * @throws FileNotFoundException if the file could not be processed
+     * @throws NumberFormatException if non-integer data is provided in the file
+     *                               where integers were required
+     */
+    public Game( String setupFileName, BoardStore.Kind kind )
+            throws FileNotFoundException {
+        this( setupFileName, kind, new PrintWriter( System.out, true ) );
+    }
+
+    /**
+     * Initialize the game -- both the board and the pieces -- writing
+     * any complaints about the setup file to a given writer rather than
+     * to standard output, e.g. so that they reach a network client or are
+     * checked along with the rest of a replayed game's output.
+     * @param setupFileName Line 1 contains dimensions. The rest are pieces.
+     * @param kind the representation to use for the board
+     * @param messages where to write complaints about the file's lines
+     * @throws FileNotFoundException if the file could not be processed
+     * @throws NumberFormatException if non-integer data is provided in the file
+     *                               where integers were required
+     */
+    public Game( String setupFileName, BoardStore.Kind kind,
+                 PrintWriter messages ) throws FileNotFoundException {
+        final Metrics metrics = Metrics.current();
+        final long start = metrics == null ? 0 : System.nanoTime();
+        this.kind = kind;
+        FieldReader setupFile =
+                new FieldReader( new FileInputStream( setupFileName ) );
 
         // Open the file and read the first line -- board dimensions
-        String firstLine;
         do {
-            firstLine = setupFile.nextLine();
-        } while ( firstLine.charAt( 0 ) == '#' );
-        String[] dims = firstLine.split( "\\s+" );
-        if ( dims.length != 2 ) {
-            System.out.println(
-                    "Improper first line of config file: " + firstLine
+            setupFile.nextLine();
+        } while ( setupFile.firstByte() == COMMENT );
+        if ( setupFile.fieldCount() != 2 ) {
+            messages.println(
+                    "Improper first line of config file: " + setupFile.line()
             );
             this.ok = false;
             // The following lines exist only to silence compiler warnings.
@@ -67,166 +251,1003 @@ public class Game {
             // First line (board dimensions) seems good.
             // One of the next two lines could have a parse-int error,
             // but we don't explicitly handle that. Program will crash.
-            this.numRows = Integer.parseInt( dims[ 0 ] );
-            this.numCols = Integer.parseInt( dims[ 1 ] );
+            this.numRows = setupFile.intField( 0 );
+            this.numCols = setupFile.intField( 1 );
 
-            // Create a matrix of null pieces.
-            this.board = new Piece[ this.numRows ][ this.numCols ];
+            // Create a board of empty cells.
+            this.board = kind.create( this.numRows, this.numCols );
+            this.tables = AttackTables.forBoard( this.numRows, this.numCols );
+            if ( this.tables == null ) {
+                this.lines = new LineIndex( this.numRows, this.numCols );
+            }
+            this.zobrist = Zobrist.forBoard( this.numRows, this.numCols );
+            this.hash = this.zobrist.empty;
 
             // Read the rest of the file.
             // Each line has information on a new piece.
-            while ( setupFile.hasNextLine() ) {
-                final String line = setupFile.nextLine();
+            while ( setupFile.nextLine() ) {
 
                 // Skip blank lines and comment lines.
-                if ( line.length() == 0 ||
-                     line.charAt( 0 ) == COMMENT ) continue; // Go to next line.
+                if ( setupFile.length() == 0 ||
+                     setupFile.firstByte() == COMMENT ) {
+                    continue; // Go to next line.
+                }
 
-                String[] pieces = line.split( "\\s+" );
-                if ( pieces.length != 3 ) {
-                    System.out.println( "Improper config line: " + line );
+                if ( setupFile.fieldCount() != 3 ) {
+                    messages.println(
+                            "Improper config line: " + setupFile.line() );
                     continue; // Go to next line.
                 }
 
-                Coordinates pos = new Coordinates( pieces[ 1 ], pieces[ 2 ] );
-                if ( pos.row() < 0 || pos.row() >= numRows ) {
-                    System.out.println( "Illegal row: " + line );
+                final int row = setupFile.intField( 1 );
+                final int col = setupFile.intField( 2 );
+                if ( row < 0 || row >= numRows ) {
+                    messages.println( "Illegal row: " + setupFile.line() );
                     continue; // Go to next line.
                 }
-                if ( pos.column() < 0 || pos.column() >= numCols ) {
-                    System.out.println( "Illegal column: " + line );
+                if ( col < 0 || col >= numCols ) {
+                    messages.println( "Illegal column: " +
+                                      setupFile.line() );
                     continue; // Go to next line.
                 }
 
                 // Using the first letter of the piece's name, determine
-                // what kind of piece it is, and create an instance of
-                // the correct subclass of Piece.
+                // what kind of piece it is, and put it on the board.
+                // A piece whose name is illegal is skipped.
+                addPiece( setupFile.field( 0 ), row, col );
+            }
+            chooseBoard();
+            this.ok = true;
+        }
+        setupFile.close();
+        if ( metrics != null ) metrics.recordLoad( System.nanoTime() - start );
+    }
+
+    /**
+     * Make an independent copy of a game, with its own board and pieces,
+     * e.g. so that another thread can search from the same position.
+     * The board is copied as it is stored, and the table of names is
+     * shared. The copy has no moves to undo.
+     * @param other the game to copy
+     * @rit.pre other.ok
+     */
+    public Game( Game other ) {
+        this.kind = other.kind;
+        this.numRows = other.numRows;
+        this.numCols = other.numCols;
+        this.board = other.board.copy();
+        this.tables = other.tables;
+        this.lines = other.lines == null ? null : other.lines.copy();
+        this.zobrist = other.zobrist;
+        this.hash = other.hash;
+        this.pieceCount = other.pieceCount;
+        this.names = other.names;
+        this.nameCount = other.nameCount;
+        this.namesShared = true;
+        this.moveCache = other.moveCache;
+        this.tablebase = other.tablebase;
+        this.undoLimit = other.undoLimit;
+        this.symmetric =
+                other.symmetric == null ? null : other.symmetric.copy();
+        this.ok = true;
+    }
 
-                Piece piece = createPiece( pieces[ 0 ], pos );
-                if ( piece == null ) continue; // Piece name was illegal.
+    /**
+     * Set up a game in a given position. Each piece is named by its
+     * type's letter alone, since positions do not hold names.
+     * The board's representation is chosen by how full it is
+     * ({@link BoardStore.Kind#AUTO}).
+     * @param position the position
+     */
+    public Game( Position position ) {
+        this( position, BoardStore.Kind.AUTO );
+    }
 
-                // Put the new piece on the board.
-                placePiece( pos, piece );
+    /**
+     * Set up a game in a given position. Each piece is named by its
+     * type's letter alone, since positions do not hold names.
+     * @param position the position
+     * @param kind the representation to use for the board
+     */
+    public Game( Position position, BoardStore.Kind kind ) {
+        this( kind, position.numRows(), position.numCols() );
+        for ( int r = 0; r < numRows; ++r ) {
+            for ( int c = 0; c < numCols; ++c ) {
+                PieceType type = position.get( r, c );
+                if ( type != null ) {
+                    placePiece( r, c, Piece.encode( type, 0 ) );
+                }
             }
-            setupFile.close();
-            this.ok = true;
         }
+        chooseBoard();
     }
 
     /**
-     * Put the given piece at the given position.
-     * This will erase any piece that is already there.
-     * @param pos the given position
-     * @param piece the given piece
+     * Initialize a game with an empty board, e.g. to be filled from a
+     * snapshot. Once it has been filled, {@link #chooseBoard()} must be
+     * called.
+     * @param kind the representation to use for the board
+     * @param numRows number of rows
+     * @param numCols number of columns
      */
-    private void placePiece( Coordinates pos, Piece piece ) {
-        if(occupied(pos)) { clearCell(pos); }
-        board[pos.row()][pos.column()] = piece;
-        piece.setPos(pos);
+    Game( BoardStore.Kind kind, int numRows, int numCols ) {
+        this.kind = kind;
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.board = kind.create( this.numRows, this.numCols );
+        this.tables = AttackTables.forBoard( this.numRows, this.numCols );
+        if ( this.tables == null ) {
+            this.lines = new LineIndex( this.numRows, this.numCols );
+        }
+        this.zobrist = Zobrist.forBoard( this.numRows, this.numCols );
+        this.hash = this.zobrist.empty;
+        this.ok = true;
     }
 
     /**
-     * Is any piece at this location?
-     * @param pos the location on the board
-     * @return true iff there is a piece at the location
+     * Save the board -- its size and pieces -- in a compact binary form.
+     * The undo history is not saved.
+     * @param out where to write the snapshot; it is written in one call
+     *            and not closed
+     * @throws IOException if out cannot be written
+     * @see Game#readSnapshot(InputStream, BoardStore.Kind)
+     */
+    public void writeSnapshot( OutputStream out ) throws IOException {
+        Snapshot.write( this, out );
+    }
+
+    /**
+     * Load a board saved by {@link Game#writeSnapshot(OutputStream)}.
+     * The board's representation is chosen by how full it is
+     * ({@link BoardStore.Kind#AUTO}).
+     * @param in where to read the snapshot
+     * @return the game, with no moves to undo
+     * @throws IOException if in cannot be read or does not hold a snapshot
+     * @see Game#readSnapshot(InputStream, BoardStore.Kind)
+     */
+    public static Game readSnapshot( InputStream in ) throws IOException {
+        return readSnapshot( in, BoardStore.Kind.AUTO );
+    }
+
+    /**
+     * Load a board saved by {@link Game#writeSnapshot(OutputStream)}.
+     * Exactly the snapshot's bytes are read, so several snapshots can be
+     * read one after another from the same stream. Since the stream is
+     * read in small pieces, it should be buffered.
+     * @param in where to read the snapshot
+     * @param kind the representation to use for the board
+     * @return the game, with no moves to undo
+     * @throws IOException if in cannot be read or does not hold a snapshot
+     */
+    public static Game readSnapshot( InputStream in, BoardStore.Kind kind )
+            throws IOException {
+        final Metrics metrics = Metrics.current();
+        if ( metrics == null ) return Snapshot.read( in, kind );
+        final long start = System.nanoTime();
+        Game game = Snapshot.read( in, kind );
+        metrics.recordLoad( System.nanoTime() - start );
+        return game;
+    }
+
+    /**
+     * Take an unchanging copy of the current position, which can be
+     * kept, shared between threads, or compared with others.
+     * @return the position
+     */
+    public Position position() {
+        byte[] cells = Position.newCells( numRows * numCols );
+        final int n = listPieceCells();
+        for ( int i = 0; i < n; ++i ) {
+            final int cell = this.pieceCells[ i ];
+            final int piece = board.get( cell / numCols, cell % numCols );
+            Position.setCode( cells, cell,
+                              Piece.typeOf( piece ).ordinal() + 1 );
+        }
+        return new Position( numRows, numCols, pieceCount, hash, zobrist,
+                             cells );
+    }
+
+    /**
+     * Save the board in the text form the constructor reads: the
+     * dimensions, then one line per piece, "name row column", row by row.
+     * @param out where to write it
+     */
+    public void writeSetup( PrintWriter out ) {
+        out.println( numRows + " " + numCols );
+        final int[] cells = new int[ pieceCount ];
+        final int n = board.listOccupied( cells );
+        for ( int i = 0; i < n; ++i ) {
+            final int r = cells[ i ] / numCols, c = cells[ i ] % numCols;
+            out.println( name( board.get( r, c ) ) + " " + r + " " + c );
+        }
+        out.flush();
+    }
+
+    /**
+     * If the board's representation is to be chosen by how full it is,
+     * choose it now that the game has been set up. The pieces were
+     * placed in a sparse store, so they are moved only if the board
+     * turns out to be too full for one.
+     */
+    void chooseBoard() {
+        if ( this.kind != BoardStore.Kind.AUTO ) return;
+        this.kind = BoardStore.Kind.forDensity( numRows, numCols,
+                                                pieceCount );
+        if ( this.kind == BoardStore.Kind.SPARSE ) return;
+        BoardStore chosen = this.kind.create( numRows, numCols );
+        final int[] cells = new int[ pieceCount ];
+        final int n = board.listOccupied( cells );
+        for ( int i = 0; i < n; ++i ) {
+            final int r = cells[ i ] / numCols, c = cells[ i ] % numCols;
+            chosen.put( r, c, board.get( r, c ) );
+        }
+        this.board = chosen;
+    }
+
+    /**
+     * @return the representation the board uses; never
+     *         {@link BoardStore.Kind#AUTO}
+     */
+    public BoardStore.Kind boardKind() {
+        return this.kind;
+    }
+
+    /**
+     * List the occupied cells, numbered row by row, in increasing order.
+     * @param cells where to put the cell numbers; it must be at least
+     *              {@link #pieceCount()} long
+     * @return the number of cells listed
+     */
+    int listOccupied( int[] cells ) {
+        return board.listOccupied( cells );
+    }
+
+    /**
+     * List the occupied cells into the game's own reusable list, which
+     * the next call, or generating moves, overwrites.
+     * @return the number of cells listed
+     * @see #pieceCells()
+     */
+    private int listPieceCells() {
+        if ( this.pieceCells.length < pieceCount ) {
+            this.pieceCells = new int[ 2 * pieceCount ];
+        }
+        return board.listOccupied( this.pieceCells );
+    }
+
+    /**
+     * List the occupied cells, numbered row by row, in increasing order,
+     * without allocating anything. The list is the game's own, and is
+     * overwritten by the next call and by generating moves.
+     * @return the list; its first {@link #pieceCount()} entries are the
+     *         cells
+     */
+    int[] pieceCells() {
+        listPieceCells();
+        return this.pieceCells;
+    }
+
+    /**
+     * Replace all the pieces on the board, e.g. to go through many
+     * positions on one game. The new pieces have no names, and there are
+     * no moves to undo.
+     * @param cells the cell numbers of the new pieces
+     * @param types the ordinal of each new piece's type
+     * @param count the number of new pieces
+     */
+    void setPieces( int[] cells, int[] types, int count ) {
+        if ( pieceCount > 0 ) {
+            final int n = listPieceCells();
+            for ( int i = 0; i < n; ++i ) {
+                clearCell( this.pieceCells[ i ] / numCols,
+                           this.pieceCells[ i ] % numCols );
+            }
+        }
+        for ( int i = 0; i < count; ++i ) {
+            placePiece( cells[ i ] / numCols, cells[ i ] % numCols,
+                        Piece.encode( PieceType.of( types[ i ] ), 0 ) );
+        }
+        this.undoStart = 0;
+        this.undoDepth = 0;
+        this.captured = 0;
+    }
+
+    /**
+     * Put a new piece on the board, replacing any that is already there.
+     * @param name the piece's name, whose first letter gives its type
+     * @param row the cell's row
+     * @param col the cell's column
+     * @return the piece's type, or null if the name does not start with
+     *         a piece letter, in which case nothing is placed
+     * @rit.pre the cell is in bounds
+     */
+    PieceType addPiece( String name, int row, int col ) {
+        PieceType type = PieceType.fromLetter( name.charAt( 0 ) );
+        if ( type == null ) return null;
+        placePiece( row, col, Piece.encode( type, nameId( name, type ) ) );
+        return type;
+    }
+
+    /**
+     * Find the number of a piece's name, adding the name to the table if
+     * it is new.
+     * @param name the piece's name
+     * @param type the piece's type, which the name starts with
+     * @return 0 if the name is the type's letter alone, or the name's
+     *         number in the table
+     */
+    private int nameId( String name, PieceType type ) {
+        if ( name.length() == 1 && name.charAt( 0 ) == type.letter ) {
+            return 0;
+        }
+        if ( this.nameIds == null ) {
+            this.nameIds = new HashMap<>();
+            for ( int id = 1; id < this.nameCount; ++id ) {
+                this.nameIds.put( this.names[ id ], id );
+            }
+        }
+        Integer id = this.nameIds.get( name );
+        if ( id != null ) return id;
+        if ( this.namesShared || this.nameCount == this.names.length ) {
+            this.names = Arrays.copyOf( this.names, 2 * this.nameCount );
+            this.namesShared = false;
+        }
+        this.names[ this.nameCount ] = name;
+        this.nameIds.put( name, this.nameCount );
+        return this.nameCount++;
+    }
+
+    /**
+     * Get the name of a piece, as the setup file gave it.
+     * @param piece the piece's code (not 0)
+     * @return the name
      */
-    private boolean occupied( Coordinates pos ) {
-        return board[pos.row()][pos.column()] != null;
+    String name( int piece ) {
+        final int id = Piece.nameId( piece );
+        return id == 0 ? Piece.typeOf( piece ).letterName : this.names[ id ];
+    }
+
+    /**
+     * Put the given piece at the given position.
+     * This will erase any piece that is already there.
+     * @param row the cell's row
+     * @param col the cell's column
+     * @param piece the code of the given piece
+     */
+    private void placePiece( int row, int col, int piece ) {
+        clearCell(row, col);
+        board.put(row, col, piece);
+        if (lines != null) { lines.add(row, col); }
+        ++pieceCount;
+        hash ^= zobrist.key(Piece.typeOf(piece), cell(row, col));
+        if (attacks != null) {
+            attacks.changed(cell(row, col), cell(row, col));
+        }
+        if (symmetric != null) {
+            symmetric.added(Piece.typeOf(piece), cell(row, col));
+        }
     }
 
     /**
      * Get a piece on the board.
      * @param dest board cell coordinates
-     * @return the piece at that cell, or null if no piece is at that cell
+     * @return the code of the piece at that cell, or 0 if no piece is at
+     *         that cell
      */
-    private Piece getPiece( Coordinates dest ) {
-        return board[dest.row()][dest.column()];
+    private int getPiece( Coordinates dest ) {
+        return board.get(dest.row(), dest.column());
     }
 
     /**
-     * Remove a piece from the board, e.g., due to capture.
-     * @param pos board cell coordinates
+     * Remove a piece from the board, if there is one.
+     * @param row the cell's row
+     * @param col the cell's column
      */
-    private void clearCell( Coordinates pos ) {
-        board[pos.row()][pos.column()] = null;
+    private void clearCell( int row, int col ) {
+        int piece = board.get(row, col);
+        if (piece != 0) {
+            hash ^= zobrist.key(Piece.typeOf(piece), cell(row, col));
+            board.clear(row, col);
+            if (lines != null) { lines.remove(row, col); }
+            --pieceCount;
+            if (attacks != null) {
+                attacks.changed(cell(row, col), cell(row, col));
+            }
+            if (symmetric != null) {
+                symmetric.removed(Piece.typeOf(piece), cell(row, col));
+            }
+        }
     }
 
     /**
-     * Create a new piece and put it on the board
-     * @param pieceName the name's first letter determines the piece type.
-     *                  Case of that letter can be lower or upper.
-     *                  R-rook; N-knight; B-bishop; Q-queen; K-king; P-pawn
-     * @param pos coordinates of board cell in which to place the piece
-     * @return an instance of a subclass of Piece based on the arguments,
-     *         or null, if the pieceName was illegal
+     * Number a cell, counting row by row.
+     * @param row the cell's row
+     * @param col the cell's column
+     * @return row * numCols + col
      */
-    private Piece createPiece( String pieceName, Coordinates pos ) {
-        Piece result = null;
-        if (pieceName.charAt(0) == 'R' || pieceName.charAt(0) == 'r') {
-            result = new Rook(pieceName, pos, this);
-        }
-        else if (pieceName.charAt(0) == 'N' || pieceName.charAt(0) == 'n') {
-            result = new Knight(pieceName, pos, this);
+    int cell( int row, int col ) {
+        return row * numCols + col;
+    }
+
+    /**
+     * Get a 64-bit hash of the current position, for caching and
+     * comparing positions. It depends on the board size and on the type of
+     * piece on each cell, but not on the pieces' names or on how the
+     * position was reached. Equal positions always have equal hashes;
+     * different positions almost never do.
+     * @return the position's Zobrist hash
+     */
+    public long positionHash() {
+        return hash;
+    }
+
+    /**
+     * Get one hash for the current position and every position that is
+     * the same but for a reflection or rotation of the board that keeps
+     * the rules: the left-right mirror, or, when there are no pawns, any
+     * symmetry that keeps the board's shape. Searches and caches keyed by
+     * it keep each class of such positions once. The first call starts
+     * keeping the mirrored hashes up to date as the pieces move, which
+     * costs a few more XORs per move.
+     * @return the least {@link Game#positionHash()} of the positions
+     */
+    public long canonicalHash() {
+        if ( this.symmetric == null ) {
+            this.symmetric = new SymmetricHashes( this, zobrist );
         }
-        else if (pieceName.charAt(0) == 'B' || pieceName.charAt(0) == 'b') {
-            result = new Bishop(pieceName, pos, this);
+        return this.symmetric.canonical( hash );
+    }
+
+    /**
+     * Is the current position its own mirror image, or, when there are no
+     * pawns, its own image under some other reflection or rotation that
+     * keeps the board's shape? Only such positions lead to pairs of
+     * positions that differ by a symmetry often enough for
+     * {@link Game#canonicalHash()} to be worth keeping up to date.
+     * @return true iff the position is symmetric
+     */
+    public boolean isSymmetric() {
+        final SymmetricHashes hashes = this.symmetric != null
+                ? this.symmetric : new SymmetricHashes( this, zobrist );
+        return hashes.isSymmetric( hash );
+    }
+
+    /**
+     * Get the type of a piece on the board.
+     * @param row the cell's row
+     * @param col the cell's column
+     * @return the type of the piece at that cell, or null if no piece is
+     *         at that cell
+     * @rit.pre the cell is in bounds
+     */
+    PieceType pieceType( int row, int col ) {
+        final int piece = board.get( row, col );
+        return piece == 0 ? null : Piece.typeOf( piece );
+    }
+
+    /**
+     * Get the name of a piece on the board.
+     * @param row the cell's row
+     * @param col the cell's column
+     * @return the name of the piece at that cell, or null if no piece is
+     *         at that cell
+     * @rit.pre the cell is in bounds
+     */
+    String pieceName( int row, int col ) {
+        final int piece = board.get( row, col );
+        return piece == 0 ? null : name( piece );
+    }
+
+    /**
+     * Is a cell on the board?
+     * @param row the cell's row
+     * @param col the cell's column
+     * @return true iff the row and column are both in range
+     */
+    boolean inBounds( int row, int col ) {
+        return 0 <= row && row < numRows && 0 <= col && col < numCols;
+    }
+
+    /**
+     * Is any piece at this location?
+     * @param row the cell's row
+     * @param col the cell's column
+     * @return true iff there is a piece at the location
+     * @rit.pre the cell is in bounds
+     */
+    boolean occupied( int row, int col ) {
+        return board.occupied( row, col );
+    }
+
+    /**
+     * @return the number of pieces on the board
+     */
+    public int pieceCount() {
+        return pieceCount;
+    }
+
+    /**
+     * Report every legal move of every piece on the board, without
+     * allocating anything. Each piece's rules work out its moves from its
+     * geometry, stopping each line of movement at the first piece in the
+     * way, so the work done is proportional to the number of moves found.
+     * The sink must not change the game while moves are being generated.
+     * @param sink receives each move as a pair of cell numbers
+     *             (row * numCols + column)
+     */
+    public void generateAllMoves( MoveSink sink ) {
+        final int n = listPieceCells();
+        for ( int i = 0; i < n; ++i ) {
+            final int cell = this.pieceCells[ i ];
+            final int row = cell / numCols, col = cell % numCols;
+            Piece.rules( board.get( row, col ) )
+                 .generateMoves( this, row, col, sink );
         }
-        else if (pieceName.charAt(0) == 'Q' || pieceName.charAt(0) == 'q') {
-            result = new Queen(pieceName, pos, this);
+    }
+
+    /**
+     * Have {@link Game#legalMoves(int, int)} look up, and remember, which
+     * cells each piece can move to in a cache, which may be shared with
+     * other games. Copies of this game made afterwards use the same
+     * cache. Moves themselves never use the cache, since checking one
+     * move from the rules is quicker than looking it up.
+     * @param cache the cache, or null to stop using one
+     */
+    public void useMoveCache( MoveCache cache ) {
+        this.moveCache = cache;
+    }
+
+    /**
+     * Find every cell the piece in a cell can move to, from the move
+     * cache if this game has one and it holds them.
+     * @param row the piece's row
+     * @param col the piece's column
+     * @return the cell numbers (row * numCols + column) in increasing
+     *         order, which may be shared and must not be changed; empty
+     *         if there is no piece in the cell
+     * @rit.pre the cell is in bounds
+     */
+    public int[] legalMoves( int row, int col ) {
+        final int piece = board.get( row, col );
+        if ( piece == 0 ) return NO_MOVES;
+        final int from = cell( row, col );
+        final MoveCache cache = this.moveCache;
+        if ( cache != null ) {
+            final int[] cells = cache.get( hash, from );
+            if ( cells != null ) return cells;
         }
-        else if (pieceName.charAt(0) == 'K' || pieceName.charAt(0) == 'k') {
-            result = new King(pieceName, pos, this);
+        if ( this.pieceMoves == null ) this.pieceMoves = new MoveList();
+        this.pieceMoves.clear();
+        Piece.rules( piece ).generateMoves( this, row, col, this.pieceMoves );
+        final int[] cells = this.pieceMoves.destinations();
+        if ( cache != null ) cache.put( hash, from, cells );
+        return cells;
+    }
+
+    /**
+     * Find the pieces that can move to a cell, e.g. to capture what is
+     * there.
+     * On boards of up to {@link AttackMap#MAX_CELLS} cells the answer
+     * comes from a map of every piece's moves, which is made the first
+     * time either this or {@link Game#targetsOf(int, int)} is called and
+     * is then kept up to date as the pieces move, so that each later
+     * question costs a few words of bitset. On bigger boards every piece
+     * is checked.
+     * @param row the cell's row
+     * @param col the cell's column
+     * @return the cell numbers (row * numCols + column) of the pieces, in
+     *         increasing order
+     * @rit.pre the cell is in bounds
+     */
+    public int[] attackersOf( int row, int col ) {
+        final AttackMap attacks = attackMap();
+        if ( attacks != null ) return attacks.attackersOf( cell( row, col ) );
+        int[] cells = new int[ pieceCount ];
+        final int n = board.listOccupied( cells );
+        int count = 0;
+        for ( int i = 0; i < n; ++i ) {
+            final int r = cells[ i ] / numCols, c = cells[ i ] % numCols;
+            if ( ( r != row || c != col ) &&
+                 Piece.rules( board.get( r, c ) ).checkMove(
+                         this, r, c, row, col ) == MoveStatus.OK ) {
+                cells[ count++ ] = cells[ i ];
+            }
         }
-        else if (pieceName.charAt(0) == 'P' || pieceName.charAt(0) == 'p') {
-            result = new Pawn(pieceName, pos, this);
+        return Arrays.copyOf( cells, count );
+    }
+
+    /**
+     * Find the cells the piece in a cell can move to. The answer is the
+     * same as that of {@link Game#legalMoves(int, int)}, but comes from
+     * the same map as {@link Game#attackersOf(int, int)}, when there is
+     * one.
+     * @param row the piece's row
+     * @param col the piece's column
+     * @return the cell numbers, in increasing order, or none if the cell
+     *         is empty
+     * @rit.pre the cell is in bounds
+     */
+    public int[] targetsOf( int row, int col ) {
+        final AttackMap attacks = attackMap();
+        if ( attacks != null ) return attacks.targetsOf( cell( row, col ) );
+        return legalMoves( row, col ).clone();
+    }
+
+    /**
+     * Look positions of this game, and of copies made from now on, up in
+     * a tablebase where it covers them.
+     * @param tablebase the tablebase, or null to stop using one
+     */
+    public void useTablebase( Tablebase tablebase ) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Look up the fewest pieces that a series of captures can leave from
+     * the current position.
+     * @return the number of pieces, or -1 if no tablebase is in use or it
+     *         does not cover the current position
+     */
+    public int fewestPiecesLeft() {
+        return this.tablebase == null ? -1
+                                      : this.tablebase.fewestPieces( this );
+    }
+
+    /**
+     * Can a series of captures leave exactly one piece? The answer is
+     * looked up if the tablebase in use covers the current position, and
+     * searched for otherwise.
+     * @return true iff the current position can be solved
+     */
+    public boolean isSolvable() {
+        final int fewest = fewestPiecesLeft();
+        return fewest >= 0 ? fewest == 1 : new Solver( this ).solve();
+    }
+
+    /**
+     * Get the map of which pieces can move where, making it if this is
+     * the first time it is needed.
+     * @return the map, or null if the board is too big to have one
+     */
+    private AttackMap attackMap() {
+        if ( this.attacks == null &&
+             (long)numRows * numCols <= AttackMap.MAX_CELLS ) {
+            this.attacks = new AttackMap( this );
         }
-        return result;
+        return this.attacks;
+    }
+
+    /**
+     * Get a piece on the board.
+     * @param row the cell's row
+     * @param col the cell's column
+     * @return the code of the piece at that cell, or 0 if the cell is empty
+     * @rit.pre the cell is in bounds
+     */
+    int pieceCode( int row, int col ) {
+        return board.get( row, col );
+    }
+
+    /**
+     * @return the number of rows on the board
+     */
+    public int numRows() {
+        return numRows;
+    }
+
+    /**
+     * @return the number of columns on the board
+     */
+    public int numCols() {
+        return numCols;
     }
 
     /**
      * Attempt to move the piece at one location on the board to a
      * new location. If there is a piece at the new location,
-     * the original piece captures it and it is removed from the board.
-     * The only error checks done here are to make sure there is a piece
-     * at the start coordinates, and if both coordinate pairs are in-bounds.
-     * The piece itself determines if the move would be legal, and if it is,
-     * changes its own location state.
-     * But this method updates the board.
+     * the original piece captures it and it is removed from the board,
+     * and a message saying so is printed.
+     * This is a wrapper around {@link Game#tryMove(int, int, int, int)}.
      * @param start the current location of the piece
      * @param end the intended new location of the piece
      * @return An ActionResult indicating success or the reason for failure
      */
     public ActionResult makeMove( Coordinates start, Coordinates end ) {
+        MoveStatus status = tryMove( start.row(), start.column(),
+                                     end.row(), end.column() );
+        if ( status == MoveStatus.OK && this.captured != 0 ) {
+            System.out.println( captureMessage( end ) );
+        }
+        return moveResult( status, start, end );
+    }
+
+    /**
+     * Attempt to move the piece at one location on the board to a
+     * new location, as {@link Game#makeMove(Coordinates, Coordinates)}
+     * does, but print the capture message on the given output.
+     * @param start the current location of the piece
+     * @param end the intended new location of the piece
+     * @param out where to print the capture message
+     * @return An ActionResult indicating success or the reason for failure
+     */
+    public ActionResult makeMove( Coordinates start, Coordinates end,
+                                  PrintWriter out ) {
+        MoveStatus status = tryMove( start.row(), start.column(),
+                                     end.row(), end.column() );
+        if ( status == MoveStatus.OK && this.captured != 0 ) {
+            out.println( captureMessage( end ) );
+        }
+        return moveResult( status, start, end );
+    }
+
+    /**
+     * Describe the capture made by the last move.
+     * @param end where the capturing piece now is
+     * @return "X takes Y"
+     */
+    private String captureMessage( Coordinates end ) {
+        return name( getPiece( end ) ) + " takes " + name( this.captured );
+    }
+
+    /**
+     * Turn the status of a move into the result makeMove returns.
+     * @param status what tryMove returned
+     * @param start the location of the piece
+     * @param end the intended new location of the piece
+     * @return ActionResult.OK, or a result explaining the failure
+     */
+    private ActionResult moveResult( MoveStatus status,
+                                     Coordinates start, Coordinates end ) {
+        if ( status == MoveStatus.OK ) {
+            return ActionResult.OK;
+        }
+        int piece = status == MoveStatus.ILLEGAL ||
+                    status == MoveStatus.BLOCKED ? getPiece( start ) : 0;
+        return new MoveResult( status,
+                               piece == 0 ? null : Piece.typeOf( piece ),
+                               start.row(), start.column(),
+                               end.row(), end.column() );
+    }
+
+    /**
+     * Attempt to move the piece at one location on the board to a
+     * new location, without creating any objects.
+     * If there is a piece at the new location,
+     * the original piece captures it and it is removed from the board;
+     * {@link Game#lastCaptured()} then names it.
+     * The only error checks done here are to make sure there is a piece
+     * at the start coordinates, and if both coordinate pairs are in-bounds.
+     * The piece's rules determine if the move would be legal.
+     * If {@link Metrics} are on, the move is timed.
+     * @param fromRow row of the piece to move
+     * @param fromCol column of the piece to move
+     * @param toRow row of the destination
+     * @param toCol column of the destination
+     * @return MoveStatus.OK, or the reason for failure
+     */
+    public MoveStatus tryMove( int fromRow, int fromCol,
+                               int toRow, int toCol ) {
+        final Metrics metrics = Metrics.current();
+        if ( metrics == null ) {
+            return move( fromRow, fromCol, toRow, toCol );
+        }
+        final long start = System.nanoTime();
+        final MoveStatus status = move( fromRow, fromCol, toRow, toCol );
+        final long nanos = System.nanoTime() - start;
+        PieceType type = null;
+        if ( status == MoveStatus.OK ) {
+            type = pieceType( toRow, toCol );
+        }
+        else if ( status == MoveStatus.ILLEGAL ||
+                  status == MoveStatus.BLOCKED ) {
+            type = pieceType( fromRow, fromCol );
+        }
+        metrics.recordMove( type, status, nanos );
+        return status;
+    }
+
+    /**
+     * Do the work of {@link Game#tryMove(int, int, int, int)}.
+     * @param fromRow row of the piece to move
+     * @param fromCol column of the piece to move
+     * @param toRow row of the destination
+     * @param toCol column of the destination
+     * @return MoveStatus.OK, or the reason for failure
+     */
+    private MoveStatus move( int fromRow, int fromCol,
+                             int toRow, int toCol ) {
+        this.captured = 0;
+
         // Check if row or column is out of bounds.
-        if ( 0 > start.row() || start.row() >= numRows ||
-             0 > start.column() || start.column() >= numCols ) {
-            return new ActionResult( "No such position: " + start );
+        if ( 0 > fromRow || fromRow >= numRows ||
+             0 > fromCol || fromCol >= numCols ) {
+            return MoveStatus.NO_SUCH_POSITION;
         }
-        if ( 0 > end.row() || end.row() >= numRows ||
-             0 > end.column() || end.column() >= numCols ) {
-            return new ActionResult( "No such destination: " + end );
+        if ( 0 > toRow || toRow >= numRows ||
+             0 > toCol || toCol >= numCols ) {
+            return MoveStatus.NO_SUCH_DESTINATION;
         }
 
         // Look for piece at given location.
-        Piece piece = board[start.row()][start.column()];
-        if (piece == null) {
-            return new ActionResult("No such piece: " + start);
+        final int piece = board.get( fromRow, fromCol );
+        if ( piece == 0 ) {
+            return MoveStatus.NO_SUCH_PIECE;
+        }
+
+        // Attempt the move. Each type of piece has its own checks.
+        MoveStatus status = Piece.rules( piece ).checkMove( this,
+                fromRow, fromCol, toRow, toCol );
+        if ( status == MoveStatus.OK ) {
+            final int from = cell( fromRow, fromCol );
+            final int to = cell( toRow, toCol );
+            if ( from != to ) {
+                this.captured = board.move( fromRow, fromCol, toRow, toCol );
+                if ( lines != null ) {
+                    lines.remove( fromRow, fromCol );
+                    if ( this.captured == 0 ) lines.add( toRow, toCol );
+                }
+                final PieceType type = Piece.typeOf( piece );
+                hash ^= zobrist.key( type, from ) ^ zobrist.key( type, to );
+                if ( this.captured != 0 ) {
+                    hash ^= zobrist.key( Piece.typeOf( this.captured ), to );
+                    --pieceCount;
+                }
+                if ( attacks != null ) attacks.changed( from, to );
+                if ( symmetric != null ) {
+                    symmetric.moved( type, from, to );
+                    if ( this.captured != 0 ) {
+                        symmetric.removed( Piece.typeOf( this.captured ),
+                                           to );
+                    }
+                }
+            }
+            pushUndo( from, to );
+        }
+        return status;
+    }
+
+    /**
+     * Record a successful move on the undo stack.
+     * @param from the starting cell number
+     * @param to the ending cell number
+     */
+    private void pushUndo( int from, int to ) {
+        if ( this.undoDepth == this.undoLimit ) {
+            if ( this.undoLimit == 0 ) return;
+            // Forget the oldest move.
+            this.undoStart = undoSlot( 1 );
+            --this.undoDepth;
+        }
+        else if ( this.undoDepth == this.undoCaptured.length ) {
+            resizeUndo( Math.min( 2 * this.undoCaptured.length,
+                                  this.undoLimit ) );
+        }
+        final int i = undoSlot( this.undoDepth );
+        this.undoCells[ 2 * i ] = from;
+        this.undoCells[ 2 * i + 1 ] = to;
+        this.undoCaptured[ i ] = this.captured;
+        ++this.undoDepth;
+    }
+
+    /**
+     * Find where in the ring a move on the undo stack is kept.
+     * @param n how many moves after the oldest one it was made
+     * @return its index in undoCaptured
+     */
+    private int undoSlot( int n ) {
+        return ( this.undoStart + n ) % this.undoCaptured.length;
+    }
+
+    /**
+     * Move the undo stack into new arrays, oldest move first.
+     * @param capacity the number of moves they can hold
+     * @rit.pre capacity &gt;= the depth of the stack
+     */
+    private void resizeUndo( int capacity ) {
+        int[] cells = new int[ 2 * capacity ];
+        int[] captured = new int[ capacity ];
+        for ( int n = 0; n < this.undoDepth; ++n ) {
+            final int i = undoSlot( n );
+            cells[ 2 * n ] = this.undoCells[ 2 * i ];
+            cells[ 2 * n + 1 ] = this.undoCells[ 2 * i + 1 ];
+            captured[ n ] = this.undoCaptured[ i ];
         }
+        this.undoCells = cells;
+        this.undoCaptured = captured;
+        this.undoStart = 0;
+    }
 
-        // Attempt the move. The piece subclass has its own checks.
-        ActionResult moveResult = piece.makeMove( end );
+    /**
+     * Set the most moves that can be taken back; older moves are
+     * forgotten. A limit of 0 stops moves from being recorded at all.
+     * @param limit the most moves the undo stack may hold
+     * @throws IllegalArgumentException if limit is negative
+     */
+    public void setUndoLimit( int limit ) {
+        if ( limit < 0 ) {
+            throw new IllegalArgumentException( "Negative undo limit" );
+        }
+        if ( this.undoDepth > limit ) {
+            this.undoStart = undoSlot( this.undoDepth - limit );
+            this.undoDepth = limit;
+        }
+        this.undoLimit = limit;
+    }
 
-        if (moveResult.ok) {
-            clearCell(start);
-            if (getPiece(end) != null) {
-                System.out.println(piece.toString() + " takes " +
-                                    getPiece(end).toString());
-                clearCell(end);
+    /**
+     * @return the most moves that can be taken back
+     * @see Game#DEFAULT_UNDO_LIMIT
+     */
+    public int undoLimit() {
+        return this.undoLimit;
+    }
+
+    /**
+     * Take back the most recent successful move that has not already been
+     * taken back, putting back any piece it captured.
+     * @return true, or false if there was no move to take back
+     */
+    public boolean unmakeMove() {
+        if ( this.undoDepth == 0 ) return false;
+        --this.undoDepth;
+        final int i = undoSlot( this.undoDepth );
+        final int from = this.undoCells[ 2 * i ];
+        final int to = this.undoCells[ 2 * i + 1 ];
+        final int taken = this.undoCaptured[ i ];
+        this.captured = 0;
+        if ( from != to ) {
+            final int fromRow = from / numCols, fromCol = from % numCols;
+            final int toRow = to / numCols, toCol = to % numCols;
+            board.move( toRow, toCol, fromRow, fromCol );
+            if ( lines != null ) {
+                lines.add( fromRow, fromCol );
+                if ( taken == 0 ) lines.remove( toRow, toCol );
+            }
+            final PieceType type =
+                    Piece.typeOf( board.get( fromRow, fromCol ) );
+            hash ^= zobrist.key( type, from ) ^ zobrist.key( type, to );
+            if ( taken != 0 ) {
+                board.put( toRow, toCol, taken );
+                hash ^= zobrist.key( Piece.typeOf( taken ), to );
+                ++pieceCount;
+            }
+            if ( attacks != null ) attacks.changed( from, to );
+            if ( symmetric != null ) {
+                symmetric.moved( type, to, from );
+                if ( taken != 0 ) {
+                    symmetric.added( Piece.typeOf( taken ), to );
+                }
             }
-            board[end.row()][end.column()] = piece;
         }
+        return true;
+    }
+
+    /**
+     * @return the number of moves that {@link Game#unmakeMove()} can
+     *         take back
+     */
+    public int undoDepth() {
+        return this.undoDepth;
+    }
 
-        return moveResult;
+    /**
+     * Find a cell of the move {@link Game#unmakeMove()} would take back.
+     * @param end 0 for the cell the piece moved from, 1 for the cell it
+     *            moved to
+     * @return the cell number (row * numCols + column)
+     * @rit.pre {@link Game#undoDepth()} &gt; 0
+     */
+    int lastMoveCell( int end ) {
+        return this.undoCells[ 2 * undoSlot( this.undoDepth - 1 ) + end ];
+    }
+
+    /**
+     * Which piece did the last successful move remove from the board?
+     * @return the captured piece's name, or null if the last move
+     *         captured nothing or failed
+     */
+    public String lastCaptured() {
+        return this.captured == 0 ? null : name( this.captured );
     }
 
     /**
@@ -241,23 +1262,86 @@ public class Game {
      *          horizontal, vertical, or a 45° diagonal.
      */
     protected boolean isClearPath( Coordinates start, Coordinates end ) {
-        Coordinates delta = start.delta( end );
-        final int dRow = delta.row();
-        final int dCol = delta.column();
-        Coordinates incr = new Coordinates(
-                Integer.signum( dRow ),
-                Integer.signum( dCol )
-        );
-        for ( Coordinates pos = start.plus( incr );
-              !pos.equals( end );
-              pos = pos.plus( incr ) ) {
-            assert pos.row() >= 0 && pos.row() < numRows &&
-                   pos.column() >= 0 && pos.column() < numCols:
-                    "Preconditions of isClearPath violated!";
-            if ( occupied( pos ) ) return false;
+        return isClearPath( start.row(), start.column(),
+                            end.row(), end.column() );
+    }
+
+    /**
+     * Can a piece travel in a straight line from the start to the destination
+     * without encountering other pieces along the way?
+     * @param fromRow the starting row
+     * @param fromCol the starting column
+     * @param toRow the destination row
+     * @param toCol the destination column
+     * @return true iff there are no pieces in between the start and the
+     *         end (exclusive)
+     * @rit.pre both start and end are in bounds.
+     * @rit.pre the line from the start to the destination is either
+     *          horizontal, vertical, or a 45° diagonal.
+     */
+    protected boolean isClearPath( int fromRow, int fromCol,
+                                   int toRow, int toCol ) {
+        assert fromRow >= 0 && fromRow < numRows &&
+               fromCol >= 0 && fromCol < numCols &&
+               toRow >= 0 && toRow < numRows &&
+               toCol >= 0 && toCol < numCols:
+                "Preconditions of isClearPath violated!";
+        final Metrics metrics = Metrics.current();
+        if ( metrics != null ) {
+            metrics.recordPath( Math.max( Math.abs( toRow - fromRow ),
+                                          Math.abs( toCol - fromCol ) ) - 1 );
         }
-        return true;
+        if ( tables != null ) {
+            return board.isEmpty( tables.between, tables.betweenOffset(
+                    cell( fromRow, fromCol ), cell( toRow, toCol ) ) );
+        }
+        return lines.isClear( fromRow, fromCol, toRow, toCol );
+    }
+
+    /**
+     * Find the first piece met going from a cell in a straight line, as
+     * a rook, bishop, or queen would.
+     * On boards too big for move tables this is a binary search of the
+     * line's occupied cells, however long the line; on smaller boards the
+     * cells are checked one by one.
+     * @param row the starting cell's row
+     * @param col the starting cell's column
+     * @param dRow row step (-1, 0, or 1)
+     * @param dCol column step (-1, 0, or 1)
+     * @return the cell number (row * numCols + column) of the piece, or -1
+     *         if the edge of the board comes first
+     * @rit.pre the starting cell is in bounds, and the direction is not
+     *          (0, 0)
+     */
+    public int nearestBlocker( int row, int col, int dRow, int dCol ) {
+        if ( lines != null ) {
+            return lines.nearest( row, col, dRow, dCol );
+        }
+        for ( int r = row + dRow, c = col + dCol; inBounds( r, c );
+              r += dRow, c += dCol ) {
+            if ( board.occupied( r, c ) ) return cell( r, c );
+        }
+        return -1;
+    }
 
+    /**
+     * Get the move geometry tables for this board's size.
+     * @return the shared tables, or null if the board is too big for them
+     */
+    AttackTables tables() {
+        return tables;
+    }
+
+    /**
+     * Get the renderer that draws this game's board, creating it the
+     * first time.
+     * @return the renderer
+     */
+    private BoardRenderer renderer() {
+        if ( this.renderer == null ) {
+            this.renderer = new BoardRenderer( this );
+        }
+        return this.renderer;
     }
 
     /**
@@ -265,24 +1349,45 @@ public class Game {
      * @rit.pre Piece names should be no more than two characters long.
      */
     public void showBoard() {
-        System.out.println();
-        // Column coordinate row
-        System.out.print( "    " );
-        for ( int c = 0; c < this.board[0].length; ++c ) {
-            System.out.printf( "%2d ", c );
-        }
-        System.out.println();
-
-        for ( int r = 0; r < this.board.length; ++r ) {
-            System.out.printf( "%2d  ", r );
-            for ( Piece piece: this.board[ r ] ) {
-                System.out.print(
-                        ( piece == null ) ? "__ "
-                                : String.format( "%-3s", piece.toString() )
-                );
-            }
-            System.out.println();
+        try {
+            showBoard( (Appendable)System.out );
+        }
+        catch ( IOException e ) {
+            // PrintStreams do not throw.
+            throw new UncheckedIOException( e );
         }
-        System.out.println();
+    }
+
+    /**
+     * Display the entire game board, with coordinates.
+     * The board is written with a single call on out.
+     * @param out where to display it
+     * @throws IOException if out does
+     * @rit.pre Piece names should be no more than two characters long.
+     */
+    public void showBoard( Appendable out ) throws IOException {
+        renderer().render( out );
+    }
+
+    /**
+     * Display the entire game board, with coordinates.
+     * The board is written with a single call on out.
+     * @param out where to display it
+     * @rit.pre Piece names should be no more than two characters long.
+     */
+    public void showBoard( PrintWriter out ) {
+        renderer().render( out );
+    }
+
+    /**
+     * Display the column coordinates and only those rows that have
+     * changed since the board was last displayed, for a terminal where
+     * the earlier display is still in view. The first time, the entire
+     * board is displayed.
+     * @param out where to display it
+     * @rit.pre Piece names should be no more than two characters long.
+     */
+    public void showChanges( PrintWriter out ) {
+        renderer().renderChanges( out );
     }
 }
@@ -0,0 +1,420 @@
+package edu.rit.cs.chess;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A server on the local machine that hosts many independent games at
+ * once, one per TCP connection.
+ * <br/>
+ * A client starts a session with one line:
+ * <ul>
+ *     <li>"board NAME", to play on a new game loaded from the setup
+ *         file NAME in the server's board directory; or</li>
+ *     <li>"snapshot", followed at once by a board snapshot as written by
+ *         {@link Game#writeSnapshot(java.io.OutputStream)}.</li>
+ * </ul>
+ * Either may end with the word "changes", to have only the rows of the
+ * board that change displayed after each command.
+ * After that the connection works just like the ChessMoves console with
+ * echo off: the client sends "r c r c", "undo", and "quit" commands, one
+ * per line, and gets back the board and a "&gt; " prompt after each.
+ * The server closes the connection when the session ends. If the first
+ * line is not understood, the server sends one line saying why and
+ * closes the connection.
+ * <br/>
+ * Each session runs from start to end on one thread, so its commands are
+ * carried out in the order they were sent. The threads come from a pool,
+ * are reused from one session to the next, and have small stacks, so
+ * that thousands of sessions can be open at once.
+ * @author RIT CS
+ */
+public final class GameServer implements Closeable {
+
+    /**
+     * First word of the line that starts a game from a setup file
+     */
+    public static final String BOARD = "board";
+
+    /**
+     * First word of the line that starts a game from a snapshot
+     */
+    public static final String SNAPSHOT = "snapshot";
+
+    /**
+     * Last word of the first line, if only changed rows are to be shown
+     */
+    public static final String CHANGES = "changes";
+
+    /**
+     * The longest first line accepted, in bytes
+     */
+    private static final int MAX_FIRST_LINE = 1024;
+
+    /**
+     * Stack size of the session threads. Sessions do not recurse, so this
+     * is plenty.
+     */
+    private static final long STACK_SIZE = 256 * 1024;
+
+    /**
+     * How long to wait, in milliseconds, before accepting again when
+     * accepting fails, e.g. because the process has run out of file
+     * descriptors; only sessions ending will free more
+     */
+    private static final long ACCEPT_RETRY_MILLIS = 100;
+
+    /**
+     * Where failures that are not a client's doing are reported
+     */
+    private static final Logger LOG =
+            Logger.getLogger( GameServer.class.getName() );
+
+    /**
+     * Where the setup files named in "board" lines are
+     */
+    private final File boardDir;
+
+    /**
+     * The board representation for new games
+     */
+    private final BoardStore.Kind kind;
+
+    /**
+     * The threads that accept connections and run sessions
+     */
+    private final ExecutorService pool;
+
+    /**
+     * The connections of the sessions in progress
+     */
+    private final Set< Socket > clients = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Where connections are accepted, once started
+     */
+    private ServerSocket server;
+
+    /**
+     * Set up a server. Nothing is accepted until {@link #start(int)}.
+     * @param boardDir the directory of setup files that clients may name
+     * @param kind the board representation for new games
+     */
+    public GameServer( File boardDir, BoardStore.Kind kind ) {
+        this.boardDir = boardDir;
+        this.kind = kind;
+        this.pool = Executors.newCachedThreadPool( threads() );
+    }
+
+    /**
+     * Make the threads, with small stacks, that serve clients.
+     */
+    private static ThreadFactory threads() {
+        AtomicInteger count = new AtomicInteger();
+        return task -> new Thread( null, task,
+                                   "game-" + count.incrementAndGet(),
+                                   STACK_SIZE );
+    }
+
+    /**
+     * Start accepting connections on the loopback address.
+     * @param port the port, or 0 for any free one
+     * @throws IOException if the port cannot be listened on
+     * @rit.pre the server has not been started
+     */
+    public void start( int port ) throws IOException {
+        this.server = new ServerSocket( port, 1024,
+                                        InetAddress.getLoopbackAddress() );
+        this.pool.execute( this::accept );
+    }
+
+    /**
+     * @return the port connections are accepted on
+     * @rit.pre the server has been started
+     */
+    public int port() {
+        return this.server.getLocalPort();
+    }
+
+    /**
+     * @return the number of sessions in progress
+     */
+    public int sessionCount() {
+        return this.clients.size();
+    }
+
+    /**
+     * Accept connections until the server is closed, starting a session
+     * for each.
+     */
+    private void accept() {
+        boolean failing = false;
+        while ( !this.server.isClosed() ) {
+            Socket client;
+            try {
+                client = this.server.accept();
+                failing = false;
+            }
+            catch ( IOException e ) {
+                if ( this.server.isClosed() ) break;
+                if ( !failing ) {
+                    LOG.log( Level.WARNING, "Cannot accept connections", e );
+                    failing = true;
+                }
+                try {
+                    Thread.sleep( ACCEPT_RETRY_MILLIS );
+                }
+                catch ( InterruptedException i ) {
+                    break; // the pool is being shut down
+                }
+                continue;
+            }
+            try {
+                client.setTcpNoDelay( true );
+            }
+            catch ( IOException e ) {
+                close( client ); // the client already went away
+                continue;
+            }
+            this.clients.add( client );
+            try {
+                this.pool.execute( () -> serve( client ) );
+            }
+            catch ( RuntimeException e ) {
+                close( client ); // the pool has been shut down
+            }
+        }
+    }
+
+    /**
+     * Run one client's session, then close its connection.
+     * @param client the client's connection
+     */
+    private void serve( Socket client ) {
+        try ( client ) {
+            InputStream in = new BufferedInputStream( client.getInputStream() );
+            PrintWriter out = new PrintWriter( new OutputStreamWriter(
+                    new BufferedOutputStream( client.getOutputStream() ),
+                    StandardCharsets.UTF_8 ) );
+            try {
+                play( in, out );
+            }
+            catch ( UncheckedIOException e ) {
+                throw e.getCause();
+            }
+            catch ( RuntimeException e ) {
+                // A bad command, such as non-numerical coordinates, ends
+                // the session just as it ends ChessMoves. The client is
+                // told why, and anything else is logged as the bug it is.
+                if ( e.getCause() instanceof IOException ) {
+                    throw (IOException)e.getCause();
+                }
+                refuse( out, "Session ended: " + e );
+                if ( !( e instanceof NumberFormatException ) ) {
+                    LOG.log( Level.WARNING, "Session failed", e );
+                }
+            }
+        }
+        catch ( IOException e ) {
+            // The client went away, or the server was closed; there is
+            // no one to tell.
+        }
+        finally {
+            this.clients.remove( client );
+        }
+    }
+
+    /**
+     * Start a client's session from its first line, and run it.
+     * @param in the client's input
+     * @param out the client's output
+     * @throws IOException if the client goes away
+     */
+    private void play( InputStream in, PrintWriter out ) throws IOException {
+        String[] words = firstLine( in ).split( " " );
+        int count = words.length;
+        final boolean changes = count > 1 &&
+                                words[ count - 1 ].equals( CHANGES );
+        if ( changes ) --count;
+        Game game;
+        if ( count == 2 && words[ 0 ].equals( BOARD ) ) {
+            game = load( words[ 1 ], out );
+        }
+        else if ( count == 1 && words[ 0 ].equals( SNAPSHOT ) ) {
+            game = readSnapshot( in, out );
+        }
+        else {
+            refuse( out, "Improper first line" );
+            return;
+        }
+        if ( game != null ) {
+            new Session( game, false, changes ).play( in, out );
+        }
+    }
+
+    /**
+     * Read the line that starts a session, byte by byte so that nothing
+     * after it is read.
+     * @param in the client's input
+     * @return the line, without its ending
+     * @throws IOException if the input cannot be read, ends first, or the
+     *                     line is too long
+     */
+    private static String firstLine( InputStream in ) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for ( int b = in.read(); b != '\n'; b = in.read() ) {
+            if ( b < 0 || line.size() == MAX_FIRST_LINE ) {
+                throw new IOException( "No first line" );
+            }
+            if ( b != '\r' ) line.write( b );
+        }
+        return line.toString( StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * Load a game from a setup file in the board directory.
+     * @param name the file's name, relative to the board directory
+     * @param out where to say what went wrong
+     * @return the game, or null if it could not be loaded
+     * @throws IOException if the file's name cannot be resolved
+     */
+    private Game load( String name, PrintWriter out ) throws IOException {
+        File dir = this.boardDir.getCanonicalFile();
+        File file = new File( dir, name ).getCanonicalFile();
+        if ( !file.getPath().startsWith( dir.getPath() + File.separator ) ) {
+            refuse( out, "No such board: " + name );
+            return null;
+        }
+        Game game;
+        try {
+            game = new Game( file.getPath(), this.kind, out );
+        }
+        catch ( FileNotFoundException e ) {
+            refuse( out, "No such board: " + name );
+            return null;
+        }
+        if ( !game.ok ) {
+            refuse( out, "Bad board: " + name );
+            return null;
+        }
+        return game;
+    }
+
+    /**
+     * Read a game from a snapshot sent by the client.
+     * @param in the client's input, at the snapshot
+     * @param out where to say what went wrong
+     * @return the game, or null if the snapshot was bad
+     */
+    private Game readSnapshot( InputStream in, PrintWriter out ) {
+        try {
+            return Game.readSnapshot( in, this.kind );
+        }
+        catch ( IOException e ) {
+            refuse( out, "Bad snapshot: " + e.getMessage() );
+            return null;
+        }
+    }
+
+    /**
+     * Tell a client why its session will not start.
+     * @param out the client's output
+     * @param why the reason
+     */
+    private static void refuse( PrintWriter out, String why ) {
+        out.println( why );
+        out.flush();
+    }
+
+    /**
+     * Close a connection, ignoring any problem doing so.
+     */
+    private static void close( Socket client ) {
+        try {
+            client.close();
+        }
+        catch ( IOException e ) {
+            // Nothing more can be done with it.
+        }
+    }
+
+    /**
+     * Stop accepting connections and end every session in progress.
+     */
+    @Override
+    public void close() {
+        try {
+            if ( this.server != null ) this.server.close();
+        }
+        catch ( IOException e ) {
+            // Nothing more can be done with it.
+        }
+        this.pool.shutdown();
+        for ( Socket client: this.clients ) {
+            close( client );
+        }
+        try {
+            this.pool.awaitTermination( 5, TimeUnit.SECONDS );
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run a server until the process is killed.
+     * @param args [0]: the port; [1]: the directory of setup files;
+     *             [2] (opt): the board representation, array, bitboard,
+     *             sparse, or auto (the default)
+     * @throws IOException if the port cannot be listened on
+     */
+    public static void main( String[] args ) throws IOException {
+        BoardStore.Kind kind = BoardStore.Kind.AUTO;
+        if ( args.length == 3 ) {
+            for ( BoardStore.Kind k: BoardStore.Kind.values() ) {
+                if ( k.name().equalsIgnoreCase( args[ 2 ] ) ) kind = k;
+            }
+        }
+        int port = -1;
+        if ( args.length == 2 || args.length == 3 ) {
+            try {
+                port = Integer.parseInt( args[ 0 ] );
+            }
+            catch ( NumberFormatException e ) {
+                port = -1;
+            }
+        }
+        if ( port < 0 || !new File( args[ 1 ] ).isDirectory() ) {
+            System.out.println( "Usage: java edu.rit.cs.chess.GameServer " +
+                                "port board-directory " +
+                                "[array|bitboard|sparse|auto]" );
+            System.exit( 1 );
+        }
+        GameServer server = new GameServer( new File( args[ 1 ] ), kind );
+        server.start( port );
+        System.out.println( "Serving games from " + args[ 1 ] +
+                            " on port " + server.port() );
+    }
+}
@@ -0,0 +1,170 @@
+package edu.rit.cs.chess;
+
+import java.io.IOException;
+
+/**
+ * An unchanging copy of a game's board at one moment, published by a
+ * {@link SharedGame} after every change so that any number of threads
+ * can look at it, or draw it, while moves go on.
+ * @author RIT CS
+ */
+public final class GameView {
+
+    /**
+     * Which change to the game this is a copy after; the first view is 0
+     */
+    private final long version;
+
+    /**
+     * Board dimensions
+     */
+    private final int numRows, numCols;
+
+    /**
+     * The game's {@link Game#positionHash()} at the time
+     */
+    private final long positionHash;
+
+    /**
+     * Number of pieces on the board
+     */
+    private final int pieceCount;
+
+    /**
+     * The names and types of the pieces, row by row, with nulls for the
+     * empty cells. They are never changed once the view is built.
+     */
+    private final String[] names;
+    private final PieceType[] types;
+
+    /**
+     * Copy a whole board.
+     * @param game the game
+     */
+    GameView( Game game ) {
+        this.version = 0;
+        this.numRows = game.numRows();
+        this.numCols = game.numCols();
+        this.positionHash = game.positionHash();
+        this.pieceCount = game.pieceCount();
+        final int cells = this.numRows * this.numCols;
+        this.names = new String[ cells ];
+        this.types = new PieceType[ cells ];
+        for ( int cell = 0; cell < cells; ++cell ) {
+            copyCell( game, cell );
+        }
+    }
+
+    /**
+     * Make the view after a change to a game, copying the cells that
+     * changed from the game and the rest from the view before.
+     * @param before the view before the change
+     * @param game the game after the change
+     * @param from one cell the change touched
+     * @param to the other cell the change touched
+     */
+    GameView( GameView before, Game game, int from, int to ) {
+        this.version = before.version + 1;
+        this.numRows = before.numRows;
+        this.numCols = before.numCols;
+        this.positionHash = game.positionHash();
+        this.pieceCount = game.pieceCount();
+        this.names = before.names.clone();
+        this.types = before.types.clone();
+        copyCell( game, from );
+        copyCell( game, to );
+    }
+
+    /**
+     * Copy what is in one cell of a game.
+     */
+    private void copyCell( Game game, int cell ) {
+        final int row = cell / this.numCols, col = cell % this.numCols;
+        this.names[ cell ] = game.pieceName( row, col );
+        this.types[ cell ] = game.pieceType( row, col );
+    }
+
+    /**
+     * @return how many changes to the game came before this view
+     */
+    public long version() {
+        return this.version;
+    }
+
+    /**
+     * @return the number of rows on the board
+     */
+    public int numRows() {
+        return this.numRows;
+    }
+
+    /**
+     * @return the number of columns on the board
+     */
+    public int numCols() {
+        return this.numCols;
+    }
+
+    /**
+     * @return the game's position hash
+     * @see Game#positionHash()
+     */
+    public long positionHash() {
+        return this.positionHash;
+    }
+
+    /**
+     * @return the number of pieces on the board
+     */
+    public int pieceCount() {
+        return this.pieceCount;
+    }
+
+    /**
+     * @param row the row of a cell
+     * @param col the column of the cell
+     * @return the name of the piece there, or null if there is none
+     * @rit.pre the cell is on the board
+     */
+    public String name( int row, int col ) {
+        return this.names[ row * this.numCols + col ];
+    }
+
+    /**
+     * @param row the row of a cell
+     * @param col the column of the cell
+     * @return the type of the piece there, or null if there is none
+     * @rit.pre the cell is on the board
+     */
+    public PieceType type( int row, int col ) {
+        return this.types[ row * this.numCols + col ];
+    }
+
+    /**
+     * Display the entire board, with coordinates, exactly as
+     * {@link Game#showBoard(Appendable)} did when this view was made.
+     * @param out where to display it
+     * @throws IOException if out does
+     */
+    public void showBoard( Appendable out ) throws IOException {
+        new BoardRenderer( this.names, this.numRows, this.numCols )
+                .render( out );
+    }
+
+    /**
+     * @return the board as {@link GameView#showBoard(Appendable)}
+     *         displays it
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        try {
+            showBoard( text );
+        }
+        catch ( IOException e ) {
+            // StringBuilders do not throw.
+            throw new IllegalStateException( e );
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,172 @@
+package edu.rit.cs.chess;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values, such as times in nanoseconds, that
+ * any number of threads can record into at once without locking.
+ * <br/>
+ * As in HdrHistogram, values are counted in buckets whose width grows
+ * with the value: below 2 * {@link #SUB_BUCKETS} each value has its own
+ * bucket, and above that each power of two is split into
+ * {@link #SUB_BUCKETS} equal buckets. So every value is known to within
+ * about 6%, and values up to 2^40 (about 18 minutes, in nanoseconds)
+ * take 592 buckets. Larger values are counted as 2^40 - 1, though the
+ * maximum and mean use the real value.
+ * @author RIT CS
+ */
+public final class Histogram {
+
+    /**
+     * log2 of {@link #SUB_BUCKETS}
+     */
+    private static final int SUB_BITS = 4;
+
+    /**
+     * Number of buckets each power of two is split into
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Values at or above 2 to this power share the last bucket.
+     */
+    private static final int MAX_BITS = 40;
+
+    /**
+     * The largest value with a bucket of its own range
+     */
+    private static final long MAX_VALUE = ( 1L << MAX_BITS ) - 1;
+
+    /**
+     * How many values fell into each bucket
+     */
+    private final AtomicLongArray counts =
+            new AtomicLongArray( index( MAX_VALUE ) + 1 );
+
+    /**
+     * Number of values recorded, and their sum
+     */
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * The largest value recorded
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Find the bucket a value goes in.
+     * @param value the value, at least 0 and at most {@link #MAX_VALUE}
+     * @return the bucket's index
+     */
+    static int index( long value ) {
+        if ( value < 2 * SUB_BUCKETS ) return (int)value;
+        final int shift = 63 - Long.numberOfLeadingZeros( value ) - SUB_BITS;
+        return shift * SUB_BUCKETS + (int)( value >>> shift );
+    }
+
+    /**
+     * Find the smallest value that goes in a bucket.
+     * @param index the bucket's index
+     * @return the value
+     */
+    static long lowest( int index ) {
+        if ( index < 2 * SUB_BUCKETS ) return index;
+        final int shift = index / SUB_BUCKETS - 1;
+        return (long)( index - shift * SUB_BUCKETS ) << shift;
+    }
+
+    /**
+     * Count a value.
+     * @param value the value; negative values are counted as 0
+     */
+    public void record( long value ) {
+        if ( value < 0 ) value = 0;
+        this.counts.incrementAndGet( index( Math.min( value, MAX_VALUE ) ) );
+        this.count.increment();
+        this.sum.add( value );
+        if ( value > this.max.get() ) {
+            this.max.accumulateAndGet( value, Math::max );
+        }
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long count() {
+        return this.count.sum();
+    }
+
+    /**
+     * @return the sum of the values recorded
+     */
+    public long sum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * @return the mean of the values recorded, or 0 if there are none
+     */
+    public double mean() {
+        final long count = count();
+        return count == 0 ? 0 : (double)sum() / count;
+    }
+
+    /**
+     * @return the largest value recorded, or 0 if there are none
+     */
+    public long max() {
+        return this.max.get();
+    }
+
+    /**
+     * Find a value that a given share of the values recorded are at or
+     * below: the largest value in the bucket where that share is reached,
+     * so it is never too small by more than a bucket's width.
+     * @param percent the share, from 0 to 100
+     * @return the value, or 0 if there are none
+     */
+    public long percentile( double percent ) {
+        final int buckets = this.counts.length();
+        long total = 0;
+        for ( int i = 0; i < buckets; ++i ) {
+            total += this.counts.get( i );
+        }
+        final long wanted = Math.max( 1, (long)Math.ceil(
+                total * Math.min( percent, 100 ) / 100 ) );
+        long seen = 0;
+        for ( int i = 0; i < buckets; ++i ) {
+            seen += this.counts.get( i );
+            if ( seen >= wanted && total > 0 ) {
+                return Math.min( lowest( i + 1 ) - 1, max() );
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Forget every value recorded. Values recorded while this is going
+     * on may or may not be forgotten.
+     */
+    public void reset() {
+        for ( int i = 0; i < this.counts.length(); ++i ) {
+            this.counts.set( i, 0 );
+        }
+        this.count.reset();
+        this.sum.reset();
+        this.max.set( 0 );
+    }
+
+    /**
+     * @return the count, mean, median, 90th and 99th percentiles, and
+     *         maximum, e.g. "n=10 mean=3.1 p50=3 p90=4 p99=7 max=7"
+     */
+    @Override
+    public String toString() {
+        return String.format( "n=%d mean=%.1f p50=%d p90=%d p99=%d max=%d",
+                              count(), mean(), percentile( 50 ),
+                              percentile( 90 ), percentile( 99 ), max() );
+    }
+}
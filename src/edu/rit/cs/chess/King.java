@@ -1,44 +1,82 @@
 package edu.rit.cs.chess;
 
-import edu.rit.cs.util.ActionResult;
-import edu.rit.cs.util.Coordinates;
-
 /**
- * This is the class representing the king.
+ * This is the class holding the rules for the king.
  * @author Ryan Nowak
  */
 public class King extends Piece{
 
     /**
-     * Constructs a new king
-     * @param name Name of chess piece
-     * @param pos Position of piece on board
-     * @param board Board to place the piece on
+     * The eight cells around a king, relative to it
+     */
+    private static final int[][] STEPS = {
+            { -1, 0 }, { -1, 1 }, { 0, 1 }, { 1, 1 },
+            { 1, 0 }, { 1, -1 }, { 0, -1 }, { -1, -1 }
+    };
+
+    /**
+     * Constructs the rules for kings; there is only one
      */
-    public King(String name, Coordinates pos, Game board) {
-        super(name, pos, board);
+    King() {}
+
+    /**
+     * Gets the kind of piece this is
+     * @return PieceType.KING
+     */
+    @Override
+    public PieceType type() {
+        return PieceType.KING;
     }
 
     /**
      * Checks if move is legal for king
-     * @param newPos Coordinates of new position
-     * @return ActionResult.OK if move is legal.
-     * Else, returns ActionResult w/ error message.
+     * @param board Board the king is on
+     * @param row Row of the king
+     * @param column Column of the king
+     * @param newRow Row of new position
+     * @param newCol Column of new position
+     * @return MoveStatus.OK if move is legal.
+     * Else, returns the reason it is not.
      */
-    public ActionResult isLegalMove(Coordinates newPos) {
-        Coordinates pos = this.getPos();
-        if ((newPos.row() == pos.row()-1 && newPos.column() == pos.column()) ||
-                (newPos.row() == pos.row()-1 && newPos.column() == pos.column()+1) ||
-                (newPos.row() == pos.row() && newPos.column() == pos.column()+1) ||
-                (newPos.row() == pos.row()+1 && newPos.column() == pos.column()+1) ||
-                (newPos.row() == pos.row()+1 && newPos.column() == pos.column()) ||
-                (newPos.row() == pos.row()+1 && newPos.column() == pos.column()-1) ||
-                (newPos.row() == pos.row() && newPos.column() == pos.column()-1) ||
-                (newPos.row() == pos.row()-1 && newPos.column() == pos.column()-1)) {
-            return ActionResult.OK;
+    @Override
+    protected MoveStatus checkMove(Game board, int row, int column,
+                                   int newRow, int newCol) {
+        AttackTables tables = board.tables();
+        boolean reachable;
+        if (tables != null) {
+            reachable = tables.attacks(PieceType.KING, row, column,
+                                       newRow, newCol);
         }
         else {
-            return new ActionResult("Illegal king move " + newPos);
+            reachable = (newRow == row-1 && newCol == column) ||
+                    (newRow == row-1 && newCol == column+1) ||
+                    (newRow == row && newCol == column+1) ||
+                    (newRow == row+1 && newCol == column+1) ||
+                    (newRow == row+1 && newCol == column) ||
+                    (newRow == row+1 && newCol == column-1) ||
+                    (newRow == row && newCol == column-1) ||
+                    (newRow == row-1 && newCol == column-1);
+        }
+        if (reachable) {
+            return MoveStatus.OK;
+        }
+        else {
+            return MoveStatus.ILLEGAL;
+        }
+    }
+
+    /**
+     * Reports every legal move for king
+     * @param board Board the king is on
+     * @param row Row of the king
+     * @param column Column of the king
+     * @param sink receives each move as a pair of cell numbers
+     */
+    @Override
+    public void generateMoves(Game board, int row, int column,
+                              MoveSink sink) {
+        for (int[] d : STEPS) {
+            step(board, row, column, d[0], d[1], sink);
         }
     }
 }
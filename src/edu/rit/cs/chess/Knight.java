@@ -1,43 +1,82 @@
 package edu.rit.cs.chess;
 
-import edu.rit.cs.util.ActionResult;
-import edu.rit.cs.util.Coordinates;
-
 /**
- * This is the class representing the knight.
+ * This is the class holding the rules for the knight.
  * @author Ryan Nowak
  */
 public class Knight extends Piece{
 
     /**
-     * Constructs a new knight
-     * @param name Name of chess piece
-     * @param pos Position of piece on board
-     * @param board Board to place the piece on
+     * The eight cells a knight jumps to, relative to it
+     */
+    private static final int[][] JUMPS = {
+            { -2, 1 }, { -1, 2 }, { 1, 2 }, { 2, 1 },
+            { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }
+    };
+
+    /**
+     * Constructs the rules for knights; there is only one
      */
-    public Knight(String name, Coordinates pos, Game board) {
-        super(name, pos, board);
+    Knight() {}
+
+    /**
+     * Gets the kind of piece this is
+     * @return PieceType.KNIGHT
+     */
+    @Override
+    public PieceType type() {
+        return PieceType.KNIGHT;
     }
 
     /**
      * Checks if move is legal for knight
-     * @param newPos Coordinates of new position
-     * @return ActionResult.OK if move is legal.
-     * Else, returns ActionResult w/ error message.
+     * @param board Board the knight is on
+     * @param row Row of the knight
+     * @param column Column of the knight
+     * @param newRow Row of new position
+     * @param newCol Column of new position
+     * @return MoveStatus.OK if move is legal.
+     * Else, returns the reason it is not.
      */
-    public ActionResult isLegalMove(Coordinates newPos) {
-        Coordinates pos = this.getPos();
-        if ((newPos.row() == pos.row()-2 && newPos.column() == pos.column()+1) ||
-                (newPos.row() == pos.row()-1 && newPos.column() == pos.column()+2) ||
-                (newPos.row() == pos.row()+1 && newPos.column() == pos.column()+2) ||
-                (newPos.row() == pos.row()+2 && newPos.column() == pos.column()+1) ||
-                (newPos.row() == pos.row()+2 && newPos.column() == pos.column()-1) ||
-                (newPos.row() == pos.row()+1 && newPos.column() == pos.column()-2) ||
-                (newPos.row() == pos.row()-1 && newPos.column() == pos.column()-2) ||
-                (newPos.row() == pos.row()-2 && newPos.column() == pos.column()-1)) {
-            return ActionResult.OK;
+    @Override
+    protected MoveStatus checkMove(Game board, int row, int column,
+                                   int newRow, int newCol) {
+        AttackTables tables = board.tables();
+        boolean reachable;
+        if (tables != null) {
+            reachable = tables.attacks(PieceType.KNIGHT, row, column,
+                                       newRow, newCol);
+        }
+        else {
+            reachable = (newRow == row-2 && newCol == column+1) ||
+                    (newRow == row-1 && newCol == column+2) ||
+                    (newRow == row+1 && newCol == column+2) ||
+                    (newRow == row+2 && newCol == column+1) ||
+                    (newRow == row+2 && newCol == column-1) ||
+                    (newRow == row+1 && newCol == column-2) ||
+                    (newRow == row-1 && newCol == column-2) ||
+                    (newRow == row-2 && newCol == column-1);
+        }
+        if (reachable) {
+            return MoveStatus.OK;
         }
         else {
-            return new ActionResult("Illegal knight move " + newPos);        }
+            return MoveStatus.ILLEGAL;
+        }
+    }
+
+    /**
+     * Reports every legal move for knight
+     * @param board Board the knight is on
+     * @param row Row of the knight
+     * @param column Column of the knight
+     * @param sink receives each move as a pair of cell numbers
+     */
+    @Override
+    public void generateMoves(Game board, int row, int column,
+                              MoveSink sink) {
+        for (int[] d : JUMPS) {
+            step(board, row, column, d[0], d[1], sink);
+        }
     }
 }
@@ -0,0 +1,234 @@
+package edu.rit.cs.chess;
+
+import java.util.Arrays;
+
+/**
+ * An index of the occupied cells of a board by line: for every row,
+ * column, diagonal, and anti-diagonal, the positions along it of the
+ * cells that hold pieces, in increasing order. With it, whether the
+ * cells between two others on a line are empty, and which piece is the
+ * first one met going from a cell in some direction, are found by a
+ * binary search of one line, however far apart the cells are.
+ * <br/>
+ * A cell's position along its row is its column, and along any other
+ * line its row. The diagonals, on which the row and column go up
+ * together, are numbered by column - row + numRows - 1; the
+ * anti-diagonals by row + column.
+ * <br/>
+ * A line's array is made when a piece is first put on it, so the index
+ * takes memory in proportion to the number of pieces, plus one empty
+ * slot per line.
+ * @author RIT CS
+ */
+final class LineIndex {
+
+    /**
+     * The kinds of line, as indexes into {@link #lines}
+     */
+    private static final int ROW = 0, COLUMN = 1, DIAGONAL = 2, ANTI = 3;
+
+    /**
+     * Length of a line's array when it is first made
+     */
+    private static final int MIN_LENGTH = 4;
+
+    /**
+     * Board dimensions
+     */
+    private final int numRows, numCols;
+
+    /**
+     * lines[kind][line] holds the positions of the occupied cells on a
+     * line, in increasing order, followed by unused entries; or null if
+     * no piece has been on the line.
+     */
+    private final int[][][] lines = new int[ 4 ][][];
+
+    /**
+     * sizes[kind][line] is the number of occupied cells on a line.
+     */
+    private final int[][] sizes = new int[ 4 ][];
+
+    /**
+     * Make an index of an empty board.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     */
+    LineIndex( int numRows, int numCols ) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        final int diagonals = numRows + numCols - 1;
+        this.lines[ ROW ] = new int[ numRows ][];
+        this.lines[ COLUMN ] = new int[ numCols ][];
+        this.lines[ DIAGONAL ] = new int[ diagonals ][];
+        this.lines[ ANTI ] = new int[ diagonals ][];
+        for ( int kind = 0; kind < 4; ++kind ) {
+            this.sizes[ kind ] = new int[ this.lines[ kind ].length ];
+        }
+    }
+
+    /**
+     * Copy an index.
+     * @param other the index to copy
+     */
+    private LineIndex( LineIndex other ) {
+        this.numRows = other.numRows;
+        this.numCols = other.numCols;
+        for ( int kind = 0; kind < 4; ++kind ) {
+            final int[][] lines = other.lines[ kind ];
+            this.lines[ kind ] = new int[ lines.length ][];
+            for ( int i = 0; i < lines.length; ++i ) {
+                if ( lines[ i ] != null ) {
+                    this.lines[ kind ][ i ] = lines[ i ].clone();
+                }
+            }
+            this.sizes[ kind ] = other.sizes[ kind ].clone();
+        }
+    }
+
+    /**
+     * Make an independent copy of this index.
+     * @return the copy
+     */
+    LineIndex copy() {
+        return new LineIndex( this );
+    }
+
+    /**
+     * Find the line of a given kind that a cell is on.
+     * @return the line's number
+     */
+    private int line( int kind, int row, int col ) {
+        switch ( kind ) {
+            case ROW: return row;
+            case COLUMN: return col;
+            case DIAGONAL: return col - row + this.numRows - 1;
+            default: return row + col;
+        }
+    }
+
+    /**
+     * Find which kind of line two cells share.
+     * @param dRow the sign of the change in row from one to the other
+     * @param dCol the sign of the change in column
+     * @return the kind of line
+     * @rit.pre the cells share a row, column, or diagonal
+     */
+    private static int kind( int dRow, int dCol ) {
+        if ( dRow == 0 ) return ROW;
+        if ( dCol == 0 ) return COLUMN;
+        return dRow == dCol ? DIAGONAL : ANTI;
+    }
+
+    /**
+     * Find the first position in a line's array past a given one.
+     * @param line the line's array
+     * @param size the number of positions in it
+     * @param position the position
+     * @return the index of the first entry greater than position, or size
+     */
+    private static int above( int[] line, int size, int position ) {
+        int lo = 0, hi = size;
+        while ( lo < hi ) {
+            final int mid = ( lo + hi ) >>> 1;
+            if ( line[ mid ] <= position ) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Note that a cell has become occupied.
+     * @param row the cell's row
+     * @param col the cell's column
+     * @rit.pre the cell was empty
+     */
+    void add( int row, int col ) {
+        for ( int kind = 0; kind < 4; ++kind ) {
+            final int n = line( kind, row, col );
+            final int position = kind == ROW ? col : row;
+            final int size = this.sizes[ kind ][ n ];
+            int[] line = this.lines[ kind ][ n ];
+            if ( line == null ) {
+                line = this.lines[ kind ][ n ] = new int[ MIN_LENGTH ];
+            }
+            else if ( size == line.length ) {
+                line = this.lines[ kind ][ n ] =
+                        Arrays.copyOf( line, 2 * size );
+            }
+            final int i = above( line, size, position );
+            System.arraycopy( line, i, line, i + 1, size - i );
+            line[ i ] = position;
+            this.sizes[ kind ][ n ] = size + 1;
+        }
+    }
+
+    /**
+     * Note that a cell has been emptied.
+     * @param row the cell's row
+     * @param col the cell's column
+     * @rit.pre the cell was occupied
+     */
+    void remove( int row, int col ) {
+        for ( int kind = 0; kind < 4; ++kind ) {
+            final int n = line( kind, row, col );
+            final int position = kind == ROW ? col : row;
+            final int size = this.sizes[ kind ][ n ];
+            final int[] line = this.lines[ kind ][ n ];
+            final int i = above( line, size, position ) - 1;
+            System.arraycopy( line, i + 1, line, i, size - i - 1 );
+            this.sizes[ kind ][ n ] = size - 1;
+        }
+    }
+
+    /**
+     * Are all cells strictly between the two given cells empty?
+     * @param fromRow starting row
+     * @param fromCol starting column
+     * @param toRow ending row
+     * @param toCol ending column
+     * @return true iff no piece lies between the two cells (exclusive)
+     * @rit.pre the line between the cells is horizontal, vertical,
+     *          or a 45 degree diagonal.
+     */
+    boolean isClear( int fromRow, int fromCol, int toRow, int toCol ) {
+        final int kind = kind( Integer.signum( toRow - fromRow ),
+                               Integer.signum( toCol - fromCol ) );
+        final int n = line( kind, fromRow, fromCol );
+        final int[] line = this.lines[ kind ][ n ];
+        if ( line == null ) return true;
+        final int size = this.sizes[ kind ][ n ];
+        final int from = kind == ROW ? fromCol : fromRow;
+        final int to = kind == ROW ? toCol : toRow;
+        final int i = above( line, size, Math.min( from, to ) );
+        return i == size || line[ i ] >= Math.max( from, to );
+    }
+
+    /**
+     * Find the first occupied cell met going from a cell in a direction.
+     * @param row the starting cell's row
+     * @param col the starting cell's column
+     * @param dRow row step (-1, 0, or 1)
+     * @param dCol column step (-1, 0, or 1)
+     * @return the occupied cell's number (row * numCols + column), or -1
+     *         if the edge of the board comes first
+     * @rit.pre the direction is not (0, 0)
+     */
+    int nearest( int row, int col, int dRow, int dCol ) {
+        final int kind = kind( dRow, dCol );
+        final int n = line( kind, row, col );
+        final int[] line = this.lines[ kind ][ n ];
+        if ( line == null ) return -1;
+        final int size = this.sizes[ kind ][ n ];
+        final int position = kind == ROW ? col : row;
+        final int step = kind == ROW ? dCol : dRow;
+        int i = above( line, size, position );
+        if ( step < 0 ) {
+            // Skip the starting cell, if it is occupied.
+            i -= i > 0 && line[ i - 1 ] == position ? 2 : 1;
+        }
+        if ( i < 0 || i == size ) return -1;
+        final int steps = ( line[ i ] - position ) * step;
+        return ( row + steps * dRow ) * this.numCols + col + steps * dCol;
+    }
+}
@@ -0,0 +1,276 @@
+package edu.rit.cs.chess;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts and times of what the games in this process do: every move
+ * tried, by the type of piece and the outcome; the number of squares
+ * between the ends of every path checked for blockers; and the time
+ * taken to load each board and to draw each board.
+ * <br/>
+ * Nothing is recorded until {@link #enable()} is called. Until then each
+ * place that would record something only reads one field and finds it
+ * null, so the cost of the metrics when they are off is next to nothing.
+ * Once on, the metrics are shared by all games and threads, and recording
+ * into them takes no locks.
+ * @author RIT CS
+ */
+public final class Metrics implements MetricsMXBean {
+
+    /**
+     * The name the metrics are registered under with JMX
+     */
+    public static final String OBJECT_NAME = "edu.rit.cs.chess:type=Metrics";
+
+    /**
+     * Number of outcomes a move can have
+     */
+    private static final int OUTCOMES = MoveStatus.values().length;
+
+    /**
+     * The metrics being recorded, or null if they are off
+     */
+    private static volatile Metrics current;
+
+    /**
+     * Move times in nanoseconds, by type of piece (with one more row for
+     * moves with no piece, which have no type) and outcome:
+     * moves[ type * OUTCOMES + outcome ]
+     */
+    private final Histogram[] moves =
+            new Histogram[ ( PieceType.COUNT + 1 ) * OUTCOMES ];
+
+    /**
+     * Squares between the ends of each path checked
+     */
+    private final Histogram paths = new Histogram();
+
+    /**
+     * Times in nanoseconds to load a board, and to draw one
+     */
+    private final Histogram loads = new Histogram();
+    private final Histogram renders = new Histogram();
+
+    private Metrics() {
+        for ( int i = 0; i < this.moves.length; ++i ) {
+            this.moves[ i ] = new Histogram();
+        }
+    }
+
+    /**
+     * Start recording, if that has not already been done.
+     * @return the metrics being recorded
+     */
+    public static synchronized Metrics enable() {
+        if ( current == null ) current = new Metrics();
+        return current;
+    }
+
+    /**
+     * Stop recording. What has been recorded can still be read from
+     * the metrics that {@link #enable()} returned.
+     */
+    public static synchronized void disable() {
+        current = null;
+    }
+
+    /**
+     * @return the metrics being recorded, or null if they are off
+     */
+    public static Metrics current() {
+        return current;
+    }
+
+    /**
+     * Make the metrics visible to JMX clients under
+     * {@link #OBJECT_NAME}, in place of any metrics registered before.
+     * @throws JMException if they cannot be registered
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName( OBJECT_NAME );
+        try {
+            server.registerMBean( this, name );
+        }
+        catch ( InstanceAlreadyExistsException e ) {
+            server.unregisterMBean( name );
+            server.registerMBean( this, name );
+        }
+    }
+
+    /**
+     * Record one move tried.
+     * @param type the type of the piece that was to move, or null if
+     *             there was none
+     * @param status the outcome
+     * @param nanos how long it took
+     */
+    void recordMove( PieceType type, MoveStatus status, long nanos ) {
+        final int row = type == null ? PieceType.COUNT : type.ordinal();
+        this.moves[ row * OUTCOMES + status.ordinal() ].record( nanos );
+    }
+
+    /**
+     * Record one path checked for blockers.
+     * @param squares the number of squares between its ends
+     */
+    void recordPath( int squares ) {
+        this.paths.record( squares );
+    }
+
+    /**
+     * Record the loading of one board.
+     * @param nanos how long it took
+     */
+    void recordLoad( long nanos ) {
+        this.loads.record( nanos );
+    }
+
+    /**
+     * Record the drawing of one board.
+     * @param nanos how long it took
+     */
+    void recordRender( long nanos ) {
+        this.renders.record( nanos );
+    }
+
+    /**
+     * @param type the type of piece, or null for moves with no piece
+     * @param status the outcome
+     * @return the times, in nanoseconds, of the moves of that type of
+     *         piece with that outcome
+     */
+    public Histogram moves( PieceType type, MoveStatus status ) {
+        final int row = type == null ? PieceType.COUNT : type.ordinal();
+        return this.moves[ row * OUTCOMES + status.ordinal() ];
+    }
+
+    /**
+     * @return the numbers of squares between the ends of the paths
+     *         checked for blockers
+     */
+    public Histogram paths() {
+        return this.paths;
+    }
+
+    /**
+     * @return the times, in nanoseconds, taken to load boards
+     */
+    public Histogram loads() {
+        return this.loads;
+    }
+
+    /**
+     * @return the times, in nanoseconds, taken to draw boards
+     */
+    public Histogram renders() {
+        return this.renders;
+    }
+
+    /**
+     * Name every histogram that has values.
+     * @return the histograms by name, in order of name: "move TYPE
+     *         OUTCOME ns" (TYPE being "none" for moves with no piece),
+     *         "path squares", "load ns", and "render ns"
+     */
+    private Map< String, Histogram > histograms() {
+        Map< String, Histogram > named = new TreeMap<>();
+        for ( MoveStatus status: MoveStatus.values() ) {
+            for ( int row = 0; row <= PieceType.COUNT; ++row ) {
+                Histogram moves = this.moves[ row * OUTCOMES +
+                                              status.ordinal() ];
+                if ( moves.count() > 0 ) {
+                    final String type = row == PieceType.COUNT
+                                        ? "none" : PieceType.of( row ).word;
+                    named.put( "move " + type + " " +
+                               status.name().toLowerCase() + " ns", moves );
+                }
+            }
+        }
+        if ( this.paths.count() > 0 ) named.put( "path squares", this.paths );
+        if ( this.loads.count() > 0 ) named.put( "load ns", this.loads );
+        if ( this.renders.count() > 0 ) named.put( "render ns", this.renders );
+        return named;
+    }
+
+    /**
+     * Write every histogram that has values, one per line.
+     * @param out where to write them
+     * @throws IOException if out does
+     */
+    public void report( Appendable out ) throws IOException {
+        for ( Map.Entry< String, Histogram > entry:
+                histograms().entrySet() ) {
+            out.append( String.format( "%-30s %s%n", entry.getKey(),
+                                       entry.getValue() ) );
+        }
+    }
+
+    /**
+     * Apply a function to every histogram that has values.
+     */
+    private Map< String, Long > each( ToLongFunction< Histogram > f ) {
+        Map< String, Long > values = new TreeMap<>();
+        histograms().forEach( ( name, h ) -> values.put(
+                name, f.applyAsLong( h ) ) );
+        return values;
+    }
+
+    @Override
+    public Map< String, Long > getCounts() {
+        return each( Histogram::count );
+    }
+
+    @Override
+    public Map< String, Double > getMeans() {
+        Map< String, Double > values = new TreeMap<>();
+        histograms().forEach( ( name, h ) -> values.put( name, h.mean() ) );
+        return values;
+    }
+
+    @Override
+    public Map< String, Long > getMedians() {
+        return each( h -> h.percentile( 50 ) );
+    }
+
+    @Override
+    public Map< String, Long > getP99s() {
+        return each( h -> h.percentile( 99 ) );
+    }
+
+    @Override
+    public Map< String, Long > getMaxima() {
+        return each( Histogram::max );
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder text = new StringBuilder();
+        try {
+            report( text );
+        }
+        catch ( IOException e ) {
+            // StringBuilders do not throw.
+            throw new IllegalStateException( e );
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void reset() {
+        for ( Histogram moves: this.moves ) {
+            moves.reset();
+        }
+        this.paths.reset();
+        this.loads.reset();
+        this.renders.reset();
+    }
+}
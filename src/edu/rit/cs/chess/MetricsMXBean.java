@@ -0,0 +1,49 @@
+package edu.rit.cs.chess;
+
+import java.util.Map;
+
+/**
+ * What JMX clients, such as jconsole, can see of the {@link Metrics}.
+ * Each map is keyed by histogram name, as in {@link Metrics#report},
+ * and holds only the histograms that have values. Times are in
+ * nanoseconds.
+ * @author RIT CS
+ */
+public interface MetricsMXBean {
+
+    /**
+     * @return the number of values in each histogram
+     */
+    Map< String, Long > getCounts();
+
+    /**
+     * @return the mean of each histogram
+     */
+    Map< String, Double > getMeans();
+
+    /**
+     * @return the median of each histogram
+     */
+    Map< String, Long > getMedians();
+
+    /**
+     * @return the 99th percentile of each histogram
+     */
+    Map< String, Long > getP99s();
+
+    /**
+     * @return the maximum of each histogram
+     */
+    Map< String, Long > getMaxima();
+
+    /**
+     * @return every histogram, one per line, as {@link Metrics#report}
+     *         writes them
+     */
+    String getReport();
+
+    /**
+     * Empty every histogram.
+     */
+    void reset();
+}
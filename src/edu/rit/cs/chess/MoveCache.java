@@ -0,0 +1,231 @@
+package edu.rit.cs.chess;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the cells a piece can move to, keyed by the
+ * {@link Game#positionHash()} of the position and the piece's cell.
+ * {@link Game#legalMoves(int, int)} answers from it once the game has
+ * been given one with {@link Game#useMoveCache(MoveCache)}; games
+ * without one never look at a cache.
+ * <br/>
+ * Since the key is a hash of the position's contents, an entry never
+ * goes stale: any change to the board changes the hash. Two different
+ * positions could in principle share a hash, but with 64-bit hashes
+ * that is too unlikely to matter.
+ * <br/>
+ * The cache is split into sets of {@link #WAYS} entries. A key can only
+ * be kept in one set, chosen by its hash, and each set keeps its entries
+ * in order of use and drops the least recently used one when it is
+ * full. This is nearly as good as keeping the whole cache in order of
+ * use, and needs no links between entries. Keys are kept in arrays of
+ * primitives, so a lookup allocates nothing.
+ * <br/>
+ * One cache may be shared by any number of games on any number of
+ * threads; each set is guarded by one of a fixed number of locks.
+ * @author RIT CS
+ */
+public final class MoveCache {
+
+    /**
+     * Number of entries in each set
+     */
+    static final int WAYS = 4;
+
+    /**
+     * Number of locks the sets are shared out among
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * The odd constant used by SplitMix64 to space out its inputs
+     */
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * log2 of the number of sets
+     */
+    private final int setBits;
+
+    /**
+     * For each entry, set by set and most recently used first: the
+     * position hash, the piece's cell plus one (0 if the entry is
+     * empty), and the cells the piece can move to
+     */
+    private final long[] hashes;
+    private final int[] froms;
+    private final int[][] destinations;
+
+    /**
+     * The locks, one per group of sets
+     */
+    private final Object[] locks = new Object[ STRIPES ];
+
+    /**
+     * Counts of lookups that found an entry, lookups that did not, and
+     * entries dropped to make room for others
+     */
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Make an empty cache.
+     * @param capacity the least number of entries to keep; this is
+     *                 rounded up to a power of two, and at least
+     *                 {@link #WAYS}
+     */
+    public MoveCache( int capacity ) {
+        int sets = 1;
+        int bits = 0;
+        while ( sets * WAYS < capacity ) {
+            sets <<= 1;
+            ++bits;
+        }
+        this.setBits = bits;
+        this.hashes = new long[ sets * WAYS ];
+        this.froms = new int[ sets * WAYS ];
+        this.destinations = new int[ sets * WAYS ][];
+        for ( int i = 0; i < STRIPES; ++i ) {
+            this.locks[ i ] = new Object();
+        }
+    }
+
+    /**
+     * @return the number of entries the cache can hold
+     */
+    public int capacity() {
+        return this.froms.length;
+    }
+
+    /**
+     * Find the set a key belongs in.
+     * @return the index of the set's first entry
+     */
+    private int set( long hash, int from ) {
+        long z = hash + ( from + 1 ) * GAMMA;
+        z = ( z ^ ( z >>> 30 ) ) * 0xBF58476D1CE4E5B9L;
+        z = ( z ^ ( z >>> 27 ) ) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int)( z & ( ( 1L << this.setBits ) - 1 ) ) * WAYS;
+    }
+
+    /**
+     * Move an entry to the front of its set, shifting the entries
+     * before it back by one.
+     * @param first the index of the set's first entry
+     * @param i the index of the entry
+     */
+    private void toFront( int first, int i ) {
+        final long hash = this.hashes[ i ];
+        final int from = this.froms[ i ];
+        final int[] cells = this.destinations[ i ];
+        for ( ; i > first; --i ) {
+            this.hashes[ i ] = this.hashes[ i - 1 ];
+            this.froms[ i ] = this.froms[ i - 1 ];
+            this.destinations[ i ] = this.destinations[ i - 1 ];
+        }
+        this.hashes[ first ] = hash;
+        this.froms[ first ] = from;
+        this.destinations[ first ] = cells;
+    }
+
+    /**
+     * Look up the cells a piece can move to.
+     * @param hash the position's hash
+     * @param from the piece's cell number
+     * @return the cells, in increasing order, or null if they are not
+     *         in the cache; the array must not be changed
+     */
+    int[] get( long hash, int from ) {
+        final int first = set( hash, from );
+        synchronized ( this.locks[ ( first / WAYS ) % STRIPES ] ) {
+            for ( int i = first; i < first + WAYS; ++i ) {
+                if ( this.froms[ i ] == 0 ) break;
+                if ( this.froms[ i ] == from + 1 &&
+                     this.hashes[ i ] == hash ) {
+                    toFront( first, i );
+                    this.hits.increment();
+                    return this.destinations[ first ];
+                }
+            }
+        }
+        this.misses.increment();
+        return null;
+    }
+
+    /**
+     * Remember the cells a piece can move to, dropping the least recently
+     * used entry of its set if the set is full.
+     * @param hash the position's hash
+     * @param from the piece's cell number
+     * @param cells the cells, in increasing order; the array must not be
+     *              changed afterwards
+     */
+    void put( long hash, int from, int[] cells ) {
+        final int first = set( hash, from );
+        final int last = first + WAYS - 1;
+        synchronized ( this.locks[ ( first / WAYS ) % STRIPES ] ) {
+            int i = first;
+            while ( i < last && this.froms[ i ] != 0 &&
+                    ( this.froms[ i ] != from + 1 ||
+                      this.hashes[ i ] != hash ) ) {
+                ++i;
+            }
+            if ( i == last && this.froms[ i ] != 0 &&
+                 ( this.froms[ i ] != from + 1 ||
+                   this.hashes[ i ] != hash ) ) {
+                this.evictions.increment();
+            }
+            this.hashes[ i ] = hash;
+            this.froms[ i ] = from + 1;
+            this.destinations[ i ] = cells;
+            toFront( first, i );
+        }
+    }
+
+    /**
+     * @return the number of lookups that found what they were looking for
+     */
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that did not
+     */
+    public long misses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the number of entries dropped to make room for others
+     */
+    public long evictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Count the entries in use. The count is exact only if no other
+     * thread is using the cache.
+     * @return the number of entries
+     */
+    public int size() {
+        int count = 0;
+        for ( int from: this.froms ) {
+            if ( from != 0 ) ++count;
+        }
+        return count;
+    }
+
+    /**
+     * @return the counts of hits, misses, and evictions, and the number
+     *         of entries in use
+     */
+    @Override
+    public String toString() {
+        return "MoveCache: " + hits() + " hits, " + misses() + " misses, " +
+               evictions() + " evictions, " + size() + "/" + capacity() +
+               " entries";
+    }
+}
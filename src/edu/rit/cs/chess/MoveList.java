@@ -0,0 +1,82 @@
+package edu.rit.cs.chess;
+
+import java.util.Arrays;
+
+/**
+ * A reusable list of moves, stored two ints per move in one array.
+ * Clearing the list keeps its storage, so once it has grown large enough
+ * for a board, collecting moves into it allocates nothing.
+ * @author RIT CS
+ */
+public class MoveList implements MoveSink {
+
+    /**
+     * from, to, from, to, ...
+     */
+    private int[] moves;
+
+    /**
+     * Number of moves in the list
+     */
+    private int size;
+
+    /**
+     * Create an empty list.
+     */
+    public MoveList() {
+        this.moves = new int[ 2 * 32 ];
+    }
+
+    @Override
+    public void move( int from, int to ) {
+        if ( 2 * this.size == this.moves.length ) {
+            this.moves = Arrays.copyOf( this.moves, 2 * this.moves.length );
+        }
+        this.moves[ 2 * this.size ] = from;
+        this.moves[ 2 * this.size + 1 ] = to;
+        ++this.size;
+    }
+
+    /**
+     * Empty the list, keeping its storage.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * @return the number of moves in the list
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param i the index of a move, from 0 to size() - 1
+     * @return the cell number the move starts from
+     */
+    public int from( int i ) {
+        return this.moves[ 2 * i ];
+    }
+
+    /**
+     * @param i the index of a move, from 0 to size() - 1
+     * @return the cell number the move goes to
+     */
+    public int to( int i ) {
+        return this.moves[ 2 * i + 1 ];
+    }
+
+    /**
+     * @return the cell numbers the moves go to, in increasing order, in
+     *         a new array
+     */
+    public int[] destinations() {
+        int[] cells = new int[ this.size ];
+        for ( int i = 0; i < this.size; ++i ) {
+            cells[ i ] = this.moves[ 2 * i + 1 ];
+        }
+        Arrays.sort( cells );
+        return cells;
+    }
+}
@@ -0,0 +1,370 @@
+package edu.rit.cs.chess;
+
+import edu.rit.cs.util.FieldReader;
+
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A binary log of the commands given in a game, read one command at a
+ * time. Logs are written by {@link MoveRecorder}.
+ * <br/>
+ * A log starts with the four bytes "CMLG", then the format version, the
+ * number of rows, and the number of columns. Each command after that
+ * starts with a code:
+ * <ul>
+ *     <li>{@link #UNDO} or {@link #QUIT}: nothing follows;</li>
+ *     <li>{@link #TEXT}: a byte count and that many bytes of UTF-8, a
+ *         line that is not one of the other commands;</li>
+ *     <li>{@link #COORDINATES}: the four coordinates of a move, zigzag
+ *         encoded (0, -1, 1, -2, ... as 0, 1, 2, 3, ...) since a move
+ *         stored this way has a coordinate off the board;</li>
+ *     <li>{@link #CELLS} plus a cell number (row * columns + column): a
+ *         move from that cell, followed by the cell number of its
+ *         destination.</li>
+ * </ul>
+ * All numbers are unsigned varints: seven bits per byte, low bits first,
+ * with the high bit set on every byte but the last. A move on a board of
+ * up to 124 cells takes two bytes.
+ * <br/>
+ * Run as a program, this class converts logs to and from the text form
+ * ChessMoves reads.
+ * @author RIT CS
+ */
+public final class MoveLog {
+
+    /**
+     * What every log starts with
+     */
+    static final byte[] MAGIC = { 'C', 'M', 'L', 'G' };
+
+    /**
+     * The format version written
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Codes that start each command in a log, and what {@link #next()}
+     * returns for those commands
+     */
+    public static final int UNDO = 0, QUIT = 1, TEXT = 2;
+
+    /**
+     * Codes that start a move in a log
+     */
+    static final int COORDINATES = 3, CELLS = 4;
+
+    /**
+     * What {@link #next()} returns for a move
+     */
+    public static final int MOVE = CELLS;
+
+    /**
+     * What {@link #next()} returns for the end of the log
+     */
+    public static final int END = -1;
+
+    /**
+     * The log's bytes, from the command after the current one onwards
+     */
+    private final ByteBuffer data;
+
+    /**
+     * Board dimensions
+     */
+    private final int numRows, numCols;
+
+    /**
+     * The coordinates of the current move
+     */
+    private int fromRow, fromCol, toRow, toCol;
+
+    /**
+     * The current line of text
+     */
+    private String text;
+
+    /**
+     * Read a log held in memory.
+     * @param data the log's bytes, from its position to its limit
+     * @throws IOException if the log's header is bad
+     */
+    public MoveLog( ByteBuffer data ) throws IOException {
+        this.data = data;
+        for ( byte b: MAGIC ) {
+            if ( !data.hasRemaining() || data.get() != b ) {
+                throw new IOException( "Not a move log" );
+            }
+        }
+        final int version = getVarint();
+        if ( version != VERSION ) {
+            throw new IOException( "Unknown move log version " + version );
+        }
+        this.numRows = getVarint();
+        this.numCols = getVarint();
+    }
+
+    /**
+     * Read a log file by mapping it into memory.
+     * @param fileName the name of the file
+     * @return the log, positioned at its first command
+     * @throws IOException if the file cannot be read or is not a log
+     */
+    public static MoveLog open( String fileName ) throws IOException {
+        try ( FileChannel channel = FileChannel.open(
+                Paths.get( fileName ), StandardOpenOption.READ ) ) {
+            return new MoveLog( channel.map( FileChannel.MapMode.READ_ONLY,
+                                             0, channel.size() ) );
+        }
+    }
+
+    /**
+     * @return the number of rows on the board the log is for
+     */
+    public int numRows() {
+        return this.numRows;
+    }
+
+    /**
+     * @return the number of columns on the board the log is for
+     */
+    public int numCols() {
+        return this.numCols;
+    }
+
+    /**
+     * Move on to the next command.
+     * @return {@link #MOVE}, {@link #UNDO}, {@link #QUIT}, {@link #TEXT},
+     *         or {@link #END} if there are no more commands
+     * @throws IllegalStateException if the log is cut short
+     */
+    public int next() {
+        if ( !this.data.hasRemaining() ) return END;
+        final int code = getVarint();
+        switch ( code ) {
+            case UNDO:
+            case QUIT:
+                return code;
+            case TEXT:
+                final int length = getVarint();
+                if ( this.data.remaining() < length ) throw truncated();
+                byte[] bytes = new byte[ length ];
+                this.data.get( bytes );
+                this.text = new String( bytes, StandardCharsets.UTF_8 );
+                return TEXT;
+            case COORDINATES:
+                this.fromRow = unzigzag( getVarint() );
+                this.fromCol = unzigzag( getVarint() );
+                this.toRow = unzigzag( getVarint() );
+                this.toCol = unzigzag( getVarint() );
+                return MOVE;
+            default:
+                final int from = code - CELLS, to = getVarint();
+                this.fromRow = from / this.numCols;
+                this.fromCol = from % this.numCols;
+                this.toRow = to / this.numCols;
+                this.toCol = to % this.numCols;
+                return MOVE;
+        }
+    }
+
+    /**
+     * @return the row of the piece the current move moves
+     * @rit.pre the current command is a {@link #MOVE}
+     */
+    public int fromRow() { return this.fromRow; }
+
+    /**
+     * @return the column of the piece the current move moves
+     * @rit.pre the current command is a {@link #MOVE}
+     */
+    public int fromCol() { return this.fromCol; }
+
+    /**
+     * @return the row of the current move's destination
+     * @rit.pre the current command is a {@link #MOVE}
+     */
+    public int toRow() { return this.toRow; }
+
+    /**
+     * @return the column of the current move's destination
+     * @rit.pre the current command is a {@link #MOVE}
+     */
+    public int toCol() { return this.toCol; }
+
+    /**
+     * @return the current line of text
+     * @rit.pre the current command is {@link #TEXT}
+     */
+    public String text() { return this.text; }
+
+    /**
+     * Read an unsigned {@link Varint}.
+     * @return its value
+     */
+    private int getVarint() {
+        try {
+            return Varint.get( this.data );
+        }
+        catch ( BufferUnderflowException e ) {
+            throw truncated();
+        }
+        catch ( IllegalArgumentException e ) {
+            throw new IllegalStateException( "Bad varint in move log" );
+        }
+    }
+
+    /**
+     * Undo the zigzag encoding of a signed int.
+     */
+    private static int unzigzag( int n ) {
+        return ( n >>> 1 ) ^ -( n & 1 );
+    }
+
+    /**
+     * @return the exception for a log that ends in the middle of a command
+     */
+    private static IllegalStateException truncated() {
+        return new IllegalStateException( "Move log is cut short" );
+    }
+
+    /**
+     * Convert commands in the text form ChessMoves reads into a log.
+     * Lines that are a move in the form "r c r c", "undo", or "quit" are
+     * stored compactly; any other line is stored as text, so that the
+     * log converts back to the same lines. Line endings are not kept:
+     * see {@link #toText(MoveLog, PrintStream)}.
+     * @param in the commands
+     * @param out where the log goes
+     * @param numRows number of rows on the board
+     * @param numCols number of columns on the board
+     */
+    public static void fromText( InputStream in, OutputStream out,
+                                 int numRows, int numCols ) {
+        FieldReader lines = new FieldReader( in );
+        MoveRecorder log = new MoveRecorder( out, numRows, numCols );
+        while ( lines.nextLine() ) {
+            final String line = lines.line();
+            if ( line.equals( Session.UNDO ) ) {
+                log.undo();
+            }
+            else if ( line.equals( Session.END_GAME ) ) {
+                log.quit();
+            }
+            else if ( !recordMove( lines, line, log ) ) {
+                log.text( line );
+            }
+        }
+        log.flush();
+    }
+
+    /**
+     * Record a line as a move if it is one in the form "r c r c".
+     * @param lines the reader, at the line
+     * @param line the line
+     * @param log where to record it
+     * @return true iff it was recorded
+     */
+    private static boolean recordMove( FieldReader lines, String line,
+                                       MoveRecorder log ) {
+        if ( lines.fieldCount() != 4 ) return false;
+        final int[] move = new int[ 4 ];
+        try {
+            for ( int i = 0; i < 4; ++i ) {
+                move[ i ] = lines.intField( i );
+            }
+        }
+        catch ( NumberFormatException e ) {
+            return false;
+        }
+        if ( !line.equals( moveText( move[ 0 ], move[ 1 ],
+                                     move[ 2 ], move[ 3 ] ) ) ) {
+            return false;
+        }
+        log.move( move[ 0 ], move[ 1 ], move[ 2 ], move[ 3 ] );
+        return true;
+    }
+
+    /**
+     * Write a move in the text form ChessMoves reads.
+     * @return "fromRow fromCol toRow toCol"
+     */
+    static String moveText( int fromRow, int fromCol, int toRow, int toCol ) {
+        return fromRow + " " + fromCol + " " + toRow + " " + toCol;
+    }
+
+    /**
+     * Convert the rest of a log to the text form ChessMoves reads, one
+     * command per line. Every line ends with "\n", including the last,
+     * whatever the endings of the text the log was made from; ChessMoves
+     * reads the commands the same either way.
+     * @param log the log
+     * @param out where the text goes
+     */
+    public static void toText( MoveLog log, PrintStream out ) {
+        for ( int command = log.next(); command != END;
+              command = log.next() ) {
+            switch ( command ) {
+                case UNDO:
+                    out.print( Session.UNDO );
+                    break;
+                case QUIT:
+                    out.print( Session.END_GAME );
+                    break;
+                case TEXT:
+                    out.print( log.text() );
+                    break;
+                default:
+                    out.print( moveText( log.fromRow(), log.fromCol(),
+                                         log.toRow(), log.toCol() ) );
+            }
+            out.print( '\n' );
+        }
+        out.flush();
+    }
+
+    /**
+     * Convert a move log.
+     * @param args either a board setup file, a text file of commands, and
+     *             the log file to write; or a log file and the text file
+     *             to write
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main( String[] args ) throws IOException {
+        if ( args.length == 3 ) {
+            Game game = new Game( args[ 0 ] );
+            if ( !game.ok ) System.exit( 2 );
+            try ( InputStream in = new FileInputStream( args[ 1 ] );
+                  OutputStream out = new FileOutputStream( args[ 2 ] ) ) {
+                fromText( in, out, game.numRows(), game.numCols() );
+            }
+        }
+        else if ( args.length == 2 ) {
+            try ( PrintStream out = new PrintStream( new BufferedOutputStream(
+                    new FileOutputStream( args[ 1 ] ) ), false,
+                    StandardCharsets.UTF_8 ) ) {
+                toText( open( args[ 0 ] ), out );
+            }
+        }
+        else {
+            System.out.println(
+                    "Usage: java edu.rit.cs.chess.MoveLog " +
+                    "board-setup-file moves-text-file moves-log-file" +
+                    System.lineSeparator() +
+                    "       java edu.rit.cs.chess.MoveLog " +
+                    "moves-log-file moves-text-file" );
+            System.exit( 1 );
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package edu.rit.cs.chess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the commands of a game to a binary move log, in the format
+ * described in {@link MoveLog}. Commands are recorded whether or not the
+ * game accepts them. Problems writing the log are thrown as
+ * UncheckedIOExceptions.
+ * @author RIT CS
+ */
+public final class MoveRecorder implements Closeable {
+
+    /**
+     * Where the log goes
+     */
+    private final OutputStream out;
+
+    /**
+     * Board dimensions, for numbering cells
+     */
+    private final int numRows, numCols;
+
+    /**
+     * Bytes not yet written
+     */
+    private final byte[] buffer = new byte[ 1 << 13 ];
+
+    /**
+     * Number of bytes in the buffer
+     */
+    private int size;
+
+    /**
+     * Start a log by writing its header.
+     * @param out where the log goes; it is written in large blocks, so it
+     *            need not be buffered
+     * @param numRows number of rows on the board
+     * @param numCols number of columns on the board
+     */
+    public MoveRecorder( OutputStream out, int numRows, int numCols ) {
+        this.out = out;
+        this.numRows = numRows;
+        this.numCols = numCols;
+        for ( byte b: MoveLog.MAGIC ) {
+            put( b );
+        }
+        putVarint( MoveLog.VERSION );
+        putVarint( numRows );
+        putVarint( numCols );
+    }
+
+    /**
+     * Record a move. If both ends are on the board, it is stored as a
+     * pair of cell numbers; otherwise, as four coordinates.
+     * @param fromRow row of the piece to move
+     * @param fromCol column of the piece to move
+     * @param toRow row of the destination
+     * @param toCol column of the destination
+     */
+    public void move( int fromRow, int fromCol, int toRow, int toCol ) {
+        if ( onBoard( fromRow, fromCol ) && onBoard( toRow, toCol ) ) {
+            putVarint( MoveLog.CELLS + fromRow * this.numCols + fromCol );
+            putVarint( toRow * this.numCols + toCol );
+        }
+        else {
+            putVarint( MoveLog.COORDINATES );
+            putVarint( zigzag( fromRow ) );
+            putVarint( zigzag( fromCol ) );
+            putVarint( zigzag( toRow ) );
+            putVarint( zigzag( toCol ) );
+        }
+    }
+
+    /**
+     * Record taking back a move.
+     */
+    public void undo() {
+        putVarint( MoveLog.UNDO );
+    }
+
+    /**
+     * Record the end of the game.
+     */
+    public void quit() {
+        putVarint( MoveLog.QUIT );
+    }
+
+    /**
+     * Record a line that is not a move, undo, or quit command, as is.
+     * @param line the line, without its ending
+     */
+    public void text( String line ) {
+        byte[] bytes = line.getBytes( StandardCharsets.UTF_8 );
+        putVarint( MoveLog.TEXT );
+        putVarint( bytes.length );
+        for ( byte b: bytes ) {
+            put( b );
+        }
+    }
+
+    /**
+     * Is a cell on the board?
+     */
+    private boolean onBoard( int row, int col ) {
+        return 0 <= row && row < this.numRows && 0 <= col && col < this.numCols;
+    }
+
+    /**
+     * Map a signed int onto an unsigned one, small magnitudes first:
+     * 0, -1, 1, -2, ... become 0, 1, 2, 3, ...
+     */
+    private static int zigzag( int n ) {
+        return ( n << 1 ) ^ ( n >> 31 );
+    }
+
+    /**
+     * Add an int to the log as a {@link Varint}.
+     * @param n the int, taken as unsigned
+     */
+    private void putVarint( int n ) {
+        if ( this.buffer.length - this.size < Varint.MAX_BYTES ) {
+            flush();
+        }
+        this.size = Varint.put( this.buffer, this.size, n );
+    }
+
+    /**
+     * Add a byte to the log.
+     */
+    private void put( byte b ) {
+        if ( this.size == this.buffer.length ) {
+            flush();
+        }
+        this.buffer[ this.size++ ] = b;
+    }
+
+    /**
+     * Write out everything recorded so far.
+     */
+    public void flush() {
+        try {
+            this.out.write( this.buffer, 0, this.size );
+            this.out.flush();
+            this.size = 0;
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Write out everything recorded and close the log.
+     */
+    @Override
+    public void close() {
+        flush();
+        try {
+            this.out.close();
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package edu.rit.cs.chess;
+
+import edu.rit.cs.util.ActionResult;
+
+/**
+ * An {@link ActionResult} for a failed move, wrapping a {@link MoveStatus}.
+ * Only the numbers involved are stored; the error message is built
+ * the first time {@link MoveResult#message()} is called.
+ * @author RIT CS
+ */
+public class MoveResult extends ActionResult {
+
+    /**
+     * Why the move failed
+     */
+    public final MoveStatus status;
+
+    /**
+     * The kind of piece that tried to move, or null if there was none
+     */
+    private final PieceType type;
+
+    /**
+     * The cells involved
+     */
+    private final int fromRow, fromCol, toRow, toCol;
+
+    /**
+     * The message, once it has been built
+     */
+    private String message;
+
+    /**
+     * Record the outcome of a failed move.
+     * @param status why the move failed (not OK)
+     * @param type the kind of piece that tried to move, or null
+     * @param fromRow row of the starting cell
+     * @param fromCol column of the starting cell
+     * @param toRow row of the destination cell
+     * @param toCol column of the destination cell
+     */
+    public MoveResult( MoveStatus status, PieceType type,
+                       int fromRow, int fromCol, int toRow, int toCol ) {
+        super( status == MoveStatus.OK );
+        this.status = status;
+        this.type = type;
+        this.fromRow = fromRow;
+        this.fromCol = fromCol;
+        this.toRow = toRow;
+        this.toCol = toCol;
+    }
+
+    /**
+     * What happened?
+     * @return the explanation string, built on first use
+     */
+    @Override
+    public String message() {
+        if ( this.message == null ) {
+            this.message = this.status.message(
+                    this.type, this.fromRow, this.fromCol,
+                    this.toRow, this.toCol );
+        }
+        return this.message;
+    }
+}
@@ -0,0 +1,18 @@
+package edu.rit.cs.chess;
+
+/**
+ * Receives moves from a move generator, such as
+ * {@link Game#generateAllMoves(MoveSink)}, one at a time, as plain ints.
+ * Cells are numbered row by row: cell = row * numCols + column.
+ * @author RIT CS
+ */
+@FunctionalInterface
+public interface MoveSink {
+
+    /**
+     * Accept one legal move.
+     * @param from the cell number of the piece that can move
+     * @param to the cell number it can move to
+     */
+    void move( int from, int to );
+}
@@ -0,0 +1,61 @@
+package edu.rit.cs.chess;
+
+/**
+ * The possible outcomes of an attempt to move a piece.
+ * These are returned by {@link Game#tryMove(int, int, int, int)} so that
+ * the outcome of a move can be reported without creating any objects.
+ * The text explaining a failure is only built when someone asks for it.
+ * @author RIT CS
+ */
+public enum MoveStatus {
+    /** The move was made. */
+    OK,
+    /** The starting cell is off the board. */
+    NO_SUCH_POSITION,
+    /** The destination cell is off the board. */
+    NO_SUCH_DESTINATION,
+    /** There is no piece in the starting cell. */
+    NO_SUCH_PIECE,
+    /** The piece does not move that way. */
+    ILLEGAL,
+    /** Another piece is in the way. */
+    BLOCKED;
+
+    /**
+     * Build the explanation of this outcome.
+     * @param type the kind of piece that was to move (only used for ILLEGAL)
+     * @param fromRow row of the starting cell
+     * @param fromCol column of the starting cell
+     * @param toRow row of the destination cell
+     * @param toCol column of the destination cell
+     * @return the message, e.g. "Illegal pawn move (2,1)" ("" if OK)
+     */
+    public String message( PieceType type,
+                           int fromRow, int fromCol, int toRow, int toCol ) {
+        switch ( this ) {
+            case NO_SUCH_POSITION:
+                return "No such position: " + cell( fromRow, fromCol );
+            case NO_SUCH_DESTINATION:
+                return "No such destination: " + cell( toRow, toCol );
+            case NO_SUCH_PIECE:
+                return "No such piece: " + cell( fromRow, fromCol );
+            case ILLEGAL:
+                return "Illegal " + type.word + " move " + cell( toRow, toCol );
+            case BLOCKED:
+                return "The way is blocked: " + cell( fromRow, fromCol ) +
+                       " -> " + cell( toRow, toCol );
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Format a cell the same way {@link edu.rit.cs.util.Coordinates} does.
+     * @param row the row
+     * @param col the column
+     * @return "(row,col)"
+     */
+    private static String cell( int row, int col ) {
+        return "(" + row + ',' + col + ')';
+    }
+}
@@ -1,37 +1,65 @@
 package edu.rit.cs.chess;
 
-import edu.rit.cs.util.ActionResult;
-import edu.rit.cs.util.Coordinates;
-
 /**
- * This is the class representing the pawn.
+ * This is the class holding the rules for the pawn.
  * @author Ryan Nowak
  */
 public class Pawn extends Piece{
 
     /**
-     * Constructs a new pawn
-     * @param name Name of chess piece
-     * @param pos Position of piece on board
-     * @param board Board to place the piece on
+     * Constructs the rules for pawns; there is only one
+     */
+    Pawn() {}
+
+    /**
+     * Gets the kind of piece this is
+     * @return PieceType.PAWN
      */
-    public Pawn(String name, Coordinates pos, Game board) {
-        super(name, pos, board);
+    @Override
+    public PieceType type() {
+        return PieceType.PAWN;
     }
 
     /**
      * Checks if move is legal for pawn
-     * @param newPos Coordinates of new position
-     * @return ActionResult.OK if move is legal.
-     * Else, returns ActionResult w/ error message.
+     * @param board Board the pawn is on
+     * @param row Row of the pawn
+     * @param column Column of the pawn
+     * @param newRow Row of new position
+     * @param newCol Column of new position
+     * @return MoveStatus.OK if move is legal.
+     * Else, returns the reason it is not.
      */
-    public ActionResult isLegalMove(Coordinates newPos) {
-        Coordinates pos = this.getPos();
-        if (newPos.row() == pos.row()-1 && newPos.column() == pos.column()) {
-            return ActionResult.OK;
+    @Override
+    protected MoveStatus checkMove(Game board, int row, int column,
+                                   int newRow, int newCol) {
+        AttackTables tables = board.tables();
+        boolean reachable;
+        if (tables != null) {
+            reachable = tables.attacks(PieceType.PAWN, row, column,
+                                       newRow, newCol);
         }
         else {
-            return new ActionResult("Illegal pawn move " + newPos);
+            reachable = newRow == row-1 && newCol == column;
+        }
+        if (reachable) {
+            return MoveStatus.OK;
         }
+        else {
+            return MoveStatus.ILLEGAL;
+        }
+    }
+
+    /**
+     * Reports every legal move for pawn
+     * @param board Board the pawn is on
+     * @param row Row of the pawn
+     * @param column Column of the pawn
+     * @param sink receives each move as a pair of cell numbers
+     */
+    @Override
+    public void generateMoves(Game board, int row, int column,
+                              MoveSink sink) {
+        step(board, row, column, -1, 0, sink);
     }
 }
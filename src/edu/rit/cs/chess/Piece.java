@@ -6,77 +6,154 @@ package edu.rit.cs.chess;
  * You basically must implement this class from scratch.
  */
 
-import edu.rit.cs.util.ActionResult;
-import edu.rit.cs.util.Coordinates;
-
 /**
- * Abstract class for all chess pieces.
+ * Abstract class for the rules of the chess pieces.
+ * The board does not hold piece objects. Each piece is a small int code,
+ * and there is one shared, stateless rule object per piece type, which
+ * is told where the piece is and on which board.
+ * A piece's code holds its type's ordinal plus one in the low
+ * {@link Piece#TYPE_BITS} bits (the same code a {@link Position} or
+ * snapshot uses), and above them the number of its name in the game's
+ * table of names. Name number 0 is the type's letter alone, so 0 is never
+ * a piece's code and can mean an empty cell.
  * @author Ryan Nowak
  */
 public abstract class Piece {
-    private String name;
-    private Coordinates pos;
-    private Game board;
 
     /**
-     * Initializes new chess piece
-     * @param name Name of chess piece
-     * @param pos Position of piece on board
-     * @param board Board to place the piece on
+     * Number of low bits of a piece's code that give its type
      */
-    public Piece(String name, Coordinates pos, Game board) {
-        this.name = name;
-        this.pos = pos;
-        this.board = board;
-    }
+    static final int TYPE_BITS = 3;
+
+    /**
+     * The rules for each type, by ordinal
+     */
+    private static final Piece[] RULES = {
+            new Rook(), new Knight(), new Bishop(),
+            new Queen(), new King(), new Pawn()
+    };
 
     /**
-     * Gets the board that the piece is on
-     * @return board that piece is on
+     * Make a piece's code.
+     * @param type the kind of piece
+     * @param nameId the number of its name in the game's table, or 0 if
+     *               it is named by its type's letter alone
+     * @return the code, which is never 0
      */
-    protected Game getBoard() {
-        return this.board;
+    static int encode(PieceType type, int nameId) {
+        return nameId << TYPE_BITS | (type.ordinal() + 1);
     }
 
     /**
-     * Abstract method that checks if a move to the specified location is legal.
-     * @param newPos New position to move the piece to
-     * @return ActionResult.OK if move is legal.
-     * Else, returns ActionResult w/ error message.
+     * Gets the kind of piece a code is for
+     * @param code the piece's code (not 0)
+     * @return the piece's type
      */
-    protected abstract ActionResult isLegalMove(Coordinates newPos);
+    static PieceType typeOf(int code) {
+        return PieceType.of((code & ((1 << TYPE_BITS) - 1)) - 1);
+    }
 
     /**
-     * Moves the piece if the move is legal. Otherwise, the piece stays put
-     * @param end Position to move piece to
-     * @return ActionResult based on success or failure of the move
+     * Gets the number of the name of the piece a code is for
+     * @param code the piece's code (not 0)
+     * @return the number of its name in the game's table
      */
-    public ActionResult makeMove( Coordinates end ) {
-        ActionResult result = isLegalMove(end);
-        if (result.ok) {
-            setPos(end);
-        }
-        return result;
+    static int nameId(int code) {
+        return code >>> TYPE_BITS;
     }
 
-    @Override
-    public String toString() {
-        return this.name;
+    /**
+     * Gets the rules for the piece a code is for
+     * @param code the piece's code (not 0)
+     * @return the shared rule object for its type
+     */
+    static Piece rules(int code) {
+        return RULES[(code & ((1 << TYPE_BITS) - 1)) - 1];
     }
 
     /**
-     * Gets the current position of the piece
-     * @return position of piece
+     * Rule objects are only made for {@link Piece#RULES}.
      */
-    protected Coordinates getPos() {
-        return this.pos;
+    Piece() {}
+
+    /**
+     * Abstract method that gets the kind of piece this is
+     * @return the piece's type
+     */
+    public abstract PieceType type();
+
+    /**
+     * Abstract method that checks if a move to the specified location is
+     * legal, without creating any objects.
+     * @param board Board the piece is on
+     * @param row Row of the piece
+     * @param column Column of the piece
+     * @param newRow Row of the new position
+     * @param newCol Column of the new position
+     * @return MoveStatus.OK if move is legal.
+     * Else, returns ILLEGAL or BLOCKED.
+     */
+    protected abstract MoveStatus checkMove(Game board, int row, int column,
+                                            int newRow, int newCol);
+
+    /**
+     * Abstract method that reports every legal move of a piece of this
+     * kind, working from the piece's geometry rather than by trying every
+     * cell. A piece never reports a move onto its own cell.
+     * @param board Board the piece is on
+     * @param row Row of the piece
+     * @param column Column of the piece
+     * @param sink receives each move as a pair of cell numbers
+     */
+    public abstract void generateMoves(Game board, int row, int column,
+                                       MoveSink sink);
+
+    /**
+     * Reports the cells reached by sliding in one direction, up to and
+     * including the first occupied cell, which would be a capture.
+     * That cell is found first, so the cells before it need not be
+     * looked at.
+     * @param game Board the piece is on
+     * @param row Row of the piece
+     * @param column Column of the piece
+     * @param dRow row step (-1, 0, or 1)
+     * @param dCol column step (-1, 0, or 1)
+     * @param sink receives each move
+     */
+    protected static void slide(Game game, int row, int column,
+                                int dRow, int dCol, MoveSink sink) {
+        int from = game.cell(row, column);
+        int blocker = game.nearestBlocker(row, column, dRow, dCol);
+        for (int r = row + dRow, c = column + dCol;
+             game.inBounds(r, c); r += dRow, c += dCol) {
+            int to = game.cell(r, c);
+            sink.move(from, to);
+            if (to == blocker) {
+                break;
+            }
+        }
     }
 
     /**
-     * Sets the current position of the piece
-     * @param newPos New position to set the piece to
+     * Reports the cell at a fixed offset from a piece, if it is on
+     * the board.
+     * @param game Board the piece is on
+     * @param row Row of the piece
+     * @param column Column of the piece
+     * @param dRow row offset
+     * @param dCol column offset
+     * @param sink receives the move
      */
-    public void setPos(Coordinates newPos) {
-        this.pos = newPos;
+    protected static void step(Game game, int row, int column,
+                               int dRow, int dCol, MoveSink sink) {
+        int r = row + dRow, c = column + dCol;
+        if (game.inBounds(r, c)) {
+            sink.move(game.cell(row, column), game.cell(r, c));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type().word;
     }
 }
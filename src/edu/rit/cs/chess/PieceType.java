@@ -0,0 +1,69 @@
+package edu.rit.cs.chess;
+
+/**
+ * The six kinds of chess piece, identified by the first letter of
+ * a piece's name in the setup file.
+ * @author RIT CS
+ */
+public enum PieceType {
+    ROOK( 'R', "rook" ),
+    KNIGHT( 'N', "knight" ),
+    BISHOP( 'B', "bishop" ),
+    QUEEN( 'Q', "queen" ),
+    KING( 'K', "king" ),
+    PAWN( 'P', "pawn" );
+
+    /**
+     * Upper case letter that starts the name of a piece of this type
+     */
+    public final char letter;
+
+    /**
+     * Lower case word used in error messages, e.g., "Illegal rook move"
+     */
+    public final String word;
+
+    /**
+     * The letter alone, which is the name of a piece of this type that
+     * has no number after its letter
+     */
+    final String letterName;
+
+    /**
+     * Cached copy of {@link PieceType#values()}
+     */
+    private static final PieceType[] VALUES = values();
+
+    /**
+     * Number of piece types
+     */
+    public static final int COUNT = VALUES.length;
+
+    PieceType( char letter, String word ) {
+        this.letter = letter;
+        this.word = word;
+        this.letterName = String.valueOf( letter );
+    }
+
+    /**
+     * Look up a piece type by its ordinal without cloning values().
+     * @param ordinal the value of {@link PieceType#ordinal()}
+     * @return the matching type
+     */
+    public static PieceType of( int ordinal ) {
+        return VALUES[ ordinal ];
+    }
+
+    /**
+     * Determine the piece type from the first letter of a piece's name.
+     * @param letter the letter, upper or lower case
+     * @return the matching type, or null if the letter names no piece
+     */
+    public static PieceType fromLetter( char letter ) {
+        final char upper = Character.toUpperCase( letter );
+        for ( PieceType type: VALUES ) {
+            if ( type.letter == upper ) return type;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,189 @@
+package edu.rit.cs.chess;
+
+import java.util.Arrays;
+
+/**
+ * An unchanging board position: the board's size and the type of the
+ * piece, if any, in each cell. Positions are values -- two positions
+ * are equal if they have the same pieces in the same places -- so they
+ * can be shared between threads and used as keys in caches.
+ * <br/>
+ * The cells are packed four bits apiece, two to a byte, in the same
+ * codes a snapshot uses (0 for empty, or the type's ordinal plus one).
+ * With the object and array headers a position takes 88 bytes on an
+ * 8x8 board and 144 bytes on a 13x13 board, where copying a
+ * {@link Game}, with its board store and undo stack, takes 736 and
+ * 1160 bytes.
+ * A move makes a new position by copying the packed cells, which for
+ * boards like these is cheaper than sharing structure would be.
+ * <br/>
+ * A position does not hold the pieces' names, only their types.
+ * @author RIT CS
+ */
+public final class Position {
+
+    /**
+     * Board dimensions
+     */
+    private final int numRows, numCols;
+
+    /**
+     * Number of pieces on the board
+     */
+    private final int pieceCount;
+
+    /**
+     * The same hash a game in this position has
+     * @see Game#positionHash()
+     */
+    private final long hash;
+
+    /**
+     * The keys the hash is made from, shared by all boards of this size
+     */
+    private final Zobrist zobrist;
+
+    /**
+     * One four-bit code per cell, row by row, the first of each pair of
+     * cells in the high half of its byte
+     */
+    private final byte[] cells;
+
+    /**
+     * Make a position.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     * @param pieceCount number of pieces
+     * @param hash the position's Zobrist hash
+     * @param zobrist the keys the hash is made from
+     * @param cells the packed cells, which are not copied
+     */
+    Position( int numRows, int numCols, int pieceCount, long hash,
+              Zobrist zobrist, byte[] cells ) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.pieceCount = pieceCount;
+        this.hash = hash;
+        this.zobrist = zobrist;
+        this.cells = cells;
+    }
+
+    /**
+     * Make an array big enough for the packed cells of a board.
+     * @param cells the number of cells
+     * @return the array, all empty
+     */
+    static byte[] newCells( int cells ) {
+        return new byte[ ( cells + 1 ) / 2 ];
+    }
+
+    /**
+     * Read a packed cell.
+     * @param cells the packed cells
+     * @param cell the cell number
+     * @return 0, or the type's ordinal plus one
+     */
+    static int code( byte[] cells, int cell ) {
+        return ( cells[ cell >> 1 ] >> ( ( ~cell & 1 ) << 2 ) ) & 0xF;
+    }
+
+    /**
+     * Write a packed cell.
+     * @param cells the packed cells
+     * @param cell the cell number
+     * @param code 0, or the type's ordinal plus one
+     */
+    static void setCode( byte[] cells, int cell, int code ) {
+        final int shift = ( ~cell & 1 ) << 2;
+        cells[ cell >> 1 ] = (byte)( ( cells[ cell >> 1 ] & ~( 0xF << shift ) )
+                                     | code << shift );
+    }
+
+    /**
+     * @return the number of rows on the board
+     */
+    public int numRows() {
+        return this.numRows;
+    }
+
+    /**
+     * @return the number of columns on the board
+     */
+    public int numCols() {
+        return this.numCols;
+    }
+
+    /**
+     * @return the number of pieces on the board
+     */
+    public int pieceCount() {
+        return this.pieceCount;
+    }
+
+    /**
+     * @return the hash a game in this position has
+     * @see Game#positionHash()
+     */
+    public long positionHash() {
+        return this.hash;
+    }
+
+    /**
+     * @param row the row of a cell
+     * @param col the column of the cell
+     * @return the type of the piece there, or null if there is none
+     * @rit.pre the cell is on the board
+     */
+    public PieceType get( int row, int col ) {
+        final int code = code( this.cells, row * this.numCols + col );
+        return code == 0 ? null : PieceType.of( code - 1 );
+    }
+
+    /**
+     * Make the position that follows moving a piece, capturing whatever
+     * is at its destination. Whether the piece can move that way is not
+     * checked.
+     * @param from the cell number (row * numCols + column) of the piece
+     * @param to the cell number of its destination
+     * @return the new position; this one is unchanged
+     * @rit.pre there is a piece in cell from, and from != to
+     */
+    public Position move( int from, int to ) {
+        final int moving = code( this.cells, from );
+        final int taken = code( this.cells, to );
+        final Zobrist zobrist = this.zobrist;
+        final PieceType type = PieceType.of( moving - 1 );
+        long hash = this.hash ^ zobrist.key( type, from ) ^
+                    zobrist.key( type, to );
+        if ( taken != 0 ) {
+            hash ^= zobrist.key( PieceType.of( taken - 1 ), to );
+        }
+        byte[] cells = this.cells.clone();
+        setCode( cells, from, 0 );
+        setCode( cells, to, moving );
+        return new Position( this.numRows, this.numCols,
+                             this.pieceCount - ( taken != 0 ? 1 : 0 ),
+                             hash, zobrist, cells );
+    }
+
+    /**
+     * Are two positions the same size, with the same types of pieces in
+     * the same cells?
+     * @param other the other object
+     * @return true iff other is an equal position
+     */
+    @Override
+    public boolean equals( Object other ) {
+        if ( this == other ) return true;
+        if ( !( other instanceof Position ) ) return false;
+        Position that = (Position)other;
+        return this.hash == that.hash && this.numRows == that.numRows &&
+               this.numCols == that.numCols &&
+               Arrays.equals( this.cells, that.cells );
+    }
+
+    @Override
+    public int hashCode() {
+        return (int)( this.hash ^ ( this.hash >>> 32 ) );
+    }
+}
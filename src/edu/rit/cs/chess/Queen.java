@@ -1,45 +1,83 @@
 package edu.rit.cs.chess;
 
-import edu.rit.cs.util.ActionResult;
-import edu.rit.cs.util.Coordinates;
-
 /**
- * This is the class representing the queen.
+ * This is the class holding the rules for the queen.
  * @author Ryan Nowak
  */
 public class Queen extends Piece{
 
     /**
-     * Constructs a new queen
-     * @param name Name of chess piece
-     * @param pos Position of piece on board
-     * @param board Board to place the piece on
+     * The eight directions a queen slides in
+     */
+    private static final int[][] DIRECTIONS = {
+            { -1, 0 }, { -1, 1 }, { 0, 1 }, { 1, 1 },
+            { 1, 0 }, { 1, -1 }, { 0, -1 }, { -1, -1 }
+    };
+
+    /**
+     * Constructs the rules for queens; there is only one
      */
-    public Queen(String name, Coordinates pos, Game board) {
-        super(name, pos, board);
+    Queen() {}
+
+    /**
+     * Gets the kind of piece this is
+     * @return PieceType.QUEEN
+     */
+    @Override
+    public PieceType type() {
+        return PieceType.QUEEN;
     }
 
     /**
      * Checks if move is legal for queen
-     * @param newPos Coordinates of new position
-     * @return ActionResult.OK if move is legal.
-     * Else, returns ActionResult w/ error message.
+     * @param board Board the queen is on
+     * @param row Row of the queen
+     * @param column Column of the queen
+     * @param newRow Row of new position
+     * @param newCol Column of new position
+     * @return MoveStatus.OK if move is legal.
+     * Else, returns the reason it is not.
      */
-    public ActionResult isLegalMove(Coordinates newPos) {
-        Coordinates pos = this.getPos();
-        if ((newPos.row() == pos.row() && newPos.column() != pos.column()) ||
-                (newPos.row() != pos.row() && newPos.column() == pos.column()) ||
-                (newPos.row() + newPos.column() == pos.row() + pos.column()) ||
-                (newPos.row() - pos.row() == newPos.column() - pos.column())) {
-            if (!getBoard().isClearPath(pos, newPos)) {
-                return new ActionResult("The way is blocked: " + getPos() + " -> " + newPos);
+    @Override
+    protected MoveStatus checkMove(Game board, int row, int column,
+                                   int newRow, int newCol) {
+        AttackTables tables = board.tables();
+        boolean reachable;
+        if (tables != null) {
+            reachable = tables.attacks(PieceType.QUEEN, row, column,
+                                       newRow, newCol);
+        }
+        else {
+            reachable = (newRow == row && newCol != column) ||
+                    (newRow != row && newCol == column) ||
+                    (newRow + newCol == row + column) ||
+                    (newRow - row == newCol - column);
+        }
+        if (reachable) {
+            if (!board.isClearPath(row, column, newRow, newCol)) {
+                return MoveStatus.BLOCKED;
             }
             else {
-                return ActionResult.OK;
+                return MoveStatus.OK;
             }
         }
         else {
-            return new ActionResult("Illegal queen move " + newPos);
+            return MoveStatus.ILLEGAL;
+        }
+    }
+
+    /**
+     * Reports every legal move for queen
+     * @param board Board the queen is on
+     * @param row Row of the queen
+     * @param column Column of the queen
+     * @param sink receives each move as a pair of cell numbers
+     */
+    @Override
+    public void generateMoves(Game board, int row, int column,
+                              MoveSink sink) {
+        for (int[] d : DIRECTIONS) {
+            slide(board, row, column, d[0], d[1], sink);
         }
     }
 }
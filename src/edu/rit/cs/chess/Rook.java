@@ -1,43 +1,80 @@
 package edu.rit.cs.chess;
 
-import edu.rit.cs.util.ActionResult;
-import edu.rit.cs.util.Coordinates;
-
 /**
- * This is the class representing the rook.
+ * This is the class holding the rules for the rook.
  * @author Ryan Nowak
  */
 public class Rook extends Piece{
 
     /**
-     * Constructs a new rook
-     * @param name Name of chess piece
-     * @param pos Position of piece on board
-     * @param board Board to place the piece on
+     * The four directions a rook slides in
+     */
+    private static final int[][] ORTHOGONAL = {
+            { -1, 0 }, { 0, 1 }, { 1, 0 }, { 0, -1 }
+    };
+
+    /**
+     * Constructs the rules for rooks; there is only one
      */
-    public Rook(String name, Coordinates pos, Game board) {
-        super(name, pos, board);
+    Rook() {}
+
+    /**
+     * Gets the kind of piece this is
+     * @return PieceType.ROOK
+     */
+    @Override
+    public PieceType type() {
+        return PieceType.ROOK;
     }
 
     /**
      * Checks if move is legal for rook
-     * @param newPos Coordinates of new position
-     * @return ActionResult.OK if move is legal.
-     * Else, returns ActionResult w/ error message.
+     * @param board Board the rook is on
+     * @param row Row of the rook
+     * @param column Column of the rook
+     * @param newRow Row of new position
+     * @param newCol Column of new position
+     * @return MoveStatus.OK if move is legal.
+     * Else, returns the reason it is not.
      */
-    public ActionResult isLegalMove(Coordinates newPos) {
-        Coordinates pos = this.getPos();
-        if ((newPos.row() == pos.row() && newPos.column() != pos.column()) ||
-                (newPos.row() != pos.row() && newPos.column() == pos.column())) {
-            if (!getBoard().isClearPath(pos, newPos)) {
-                return new ActionResult("The way is blocked: " + getPos() + " -> " + newPos);
+    @Override
+    protected MoveStatus checkMove(Game board, int row, int column,
+                                   int newRow, int newCol) {
+        AttackTables tables = board.tables();
+        boolean reachable;
+        if (tables != null) {
+            reachable = tables.attacks(PieceType.ROOK, row, column,
+                                       newRow, newCol);
+        }
+        else {
+            reachable = (newRow == row && newCol != column) ||
+                    (newRow != row && newCol == column);
+        }
+        if (reachable) {
+            if (!board.isClearPath(row, column, newRow, newCol)) {
+                return MoveStatus.BLOCKED;
             }
             else {
-                return ActionResult.OK;
+                return MoveStatus.OK;
             }
         }
         else {
-            return new ActionResult("Illegal rook move " + newPos);
+            return MoveStatus.ILLEGAL;
+        }
+    }
+
+    /**
+     * Reports every legal move for rook
+     * @param board Board the rook is on
+     * @param row Row of the rook
+     * @param column Column of the rook
+     * @param sink receives each move as a pair of cell numbers
+     */
+    @Override
+    public void generateMoves(Game board, int row, int column,
+                              MoveSink sink) {
+        for (int[] d : ORTHOGONAL) {
+            slide(board, row, column, d[0], d[1], sink);
         }
     }
 }
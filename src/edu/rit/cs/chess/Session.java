@@ -0,0 +1,293 @@
+package edu.rit.cs.chess;
+
+import edu.rit.cs.util.ActionResult;
+import edu.rit.cs.util.Coordinates;
+import edu.rit.cs.util.FieldReader;
+
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * One player's run of move commands against a game: the loop that
+ * ChessMoves runs on the console, reading from any Reader and writing
+ * to any Writer.
+ * @author RIT CS
+ */
+public class Session {
+
+    /**
+     * What the user types to end the session
+     */
+    public static final String END_GAME = "quit";
+
+    /**
+     * What the user types to take back the last move
+     */
+    public static final String UNDO = "undo";
+
+    /**
+     * "Universal" new line
+     */
+    private static final String NL = System.lineSeparator();
+
+    /**
+     * The game being played
+     */
+    private final Game game;
+
+    /**
+     * If true, the user's input is echoed in the output.
+     */
+    private final boolean echo;
+
+    /**
+     * If true, after the first display of the board only the rows that
+     * have changed are displayed.
+     */
+    private final boolean changesOnly;
+
+    /**
+     * Where commands are recorded, or null if they are not
+     */
+    private MoveRecorder recorder;
+
+    /**
+     * Set up a session that displays the whole board after every command.
+     * @param game the game to play
+     * @param echo true iff each command read should be copied to the
+     *             output, as is wanted when commands come from a file
+     */
+    public Session( Game game, boolean echo ) {
+        this( game, echo, false );
+    }
+
+    /**
+     * Set up a session.
+     * @param game the game to play
+     * @param echo true iff each command read should be copied to the
+     *             output, as is wanted when commands come from a file
+     * @param changesOnly true iff, after the first time, only the rows
+     *                    of the board that have changed should be displayed
+     * @see Game#showChanges(PrintWriter)
+     */
+    public Session( Game game, boolean echo, boolean changesOnly ) {
+        this.game = game;
+        this.echo = echo;
+        this.changesOnly = changesOnly;
+    }
+
+    /**
+     * Play with commands read from a stream of characters.
+     * @see Session#play(FieldReader, PrintWriter)
+     *
+     * @param in where the commands come from
+     * @param out where the board, prompts, and messages go
+     */
+    public void play( Reader in, PrintWriter out ) {
+        play( new FieldReader( in ), out );
+    }
+
+    /**
+     * Play with commands read from a stream of UTF-8 bytes.
+     * @see Session#play(FieldReader, PrintWriter)
+     *
+     * @param in where the commands come from
+     * @param out where the board, prompts, and messages go
+     */
+    public void play( InputStream in, PrintWriter out ) {
+        play( new FieldReader( in ), out );
+    }
+
+    /**
+     * The main game loop.
+     * User commands are read in.
+     * They are verified, and the game object is told to execute them.
+     * If a user command is not valid, an error message is printed and
+     * the game continues. The loop ends at the end of the input or when
+     * the user quits. Neither stream is closed; the output is flushed.
+     *
+     * @param console where the commands come from
+     * @param out where the board, prompts, and messages go
+     * @throws NumberFormatException if non-numerical coordinates are given
+     */
+    private void play( FieldReader console, PrintWriter out ) {
+        game.showBoard( out );
+        prompt( out );
+
+        // Continue loop until end of file reached, or user quits.
+        while ( console.nextLine() ) {
+            if ( echo ) {
+                console.printLine( out );
+                out.println();
+            }
+            if ( !command( console, out ) ) break;
+        }
+        finish( out );
+    }
+
+    /**
+     * Play the commands in a binary move log, exactly as if they had been
+     * read as text, but without parsing them.
+     * Neither the log nor the output is closed; the output is flushed.
+     *
+     * @param log where the commands come from
+     * @param out where the board, prompts, and messages go
+     * @rit.pre the log is for a board the size of this session's game
+     */
+    public void replay( MoveLog log, PrintWriter out ) {
+        game.showBoard( out );
+        prompt( out );
+
+        for ( int command = log.next(); command != MoveLog.END;
+              command = log.next() ) {
+            if ( command == MoveLog.MOVE ) {
+                if ( echo ) {
+                    out.println( MoveLog.moveText( log.fromRow(),
+                                                   log.fromCol(),
+                                                   log.toRow(),
+                                                   log.toCol() ) );
+                }
+                move( log.fromRow(), log.fromCol(),
+                      log.toRow(), log.toCol(), out );
+            }
+            else if ( command == MoveLog.UNDO ) {
+                if ( echo ) out.println( UNDO );
+                undo( out );
+            }
+            else if ( command == MoveLog.QUIT ) {
+                if ( echo ) out.println( END_GAME );
+                if ( this.recorder != null ) this.recorder.quit();
+                break;
+            }
+            else {
+                if ( echo ) out.println( log.text() );
+                FieldReader line = new FieldReader(
+                        new StringReader( log.text() ) );
+                line.nextLine();
+                if ( !command( line, out ) ) break;
+            }
+        }
+        finish( out );
+    }
+
+    /**
+     * Flush the output and the recorder, if any, at the end of a game.
+     * @param out where the board, prompts, and messages go
+     */
+    private void finish( PrintWriter out ) {
+        if ( this.recorder != null ) this.recorder.flush();
+        out.flush();
+    }
+
+    /**
+     * Carry out one command.
+     * @param console the reader, at the command's line
+     * @param out where the board, prompts, and messages go
+     * @return false iff the command was to quit
+     * @throws NumberFormatException if non-numerical coordinates are given
+     */
+    private boolean command( FieldReader console, PrintWriter out ) {
+        // Read start row, start column, end row, end column.
+        //
+        if ( console.fieldCount() != 4 ) {
+            // Special case for quitting below:
+            if ( console.fieldCount() == 1 &&
+                 console.fieldIs( 0, END_GAME ) ) {
+                if ( this.recorder != null ) this.recorder.quit();
+                return false;
+            }
+            else if ( console.fieldCount() == 1 &&
+                      console.fieldIs( 0, UNDO ) ) {
+                undo( out );
+            }
+            else {
+                if ( this.recorder != null ) {
+                    this.recorder.text( console.line() );
+                }
+                out.println( "Illegal move specification: " +
+                             console.line() );
+                // Just have the user try again.
+            }
+            return true;
+        }
+
+        move( console.intField( 0 ), console.intField( 1 ),
+              console.intField( 2 ), console.intField( 3 ), out );
+        return true;
+    }
+
+    /**
+     * Move a piece, then show the board and ask for the next command.
+     * @param fromRow row of the piece to move
+     * @param fromCol column of the piece to move
+     * @param toRow row of the destination
+     * @param toCol column of the destination
+     * @param out where the board, prompts, and messages go
+     */
+    private void move( int fromRow, int fromCol, int toRow, int toCol,
+                       PrintWriter out ) {
+        if ( this.recorder != null ) {
+            this.recorder.move( fromRow, fromCol, toRow, toCol );
+        }
+        Coordinates pieceLoc = new Coordinates( fromRow, fromCol );
+        Coordinates dest = new Coordinates( toRow, toCol );
+
+        ActionResult result = game.makeMove( pieceLoc, dest, out );
+        if ( !result.ok ) {
+            out.println( result.message() );
+        }
+
+        // Get next move.
+        show( out );
+        prompt( out );
+    }
+
+    /**
+     * Take back the last move, then show the board and ask for the next
+     * command.
+     * @param out where the board, prompts, and messages go
+     */
+    private void undo( PrintWriter out ) {
+        if ( this.recorder != null ) this.recorder.undo();
+        if ( !game.unmakeMove() ) {
+            out.println( "Nothing to undo" );
+        }
+        show( out );
+        prompt( out );
+    }
+
+    /**
+     * Record every command from now on, accepted or not, in a move log.
+     * The recorder is flushed when play or replay ends, but is not closed.
+     * @param recorder where to record the commands, or null to stop
+     *                 recording
+     */
+    public void record( MoveRecorder recorder ) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Display the board after a command.
+     * @param out where to display it
+     */
+    private void show( PrintWriter out ) {
+        if ( this.changesOnly ) {
+            this.game.showChanges( out );
+        }
+        else {
+            this.game.showBoard( out );
+        }
+    }
+
+    /**
+     * Ask for the next command. The output is flushed so that someone
+     * at a console sees everything before typing.
+     * @param out where the prompt goes
+     */
+    private static void prompt( PrintWriter out ) {
+        out.print( NL + "> " );
+        out.flush();
+    }
+}
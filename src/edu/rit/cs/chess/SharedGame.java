@@ -0,0 +1,109 @@
+package edu.rit.cs.chess;
+
+import edu.rit.cs.util.ActionResult;
+import edu.rit.cs.util.Coordinates;
+
+/**
+ * A game that many threads may use at once. Moves, whichever threads
+ * they come from, are made one at a time. After each change an
+ * unchanging {@link GameView} of the board is published, which any
+ * thread can get and draw or study without waiting for moves and
+ * without holding them up.
+ * <br/>
+ * Publishing copies two references per cell, so it costs a little more
+ * on larger boards; nothing else about the game is copied.
+ * @author RIT CS
+ */
+public final class SharedGame {
+
+    /**
+     * The game; used only while holding {@link #lock}
+     */
+    private final Game game;
+
+    /**
+     * What moves wait on
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The view of the board after the latest change
+     */
+    private volatile GameView view;
+
+    /**
+     * Share a game.
+     * @param game the game, which from now on must only be used through
+     *             this object
+     */
+    public SharedGame( Game game ) {
+        this.game = game;
+        this.view = new GameView( game );
+    }
+
+    /**
+     * Get the board as it was after the latest change, without waiting.
+     * @return the view
+     */
+    public GameView view() {
+        return this.view;
+    }
+
+    /**
+     * Attempt a move, as {@link Game#tryMove(int, int, int, int)} does.
+     * @param fromRow row of the piece to move
+     * @param fromCol column of the piece to move
+     * @param toRow row of the destination
+     * @param toCol column of the destination
+     * @return MoveStatus.OK, or the reason for failure
+     */
+    public MoveStatus tryMove( int fromRow, int fromCol,
+                               int toRow, int toCol ) {
+        synchronized ( this.lock ) {
+            MoveStatus status =
+                    this.game.tryMove( fromRow, fromCol, toRow, toCol );
+            if ( status == MoveStatus.OK ) publish();
+            return status;
+        }
+    }
+
+    /**
+     * Attempt a move, as {@link Game#makeMove(Coordinates, Coordinates)}
+     * does.
+     * @param start the location of the piece to move
+     * @param end where to move it
+     * @return {@link ActionResult#OK}, or the reason for failure
+     */
+    public ActionResult makeMove( Coordinates start, Coordinates end ) {
+        synchronized ( this.lock ) {
+            ActionResult result = this.game.makeMove( start, end );
+            if ( result.ok ) publish();
+            return result;
+        }
+    }
+
+    /**
+     * Take back the latest move, as {@link Game#unmakeMove()} does.
+     * @return true, or false if there was no move to take back
+     */
+    public boolean unmakeMove() {
+        synchronized ( this.lock ) {
+            if ( this.game.undoDepth() == 0 ) return false;
+            final int from = this.game.lastMoveCell( 0 );
+            final int to = this.game.lastMoveCell( 1 );
+            this.game.unmakeMove();
+            this.view = new GameView( this.view, this.game, from, to );
+            return true;
+        }
+    }
+
+    /**
+     * Publish the view after the move just made.
+     * @rit.pre the lock is held and a move has just been made
+     */
+    private void publish() {
+        this.view = new GameView( this.view, this.game,
+                                  this.game.lastMoveCell( 0 ),
+                                  this.game.lastMoveCell( 1 ) );
+    }
+}
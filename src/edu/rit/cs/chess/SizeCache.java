@@ -0,0 +1,61 @@
+package edu.rit.cs.chess;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A small cache of things made per board size, such as tables of keys,
+ * shared by all boards of that size. It holds a fixed number of sizes,
+ * and when a new one is needed it forgets the one least recently used,
+ * so a program that meets many board sizes keeps only a few tables.
+ * Games that still hold a forgotten table keep using it.
+ * <br/>
+ * One cache may be used from any number of threads.
+ * @param <V> the kind of thing kept for each size
+ * @author RIT CS
+ */
+final class SizeCache< V > {
+
+    /**
+     * Most sizes kept
+     */
+    private final int capacity;
+
+    /**
+     * The things kept, keyed by rows and columns, least recently used
+     * first
+     */
+    private final LinkedHashMap< Long, V > entries;
+
+    /**
+     * Make an empty cache.
+     * @param capacity the most board sizes to keep
+     */
+    SizeCache( int capacity ) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>( 2 * capacity, 0.75f, true );
+    }
+
+    /**
+     * Get the thing kept for a board size, making it if it is not kept.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     * @param make makes the thing for this size
+     * @return the thing
+     */
+    synchronized V get( int numRows, int numCols, Supplier< V > make ) {
+        final long key = ( (long)numRows << 32 ) | numCols;
+        V value = this.entries.get( key );
+        if ( value == null ) {
+            value = make.get();
+            this.entries.put( key, value );
+            if ( this.entries.size() > this.capacity ) {
+                Iterator< V > eldest = this.entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,195 @@
+package edu.rit.cs.chess;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The binary snapshot format for boards.
+ * <br/>
+ * A snapshot starts with the four bytes "CHSN", then the format
+ * version, the number of rows, and the number of columns. Then comes one
+ * four-bit code per cell, row by row, two cells per byte with the first
+ * in the high half: 0 for an empty cell, or the piece's
+ * {@link PieceType} ordinal plus one. Last come the names of the pieces
+ * whose names are not just their type's letter: a count, then for each
+ * one, in cell order, the number of cells skipped since the last named
+ * piece (or the start of the board), the name's length in bytes, and the
+ * name in UTF-8.
+ * All numbers are unsigned varints: seven bits per byte, low bits first,
+ * with the high bit set on every byte but the last.
+ * @author RIT CS
+ */
+final class Snapshot {
+
+    /**
+     * What every snapshot starts with
+     */
+    private static final byte[] MAGIC = { 'C', 'H', 'S', 'N' };
+
+    /**
+     * The format version written
+     */
+    private static final int VERSION = 1;
+
+    private Snapshot() {}
+
+    /**
+     * Write a game's board.
+     * @param game the game
+     * @param out where to write it; it is written in one call
+     * @throws IOException if out cannot be written
+     */
+    static void write( Game game, OutputStream out ) throws IOException {
+        final int rows = game.numRows(), cols = game.numCols();
+        final int cells = rows * cols;
+        ByteArrayOutputStream bytes =
+                new ByteArrayOutputStream( 16 + ( cells + 1 ) / 2 );
+        bytes.write( MAGIC );
+        Varint.write( bytes, VERSION );
+        Varint.write( bytes, rows );
+        Varint.write( bytes, cols );
+
+        int named = 0, pair = 0;
+        for ( int cell = 0; cell < cells; ++cell ) {
+            final int row = cell / cols, col = cell % cols;
+            PieceType type = game.pieceType( row, col );
+            int code = 0;
+            if ( type != null ) {
+                code = type.ordinal() + 1;
+                if ( !isDefault( game.pieceName( row, col ), type ) ) ++named;
+            }
+            pair = pair << 4 | code;
+            if ( cell % 2 == 1 ) {
+                bytes.write( pair );
+                pair = 0;
+            }
+        }
+        if ( cells % 2 == 1 ) {
+            bytes.write( pair << 4 );
+        }
+
+        Varint.write( bytes, named );
+        int last = -1;
+        for ( int cell = 0; cell < cells && named > 0; ++cell ) {
+            PieceType type = game.pieceType( cell / cols, cell % cols );
+            String text = game.pieceName( cell / cols, cell % cols );
+            if ( type != null && !isDefault( text, type ) ) {
+                byte[] name = text.getBytes( StandardCharsets.UTF_8 );
+                Varint.write( bytes, cell - last - 1 );
+                Varint.write( bytes, name.length );
+                bytes.write( name );
+                last = cell;
+                --named;
+            }
+        }
+        bytes.writeTo( out );
+    }
+
+    /**
+     * Does a piece have the name a snapshot gives it by default?
+     */
+    private static boolean isDefault( String name, PieceType type ) {
+        return name.equals( type.letterName );
+    }
+
+    /**
+     * Read a board.
+     * @param in where to read it; exactly the snapshot's bytes are read
+     * @param kind the representation to use for the board
+     * @return a game with the snapshot's board
+     * @throws IOException if in cannot be read or does not hold a snapshot
+     */
+    static Game read( InputStream in, BoardStore.Kind kind )
+            throws IOException {
+        byte[] magic = in.readNBytes( MAGIC.length );
+        for ( int i = 0; i < MAGIC.length; ++i ) {
+            if ( i == magic.length || magic[ i ] != MAGIC[ i ] ) {
+                throw new IOException( "Not a board snapshot" );
+            }
+        }
+        final int version = getVarint( in );
+        if ( version != VERSION ) {
+            throw new IOException( "Unknown snapshot version " + version );
+        }
+        final int rows = getVarint( in ), cols = getVarint( in );
+        if ( rows < 0 || cols < 0 || (long)rows * cols > Integer.MAX_VALUE ) {
+            throw new IOException( "Board is too big: " + rows + "x" + cols );
+        }
+        final int cells = rows * cols;
+        byte[] codes = readFully( in, ( cells + 1 ) / 2 );
+
+        final int named = getVarint( in );
+        if ( named < 0 || named > cells ) {
+            throw new IOException( "Too many piece names" );
+        }
+        int[] namedCells = new int[ named ];
+        String[] names = new String[ named ];
+        for ( int i = 0, last = -1; i < named; ++i ) {
+            last += getVarint( in ) + 1;
+            namedCells[ i ] = last;
+            names[ i ] = new String( readFully( in, getVarint( in ) ),
+                                     StandardCharsets.UTF_8 );
+        }
+
+        Game game = new Game( kind, rows, cols );
+        int next = 0;
+        for ( int cell = 0; cell < cells; ++cell ) {
+            final int code = ( codes[ cell / 2 ] >> ( cell % 2 == 0 ? 4 : 0 ) )
+                             & 0xF;
+            if ( code == 0 ) continue;
+            if ( code > PieceType.COUNT ) {
+                throw new IOException( "Bad piece code " + code );
+            }
+            final PieceType type = PieceType.of( code - 1 );
+            String name = type.letterName;
+            if ( next < named && namedCells[ next ] == cell ) {
+                name = names[ next++ ];
+            }
+            if ( name.isEmpty() ||
+                 game.addPiece( name, cell / cols, cell % cols ) != type ) {
+                throw new IOException( "Bad piece name " + name );
+            }
+        }
+        if ( next < named ) {
+            throw new IOException( "Piece name for an empty cell" );
+        }
+        game.chooseBoard();
+        return game;
+    }
+
+    /**
+     * Read a given number of bytes.
+     * @throws EOFException if the input ends first
+     * @throws IOException if the length is negative
+     */
+    private static byte[] readFully( InputStream in, int length )
+            throws IOException {
+        if ( length < 0 ) {
+            throw new IOException( "Bad length in snapshot" );
+        }
+        byte[] bytes = in.readNBytes( length );
+        if ( bytes.length < length ) {
+            throw new EOFException( "Snapshot is cut short" );
+        }
+        return bytes;
+    }
+
+    /**
+     * Read an unsigned varint.
+     * @param in where to read it
+     * @return its value
+     * @throws IOException if the input ends first or the varint is too long
+     */
+    private static int getVarint( InputStream in ) throws IOException {
+        try {
+            return Varint.read( in );
+        }
+        catch ( EOFException e ) {
+            throw new EOFException( "Snapshot is cut short" );
+        }
+    }
+}
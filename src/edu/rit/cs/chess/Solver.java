@@ -0,0 +1,435 @@
+package edu.rit.cs.chess;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds a solution to a solitaire chess puzzle: a series of moves,
+ * each of which captures a piece, that leaves exactly one piece on the
+ * board.
+ * <br/>
+ * The search is depth first. Moves are made and then taken back with
+ * {@link Game#unmakeMove()} on a {@link Game} board rather than on
+ * copies. Positions from which no solution exists are remembered in a
+ * transposition table keyed by {@link Game#positionHash()}, so that
+ * reaching the same position by another route costs nothing. If the
+ * starting position is symmetric (see {@link Game#isSymmetric()}), its
+ * captures come in pairs that lead to mirror images of each other, so
+ * the table is keyed by {@link Game#canonicalHash()} instead, and each
+ * class of positions that differ by a symmetry is searched once.
+ * <br/>
+ * With more than one thread, the first {@link Solver#SPLIT_DEPTH} levels
+ * of the tree are split into tasks for a {@link ForkJoinPool}, whose
+ * workers steal subtrees from each other. Each task searches its own copy
+ * of the game. All workers share the table of dead positions, which is
+ * lock free, and stop as soon as any of them finds a solution.
+ * @author RIT CS
+ */
+public class Solver {
+
+    /**
+     * The table of dead positions has at most 2 to this power slots.
+     */
+    private static final int MAX_TABLE_BITS = 20;
+
+    /**
+     * In a parallel search, nodes shallower than this become separate
+     * tasks; deeper ones are searched sequentially by one worker.
+     */
+    private static final int SPLIT_DEPTH = 2;
+
+    /**
+     * The solver's own copy of the game being solved, which the
+     * single-thread search moves on. It is back in its starting position
+     * whenever the solver is not running.
+     */
+    private final Game game;
+
+    /**
+     * Number of worker threads
+     */
+    private final int threads;
+
+    /**
+     * Board dimensions
+     */
+    private final int numRows, numCols;
+
+    /**
+     * Number of pieces on the board at the start
+     */
+    private final int pieceCount;
+
+    /**
+     * Whether dead positions are keyed by their canonical hashes
+     */
+    private final boolean canonical;
+
+    /**
+     * Hashes of positions known to have no solution, shared by all workers.
+     * A slot holds the last dead hash that mapped to it.
+     */
+    private final AtomicLongArray dead;
+
+    /**
+     * One less than the number of slots in the table, which is a power of
+     * 2: the mask that picks a slot out of a hash
+     */
+    private final int slotMask;
+
+    /**
+     * Set when a solution has been found, to stop the other workers
+     */
+    private final AtomicBoolean stop = new AtomicBoolean();
+
+    /**
+     * The winning moves, four ints (from row, from column, to row,
+     * to column) per move, or null if none has been found
+     */
+    private final AtomicReference< int[] > solution = new AtomicReference<>();
+
+    /**
+     * Statistics of the last search
+     */
+    private final LongAdder nodes = new LongAdder(),
+                            deadHits = new LongAdder();
+
+    /**
+     * How long the last search took
+     */
+    private long elapsedNanos;
+
+    /**
+     * Prepare to solve a game with one thread.
+     * @param game the game, in the position to solve from
+     */
+    public Solver( Game game ) {
+        this( game, 1 );
+    }
+
+    /**
+     * Prepare to solve a game. The solver searches on a copy, so the game
+     * itself is not changed.
+     * @param game the game, in the position to solve from
+     * @param threads the number of threads to search with
+     */
+    public Solver( Game game, int threads ) {
+        this.game = new Game( game );
+        this.threads = Math.max( threads, 1 );
+        this.numRows = game.numRows();
+        this.numCols = game.numCols();
+        final int count = game.pieceCount();
+        this.pieceCount = count;
+
+        // Captures only ever land on cells that were occupied at the
+        // start, so each position met is a subset of the starting cells
+        // with a type for each: with few pieces there are few of them,
+        // and a small table holds them all.
+        final int size =
+                1 << Math.min( Math.max( 2 * count, 4 ), MAX_TABLE_BITS );
+        this.dead = new AtomicLongArray( size );
+        this.slotMask = size - 1;
+
+        // Every capture along a line of play must be taken back.
+        if ( this.game.undoLimit() < count ) {
+            this.game.setUndoLimit( count );
+        }
+        this.canonical = this.game.isSymmetric();
+    }
+
+    /**
+     * Search for a solution.
+     * @return true iff a series of captures leaves exactly one piece
+     */
+    public boolean solve() {
+        this.nodes.reset();
+        this.deadHits.reset();
+        this.stop.set( false );
+        this.solution.set( null );
+        final long start = System.nanoTime();
+        if ( this.pieceCount == 1 ) {
+            this.solution.set( new int[ 0 ] );
+        }
+        else if ( this.pieceCount > 1 ) {
+            if ( this.threads == 1 ) {
+                Searcher searcher = new Searcher( this.game );
+                if ( searcher.search( 0 ) ) {
+                    this.solution.set( searcher.moves );
+                }
+                searcher.report();
+            }
+            else {
+                ForkJoinPool pool = new ForkJoinPool( this.threads );
+                try {
+                    pool.invoke( new SearchTask( new int[ 0 ] ) );
+                }
+                finally {
+                    pool.shutdown();
+                }
+            }
+        }
+        this.elapsedNanos = System.nanoTime() - start;
+        return this.solution.get() != null;
+    }
+
+    /**
+     * The state of one sequential search: a board to make and retract
+     * moves on, and buffers reused from one node to the next.
+     */
+    private class Searcher implements MoveSink {
+
+        /**
+         * The board this searcher moves pieces on
+         */
+        private final Game game;
+
+        /**
+         * moveLists[depth] holds the moves available at that depth
+         */
+        private final MoveList[] moveLists;
+
+        /**
+         * The moves leading to the current node, four ints per move,
+         * holding the whole solution once one is found
+         */
+        private final int[] moves;
+
+        /**
+         * The list that {@link Searcher#move(int, int)} adds captures to
+         */
+        private MoveList captures;
+
+        /**
+         * Statistics, added to the solver's totals by report()
+         */
+        private long nodes, deadHits;
+
+        /**
+         * Prepare to search.
+         * @param game the board to search on, owned by this searcher
+         */
+        Searcher( Game game ) {
+            this.game = game;
+            this.moveLists = new MoveList[ pieceCount ];
+            for ( int d = 0; d < pieceCount; ++d ) {
+                this.moveLists[ d ] = new MoveList();
+            }
+            this.moves = new int[ 4 * ( pieceCount - 1 ) ];
+        }
+
+        /**
+         * List the captures available in the current position into
+         * moveLists[depth]. Since every move in solitaire chess must
+         * capture, moves to empty cells are left out.
+         * @param depth the current depth
+         * @return the list
+         */
+        MoveList listCaptures( int depth ) {
+            this.captures = this.moveLists[ depth ];
+            this.captures.clear();
+            this.game.generateAllMoves( this );
+            return this.captures;
+        }
+
+        /**
+         * Receive a move from the generator, keeping it if it captures.
+         * @param from the cell number of the piece that can move
+         * @param to the cell number it can move to
+         */
+        @Override
+        public void move( int from, int to ) {
+            if ( this.game.occupied( to / numCols, to % numCols ) ) {
+                this.captures.move( from, to );
+            }
+        }
+
+        /**
+         * Record a move at a depth of the current line.
+         * @param depth the depth of the move
+         * @param from the cell moved from
+         * @param to the cell moved to
+         */
+        void setMove( int depth, int from, int to ) {
+            final int i = 4 * depth;
+            this.moves[ i ] = from / numCols;
+            this.moves[ i + 1 ] = from % numCols;
+            this.moves[ i + 2 ] = to / numCols;
+            this.moves[ i + 3 ] = to % numCols;
+        }
+
+        /**
+         * Look for a solution from the current position.
+         * @param depth number of captures made so far
+         * @return true iff a solution was found; its moves from this depth
+         *         on are then in {@link Searcher#moves}
+         */
+        boolean search( int depth ) {
+            ++this.nodes;
+            if ( pieceCount - depth == 1 ) return true;
+            if ( stop.get() ) return false;
+
+            final long hash = canonical ? this.game.canonicalHash()
+                                        : this.game.positionHash();
+            final int slot = (int)hash & slotMask;
+            if ( dead.get( slot ) == hash ) {
+                ++this.deadHits;
+                return false;
+            }
+
+            // A tablebase may already know that no series of captures
+            // gets down to one piece.
+            if ( this.game.fewestPiecesLeft() > 1 ) return false;
+
+            // Try every capture of one piece by another.
+            final MoveList moves = listCaptures( depth );
+            for ( int i = 0; i < moves.size(); ++i ) {
+                final int from = moves.from( i ), to = moves.to( i );
+                this.game.tryMove( from / numCols, from % numCols,
+                                   to / numCols, to % numCols );
+                final boolean found = search( depth + 1 );
+                this.game.unmakeMove();
+                if ( found ) {
+                    setMove( depth, from, to );
+                    return true;
+                }
+            }
+
+            // A search cut short by another worker proves nothing.
+            if ( !stop.get() ) dead.lazySet( slot, hash );
+            return false;
+        }
+
+        /**
+         * Add this searcher's statistics to the solver's totals.
+         */
+        void report() {
+            Solver.this.nodes.add( this.nodes );
+            Solver.this.deadHits.add( this.deadHits );
+        }
+    }
+
+    /**
+     * A fork/join task that searches below the position reached by a
+     * given series of captures from the starting position.
+     */
+    private class SearchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The moves from the start to this task's position,
+         * four ints per move
+         */
+        private final int[] prefix;
+
+        /**
+         * Create a task.
+         * @param prefix the moves leading to the position to search
+         */
+        SearchTask( int[] prefix ) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected void compute() {
+            if ( stop.get() ) return;
+
+            // Set up a private board in this task's position.
+            Searcher searcher = new Searcher( new Game( game ) );
+            final int depth = this.prefix.length / 4;
+            for ( int i = 0; i < this.prefix.length; i += 4 ) {
+                searcher.game.tryMove( this.prefix[ i ], this.prefix[ i + 1 ],
+                                       this.prefix[ i + 2 ],
+                                       this.prefix[ i + 3 ] );
+            }
+            System.arraycopy( this.prefix, 0, searcher.moves, 0,
+                              this.prefix.length );
+
+            if ( depth >= SPLIT_DEPTH || pieceCount - depth <= 2 ) {
+                if ( searcher.search( depth ) &&
+                     solution.compareAndSet( null, searcher.moves ) ) {
+                    stop.set( true );
+                }
+                searcher.report();
+                return;
+            }
+
+            // Fork one task per capture available here.
+            ++searcher.nodes;
+            final MoveList moves = searcher.listCaptures( depth );
+            List< SearchTask > children = new ArrayList<>();
+            for ( int i = 0; i < moves.size(); ++i ) {
+                final int from = moves.from( i ), to = moves.to( i );
+                int[] next = Arrays.copyOf( this.prefix,
+                                            this.prefix.length + 4 );
+                next[ this.prefix.length ] = from / numCols;
+                next[ this.prefix.length + 1 ] = from % numCols;
+                next[ this.prefix.length + 2 ] = to / numCols;
+                next[ this.prefix.length + 3 ] = to % numCols;
+                children.add( new SearchTask( next ) );
+            }
+            searcher.report();
+            invokeAll( children );
+        }
+    }
+
+    /**
+     * Print the solution in the form read by ChessMoves, one move
+     * "row column row column" per line, followed by "quit".
+     * @param out where to print it
+     * @rit.pre {@link Solver#solve()} returned true
+     */
+    public void printSolution( PrintStream out ) {
+        final int[] moves = this.solution.get();
+        for ( int i = 0; i < moves.length; i += 4 ) {
+            out.println( moves[ i ] + " " + moves[ i + 1 ] + " " +
+                         moves[ i + 2 ] + " " + moves[ i + 3 ] );
+        }
+        out.println( "quit" );
+    }
+
+    /**
+     * Print statistics about the last search.
+     * @param out where to print them
+     */
+    public void printStatistics( PrintStream out ) {
+        final double seconds = this.elapsedNanos / 1e9;
+        out.printf( "%d nodes, %d dead-position hits, %d thread%s, " +
+                    "%.3f s, %.0f nodes/s%n",
+                    nodes(), this.deadHits.sum(), this.threads,
+                    this.threads == 1 ? "" : "s", seconds,
+                    seconds > 0 ? nodes() / seconds : 0.0 );
+    }
+
+    /**
+     * Get the moves of the solution found by the last search.
+     * @return a new array holding four ints per move: from row, from
+     *         column, to row, to column
+     * @rit.pre {@link Solver#solve()} returned true
+     */
+    public int[] solution() {
+        return this.solution.get().clone();
+    }
+
+    /**
+     * @return the number of positions visited by the last search
+     */
+    public long nodes() {
+        return this.nodes.sum();
+    }
+
+    /**
+     * @return how long the last search took, in nanoseconds
+     */
+    public long elapsedNanos() {
+        return this.elapsedNanos;
+    }
+}
@@ -0,0 +1,233 @@
+package edu.rit.cs.chess;
+
+import java.util.Arrays;
+
+/**
+ * A board store for big boards with few pieces, which keeps only the
+ * occupied cells, in a hash table from cell number to piece code.
+ * Its memory grows with the number of pieces rather than with the size
+ * of the board, so a board of thousands of rows and columns holding a
+ * few hundred pieces takes a few kilobytes.
+ * <br/>
+ * The table is open addressed: each cell has a home slot chosen by its
+ * hash, and a cell whose home is taken goes in the next free slot after
+ * it. Keys and pieces are kept in two parallel arrays of primitives, so
+ * a lookup allocates nothing and follows no references. The table is
+ * kept at most half full, so lookups seldom look at more than a couple of
+ * slots. When a cell is emptied the entries after it are shifted back
+ * to close the gap, so no slots are wasted on markers of removed
+ * entries.
+ * @author RIT CS
+ */
+class SparseBoardStore implements BoardStore {
+
+    /**
+     * Number of slots in a new table
+     */
+    private static final int MIN_SLOTS = 16;
+
+    /**
+     * Board dimensions
+     */
+    private final int numRows, numCols;
+
+    /**
+     * For each slot, the number of the cell it holds, and the code of the
+     * piece in that cell; a code of 0 means the slot is free.
+     * The lengths are a power of two.
+     */
+    private int[] cells;
+    private int[] pieces;
+
+    /**
+     * Number of slots in use, which is the number of pieces on the board
+     */
+    private int size;
+
+    /**
+     * Create a board of empty cells.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     */
+    SparseBoardStore( int numRows, int numCols ) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.cells = new int[ MIN_SLOTS ];
+        this.pieces = new int[ MIN_SLOTS ];
+    }
+
+    /**
+     * Copy a store.
+     * @param other the store to copy
+     */
+    private SparseBoardStore( SparseBoardStore other ) {
+        this.numRows = other.numRows;
+        this.numCols = other.numCols;
+        this.cells = other.cells.clone();
+        this.pieces = other.pieces.clone();
+        this.size = other.size;
+    }
+
+    @Override
+    public int numRows() { return this.numRows; }
+
+    @Override
+    public int numCols() { return this.numCols; }
+
+    @Override
+    public BoardStore copy() {
+        return new SparseBoardStore( this );
+    }
+
+    /**
+     * Find a cell's home slot.
+     * @param cell the cell number
+     * @param mask the number of slots less one
+     * @return the slot's index
+     */
+    private static int home( int cell, int mask ) {
+        final int h = cell * 0x9E3779B9;
+        return ( h ^ ( h >>> 16 ) ) & mask;
+    }
+
+    /**
+     * Find the slot holding a cell.
+     * @param cell the cell number
+     * @return the slot's index, or -1 if the cell is empty
+     */
+    private int find( int cell ) {
+        final int mask = this.pieces.length - 1;
+        for ( int i = home( cell, mask ); this.pieces[ i ] != 0;
+              i = ( i + 1 ) & mask ) {
+            if ( this.cells[ i ] == cell ) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Put a piece in a cell, replacing whatever was there.
+     * @param cell the cell number
+     * @param piece the code of the piece (not 0)
+     * @return the code of the piece that was there, or 0
+     */
+    private int insert( int cell, int piece ) {
+        int mask = this.pieces.length - 1;
+        int i = home( cell, mask );
+        for ( ; this.pieces[ i ] != 0; i = ( i + 1 ) & mask ) {
+            if ( this.cells[ i ] == cell ) {
+                final int old = this.pieces[ i ];
+                this.pieces[ i ] = piece;
+                return old;
+            }
+        }
+        if ( 2 * ( this.size + 1 ) > this.pieces.length ) {
+            grow();
+            mask = this.pieces.length - 1;
+            i = home( cell, mask );
+            while ( this.pieces[ i ] != 0 ) {
+                i = ( i + 1 ) & mask;
+            }
+        }
+        this.cells[ i ] = cell;
+        this.pieces[ i ] = piece;
+        ++this.size;
+        return 0;
+    }
+
+    /**
+     * Empty a cell.
+     * @param cell the cell number
+     * @return the code of the piece that was there, or 0
+     */
+    private int remove( int cell ) {
+        int hole = find( cell );
+        if ( hole < 0 ) return 0;
+        final int piece = this.pieces[ hole ];
+        final int mask = this.pieces.length - 1;
+
+        // Shift back each entry after the hole that may not be past its
+        // home, until a free slot ends the run.
+        for ( int i = ( hole + 1 ) & mask; this.pieces[ i ] != 0;
+              i = ( i + 1 ) & mask ) {
+            final int home = home( this.cells[ i ], mask );
+            if ( ( ( i - home ) & mask ) >= ( ( i - hole ) & mask ) ) {
+                this.cells[ hole ] = this.cells[ i ];
+                this.pieces[ hole ] = this.pieces[ i ];
+                hole = i;
+            }
+        }
+        this.pieces[ hole ] = 0;
+        --this.size;
+        return piece;
+    }
+
+    /**
+     * Double the number of slots, putting every entry back in its place
+     * in the bigger table.
+     */
+    private void grow() {
+        final int[] oldCells = this.cells;
+        final int[] oldPieces = this.pieces;
+        this.cells = new int[ 2 * oldPieces.length ];
+        this.pieces = new int[ 2 * oldPieces.length ];
+        final int mask = this.pieces.length - 1;
+        for ( int j = 0; j < oldPieces.length; ++j ) {
+            if ( oldPieces[ j ] == 0 ) continue;
+            int i = home( oldCells[ j ], mask );
+            while ( this.pieces[ i ] != 0 ) {
+                i = ( i + 1 ) & mask;
+            }
+            this.cells[ i ] = oldCells[ j ];
+            this.pieces[ i ] = oldPieces[ j ];
+        }
+    }
+
+    @Override
+    public int get( int row, int col ) {
+        final int i = find( row * this.numCols + col );
+        return i < 0 ? 0 : this.pieces[ i ];
+    }
+
+    @Override
+    public boolean occupied( int row, int col ) {
+        return find( row * this.numCols + col ) >= 0;
+    }
+
+    @Override
+    public void put( int row, int col, int piece ) {
+        insert( row * this.numCols + col, piece );
+    }
+
+    @Override
+    public void clear( int row, int col ) {
+        remove( row * this.numCols + col );
+    }
+
+    @Override
+    public int move( int fromRow, int fromCol, int toRow, int toCol ) {
+        final int piece = remove( fromRow * this.numCols + fromCol );
+        return insert( toRow * this.numCols + toCol, piece );
+    }
+
+    @Override
+    public boolean isEmpty( long[] mask, int offset ) {
+        for ( int i = 0; i < this.pieces.length; ++i ) {
+            if ( this.pieces[ i ] == 0 ) continue;
+            final int cell = this.cells[ i ];
+            if ( ( mask[ offset + ( cell >>> 6 ) ] & ( 1L << cell ) ) != 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int listOccupied( int[] cells ) {
+        int n = 0;
+        for ( int i = 0; i < this.pieces.length; ++i ) {
+            if ( this.pieces[ i ] != 0 ) cells[ n++ ] = this.cells[ i ];
+        }
+        Arrays.sort( cells, 0, n );
+        return n;
+    }
+}
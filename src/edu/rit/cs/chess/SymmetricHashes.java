@@ -0,0 +1,237 @@
+package edu.rit.cs.chess;
+
+import java.util.Arrays;
+
+/**
+ * The Zobrist hashes of a {@link Game}'s position as seen in a mirror, or
+ * turned, kept up to date as the pieces move, so that positions that are
+ * the same but for a symmetry of the board can be given one hash.
+ * <br/>
+ * The symmetries are numbered by three bits, applied to a cell in this
+ * order: 4 swaps its row and column, 1 reverses the columns, 2 reverses
+ * the rows. All eight keep a square board's shape; only the four without
+ * bit 4 keep the shape of other boards.
+ * <br/>
+ * Every piece but the pawn moves the same way in any of them. Pawns move
+ * toward row 0, so while there are pawns on the board only the left-right
+ * mirror, symmetry 1, keeps the rules.
+ * <br/>
+ * Each change to the board changes every hash, so for boards of up to
+ * {@link SymmetricHashes#MAX_TABLE_CELLS} cells the keys of each cell's
+ * images are kept in a table, shared by all boards of the same size. The
+ * table is seven times the size of the board's own keys, so only those
+ * of the {@link Zobrist#CACHED_SIZES} sizes used most recently are kept.
+ * @author RIT CS
+ */
+final class SymmetricHashes {
+
+    /**
+     * The symmetry that reverses the columns
+     */
+    private static final int MIRROR = 1;
+
+    /**
+     * Largest board, in cells, whose image keys are kept in a table
+     */
+    static final int MAX_TABLE_CELLS = 1 << 12;
+
+    /**
+     * The image keys of each board size that has them
+     */
+    private static final SizeCache< long[] > CACHE =
+            new SizeCache<>( Zobrist.CACHED_SIZES );
+
+    /**
+     * The keys the hashes are made from
+     */
+    private final Zobrist zobrist;
+
+    /**
+     * Board dimensions
+     */
+    private final int numRows, numCols;
+
+    /**
+     * hashes[s] is the hash of the position seen through symmetry s, for
+     * each s from 1 up; the position's own hash is the game's.
+     */
+    private final long[] hashes;
+
+    /**
+     * keys[ ( cell * PieceType.COUNT + type ) * ( symmetries - 1 ) + s - 1 ]
+     * is the key of a piece of a type in the image of a cell under
+     * symmetry s; or null if the board is too big
+     */
+    private final long[] keys;
+
+    /**
+     * Number of pawns on the board
+     */
+    private int pawns;
+
+    /**
+     * Work out the hashes of a game's position as it is now.
+     * @param game the game
+     * @param zobrist the keys the game's hash is made from
+     */
+    SymmetricHashes( Game game, Zobrist zobrist ) {
+        this.zobrist = zobrist;
+        this.numRows = game.numRows();
+        this.numCols = game.numCols();
+        this.hashes = new long[ this.numRows == this.numCols ? 8 : 4 ];
+        Arrays.fill( this.hashes, zobrist.empty );
+        this.keys = (long)this.numRows * this.numCols <= MAX_TABLE_CELLS
+                ? CACHE.get( this.numRows, this.numCols, this::imageKeys )
+                : null;
+        int[] cells = new int[ game.pieceCount() ];
+        final int n = game.listOccupied( cells );
+        for ( int i = 0; i < n; ++i ) {
+            final int cell = cells[ i ];
+            added( Piece.typeOf( game.pieceCode( cell / this.numCols,
+                                                 cell % this.numCols ) ),
+                   cell );
+        }
+    }
+
+    /**
+     * Copy another game's hashes.
+     * @param other the hashes to copy
+     */
+    private SymmetricHashes( SymmetricHashes other ) {
+        this.zobrist = other.zobrist;
+        this.numRows = other.numRows;
+        this.numCols = other.numCols;
+        this.hashes = other.hashes.clone();
+        this.keys = other.keys;
+        this.pawns = other.pawns;
+    }
+
+    /**
+     * Make an independent copy of these hashes.
+     * @return the copy
+     */
+    SymmetricHashes copy() {
+        return new SymmetricHashes( this );
+    }
+
+    /**
+     * Find where a symmetry takes a cell.
+     * @param symmetry the symmetry's number
+     * @param cell the cell number
+     * @return the number of the cell it is taken to
+     */
+    private int image( int symmetry, int cell ) {
+        int row = cell / this.numCols, col = cell % this.numCols;
+        if ( ( symmetry & 4 ) != 0 ) {
+            final int t = row;
+            row = col;
+            col = t;
+        }
+        if ( ( symmetry & 1 ) != 0 ) col = this.numCols - 1 - col;
+        if ( ( symmetry & 2 ) != 0 ) row = this.numRows - 1 - row;
+        return row * this.numCols + col;
+    }
+
+    /**
+     * Make the table of the keys of every cell's images.
+     * @return the table
+     */
+    private long[] imageKeys() {
+        final int symmetries = this.hashes.length - 1;
+        final int cells = this.numRows * this.numCols;
+        long[] keys = new long[ cells * PieceType.COUNT * symmetries ];
+        for ( int cell = 0; cell < cells; ++cell ) {
+            for ( int type = 0; type < PieceType.COUNT; ++type ) {
+                final int base = ( cell * PieceType.COUNT + type ) *
+                                 symmetries;
+                for ( int s = 1; s <= symmetries; ++s ) {
+                    keys[ base + s - 1 ] = this.zobrist.key(
+                            PieceType.of( type ), image( s, cell ) );
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Add or remove a piece from each hash.
+     * @param type the piece's type
+     * @param cell its cell number
+     */
+    private void toggle( PieceType type, int cell ) {
+        final long[] hashes = this.hashes;
+        if ( this.keys != null ) {
+            final int symmetries = hashes.length - 1;
+            final int base = ( cell * PieceType.COUNT + type.ordinal() ) *
+                             symmetries - 1;
+            for ( int s = 1; s < hashes.length; ++s ) {
+                hashes[ s ] ^= this.keys[ base + s ];
+            }
+        }
+        else {
+            for ( int s = 1; s < hashes.length; ++s ) {
+                hashes[ s ] ^= this.zobrist.key( type, image( s, cell ) );
+            }
+        }
+    }
+
+    /**
+     * Note that a piece has been put on the board.
+     * @param type the piece's type
+     * @param cell its cell number
+     */
+    void added( PieceType type, int cell ) {
+        toggle( type, cell );
+        if ( type == PieceType.PAWN ) ++this.pawns;
+    }
+
+    /**
+     * Note that a piece has been taken off the board.
+     * @param type the piece's type
+     * @param cell its cell number
+     */
+    void removed( PieceType type, int cell ) {
+        toggle( type, cell );
+        if ( type == PieceType.PAWN ) --this.pawns;
+    }
+
+    /**
+     * Note that a piece has moved, without taking anything.
+     * @param type the piece's type
+     * @param from the cell it left
+     * @param to the cell it moved to
+     */
+    void moved( PieceType type, int from, int to ) {
+        toggle( type, from );
+        toggle( type, to );
+    }
+
+    /**
+     * Is the position its own image under some symmetry that keeps the
+     * rules, other than doing nothing?
+     * @param hash the position's own hash
+     * @return true iff it is, as far as the hashes can tell
+     */
+    boolean isSymmetric( long hash ) {
+        final int last = this.pawns > 0 ? MIRROR : this.hashes.length - 1;
+        for ( int s = 1; s <= last; ++s ) {
+            if ( this.hashes[ s ] == hash ) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Choose one hash for all the positions that are the same as this one
+     * but for a symmetry that keeps the rules: the least of their hashes.
+     * @param hash the position's own hash
+     * @return the canonical hash
+     */
+    long canonical( long hash ) {
+        if ( this.pawns > 0 ) return Math.min( hash, this.hashes[ MIRROR ] );
+        long least = hash;
+        for ( int s = 1; s < this.hashes.length; ++s ) {
+            least = Math.min( least, this.hashes[ s ] );
+        }
+        return least;
+    }
+}
@@ -0,0 +1,563 @@
+package edu.rit.cs.chess;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The result of solving every position of up to a given number of pieces
+ * on a board of a given size: for each one, the fewest pieces that a
+ * series of captures can leave. A position is solvable iff that is 1,
+ * and then its solution takes one capture per piece but one.
+ * <br/>
+ * Since every move captures a piece, each position leads only to
+ * positions with one piece fewer. So the positions are solved one layer
+ * at a time, backwards from the end of the game: first those with one
+ * piece, then those with two, which look up where their captures lead in
+ * the layer before, and so on. The moves are the pieces' own rules, as
+ * the {@link Game} applies them.
+ * <br/>
+ * Within a layer, a position's index is the rank of its set of occupied
+ * cells among all sets of that size, times 6^pieces, plus its piece types
+ * read as a number in base 6, cell by cell. So a position's entry is
+ * found in time proportional to its number of pieces, with no searching.
+ * Each entry takes 4 bits.
+ * <br/>
+ * The table is kept in a file that is memory mapped, both while it is
+ * made and when it is looked at, so it need not fit in the heap and is
+ * shared by all processes that use it. Each layer is made in chunks,
+ * shared among the threads of a {@link ForkJoinPool}. The file records
+ * each chunk once it is on disk, so a run that is stopped can be
+ * resumed where it left off by calling
+ * {@link #generate(Path, int, int, int, int)} again.
+ * <br/>
+ * The file holds a header of {@link #HEADER} bytes (see
+ * {@link #readHeader()}), then one byte per chunk that is 1 once the
+ * chunk is done, then the entries, two to a byte, low nibble first.
+ * @author RIT CS
+ */
+public final class Tablebase {
+
+    /**
+     * The first four bytes of a tablebase file, "CHTB"
+     */
+    private static final int MAGIC = 0x43485442;
+
+    /**
+     * The version of the file format
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Size of the file's header, in bytes
+     */
+    private static final int HEADER = 32;
+
+    /**
+     * Number of positions in a chunk; even, so no two chunks share a byte
+     */
+    private static final int CHUNK = 1 << 16;
+
+    /**
+     * Most pieces a table can have, so that entries fit in 4 bits
+     */
+    public static final int MAX_PIECES = 15;
+
+    /**
+     * Number of types of piece
+     */
+    private static final int TYPES = PieceType.COUNT;
+
+    /**
+     * Board dimensions, the number of cells, and the most pieces covered
+     */
+    private final int numRows, numCols, cells, maxPieces;
+
+    /**
+     * binomial[n][k] is the number of ways to choose k of n cells.
+     */
+    private final long[][] binomial;
+
+    /**
+     * powers[k] is 6^k, the number of ways to give k pieces types.
+     */
+    private final long[] powers;
+
+    /**
+     * The index of each layer's first entry, with an extra one at the
+     * end; each is even
+     */
+    private final long[] layerStart;
+
+    /**
+     * The number of each layer's first chunk, with an extra one at the
+     * end
+     */
+    private final int[] chunkStart;
+
+    /**
+     * Where the chunk flags and the entries start in the file
+     */
+    private final int flagsOffset, dataOffset;
+
+    /**
+     * The file
+     */
+    private final MappedByteBuffer map;
+
+    /**
+     * Work out the layout of a table.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     * @param maxPieces most pieces covered
+     * @param map the file, or null if the layout is only being worked out
+     * @throws IllegalArgumentException if the table would be too big
+     */
+    private Tablebase( int numRows, int numCols, int maxPieces,
+                       MappedByteBuffer map ) {
+        if ( numRows <= 0 || numCols <= 0 || maxPieces < 0 ||
+             maxPieces > MAX_PIECES ||
+             (long)numRows * numCols > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException(
+                    "Bad tablebase size " + numRows + "x" + numCols +
+                    " with " + maxPieces + " pieces" );
+        }
+        // The counts can be far too big for a long, so the sizes are
+        // worked out with exact arithmetic, and the table is refused
+        // before anything is made from them.
+        final long cells = (long)numRows * numCols;
+        final int pieces = (int)Math.min( maxPieces, cells );
+        long bytes;
+        try {
+            long choose = 1, power = 1, entries = 0, chunks = 0;
+            for ( int k = 0; k <= pieces; ++k ) {
+                if ( k > 0 ) {
+                    choose = Math.multiplyExact( choose, cells - k + 1 ) / k;
+                    power = Math.multiplyExact( power, TYPES );
+                }
+                final long size = Math.multiplyExact( choose, power );
+                entries = Math.addExact( entries,
+                                         Math.addExact( size, size % 2 ) );
+                chunks += ( size + CHUNK - 1 ) / CHUNK;
+            }
+            bytes = Math.addExact( HEADER + chunks, entries / 2 );
+        }
+        catch ( ArithmeticException e ) {
+            bytes = Long.MAX_VALUE;
+        }
+        if ( bytes > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException(
+                    "Tablebase would take " +
+                    ( bytes == Long.MAX_VALUE ? "more than " : "" ) +
+                    bytes + " bytes" );
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.cells = (int)cells;
+        this.maxPieces = pieces;
+        this.binomial = new long[ this.cells + 1 ][ this.maxPieces + 1 ];
+        for ( int n = 0; n <= this.cells; ++n ) {
+            this.binomial[ n ][ 0 ] = 1;
+            for ( int k = 1; k <= Math.min( n, this.maxPieces ); ++k ) {
+                this.binomial[ n ][ k ] = this.binomial[ n - 1 ][ k - 1 ] +
+                        ( k < n ? this.binomial[ n - 1 ][ k ] : 0 );
+            }
+        }
+        this.powers = new long[ this.maxPieces + 1 ];
+        this.powers[ 0 ] = 1;
+        for ( int k = 1; k <= this.maxPieces; ++k ) {
+            this.powers[ k ] = this.powers[ k - 1 ] * TYPES;
+        }
+        this.layerStart = new long[ this.maxPieces + 2 ];
+        this.chunkStart = new int[ this.maxPieces + 2 ];
+        for ( int k = 0; k <= this.maxPieces; ++k ) {
+            final long size = layerSize( k );
+            this.layerStart[ k + 1 ] =
+                    this.layerStart[ k ] + ( size + 1 ) / 2 * 2;
+            this.chunkStart[ k + 1 ] = this.chunkStart[ k ] +
+                    (int)( ( size + CHUNK - 1 ) / CHUNK );
+        }
+        this.flagsOffset = HEADER;
+        this.dataOffset = HEADER + this.chunkStart[ this.maxPieces + 1 ];
+        this.map = map;
+    }
+
+    /**
+     * @param k a number of pieces
+     * @return the number of positions with that many pieces
+     */
+    private long layerSize( int k ) {
+        return this.binomial[ this.cells ][ k ] * this.powers[ k ];
+    }
+
+    /**
+     * @return the size of the file, in bytes
+     */
+    private int fileSize() {
+        return this.dataOffset +
+               (int)( this.layerStart[ this.maxPieces + 1 ] / 2 );
+    }
+
+    /**
+     * Make a table, or finish making one that was stopped part way.
+     * @param file where to keep the table
+     * @param numRows number of rows on the board
+     * @param numCols number of columns on the board
+     * @param maxPieces most pieces to cover, at most {@link #MAX_PIECES}
+     * @param threads number of threads to work with
+     * @return the table
+     * @throws IOException if the file cannot be written, or holds some
+     *                     other table
+     * @throws IllegalArgumentException if the table would be too big for
+     *                                  a file of 2 GB
+     */
+    public static Tablebase generate( Path file, int numRows, int numCols,
+                                      int maxPieces, int threads )
+            throws IOException {
+        final Tablebase layout =
+                new Tablebase( numRows, numCols, maxPieces, null );
+        final int size = layout.fileSize();
+        MappedByteBuffer map;
+        try ( FileChannel channel = FileChannel.open( file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE ) ) {
+            final long existing = channel.size();
+            if ( existing != 0 && existing != size ) {
+                throw new IOException( file + " holds some other tablebase" );
+            }
+            map = channel.map( FileChannel.MapMode.READ_WRITE, 0, size );
+            // Mapping grows the file, so a run stopped before its header
+            // was forced leaves a file of the right size with a header of
+            // zeros, and nothing else written yet.
+            if ( existing == 0 || blankHeader( map ) ) {
+                map.putInt( 0, MAGIC );
+                map.putInt( 4, VERSION );
+                map.putInt( 8, numRows );
+                map.putInt( 12, numCols );
+                map.putInt( 16, layout.maxPieces );
+                map.force();
+            }
+        }
+        Tablebase table = new Tablebase( numRows, numCols, maxPieces, map );
+        table.readHeader();
+        ForkJoinPool pool = new ForkJoinPool( Math.max( threads, 1 ) );
+        try {
+            for ( int k = 0; k <= table.maxPieces; ++k ) {
+                pool.invoke( table.new LayerTask(
+                        k, table.chunkStart[ k ], table.chunkStart[ k + 1 ] ) );
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        return table;
+    }
+
+    /**
+     * @param map a table's file
+     * @return true iff its header is all zeros
+     */
+    private static boolean blankHeader( MappedByteBuffer map ) {
+        for ( int i = 0; i < HEADER; ++i ) {
+            if ( map.get( i ) != 0 ) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Open a finished table for looking positions up.
+     * @param file the table's file
+     * @return the table
+     * @throws IOException if the file cannot be read, does not hold a
+     *                     table, or holds one that is not finished
+     */
+    public static Tablebase open( Path file ) throws IOException {
+        MappedByteBuffer map;
+        try ( FileChannel channel = FileChannel.open( file ) ) {
+            if ( channel.size() < HEADER ||
+                 channel.size() > Integer.MAX_VALUE ) {
+                throw new IOException( file + " is not a tablebase" );
+            }
+            map = channel.map( FileChannel.MapMode.READ_ONLY, 0,
+                               channel.size() );
+        }
+        if ( map.getInt( 0 ) != MAGIC || map.getInt( 4 ) != VERSION ) {
+            throw new IOException( file + " is not a tablebase" );
+        }
+        Tablebase table;
+        try {
+            table = new Tablebase( map.getInt( 8 ), map.getInt( 12 ),
+                                   map.getInt( 16 ), map );
+        }
+        catch ( IllegalArgumentException e ) {
+            throw new IOException( file + " is not a tablebase", e );
+        }
+        table.readHeader();
+        for ( int chunk = 0; chunk < table.chunkStart[ table.maxPieces + 1 ];
+              ++chunk ) {
+            if ( map.get( table.flagsOffset + chunk ) == 0 ) {
+                throw new IOException( file + " is not finished" );
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Check that the file is the size its header says: the magic number,
+     * the version, the number of rows, columns, and pieces, as ints.
+     * @throws IOException if it is not
+     */
+    private void readHeader() throws IOException {
+        if ( this.map.capacity() != fileSize() ||
+             this.map.getInt( 0 ) != MAGIC ||
+             this.map.getInt( 4 ) != VERSION ||
+             this.map.getInt( 8 ) != this.numRows ||
+             this.map.getInt( 12 ) != this.numCols ||
+             this.map.getInt( 16 ) != this.maxPieces ) {
+            throw new IOException( "Tablebase file does not match" );
+        }
+    }
+
+    /**
+     * @return the number of rows on the boards covered
+     */
+    public int numRows() {
+        return this.numRows;
+    }
+
+    /**
+     * @return the number of columns on the boards covered
+     */
+    public int numCols() {
+        return this.numCols;
+    }
+
+    /**
+     * @return the most pieces a position covered can have
+     */
+    public int maxPieces() {
+        return this.maxPieces;
+    }
+
+    /**
+     * Get an entry.
+     * @param index the entry's index in the whole table
+     * @return its value
+     */
+    private int entry( long index ) {
+        final int b = this.map.get( this.dataOffset + (int)( index >>> 1 ) );
+        return ( ( index & 1 ) == 0 ? b : b >>> 4 ) & 0xF;
+    }
+
+    /**
+     * Look up the fewest pieces that captures can leave in a game's
+     * current position.
+     * @param game the game
+     * @return the number of pieces, or -1 if the table does not cover the
+     *         game's board size or number of pieces
+     */
+    public int fewestPieces( Game game ) {
+        final int k = game.pieceCount();
+        if ( game.numRows() != this.numRows ||
+             game.numCols() != this.numCols || k > this.maxPieces ) {
+            return -1;
+        }
+        final int[] cells = game.pieceCells();
+        long rank = 0, types = 0;
+        for ( int i = 0; i < k; ++i ) {
+            final int cell = cells[ i ];
+            rank += this.binomial[ cell ][ i + 1 ];
+            types += Piece.typeOf( game.pieceCode( cell / this.numCols,
+                                                   cell % this.numCols ) )
+                          .ordinal() * this.powers[ i ];
+        }
+        return entry( this.layerStart[ k ] + rank * this.powers[ k ] + types );
+    }
+
+    /**
+     * Solves the positions of one layer in a range of its chunks,
+     * splitting the range among the pool's threads.
+     */
+    private class LayerTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The layer's number of pieces
+         */
+        private final int k;
+
+        /**
+         * The range of chunk numbers, first inclusive, last exclusive
+         */
+        private final int first, last;
+
+        LayerTask( int k, int first, int last ) {
+            this.k = k;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if ( this.last - this.first > 1 ) {
+                final int middle = ( this.first + this.last ) >>> 1;
+                invokeAll( new LayerTask( this.k, this.first, middle ),
+                           new LayerTask( this.k, middle, this.last ) );
+            }
+            else if ( this.last > this.first &&
+                      map.get( flagsOffset + this.first ) == 0 ) {
+                new Worker( this.k ).solveChunk( this.first );
+            }
+        }
+    }
+
+    /**
+     * Solves positions of one layer on a game of its own.
+     */
+    private class Worker implements MoveSink {
+
+        /**
+         * The layer's number of pieces
+         */
+        private final int k;
+
+        /**
+         * The game the positions are set up on
+         */
+        private final Game game = new Game( BoardStore.Kind.ARRAY,
+                                            numRows, numCols );
+
+        /**
+         * The position being solved: its cells in increasing order, and
+         * the ordinal of the type of the piece in each
+         */
+        private final int[] cells, types;
+
+        /**
+         * The fewest pieces left by any capture seen so far
+         */
+        private int fewest;
+
+        Worker( int k ) {
+            this.k = k;
+            this.cells = new int[ k ];
+            this.types = new int[ k ];
+        }
+
+        /**
+         * Solve the positions of one chunk, write them to the file, and
+         * then record that the chunk is done.
+         * @param chunk the chunk's number
+         */
+        void solveChunk( int chunk ) {
+            final long start = (long)( chunk - chunkStart[ this.k ] ) * CHUNK;
+            final long end = Math.min( start + CHUNK, layerSize( this.k ) );
+            final long base = layerStart[ this.k ];
+            for ( long index = start; index < end; index += 2 ) {
+                int b = solve( index );
+                if ( index + 1 < end ) b |= solve( index + 1 ) << 4;
+                map.put( dataOffset + (int)( ( base + index ) >>> 1 ),
+                         (byte)b );
+            }
+            map.force( dataOffset + (int)( ( base + start ) >>> 1 ),
+                       (int)( ( end - start + 1 ) / 2 ) );
+            map.put( flagsOffset + chunk, (byte)1 );
+            map.force( flagsOffset + chunk, 1 );
+        }
+
+        /**
+         * Solve one position.
+         * @param index the position's index in the layer
+         * @return the fewest pieces that captures can leave
+         */
+        private int solve( long index ) {
+            long rank = index / powers[ this.k ];
+            long code = index % powers[ this.k ];
+
+            // Find the cells by their rank, largest first.
+            int cell = Tablebase.this.cells;
+            for ( int i = this.k - 1; i >= 0; --i ) {
+                do {
+                    --cell;
+                } while ( binomial[ cell ][ i + 1 ] > rank );
+                this.cells[ i ] = cell;
+                rank -= binomial[ cell ][ i + 1 ];
+            }
+            for ( int i = 0; i < this.k; ++i ) {
+                this.types[ i ] = (int)( code % TYPES );
+                code /= TYPES;
+            }
+
+            this.game.setPieces( this.cells, this.types, this.k );
+            this.fewest = this.k;
+            this.game.generateAllMoves( this );
+            return this.fewest;
+        }
+
+        /**
+         * Look up where a move leads, if it is a capture.
+         * @param from the cell of the piece that can move
+         * @param to the cell it can move to
+         */
+        @Override
+        public void move( int from, int to ) {
+            if ( this.fewest == 1 ||
+                 !this.game.occupied( to / numCols, to % numCols ) ) {
+                return;
+            }
+            int mover = 0;
+            for ( int i = 0; i < this.k; ++i ) {
+                if ( this.cells[ i ] == from ) mover = this.types[ i ];
+            }
+
+            // The position after the capture: the same cells but the
+            // mover's, with the mover's type in the captured one's cell
+            long rank = 0, code = 0;
+            int j = 0;
+            for ( int i = 0; i < this.k; ++i ) {
+                final int cell = this.cells[ i ];
+                if ( cell == from ) continue;
+                rank += binomial[ cell ][ j + 1 ];
+                code += ( cell == to ? mover : this.types[ i ] ) * powers[ j ];
+                ++j;
+            }
+            this.fewest = Math.min( this.fewest, entry(
+                    layerStart[ this.k - 1 ] +
+                    rank * powers[ this.k - 1 ] + code ) );
+        }
+    }
+
+    /**
+     * Make a table from the command line, or finish one that was stopped.
+     * @param args [0]: rows; [1]: columns; [2]: most pieces; [3]: the
+     *             file; [4] (opt): number of threads, by default one per
+     *             processor
+     * @throws IOException if the file cannot be written
+     */
+    public static void main( String[] args ) throws IOException {
+        if ( args.length != 4 && args.length != 5 ) {
+            System.out.println( "Usage: java edu.rit.cs.chess.Tablebase " +
+                                "rows columns pieces file [threads]" );
+            System.exit( 1 );
+        }
+        final int threads = args.length == 5
+                ? Integer.parseInt( args[ 4 ] )
+                : Runtime.getRuntime().availableProcessors();
+        final long start = System.nanoTime();
+        Tablebase table = generate( Path.of( args[ 3 ] ),
+                                    Integer.parseInt( args[ 0 ] ),
+                                    Integer.parseInt( args[ 1 ] ),
+                                    Integer.parseInt( args[ 2 ] ), threads );
+        System.out.printf( "%dx%d, up to %d pieces: %d positions, " +
+                           "%d bytes, %.1f s%n", table.numRows,
+                           table.numCols, table.maxPieces,
+                           table.layerStart[ table.maxPieces + 1 ],
+                           table.fileSize(),
+                           ( System.nanoTime() - start ) / 1e9 );
+    }
+}
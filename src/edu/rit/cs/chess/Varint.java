@@ -0,0 +1,88 @@
+package edu.rit.cs.chess;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * The unsigned varints that {@link MoveLog}s and {@link Snapshot}s are
+ * made of: seven bits per byte, low bits first, with the high bit set on
+ * every byte but the last.
+ * @author RIT CS
+ */
+final class Varint {
+
+    /**
+     * Most bytes an int takes
+     */
+    static final int MAX_BYTES = 5;
+
+    private Varint() {}
+
+    /**
+     * Write an int into an array.
+     * @param bytes the array
+     * @param at where in the array to write it
+     * @param n the int, taken as unsigned
+     * @return the index just past what was written
+     * @rit.pre there are at least {@link #MAX_BYTES} bytes from at on, or
+     *          enough for n
+     */
+    static int put( byte[] bytes, int at, int n ) {
+        while ( ( n & ~0x7F ) != 0 ) {
+            bytes[ at++ ] = (byte)( ( n & 0x7F ) | 0x80 );
+            n >>>= 7;
+        }
+        bytes[ at++ ] = (byte)n;
+        return at;
+    }
+
+    /**
+     * Write an int to a stream.
+     * @param out the stream
+     * @param n the int, taken as unsigned
+     */
+    static void write( ByteArrayOutputStream out, int n ) {
+        byte[] bytes = new byte[ MAX_BYTES ];
+        out.write( bytes, 0, put( bytes, 0, n ) );
+    }
+
+    /**
+     * Read an int from a buffer.
+     * @param in the buffer, at the int
+     * @return its value
+     * @throws BufferUnderflowException if the buffer ends first
+     * @throws IllegalArgumentException if the varint is too long
+     */
+    static int get( ByteBuffer in ) {
+        int value = 0;
+        for ( int shift = 0; shift < 7 * MAX_BYTES; shift += 7 ) {
+            final byte b = in.get();
+            value |= ( b & 0x7F ) << shift;
+            if ( b >= 0 ) return value;
+        }
+        throw new IllegalArgumentException( "Varint too long" );
+    }
+
+    /**
+     * Read an int from a stream.
+     * @param in the stream, at the int
+     * @return its value
+     * @throws EOFException if the stream ends first
+     * @throws IOException if the stream cannot be read, or the varint is
+     *                     too long
+     */
+    static int read( InputStream in ) throws IOException {
+        int value = 0;
+        for ( int shift = 0; shift < 7 * MAX_BYTES; shift += 7 ) {
+            final int b = in.read();
+            if ( b < 0 ) throw new EOFException();
+            value |= ( b & 0x7F ) << shift;
+            if ( b < 0x80 ) return value;
+        }
+        throw new IOException( "Varint too long" );
+    }
+}
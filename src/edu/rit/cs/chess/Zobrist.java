@@ -0,0 +1,118 @@
+package edu.rit.cs.chess;
+
+/**
+ * Zobrist hashing of board positions.
+ * A position's hash is the XOR of one pseudo-random key per piece,
+ * chosen by the piece's type and cell, so it can be updated with a few
+ * XORs whenever a piece is placed, removed, or moved.
+ * <br/>
+ * Each key is computed from its type and cell by a fixed mixing function.
+ * That works for boards of any size, and gives the same hashes in every
+ * run of the program, so they can be saved and compared across sessions.
+ * For boards of up to {@link Zobrist#MAX_TABLE_CELLS} cells the keys are
+ * also stored in a table, shared by all boards of the same size, since
+ * looking a key up is cheaper than computing it. Only the tables of the
+ * {@link Zobrist#CACHED_SIZES} sizes used most recently are kept.
+ * @author RIT CS
+ */
+final class Zobrist {
+
+    /**
+     * Largest board, in cells, whose keys are kept in a table
+     */
+    static final int MAX_TABLE_CELLS = 1 << 16;
+
+    /**
+     * Added to every input of the mixing function
+     */
+    private static final long SEED = 0x5EED_C4E55L;
+
+    /**
+     * The odd constant used by SplitMix64 to space out its inputs
+     */
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Most board sizes whose keys are kept
+     */
+    static final int CACHED_SIZES = 16;
+
+    /**
+     * One set of keys per board size
+     */
+    private static final SizeCache< Zobrist > CACHE =
+            new SizeCache<>( CACHED_SIZES );
+
+    /**
+     * The hash of an empty board of this size
+     */
+    final long empty;
+
+    /**
+     * keys[cell * PieceType.COUNT + type], or null if the board is too big
+     */
+    private final long[] keys;
+
+    /**
+     * Get the keys for a board size.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     * @return the shared keys
+     */
+    static Zobrist forBoard( int numRows, int numCols ) {
+        return CACHE.get( numRows, numCols,
+                          () -> new Zobrist( numRows, numCols ) );
+    }
+
+    /**
+     * Compute the keys for a board size.
+     * Including the dimensions in the empty board's hash keeps boards of
+     * different shapes apart.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     */
+    private Zobrist( int numRows, int numCols ) {
+        this.empty = mix( SEED ^ ( ( (long)numRows << 32 ) | numCols ) );
+        final long cells = (long)numRows * numCols;
+        if ( cells <= MAX_TABLE_CELLS ) {
+            this.keys = new long[ (int)cells * PieceType.COUNT ];
+            for ( int i = 0; i < this.keys.length; ++i ) {
+                this.keys[ i ] = compute( i );
+            }
+        }
+        else {
+            this.keys = null;
+        }
+    }
+
+    /**
+     * Scramble the bits of a number (the SplitMix64 finalizer).
+     * @param z the number
+     * @return a well-mixed 64-bit value
+     */
+    private static long mix( long z ) {
+        z = ( z ^ ( z >>> 30 ) ) * 0xBF58476D1CE4E5B9L;
+        z = ( z ^ ( z >>> 27 ) ) * 0x94D049BB133111EBL;
+        return z ^ ( z >>> 31 );
+    }
+
+    /**
+     * Compute a key.
+     * @param index cell * PieceType.COUNT + type
+     * @return the key
+     */
+    private static long compute( long index ) {
+        return mix( SEED + ( index + 1 ) * GAMMA );
+    }
+
+    /**
+     * Get the key for a piece in a cell.
+     * @param type the kind of piece
+     * @param cell the cell number, counted row by row
+     * @return the key
+     */
+    long key( PieceType type, int cell ) {
+        final long index = (long)cell * PieceType.COUNT + type.ordinal();
+        return this.keys != null ? this.keys[ (int)index ] : compute( index );
+    }
+}
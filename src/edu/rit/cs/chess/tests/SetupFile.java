@@ -0,0 +1,106 @@
+package edu.rit.cs.chess.tests;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * The text of a setup file, as the {@link edu.rit.cs.chess.Game}
+ * constructor reads it, built up piece by piece for the tests and written
+ * to a temporary file.
+ *
+ * @author RIT CS
+ */
+final class SetupFile {
+
+    /**
+     * The dimensions line, then one line per piece
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Start a setup with no pieces.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     */
+    SetupFile( int numRows, int numCols ) {
+        this.text.append( numRows ).append( ' ' ).append( numCols )
+                 .append( '\n' );
+    }
+
+    /**
+     * Make a setup with pieces of random types in random cells. Each
+     * piece is named by its type and its number, so the names differ;
+     * a later piece on the same cell replaces an earlier one.
+     * @param numRows number of rows
+     * @param numCols number of columns
+     * @param count number of pieces
+     * @param seed for the random types and cells
+     * @return the setup
+     */
+    static SetupFile random( int numRows, int numCols, int count,
+                             long seed ) {
+        Random random = new Random( seed );
+        SetupFile setup = new SetupFile( numRows, numCols );
+        for ( int i = 0; i < count; ++i ) {
+            setup.piece( randomName( random, i ), random.nextInt( numRows ),
+                         random.nextInt( numCols ) );
+        }
+        return setup;
+    }
+
+    /**
+     * Name a piece of a random type.
+     * @param random chooses the type
+     * @param number the piece's number, which ends its name
+     * @return the name
+     */
+    static String randomName( Random random, int number ) {
+        return "BKNPQR".charAt( random.nextInt( 6 ) ) + "" + number;
+    }
+
+    /**
+     * Add a piece. A later piece on the same cell replaces it.
+     * @param name the piece's name, whose first letter is its type
+     * @param row its row
+     * @param col its column
+     * @return this setup
+     */
+    SetupFile piece( String name, int row, int col ) {
+        this.text.append( name ).append( ' ' ).append( row ).append( ' ' )
+                 .append( col ).append( '\n' );
+        return this;
+    }
+
+    /**
+     * Write the setup to a new temporary file, deleted when the tests
+     * end.
+     * @return the file
+     * @throws IOException if it cannot be written
+     */
+    Path write() throws IOException {
+        Path path = Files.createTempFile( "board", ".txt" );
+        path.toFile().deleteOnExit();
+        return writeTo( path );
+    }
+
+    /**
+     * Write the setup to a file, replacing what it held.
+     * @param path the file
+     * @return the file
+     * @throws IOException if it cannot be written
+     */
+    Path writeTo( Path path ) throws IOException {
+        Files.writeString( path, this.text );
+        return path;
+    }
+
+    /**
+     * @return the text of the setup file
+     */
+    @Override
+    public String toString() {
+        return this.text.toString();
+    }
+}
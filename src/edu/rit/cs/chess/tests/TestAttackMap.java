@@ -0,0 +1,104 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to check that the pieces that can move to each cell, and
+ * the cells each piece can move to, are kept right as pieces move and
+ * moves are taken back.
+ *
+ * @author RIT CS
+ */
+public class TestAttackMap {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    /**
+     * Compare the attackers of every cell and the targets of every piece
+     * with what the pieces' legal moves say.
+     */
+    private static void check( Game game ) {
+        final int rows = game.numRows(), cols = game.numCols();
+        List< List< Integer > > attackers = new ArrayList<>();
+        for ( int cell = 0; cell < rows * cols; ++cell ) {
+            attackers.add( new ArrayList<>() );
+        }
+        for ( int cell = 0; cell < rows * cols; ++cell ) {
+            final int[] moves = game.legalMoves( cell / cols, cell % cols );
+            assertArrayEquals( moves,
+                               game.targetsOf( cell / cols, cell % cols ),
+                               "targets of " + cell );
+            for ( int to: moves ) attackers.get( to ).add( cell );
+        }
+        for ( int cell = 0; cell < rows * cols; ++cell ) {
+            final int[] expected = attackers.get( cell ).stream()
+                                            .mapToInt( i -> i ).toArray();
+            assertEquals( Arrays.toString( expected ), Arrays.toString(
+                    game.attackersOf( cell / cols, cell % cols ) ),
+                          "attackers of " + cell );
+        }
+    }
+
+    /**
+     * Make random moves, many of them illegal, checking the whole map
+     * after each legal one, then take them all back.
+     */
+    private static void play( Game game ) {
+        Random random = new Random( 17 );
+        final int rows = game.numRows(), cols = game.numCols();
+        check( game );
+        for ( int move = 0; move < 3000; ++move ) {
+            MoveStatus status = game.tryMove(
+                    random.nextInt( rows ), random.nextInt( cols ),
+                    random.nextInt( rows ), random.nextInt( cols ) );
+            if ( status == MoveStatus.OK ) check( game );
+        }
+        while ( game.unmakeMove() ) {
+            check( game );
+        }
+    }
+
+    @Test
+    public void testBoards() throws IOException {
+        for ( String board: new String[]{ "board-std.txt", "board13x13.txt",
+                                          "board4x4A.txt", "board4x2P.txt" } ) {
+            play( new Game( TEST_DIR + board ) );
+        }
+    }
+
+    /**
+     * Play on a board with pieces of every type in random cells.
+     */
+    private static void playRandom( int size, int pieces )
+            throws IOException {
+        Game game = new Game( SetupFile.random( size, size, pieces, size )
+                                       .write().toString() );
+        play( game );
+        play( new Game( game ) );
+    }
+
+    @Test
+    public void mappedBoard() throws IOException {
+        // More than 64 cells per row of bitsets, and no move tables
+        playRandom( 30, 200 );
+    }
+
+    @Test
+    public void unmappedBoard() throws IOException {
+        playRandom( 40, 200 );
+    }
+}
@@ -0,0 +1,229 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.BoardStore;
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.util.Coordinates;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to check that every board representation behaves
+ * exactly like the original array of pieces.
+ *
+ * @author RIT CS
+ */
+public class TestBoardStore {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    /**
+     * Play the same random moves on an array board and on a board of
+     * each other kind, and compare everything printed along the way.
+     * @param boardFile the setup file name within the test directory
+     */
+    private void compareStores( String boardFile ) {
+        for ( BoardStore.Kind kind: BoardStore.Kind.values() ) {
+            assertEquals(
+                    playRandom( boardFile, BoardStore.Kind.ARRAY ),
+                    playRandom( boardFile, kind ),
+                    kind + " " + boardFile
+            );
+        }
+    }
+
+    /**
+     * Play a fixed pseudo-random series of moves, many of them illegal.
+     * @param boardFile the setup file name within the test directory
+     * @param kind the board representation to use
+     * @return everything printed, including the outcome of each move
+     */
+    private static String playRandom( String boardFile,
+                                      BoardStore.Kind kind ) {
+        return playRandom( TEST_DIR + boardFile, kind, 14 );
+    }
+
+    /**
+     * Play a fixed pseudo-random series of moves, many of them illegal.
+     * @param path the setup file's path
+     * @param kind the board representation to use
+     * @param size the moves start and end in rows and columns below this
+     * @return everything printed, including the outcome of each move
+     */
+    private static String playRandom( String path, BoardStore.Kind kind,
+                                      int size ) {
+        PrintStream console = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut( new PrintStream( bytes ) );
+        try {
+            Game game = new Game( path, kind );
+            Random random = new Random( 2021 );
+            for ( int move = 0; move < 3000; ++move ) {
+                Coordinates start = new Coordinates(
+                        random.nextInt( size ), random.nextInt( size ) );
+                Coordinates end = new Coordinates(
+                        random.nextInt( size ), random.nextInt( size ) );
+                System.out.println( game.makeMove( start, end ).message() );
+                if ( move % 100 == 0 ) game.showBoard();
+            }
+            game.showBoard();
+        }
+        catch ( Exception e ) {
+            fail( e );
+        }
+        finally {
+            System.setOut( console );
+        }
+        return bytes.toString();
+    }
+
+    @Test
+    public void standardBoard() {
+        compareStores( "board-std.txt" );
+    }
+
+    @Test
+    public void multiWordBoard() {
+        compareStores( "board13x13.txt" );
+    }
+
+    /**
+     * @return the setup a game would write, which names every piece
+     */
+    private static String setup( Game game ) {
+        StringWriter text = new StringWriter();
+        game.writeSetup( new PrintWriter( text ) );
+        return text.toString();
+    }
+
+    @Test
+    public void copiesAreIndependent() throws Exception {
+        for ( BoardStore.Kind kind: BoardStore.Kind.values() ) {
+            Game game = new Game( TEST_DIR + "board-std.txt", kind );
+            final String before = setup( game );
+            Game copy = new Game( game );
+            assertEquals( before, setup( copy ) );
+            assertTrue( copy.makeMove( new Coordinates( 7, 0 ),
+                                       new Coordinates( 6, 0 ) ).ok );
+            assertEquals( "p0", copy.lastCaptured() );
+            assertEquals( before, setup( game ) );
+            final String after = setup( copy );
+            assertNotEquals( before, after );
+            assertTrue( game.makeMove( new Coordinates( 7, 1 ),
+                                       new Coordinates( 5, 2 ) ).ok );
+            assertEquals( after, setup( copy ) );
+            assertEquals( after, setup( new Game( copy ) ) );
+            copy.unmakeMove();
+            assertEquals( before, setup( copy ) );
+        }
+    }
+
+    @Test
+    public void sparseBoard() throws IOException {
+        Path path = SetupFile.random( 64, 64, 250, 24 ).write();
+        assertEquals( BoardStore.Kind.SPARSE,
+                      new Game( path.toString() ).boardKind() );
+        for ( BoardStore.Kind kind: BoardStore.Kind.values() ) {
+            assertEquals(
+                    playRandom( path.toString(), BoardStore.Kind.ARRAY, 64 ),
+                    playRandom( path.toString(), kind, 64 ),
+                    kind.toString()
+            );
+        }
+    }
+
+    @Test
+    public void autoChoosesArrayForFullBoards() throws IOException {
+        assertEquals( BoardStore.Kind.ARRAY,
+                      new Game( TEST_DIR + "board13x13.txt" ).boardKind() );
+        Path path = SetupFile.random( 100, 100, 2000, 100 ).write();
+        assertEquals( BoardStore.Kind.ARRAY,
+                      new Game( path.toString() ).boardKind() );
+    }
+
+    /**
+     * Write a setup file with pieces of every type in random columns of
+     * the first, middle, and last rows, so that long moves along a row
+     * often pass other pieces.
+     * @param size number of rows and of columns
+     * @param pieces number of pieces
+     * @return the file
+     */
+    private static Path rowsSetup( int size, int pieces ) throws IOException {
+        SetupFile setup = new SetupFile( size, size );
+        Random random = new Random( pieces );
+        for ( int i = 0; i < pieces; ++i ) {
+            setup.piece( SetupFile.randomName( random, i ),
+                         i % 3 * ( size - 1 ) / 2, random.nextInt( size ) );
+        }
+        return setup.write();
+    }
+
+    /**
+     * Move random pieces to random cells of their rows and columns.
+     * @param game the game
+     * @param moves number of moves to try
+     * @return the outcome of each move, then the setup at the end
+     */
+    private static String playRows( Game game, int moves ) {
+        final int size = game.numRows();
+        Random random = new Random( 11 );
+        StringBuilder text = new StringBuilder();
+        for ( int move = 0; move < moves; ++move ) {
+            String[] lines = setup( game ).split( "\\R" );
+            final int line = 1 + random.nextInt( lines.length - 1 );
+            String[] piece = lines[ line ].split( " " );
+            final int row = Integer.parseInt( piece[ 1 ] );
+            final int col = Integer.parseInt( piece[ 2 ] );
+            Coordinates end = random.nextBoolean()
+                    ? new Coordinates( row, random.nextInt( size ) )
+                    : new Coordinates( random.nextInt( size ), col );
+            text.append( game.makeMove( new Coordinates( row, col ), end )
+                             .message() ).append( '\n' );
+        }
+        return text.append( setup( game ) ).toString();
+    }
+
+    @Test
+    public void bigSparseBoard() throws IOException {
+        Path path = rowsSetup( 2000, 300 );
+        Game game = new Game( path.toString() );
+        assertEquals( BoardStore.Kind.SPARSE, game.boardKind() );
+        final String moves = playRows( game, 1000 );
+        assertEquals( playRows( new Game( path.toString(),
+                                          BoardStore.Kind.ARRAY ), 1000 ),
+                      moves );
+    }
+
+    @Test
+    public void hugeSparseBoard() throws IOException {
+        // As an array, this board would take 1.6 GB.
+        Path path = rowsSetup( 20_000, 300 );
+        Game game = new Game( path.toString() );
+        assertEquals( BoardStore.Kind.SPARSE, game.boardKind() );
+        final String before = setup( game );
+        playRows( game, 500 );
+        while ( game.unmakeMove() ) {
+            // Back to the start
+        }
+        assertEquals( before, setup( game ) );
+    }
+
+    @Test
+    public void smallBoards() {
+        compareStores( "board4x4A.txt" );
+        compareStores( "board4x2P.txt" );
+    }
+}
@@ -0,0 +1,163 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.util.FieldReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test reading setup files and move commands.
+ *
+ * @author RIT CS
+ */
+public class TestFieldReader {
+
+    /**
+     * Check a reader against String.split on the lines of some text.
+     * @param in the reader
+     * @param lines the lines the text holds
+     */
+    private static void checkLines( FieldReader in, List< String > lines ) {
+        for ( String line: lines ) {
+            assertTrue( in.nextLine(), line );
+            assertEquals( line, in.line() );
+            String[] fields = line.split( "\\s+" );
+            assertEquals( fields.length, in.fieldCount(), line );
+            for ( int i = 0; i < fields.length; ++i ) {
+                assertEquals( fields[ i ], in.field( i ), line );
+                Integer expected;
+                try {
+                    expected = Integer.parseInt( fields[ i ] );
+                }
+                catch ( NumberFormatException e ) {
+                    expected = null;
+                    final int field = i;
+                    NumberFormatException thrown = assertThrows(
+                            NumberFormatException.class,
+                            () -> in.intField( field ) );
+                    assertEquals( e.getMessage(), thrown.getMessage() );
+                }
+                if ( expected != null ) {
+                    assertEquals( expected, in.intField( i ), fields[ i ] );
+                }
+            }
+            StringWriter echo = new StringWriter();
+            PrintWriter out = new PrintWriter( echo );
+            in.printLine( out );
+            out.flush();
+            assertEquals( line, echo.toString() );
+        }
+        assertFalse( in.nextLine() );
+        assertEquals( 0, in.fieldCount() );
+    }
+
+    @Test
+    public void splitsLikeARegex() {
+        String[] words = { "", " ", "  ", "\t", "\f", "1", "-7", "+3", "-",
+                           "012", "x9", "quit", "QUIT", "é",
+                           "2147483647", "2147483648", "-2147483648",
+                           "-2147483649", "99999999999", "R1" };
+        String[] endings = { "\n", "\r", "\r\n" };
+        Random random = new Random( 12 );
+        for ( int trial = 0; trial < 200; ++trial ) {
+            List< String > lines = new ArrayList<>();
+            StringBuilder text = new StringBuilder();
+            int count = random.nextInt( 6 );
+            for ( int i = 0; i < count; ++i ) {
+                StringBuilder line = new StringBuilder();
+                int n = random.nextInt( 6 );
+                for ( int j = 0; j < n; ++j ) {
+                    line.append( words[ random.nextInt( words.length ) ] );
+                    if ( random.nextBoolean() ) line.append( ' ' );
+                }
+                lines.add( line.toString() );
+                text.append( line );
+                // The last line need not have an ending, unless it is
+                // empty, in which case it would not be there at all.
+                if ( i < count - 1 || line.length() == 0 ||
+                     random.nextBoolean() ) {
+                    String ending = endings[ random.nextInt( 3 ) ];
+                    // "\r" then an empty line ending in "\n" is one "\r\n".
+                    if ( line.length() == 0 && ending.equals( "\n" ) &&
+                         text.length() > 0 &&
+                         text.charAt( text.length() - 1 ) == '\r' ) {
+                        ending = "\r\n";
+                    }
+                    text.append( ending );
+                }
+            }
+            checkLines( new FieldReader( new ByteArrayInputStream(
+                    text.toString().getBytes( StandardCharsets.UTF_8 ) ) ),
+                        lines );
+            checkLines( new FieldReader( new StringReader( text.toString() ) ),
+                        lines );
+        }
+    }
+
+    @Test
+    public void matchesWords() {
+        FieldReader in =
+                new FieldReader( new StringReader( "Quit undo quits" ) );
+        assertTrue( in.nextLine() );
+        assertTrue( in.fieldIs( 0, "quit" ) );
+        assertTrue( in.fieldIs( 1, "UNDO" ) );
+        assertFalse( in.fieldIs( 2, "quit" ) );
+        assertFalse( in.fieldIs( 0, "undo" ) );
+    }
+
+    @Test
+    public void reportsBadSetupLines() throws IOException {
+        File file = File.createTempFile( "setup", ".txt" );
+        file.deleteOnExit();
+        try ( PrintWriter out = new PrintWriter( file ) ) {
+            out.println( "# A comment before the size" );
+            out.println( "4 5" );
+            out.println();
+            out.println( "# A comment" );
+            out.println( "R1 0 0" );
+            out.println( "R2 0" );
+            out.println( "   " );
+            out.println( "B1 4 0" );
+            out.println( "B2 0 -1" );
+            out.print( "K1 3\t4" );
+        }
+        PrintStream console = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut( new PrintStream( bytes ) );
+        Game game;
+        try {
+            game = new Game( file.getPath() );
+        }
+        finally {
+            System.setOut( console );
+        }
+        assertTrue( game.ok );
+        assertEquals( 2, game.pieceCount() );
+        String nl = System.lineSeparator();
+        assertEquals( "Improper config line: R2 0" + nl +
+                      "Improper config line:    " + nl +
+                      "Illegal row: B1 4 0" + nl +
+                      "Illegal column: B2 0 -1" + nl,
+                      bytes.toString() );
+
+        try ( PrintWriter out = new PrintWriter( file ) ) {
+            out.println( "4 x" );
+        }
+        assertThrows( NumberFormatException.class,
+                      () -> new Game( file.getPath() ) );
+    }
+}
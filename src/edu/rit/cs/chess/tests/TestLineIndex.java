@@ -0,0 +1,111 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to check that the first piece in the way is found
+ * correctly, on boards small enough to be checked cell by cell and on
+ * boards big enough to use an index of the pieces on each line, as the
+ * pieces move about and moves are taken back.
+ *
+ * @author RIT CS
+ */
+public class TestLineIndex {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    /**
+     * @return the cell numbers of the pieces on the board
+     */
+    private static Set< Integer > occupied( Game game ) {
+        StringWriter text = new StringWriter();
+        game.writeSetup( new PrintWriter( text ) );
+        String[] lines = text.toString().split( "\\R" );
+        Set< Integer > cells = new HashSet<>();
+        for ( int i = 1; i < lines.length; ++i ) {
+            String[] fields = lines[ i ].split( " " );
+            cells.add( Integer.parseInt( fields[ 1 ] ) * game.numCols() +
+                       Integer.parseInt( fields[ 2 ] ) );
+        }
+        return cells;
+    }
+
+    /**
+     * Check the first piece in the way in every direction from some
+     * cells, against a search of the pieces' cells.
+     */
+    private static void checkBlockers( Game game, Random random ) {
+        Set< Integer > cells = occupied( game );
+        final int rows = game.numRows(), cols = game.numCols();
+        for ( int i = 0; i < 20; ++i ) {
+            final int row = random.nextInt( rows );
+            final int col = random.nextInt( cols );
+            for ( int dr = -1; dr <= 1; ++dr ) {
+                for ( int dc = -1; dc <= 1; ++dc ) {
+                    if ( dr == 0 && dc == 0 ) continue;
+                    int expected = -1;
+                    for ( int r = row + dr, c = col + dc;
+                          r >= 0 && r < rows && c >= 0 && c < cols;
+                          r += dr, c += dc ) {
+                        if ( cells.contains( r * cols + c ) ) {
+                            expected = r * cols + c;
+                            break;
+                        }
+                    }
+                    assertEquals( expected,
+                                  game.nearestBlocker( row, col, dr, dc ),
+                                  row + "," + col + " " + dr + "," + dc );
+                }
+            }
+        }
+    }
+
+    /**
+     * Make random moves, many of them illegal, checking the blockers
+     * after each legal one, then take them all back.
+     */
+    private static void play( Game game ) {
+        Random random = new Random( 5 );
+        final int rows = game.numRows(), cols = game.numCols();
+        for ( int move = 0; move < 2000; ++move ) {
+            MoveStatus status = game.tryMove(
+                    random.nextInt( rows ), random.nextInt( cols ),
+                    random.nextInt( rows ), random.nextInt( cols ) );
+            if ( status == MoveStatus.OK ) checkBlockers( game, random );
+        }
+        while ( game.unmakeMove() ) {
+            // Back to the start
+        }
+        checkBlockers( game, random );
+    }
+
+    @Test
+    public void smallBoards() throws IOException {
+        play( new Game( TEST_DIR + "board-std.txt" ) );
+        play( new Game( TEST_DIR + "board13x13.txt" ) );
+    }
+
+    @Test
+    public void bigBoard() throws IOException {
+        Game game = new Game( SetupFile.random( 30, 40, 300, 3 )
+                                       .write().toString() );
+        checkBlockers( game, new Random( 3 ) );
+        play( game );
+        play( new Game( game ) );
+    }
+}
@@ -0,0 +1,109 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.Histogram;
+import edu.rit.cs.chess.Metrics;
+import edu.rit.cs.chess.MoveStatus;
+import edu.rit.cs.chess.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test the metrics of moves, paths, loads and drawing.
+ *
+ * @author RIT CS
+ */
+public class TestMetrics {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    @Test
+    public void histogramPercentiles() {
+        Histogram histogram = new Histogram();
+        assertEquals( 0, histogram.percentile( 50 ) );
+        for ( long value = 1; value <= 100_000; ++value ) {
+            histogram.record( value );
+        }
+        assertEquals( 100_000, histogram.count() );
+        assertEquals( 100_000, histogram.max() );
+        assertEquals( 50_000.5, histogram.mean(), 1e-9 );
+        for ( double percent: new double[]{ 1, 50, 90, 99, 100 } ) {
+            final long exact = (long)( percent * 1000 );
+            final long found = histogram.percentile( percent );
+            assertTrue( found >= exact && found <= exact * 1.07,
+                        percent + "% " + found );
+        }
+        histogram.record( Long.MAX_VALUE );
+        assertEquals( Long.MAX_VALUE, histogram.max() );
+        histogram.reset();
+        assertEquals( 0, histogram.count() );
+        assertEquals( 0, histogram.max() );
+    }
+
+    @Test
+    public void countsEachKindOfEvent() throws IOException, JMException {
+        Metrics metrics = Metrics.enable();
+        try {
+            metrics.reset();
+            Game game = new Game( TEST_DIR + "board-std.txt" );
+            assertEquals( MoveStatus.OK, game.tryMove( 6, 0, 5, 0 ) );
+            assertEquals( MoveStatus.OK, game.tryMove( 7, 0, 6, 0 ) );
+            assertEquals( MoveStatus.BLOCKED, game.tryMove( 7, 3, 5, 3 ) );
+            assertEquals( MoveStatus.ILLEGAL, game.tryMove( 7, 3, 5, 4 ) );
+            assertEquals( MoveStatus.NO_SUCH_PIECE,
+                          game.tryMove( 3, 3, 2, 3 ) );
+            assertEquals( MoveStatus.NO_SUCH_DESTINATION,
+                          game.tryMove( 7, 3, 8, 3 ) );
+            game.showBoard( new PrintWriter( new StringWriter() ) );
+
+            assertEquals( 1, metrics.loads().count() );
+            assertEquals( 1, metrics.renders().count() );
+            assertEquals( 1, metrics.moves( PieceType.PAWN,
+                                            MoveStatus.OK ).count() );
+            assertEquals( 1, metrics.moves( PieceType.ROOK,
+                                            MoveStatus.OK ).count() );
+            assertEquals( 1, metrics.moves( PieceType.QUEEN,
+                                            MoveStatus.BLOCKED ).count() );
+            assertEquals( 1, metrics.moves( PieceType.QUEEN,
+                                            MoveStatus.ILLEGAL ).count() );
+            assertEquals( 1, metrics.moves( null, MoveStatus.NO_SUCH_PIECE )
+                                    .count() );
+            assertEquals( 1, metrics.moves( null,
+                                            MoveStatus.NO_SUCH_DESTINATION )
+                                    .count() );
+            // The rook's move and the queen's blocked one
+            assertEquals( 2, metrics.paths().count() );
+            assertEquals( 1, metrics.paths().max() );
+
+            metrics.register();
+            Object counts = ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute( new ObjectName( Metrics.OBJECT_NAME ),
+                                   "Counts" );
+            assertNotNull( counts );
+            Map< String, Long > byName = metrics.getCounts();
+            assertEquals( 1L, byName.get( "move queen blocked ns" ) );
+            assertEquals( 1L, byName.get( "load ns" ) );
+            assertTrue( metrics.getReport().contains( "path squares" ) );
+        }
+        finally {
+            Metrics.disable();
+        }
+        new Game( TEST_DIR + "board-std.txt" ).tryMove( 6, 1, 5, 1 );
+        assertEquals( 1, metrics.loads().count() );
+        assertEquals( 1, metrics.moves( PieceType.PAWN,
+                                        MoveStatus.OK ).count() );
+    }
+}
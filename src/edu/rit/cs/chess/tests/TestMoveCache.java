@@ -0,0 +1,125 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveCache;
+import edu.rit.cs.chess.MoveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to check that games using a move cache answer every
+ * question exactly as games without one do, and that the cache counts
+ * what it does.
+ *
+ * @author RIT CS
+ */
+public class TestMoveCache {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    private static final String[] BOARDS = {
+            "board-std.txt", "board13x13.txt", "board4x2P.txt", "board4x4A.txt"
+    };
+
+    /**
+     * Play the same random moves, many of them illegal, on a game with a
+     * cache and on one without, comparing the outcome of each and the
+     * legal moves of every piece along the way.
+     */
+    private static void compare( String board, MoveCache cache )
+            throws IOException {
+        Game plain = new Game( TEST_DIR + board );
+        Game cached = new Game( TEST_DIR + board );
+        cached.useMoveCache( cache );
+        final int rows = plain.numRows(), cols = plain.numCols();
+        Random random = new Random( 19 );
+        for ( int move = 0; move < 2000; ++move ) {
+            final int fromRow = random.nextInt( rows );
+            final int fromCol = random.nextInt( cols );
+            final int toRow = random.nextInt( rows );
+            final int toCol = random.nextInt( cols );
+            assertArrayEquals( plain.legalMoves( fromRow, fromCol ),
+                               cached.legalMoves( fromRow, fromCol ) );
+            MoveStatus status = plain.tryMove( fromRow, fromCol,
+                                               toRow, toCol );
+            assertEquals( status, cached.tryMove( fromRow, fromCol,
+                                                  toRow, toCol ), board );
+            assertEquals( plain.lastCaptured(), cached.lastCaptured() );
+            if ( random.nextInt( 5 ) == 0 ) {
+                assertEquals( plain.unmakeMove(), cached.unmakeMove() );
+            }
+        }
+        assertEquals( plain.positionHash(), cached.positionHash() );
+    }
+
+    @Test
+    public void sameAnswers() throws IOException {
+        for ( String board: BOARDS ) {
+            compare( board, new MoveCache( 1 << 12 ) );
+            // A cache too small for the work, so entries keep being dropped
+            compare( board, new MoveCache( 4 ) );
+        }
+    }
+
+    @Test
+    public void legalMovesMatchTryMove() throws IOException {
+        Game game = new Game( TEST_DIR + "board13x13.txt" );
+        final int cols = game.numCols();
+        for ( int from = 0; from < game.numRows() * cols; ++from ) {
+            int[] cells = game.legalMoves( from / cols, from % cols );
+            for ( int i = 1; i < cells.length; ++i ) {
+                assertTrue( cells[ i - 1 ] < cells[ i ] );
+            }
+            for ( int to = 0, next = 0; to < game.numRows() * cols; ++to ) {
+                // Whether a piece may "move" to its own cell is left to
+                // tryMove; legalMoves never lists it.
+                if ( to == from ) continue;
+                final boolean listed = next < cells.length &&
+                                       cells[ next ] == to;
+                if ( listed ) ++next;
+                MoveStatus status = game.tryMove( from / cols, from % cols,
+                                                  to / cols, to % cols );
+                assertEquals( listed, status == MoveStatus.OK,
+                              from + "->" + to );
+                if ( status == MoveStatus.OK ) game.unmakeMove();
+            }
+        }
+    }
+
+    @Test
+    public void countsHitsAndEvictions() throws IOException {
+        MoveCache cache = new MoveCache( 4 );
+        assertEquals( 4, cache.capacity() );
+        Game game = new Game( TEST_DIR + "board-std.txt" );
+        game.useMoveCache( cache );
+        Game copy = new Game( game );
+        game.legalMoves( 7, 0 );
+        assertEquals( 0, cache.hits() );
+        assertEquals( 1, cache.misses() );
+        copy.legalMoves( 7, 0 );
+        assertEquals( 1, cache.hits() );
+        for ( int c = 1; c < 8; ++c ) {
+            game.legalMoves( 7, c );
+        }
+        assertEquals( 8, cache.misses() );
+        assertEquals( 4, cache.size() );
+        assertEquals( 4, cache.evictions() );
+        // The most recently used entries are kept.
+        copy.legalMoves( 7, 7 );
+        assertEquals( 2, cache.hits() );
+        copy.legalMoves( 7, 0 );
+        assertEquals( 9, cache.misses() );
+        assertEquals( 5, cache.evictions() );
+        // An empty cell is never looked up.
+        game.legalMoves( 3, 3 );
+        assertEquals( 2 + 9, cache.hits() + cache.misses() );
+    }
+}
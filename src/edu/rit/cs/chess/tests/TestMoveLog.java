@@ -0,0 +1,169 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveLog;
+import edu.rit.cs.chess.MoveRecorder;
+import edu.rit.cs.chess.Session;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test binary move logs.
+ *
+ * @author RIT CS
+ */
+public class TestMoveLog {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    private static final String[] SCRIPTS = {
+            "board-std_in1", "board-std_in2", "board4x2P_in1",
+            "board4x4A_in1", "board4x4A_in2"
+    };
+
+    /**
+     * Play text commands on a fresh game, with echo on.
+     * @param board the setup file name within the test directory
+     * @param commands the commands
+     * @param recorder where to record them, or null
+     * @return the output
+     */
+    private static String play( String board, byte[] commands,
+                                MoveRecorder recorder ) throws IOException {
+        StringWriter text = new StringWriter();
+        Session session = new Session( new Game( TEST_DIR + board ), true );
+        session.record( recorder );
+        session.play( new ByteArrayInputStream( commands ),
+                      new PrintWriter( text ) );
+        return text.toString();
+    }
+
+    /**
+     * Replay a log on a fresh game, with echo on.
+     * @param board the setup file name within the test directory
+     * @param log the log's bytes
+     * @return the output
+     */
+    private static String replay( String board, byte[] log )
+            throws IOException {
+        StringWriter text = new StringWriter();
+        new Session( new Game( TEST_DIR + board ), true ).replay(
+                new MoveLog( ByteBuffer.wrap( log ) ),
+                new PrintWriter( text ) );
+        return text.toString();
+    }
+
+    /**
+     * Convert a log back to text.
+     */
+    private static String toText( byte[] log ) throws IOException {
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        MoveLog.toText( new MoveLog( ByteBuffer.wrap( log ) ),
+                        new PrintStream( text, false,
+                                         StandardCharsets.UTF_8 ) );
+        return text.toString( StandardCharsets.UTF_8 );
+    }
+
+    @Test
+    public void replaysTheTestScripts() throws IOException {
+        for ( String script: SCRIPTS ) {
+            String board = script.substring( 0, script.indexOf( "_in" ) ) +
+                           ".txt";
+            byte[] commands = Files.readAllBytes(
+                    new File( TEST_DIR + script + ".txt" ).toPath() );
+            Game game = new Game( TEST_DIR + board );
+
+            ByteArrayOutputStream converted = new ByteArrayOutputStream();
+            MoveLog.fromText( new ByteArrayInputStream( commands ), converted,
+                              game.numRows(), game.numCols() );
+            byte[] log = converted.toByteArray();
+            assertTrue( log.length < commands.length, script );
+
+            ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+            MoveRecorder recorder = new MoveRecorder(
+                    recorded, game.numRows(), game.numCols() );
+            String output = play( board, commands, recorder );
+            assertArrayEquals( log, recorded.toByteArray(), script );
+
+            assertEquals( output, replay( board, log ), script );
+            assertEquals( new String( commands, StandardCharsets.UTF_8 ),
+                          toText( log ), script );
+        }
+    }
+
+    @Test
+    public void keepsEveryLine() throws IOException {
+        String commands = "0 0 1 1\n" +
+                          " 0 0 1 1\n" +
+                          "0  0 1 1\n" +
+                          "+0 0 1 1\n" +
+                          "-1 0 3 99\n" +
+                          "QUIT now\n" +
+                          "\n" +
+                          "undo\n" +
+                          "Undo\n" +
+                          "é\n" +
+                          "quit\n";
+        byte[] bytes = commands.getBytes( StandardCharsets.UTF_8 );
+        ByteArrayOutputStream converted = new ByteArrayOutputStream();
+        MoveLog.fromText( new ByteArrayInputStream( bytes ), converted, 8, 8 );
+        byte[] log = converted.toByteArray();
+        assertEquals( commands, toText( log ) );
+        assertEquals( play( "board-std.txt", bytes, null ),
+                      replay( "board-std.txt", log ) );
+
+        MoveLog read = new MoveLog( ByteBuffer.wrap( log ) );
+        assertEquals( 8, read.numRows() );
+        assertEquals( 8, read.numCols() );
+        assertEquals( MoveLog.MOVE, read.next() );
+        assertEquals( 1, read.toCol() );
+        assertEquals( MoveLog.TEXT, read.next() );
+        assertEquals( " 0 0 1 1", read.text() );
+        read.next();
+        read.next();
+        assertEquals( MoveLog.MOVE, read.next() );
+        assertEquals( -1, read.fromRow() );
+        assertEquals( 99, read.toCol() );
+    }
+
+    @Test
+    public void lineEndingsAreNotKept() throws IOException {
+        final String lines = "0 0 1 1\n" + "x\n" + "undo\n" + "7 0 6 0\n";
+        for ( String commands: new String[]{
+                lines, lines.replace( "\n", "\r\n" ),
+                lines.replace( "\n", "\r" ),
+                lines.substring( 0, lines.length() - 1 ) } ) {
+            byte[] bytes = commands.getBytes( StandardCharsets.UTF_8 );
+            ByteArrayOutputStream converted = new ByteArrayOutputStream();
+            MoveLog.fromText( new ByteArrayInputStream( bytes ), converted,
+                              8, 8 );
+            byte[] log = converted.toByteArray();
+            assertEquals( lines, toText( log ) );
+            assertEquals( play( "board-std.txt", bytes, null ),
+                          replay( "board-std.txt", log ) );
+        }
+    }
+
+    @Test
+    public void rejectsOtherFiles() {
+        assertThrows( IOException.class, () -> new MoveLog(
+                ByteBuffer.wrap( "0 0 1 1\n".getBytes() ) ) );
+        assertThrows( IOException.class, () -> new MoveLog(
+                ByteBuffer.wrap( new byte[]{ 'C', 'M', 'L', 'G', 9 } ) ) );
+    }
+}
@@ -0,0 +1,142 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveStatus;
+import edu.rit.cs.util.Coordinates;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test the primitive move entry point and the
+ * messages built from its status codes.
+ *
+ * @author RIT CS
+ */
+public class TestMoveStatus {
+
+    private static String TEST_BOARD = System.getProperty( "user.dir" ) +
+                                       File.separator +
+                                       "Tests" +
+                                       File.separator +
+                                       "board13x13.txt";
+
+    private Game game = null;
+
+    @BeforeEach
+    public void begin() {
+        assertDoesNotThrow( () -> {
+            this.game = new Game( TEST_BOARD );
+        } );
+    }
+
+    @Test
+    public void statuses() {
+        assertEquals( MoveStatus.NO_SUCH_POSITION,
+                      this.game.tryMove( -1, 0, 0, 0 ) );
+        assertEquals( MoveStatus.NO_SUCH_DESTINATION,
+                      this.game.tryMove( 2, 2, 2, 13 ) );
+        assertEquals( MoveStatus.NO_SUCH_PIECE,
+                      this.game.tryMove( 0, 0, 1, 1 ) );
+        assertEquals( MoveStatus.ILLEGAL,
+                      this.game.tryMove( 8, 8, 9, 8 ) );
+        assertEquals( MoveStatus.BLOCKED,
+                      this.game.tryMove( 2, 8, 2, 0 ) );
+        assertEquals( MoveStatus.OK,
+                      this.game.tryMove( 2, 5, 2, 8 ) );
+        assertEquals( "Q", this.game.lastCaptured().toString() );
+    }
+
+    @Test
+    public void messages() {
+        assertEquals( "No such position: (-1,0)",
+                      this.game.makeMove( new Coordinates( -1, 0 ),
+                                          new Coordinates( 0, 0 ) ).message() );
+        assertEquals( "Illegal pawn move (9,8)",
+                      this.game.makeMove( new Coordinates( 8, 8 ),
+                                          new Coordinates( 9, 8 ) ).message() );
+        assertEquals( "The way is blocked: (2,5) -> (2,0)",
+                      this.game.makeMove( new Coordinates( 2, 5 ),
+                                          new Coordinates( 2, 0 ) ).message() );
+        assertTrue( this.game.makeMove( new Coordinates( 2, 2 ),
+                                        new Coordinates( 2, 2 ) ).ok );
+    }
+
+    @Test
+    public void noAllocation() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean)
+                        ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        for ( int warm = 0; warm < 20_000; ++warm ) shuffle();
+        long before = threads.getThreadAllocatedBytes( id );
+        for ( int i = 0; i < 5000; ++i ) shuffle();
+        long after = threads.getThreadAllocatedBytes( id );
+        long overhead = threads.getThreadAllocatedBytes( id ) - after;
+        assertTrue( after - before <= overhead,
+                    ( after - before ) + " bytes allocated" );
+    }
+
+    /**
+     * Move the queen and rook back and forth, failing along the way.
+     */
+    private void shuffle() {
+        this.game.tryMove( 2, 8, 0, 8 );
+        this.game.tryMove( 0, 8, 0, 0 );
+        this.game.tryMove( 0, 0, 0, 8 );
+        this.game.tryMove( 0, 8, 2, 8 );
+        this.game.tryMove( 2, 5, 2, 0 );
+        this.game.tryMove( 2, 5, 3, 6 );
+        this.game.tryMove( 4, 4, 3, 6 );
+        // Take the moves back, so the undo stack stays the same depth.
+        while ( this.game.unmakeMove() ) {
+            // nothing more to do
+        }
+    }
+
+    @Test
+    public void boundedUndo() {
+        // Without taking moves back, the stack stops growing at its
+        // limit, and then making a move allocates nothing.
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean)
+                        ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        for ( int i = 0; i < Game.DEFAULT_UNDO_LIMIT; ++i ) {
+            assertEquals( MoveStatus.OK, this.game.tryMove( 2, 8, 0, 8 ) );
+            assertEquals( MoveStatus.OK, this.game.tryMove( 0, 8, 2, 8 ) );
+        }
+        assertEquals( Game.DEFAULT_UNDO_LIMIT, this.game.undoDepth() );
+        long before = threads.getThreadAllocatedBytes( id );
+        for ( int i = 0; i < 20_000; ++i ) {
+            this.game.tryMove( 2, 8, 0, 8 );
+            this.game.tryMove( 0, 8, 2, 8 );
+        }
+        long after = threads.getThreadAllocatedBytes( id );
+        long overhead = threads.getThreadAllocatedBytes( id ) - after;
+        assertTrue( after - before <= overhead,
+                    ( after - before ) + " bytes allocated" );
+        assertEquals( Game.DEFAULT_UNDO_LIMIT, this.game.undoDepth() );
+
+        // Lowering the limit keeps the newest moves.
+        this.game.setUndoLimit( 3 );
+        this.game.tryMove( 2, 8, 1, 8 );
+        assertEquals( 3, this.game.undoDepth() );
+        assertTrue( this.game.unmakeMove() );
+        assertEquals( MoveStatus.NO_SUCH_PIECE,
+                      this.game.tryMove( 1, 8, 1, 8 ) );
+        assertTrue( this.game.unmakeMove() );
+        assertTrue( this.game.unmakeMove() );
+        assertFalse( this.game.unmakeMove() );
+        assertEquals( MoveStatus.OK, this.game.tryMove( 2, 8, 2, 8 ) );
+
+        // A limit of 0 records nothing.
+        this.game.setUndoLimit( 0 );
+        this.game.tryMove( 2, 8, 0, 8 );
+        assertFalse( this.game.unmakeMove() );
+    }
+}
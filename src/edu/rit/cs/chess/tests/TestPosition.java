@@ -0,0 +1,136 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.BoardStore;
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveStatus;
+import edu.rit.cs.chess.PieceType;
+import edu.rit.cs.chess.Position;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test unchanging board positions.
+ *
+ * @author RIT CS
+ */
+public class TestPosition {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    private static final String[] BOARDS = {
+            "board-std.txt", "board13x13.txt", "board4x2P.txt", "board4x4A.txt"
+    };
+
+    /**
+     * Check that a position matches a game cell by cell, going by the
+     * setup the game writes.
+     */
+    private static void checkCells( Game game, Position position ) {
+        assertEquals( game.numRows(), position.numRows() );
+        assertEquals( game.numCols(), position.numCols() );
+        assertEquals( game.pieceCount(), position.pieceCount() );
+        assertEquals( game.positionHash(), position.positionHash() );
+        PieceType[][] types =
+                new PieceType[ game.numRows() ][ game.numCols() ];
+        StringWriter setup = new StringWriter();
+        game.writeSetup( new PrintWriter( setup ) );
+        String[] lines = setup.toString().split( "\\R" );
+        for ( int i = 1; i < lines.length; ++i ) {
+            String[] fields = lines[ i ].split( " " );
+            types[ Integer.parseInt( fields[ 1 ] ) ]
+                 [ Integer.parseInt( fields[ 2 ] ) ] =
+                    PieceType.fromLetter( fields[ 0 ].charAt( 0 ) );
+        }
+        for ( int r = 0; r < game.numRows(); ++r ) {
+            for ( int c = 0; c < game.numCols(); ++c ) {
+                assertEquals( types[ r ][ c ], position.get( r, c ) );
+            }
+        }
+    }
+
+    @Test
+    public void rebuildsGames() throws IOException {
+        for ( BoardStore.Kind kind: BoardStore.Kind.values() ) {
+            for ( String board: BOARDS ) {
+                Game game = new Game( TEST_DIR + board, kind );
+                Position position = game.position();
+                checkCells( game, position );
+                Game rebuilt = new Game( position, kind );
+                assertEquals( position, rebuilt.position() );
+                assertEquals( game.positionHash(), rebuilt.positionHash() );
+            }
+        }
+    }
+
+    @Test
+    public void followsMoves() throws IOException {
+        Random random = new Random( 17 );
+        for ( String board: BOARDS ) {
+            Game game = new Game( TEST_DIR + board );
+            Position position = game.position();
+            for ( int step = 0; step < 200; ++step ) {
+                List< int[] > moves = new ArrayList<>();
+                game.generateAllMoves( ( from, to ) -> moves.add(
+                        new int[]{ from, to } ) );
+                if ( moves.isEmpty() ) break;
+                int[] move = moves.get( random.nextInt( moves.size() ) );
+                final int cols = game.numCols();
+                Position before = position;
+                position = position.move( move[ 0 ], move[ 1 ] );
+                assertEquals( MoveStatus.OK,
+                              game.tryMove( move[ 0 ] / cols, move[ 0 ] % cols,
+                                            move[ 1 ] / cols,
+                                            move[ 1 ] % cols ) );
+                assertEquals( game.position(), position, board );
+                assertEquals( game.positionHash(), position.positionHash() );
+                assertEquals( game.pieceCount(), position.pieceCount() );
+                assertNotEquals( before, position );
+            }
+            while ( game.unmakeMove() ) {}
+            assertEquals( new Game( TEST_DIR + board ).position(),
+                          game.position() );
+        }
+    }
+
+    @Test
+    public void comparesByValue() throws IOException {
+        File file = File.createTempFile( "setup", ".txt" );
+        file.deleteOnExit();
+        try ( PrintWriter out = new PrintWriter( file ) ) {
+            out.println( "2 2" );
+            out.println( "R1 0 0" );
+            out.println( "B7 1 1" );
+        }
+        Game named = new Game( file.getPath() );
+        try ( PrintWriter out = new PrintWriter( file ) ) {
+            out.println( "2 2" );
+            out.println( "B 1 1" );
+            out.println( "R 0 0" );
+        }
+        Game plain = new Game( file.getPath() );
+        Set< Position > seen = new HashSet<>();
+        seen.add( named.position() );
+        assertTrue( seen.contains( plain.position() ) );
+        assertEquals( PieceType.ROOK, plain.position().get( 0, 0 ) );
+        assertNull( plain.position().get( 0, 1 ) );
+
+        plain.tryMove( 0, 0, 0, 1 );
+        assertFalse( seen.contains( plain.position() ) );
+        plain.unmakeMove();
+        assertTrue( seen.contains( plain.position() ) );
+    }
+}
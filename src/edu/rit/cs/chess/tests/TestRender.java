@@ -0,0 +1,138 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test drawing the board.
+ *
+ * @author RIT CS
+ */
+public class TestRender {
+
+    private static final String NL = System.lineSeparator();
+
+    /**
+     * Write a board with pieces whose names are one to three characters
+     * long in random cells.
+     * @param size number of rows and columns
+     * @param seed for the random cells
+     * @param names filled in with the name of the piece on each cell
+     * @return the setup file
+     * @throws IOException if it cannot be written
+     */
+    private static String randomBoard( int size, long seed,
+                                       String[][] names ) throws IOException {
+        Random random = new Random( seed );
+        SetupFile setup = new SetupFile( size, size );
+        for ( int i = 0; i < size * size / 3; ++i ) {
+            String name = "RNBQKP".charAt( random.nextInt( 6 ) ) +
+                          "123".substring( 0, random.nextInt( 3 ) );
+            int r = random.nextInt( size ), c = random.nextInt( size );
+            setup.piece( name, r, c );
+            names[ r ][ c ] = name; // Later pieces replace earlier ones.
+        }
+        return setup.write().toString();
+    }
+
+    /**
+     * Draw a board the way showBoard always has, one printf per cell.
+     * @param game the game
+     * @param names the name of the piece on each cell
+     * @return the picture
+     */
+    private static String expected( Game game, String[][] names ) {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter( text );
+        out.println();
+        out.print( "    " );
+        for ( int c = 0; c < game.numCols(); ++c ) {
+            out.printf( "%2d ", c );
+        }
+        out.println();
+        for ( int r = 0; r < game.numRows(); ++r ) {
+            out.printf( "%2d  ", r );
+            for ( int c = 0; c < game.numCols(); ++c ) {
+                String name = names[ r ][ c ];
+                out.print( name == null ? "__ "
+                                        : String.format( "%-3s", name ) );
+            }
+            out.println();
+        }
+        out.println();
+        out.flush();
+        return text.toString();
+    }
+
+    /**
+     * @return the picture from showBoard(PrintWriter)
+     */
+    private static String whole( Game game ) {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter( text );
+        game.showBoard( out );
+        out.flush();
+        return text.toString();
+    }
+
+    @Test
+    public void drawsLikePrintf() throws IOException {
+        for ( int size: new int[]{ 1, 4, 13, 105 } ) {
+            String[][] names = new String[ size ][ size ];
+            Game game = new Game( randomBoard( size, size, names ) );
+            String picture = whole( game );
+            assertEquals( expected( game, names ), picture );
+            StringBuilder appended = new StringBuilder();
+            game.showBoard( appended );
+            assertEquals( picture, appended.toString() );
+        }
+    }
+
+    @Test
+    public void drawsChangedRows() throws IOException {
+        Game game = new Game( randomBoard( 13, 7, new String[ 13 ][ 13 ] ) );
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter( text );
+        game.showChanges( out );
+        out.flush();
+        String first = text.toString();
+        assertEquals( whole( game ), first );
+        String[] before = first.split( NL );
+
+        // Find a piece with a legal move to another row.
+        Random random = new Random( 1 );
+        int fr, fc, tr, tc;
+        do {
+            fr = random.nextInt( 13 );
+            fc = random.nextInt( 13 );
+            tr = random.nextInt( 13 );
+            tc = random.nextInt( 13 );
+        } while ( fr == tr || game.tryMove( fr, fc, tr, tc ) != MoveStatus.OK );
+        String[] after = whole( game ).split( NL );
+
+        // whole() drew the board, so nothing has changed since.
+        text.getBuffer().setLength( 0 );
+        game.showChanges( out );
+        out.flush();
+        assertEquals( NL + before[ 1 ] + NL + NL, text.toString() );
+
+        assertTrue( game.unmakeMove() );
+        text.getBuffer().setLength( 0 );
+        game.showChanges( out );
+        out.flush();
+        int low = Math.min( fr, tr ), high = Math.max( fr, tr );
+        assertEquals( NL + before[ 1 ] + NL +
+                      before[ low + 2 ] + NL + before[ high + 2 ] + NL + NL,
+                      text.toString() );
+        assertNotEquals( before[ fr + 2 ], after[ fr + 2 ] );
+        assertNotEquals( before[ tr + 2 ], after[ tr + 2 ] );
+    }
+}
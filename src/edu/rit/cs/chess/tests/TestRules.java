@@ -0,0 +1,173 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.BoardStore;
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveList;
+import edu.rit.cs.chess.MoveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to check every move of every piece against a plain
+ * statement of the rules, on a board small enough to use the shared
+ * move tables and on one that is too big for them.
+ *
+ * @author RIT CS
+ */
+public class TestRules {
+
+    /**
+     * The pieces placed on each test board: name, row, column
+     */
+    private static final Object[][] PIECES = {
+            { "B", 2, 2 }, { "R", 2, 5 }, { "Q", 2, 8 },
+            { "N", 3, 2 }, { "K", 5, 4 }, { "P", 8, 8 },
+            { "R2", 8, 3 }, { "B2", 6, 10 }
+    };
+
+    /**
+     * Write a setup file holding {@link TestRules#PIECES}.
+     * @param size the number of rows and of columns
+     * @return the file
+     * @throws IOException if the file cannot be written
+     */
+    private static File writeBoard( int size ) throws IOException {
+        File file = File.createTempFile( "rules", ".txt" );
+        file.deleteOnExit();
+        try ( PrintWriter out = new PrintWriter( file ) ) {
+            out.println( size + " " + size );
+            for ( Object[] piece: PIECES ) {
+                out.println( piece[ 0 ] + " " + piece[ 1 ] + " " + piece[ 2 ] );
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Is there a piece at the given cell of the initial setup?
+     * @param row the row
+     * @param col the column
+     * @return true iff a piece starts there
+     */
+    private static boolean occupied( int row, int col ) {
+        for ( Object[] piece: PIECES ) {
+            if ( (int)piece[ 1 ] == row && (int)piece[ 2 ] == col ) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Work out the outcome of a move from the rules of chess.
+     * @param letter the piece's type letter
+     * @param r0 start row
+     * @param c0 start column
+     * @param r1 destination row
+     * @param c1 destination column
+     * @return the expected status
+     */
+    private static MoveStatus expected( char letter,
+                                        int r0, int c0, int r1, int c1 ) {
+        int dr = r1 - r0, dc = c1 - c0;
+        boolean straight = ( dr == 0 ) != ( dc == 0 );
+        boolean diagonal = Math.abs( dr ) == Math.abs( dc );
+        boolean reachable;
+        switch ( letter ) {
+            case 'R': reachable = straight; break;
+            case 'B': reachable = diagonal; break;
+            case 'Q': reachable = straight || diagonal; break;
+            case 'N': reachable = Math.abs( dr * dc ) == 2; break;
+            case 'K': reachable = Math.max( Math.abs( dr ),
+                                            Math.abs( dc ) ) == 1; break;
+            default: reachable = dr == -1 && dc == 0; break;
+        }
+        if ( !reachable ) return MoveStatus.ILLEGAL;
+        if ( "RBQ".indexOf( letter ) >= 0 ) {
+            int sr = Integer.signum( dr ), sc = Integer.signum( dc );
+            for ( int r = r0 + sr, c = c0 + sc;
+                  ( sr != 0 || sc != 0 ) && ( r != r1 || c != c1 );
+                  r += sr, c += sc ) {
+                if ( occupied( r, c ) ) return MoveStatus.BLOCKED;
+            }
+        }
+        return MoveStatus.OK;
+    }
+
+    /**
+     * Try every piece on every destination of a fresh board.
+     * @param size the number of rows and of columns
+     * @throws IOException if the board cannot be written or read
+     */
+    private static void checkAllMoves( int size ) throws IOException {
+        String file = writeBoard( size ).getPath();
+        for ( Object[] piece: PIECES ) {
+            char letter = ( (String)piece[ 0 ] ).charAt( 0 );
+            int r0 = (int)piece[ 1 ], c0 = (int)piece[ 2 ];
+            for ( int r1 = 0; r1 < size; ++r1 ) {
+                for ( int c1 = 0; c1 < size; ++c1 ) {
+                    Game game = new Game( file );
+                    assertEquals( expected( letter, r0, c0, r1, c1 ),
+                                  game.tryMove( r0, c0, r1, c1 ),
+                                  piece[ 0 ] + " to " + r1 + "," + c1 );
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that the move generator reports exactly the legal moves,
+     * other than moves onto the piece's own cell.
+     * @param size the number of rows and of columns
+     * @throws IOException if the board cannot be written or read
+     */
+    private static void checkGenerator( int size ) throws IOException {
+        Set< Long > expected = new HashSet<>();
+        for ( Object[] piece: PIECES ) {
+            char letter = ( (String)piece[ 0 ] ).charAt( 0 );
+            int r0 = (int)piece[ 1 ], c0 = (int)piece[ 2 ];
+            for ( int r1 = 0; r1 < size; ++r1 ) {
+                for ( int c1 = 0; c1 < size; ++c1 ) {
+                    if ( ( r1 != r0 || c1 != c0 ) &&
+                         expected( letter, r0, c0, r1, c1 ) ==
+                         MoveStatus.OK ) {
+                        expected.add( (long)( r0 * size + c0 ) << 32 |
+                                      ( r1 * size + c1 ) );
+                    }
+                }
+            }
+        }
+        for ( BoardStore.Kind kind: BoardStore.Kind.values() ) {
+            Game game = new Game( writeBoard( size ).getPath(), kind );
+            MoveList moves = new MoveList();
+            game.generateAllMoves( moves );
+            Set< Long > generated = new HashSet<>();
+            for ( int i = 0; i < moves.size(); ++i ) {
+                generated.add( (long)moves.from( i ) << 32 | moves.to( i ) );
+            }
+            assertEquals( expected.size(), moves.size(), kind.toString() );
+            assertEquals( expected, generated, kind.toString() );
+        }
+    }
+
+    @Test
+    public void generator() throws IOException {
+        checkGenerator( 13 );
+        checkGenerator( 20 );
+    }
+
+    @Test
+    public void tabledBoard() throws IOException {
+        checkAllMoves( 13 );
+    }
+
+    @Test
+    public void untabledBoard() throws IOException {
+        checkAllMoves( 20 );
+    }
+}
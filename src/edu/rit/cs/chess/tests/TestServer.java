@@ -0,0 +1,259 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.BoardStore;
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.GameServer;
+import edu.rit.cs.chess.Session;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test serving many games at once over TCP.
+ *
+ * @author RIT CS
+ */
+public class TestServer {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    /**
+     * Run a whole session on a server.
+     * @param server the server
+     * @param first what to send before the commands: the first line, and
+     *              a snapshot if there is one
+     * @param commands the commands
+     * @return everything the server sent back
+     */
+    private static String session( GameServer server, byte[] first,
+                                   byte[] commands ) throws IOException {
+        try ( Socket socket = new Socket( InetAddress.getLoopbackAddress(),
+                                          server.port() ) ) {
+            OutputStream out = socket.getOutputStream();
+            out.write( first );
+            out.write( commands );
+            out.flush();
+            return new String( socket.getInputStream().readAllBytes(),
+                               StandardCharsets.UTF_8 );
+        }
+    }
+
+    /**
+     * Play commands on the console's session loop, with echo off.
+     */
+    private static String play( Game game, byte[] commands,
+                                boolean changes ) {
+        StringWriter text = new StringWriter();
+        new Session( game, false, changes ).play(
+                new ByteArrayInputStream( commands ),
+                new PrintWriter( text ) );
+        return text.toString();
+    }
+
+    private static byte[] bytes( String text ) {
+        return text.getBytes( StandardCharsets.UTF_8 );
+    }
+
+    @Test
+    public void playsManyGamesAtOnce() throws Exception {
+        String[] scripts = { "board-std_in1", "board-std_in2",
+                             "board4x2P_in1", "board4x4A_in2" };
+        ExecutorService clients = Executors.newFixedThreadPool( 16 );
+        try ( GameServer server = new GameServer( new File( TEST_DIR ),
+                                                  BoardStore.Kind.BITBOARD ) ) {
+            server.start( 0 );
+            List< Future< String > > outputs = new ArrayList<>();
+            List< String > expected = new ArrayList<>();
+            for ( int i = 0; i < 64; ++i ) {
+                String script = scripts[ i % scripts.length ];
+                String board = script.substring( 0, script.indexOf( "_in" ) ) +
+                               ".txt";
+                boolean changes = i % 3 == 0;
+                byte[] commands = Files.readAllBytes(
+                        new File( TEST_DIR + script + ".txt" ).toPath() );
+                expected.add( play( new Game( TEST_DIR + board ), commands,
+                                    changes ) );
+                byte[] first = bytes( GameServer.BOARD + " " + board +
+                                      ( changes ? " " + GameServer.CHANGES
+                                                : "" ) + "\n" );
+                outputs.add( clients.submit(
+                        () -> session( server, first, commands ) ) );
+            }
+            for ( int i = 0; i < outputs.size(); ++i ) {
+                assertEquals( expected.get( i ), outputs.get( i ).get(),
+                              "session " + i );
+            }
+        }
+        finally {
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    public void startsFromASnapshot() throws IOException {
+        Game game = new Game( TEST_DIR + "board4x4A.txt" );
+        game.tryMove( 0, 0, 1, 1 );
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        first.write( bytes( GameServer.SNAPSHOT + "\r\n" ) );
+        game.writeSnapshot( first );
+        byte[] commands = bytes( "3 3 2 2\nundo\nquit\n" );
+        try ( GameServer server = new GameServer( new File( TEST_DIR ),
+                                                  BoardStore.Kind.ARRAY ) ) {
+            server.start( 0 );
+            assertEquals( play( new Game( game ), commands, false ),
+                          session( server, first.toByteArray(), commands ) );
+        }
+    }
+
+    @Test
+    public void refusesBadSessions() throws IOException {
+        String nl = System.lineSeparator();
+        try ( GameServer server = new GameServer( new File( TEST_DIR ),
+                                                  BoardStore.Kind.ARRAY ) ) {
+            server.start( 0 );
+            byte[] quit = bytes( "quit\n" );
+            assertEquals( "Improper first line" + nl,
+                          session( server, bytes( "play chess\n" ), quit ) );
+            assertEquals( "Improper first line" + nl,
+                          session( server, bytes( "board\n" ), quit ) );
+            assertEquals( "No such board: nope.txt" + nl,
+                          session( server, bytes( "board nope.txt\n" ),
+                                   quit ) );
+            assertEquals( "No such board: ../build.gradle" + nl,
+                          session( server, bytes( "board ../build.gradle\n" ),
+                                   quit ) );
+            assertTrue( session( server, bytes( "snapshot\n" ), quit )
+                                .startsWith( "Bad snapshot: " ) );
+            // A bad command ends only its own session.
+            assertTrue( session( server, bytes( "board board-std.txt\n" ),
+                                 bytes( "1 2 x 4\n" ) ).endsWith(
+                    "> Session ended: java.lang.NumberFormatException: " +
+                    "For input string: \"x\"" + nl ) );
+            assertTrue( session( server, bytes( "board board-std.txt\n" ),
+                                 quit ).endsWith( "> " ) );
+        }
+    }
+
+    @Test
+    public void setupComplaintsGoToTheClient() throws IOException {
+        File dir = Files.createTempDirectory( "boards" ).toFile();
+        dir.deleteOnExit();
+        File board = new File( dir, "bad.txt" );
+        board.deleteOnExit();
+        Files.writeString( board.toPath(), "4 2\nX 1 1 1\nR1 0 0\n" );
+        File badFirst = new File( dir, "first.txt" );
+        badFirst.deleteOnExit();
+        Files.writeString( badFirst.toPath(), "4\n" );
+        String nl = System.lineSeparator();
+        try ( GameServer server = new GameServer( dir,
+                                                  BoardStore.Kind.ARRAY ) ) {
+            server.start( 0 );
+            byte[] quit = bytes( "quit\n" );
+            StringWriter console = new StringWriter();
+            PrintWriter out = new PrintWriter( console );
+            Game game = new Game( board.getPath(), BoardStore.Kind.ARRAY, out );
+            out.flush();
+            assertEquals( "Improper config line: X 1 1 1" + nl,
+                          console.toString() );
+            assertEquals( console + play( game, quit, false ),
+                          session( server, bytes( "board bad.txt\n" ),
+                                   quit ) );
+            assertEquals( "Improper first line of config file: 4" + nl +
+                          "Bad board: first.txt" + nl,
+                          session( server, bytes( "board first.txt\n" ),
+                                   quit ) );
+        }
+    }
+
+    /**
+     * Start a session and wait for its first prompt.
+     * @return the connection
+     */
+    private static Socket started( GameServer server ) throws IOException {
+        Socket socket = new Socket( InetAddress.getLoopbackAddress(),
+                                    server.port() );
+        socket.getOutputStream().write( bytes( "board board4x2P.txt\n" ) );
+        InputStream in = socket.getInputStream();
+        StringBuilder text = new StringBuilder();
+        while ( text.length() < 2 ||
+                !text.substring( text.length() - 2 ).equals( "> " ) ) {
+            final int b = in.read();
+            assertTrue( b >= 0 );
+            text.append( (char)b );
+        }
+        return socket;
+    }
+
+    @Test
+    public void disconnectsAreQuiet() throws Exception {
+        List< LogRecord > logged = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish( LogRecord record ) {
+                synchronized ( logged ) {
+                    logged.add( record );
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger( GameServer.class.getName() );
+        logger.addHandler( handler );
+        PrintStream console = System.err;
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        System.setErr( new PrintStream( errors ) );
+        GameServer server = new GameServer( new File( TEST_DIR ),
+                                            BoardStore.Kind.ARRAY );
+        try {
+            server.start( 0 );
+            // A client that resets its connection mid-session
+            Socket reset = started( server );
+            reset.setSoLinger( true, 0 );
+            reset.close();
+            // and one still playing when the server is closed
+            Socket open = started( server );
+            while ( server.sessionCount() > 1 ) Thread.sleep( 10 );
+            server.close();
+            assertEquals( -1, open.getInputStream().read() );
+            open.close();
+        }
+        finally {
+            server.close();
+            System.setErr( console );
+            logger.removeHandler( handler );
+        }
+        assertEquals( "", errors.toString() );
+        assertEquals( List.of(), logged );
+    }
+}
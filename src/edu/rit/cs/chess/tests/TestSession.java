@@ -0,0 +1,161 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Batch;
+import edu.rit.cs.chess.BoardStore;
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.Session;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test playing games from any Reader to any Writer,
+ * and replaying them in batches.
+ *
+ * @author RIT CS
+ */
+public class TestSession {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    /**
+     * Read a file from the test directory.
+     * @param name the file name
+     * @return its contents, with "\n" line endings
+     * @throws IOException if it cannot be read
+     */
+    private static String read( String name ) throws IOException {
+        return Files.readString( new File( TEST_DIR + name ).toPath() )
+                    .replace( "\r\n", "\n" );
+    }
+
+    @Test
+    public void playsLikeTheConsole() throws IOException {
+        for ( BoardStore.Kind kind: BoardStore.Kind.values() ) {
+            Game game = new Game( TEST_DIR + "board-std.txt", kind );
+            StringWriter out = new StringWriter();
+            new Session( game, true ).play(
+                    new StringReader( read( "board-std_in2.txt" ) ),
+                    new PrintWriter( out ) );
+            assertEquals( read( "board-std_out2.txt" ),
+                          out.toString().replace( "\r\n", "\n" ), kind.name() );
+        }
+    }
+
+    @Test
+    public void findsTheTestDirectory() throws IOException {
+        assertEquals( 5, new Batch( TEST_DIR, BoardStore.Kind.ARRAY, 1 )
+                                 .size() );
+    }
+
+    /**
+     * Run a manifest of four good games and one whose expected output is
+     * wrong.
+     * @param threads how many games to replay at once
+     * @throws IOException if the manifest cannot be written
+     */
+    private static void checkManifest( int threads ) throws IOException {
+        File wrong = File.createTempFile( "wrong", ".txt" );
+        wrong.deleteOnExit();
+        Files.writeString( wrong.toPath(), "not the output" );
+        File manifest = File.createTempFile( "manifest", ".txt" );
+        manifest.deleteOnExit();
+        try ( PrintWriter out = new PrintWriter( manifest ) ) {
+            out.println( Game.COMMENT + " board moves expected" );
+            for ( String game: new String[]{ "board-std_in1", "board-std_in2",
+                                             "board4x2P_in1",
+                                             "board4x4A_in2" } ) {
+                String board = game.substring( 0, game.indexOf( "_in" ) );
+                out.println( TEST_DIR + board + ".txt " +
+                             TEST_DIR + game + ".txt " +
+                             TEST_DIR + game.replace( "_in", "_out" ) +
+                             ".txt" );
+            }
+            out.println();
+            out.println( TEST_DIR + "board-std.txt " +
+                         TEST_DIR + "board-std_in1.txt " + wrong );
+        }
+
+        Batch batch = new Batch( manifest.getPath(),
+                                 BoardStore.Kind.BITBOARD, threads );
+        assertEquals( 5, batch.size() );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        assertEquals( 1, batch.run( new PrintStream( bytes ) ) );
+        String[] lines = bytes.toString().split( "\\R" );
+        assertEquals( 6, lines.length );
+        for ( int i = 0; i < 4; ++i ) {
+            assertTrue( lines[ i ].startsWith( "PASS " ), lines[ i ] );
+        }
+        assertTrue( lines[ 4 ].startsWith( "FAIL " ), lines[ 4 ] );
+        assertTrue( lines[ 4 ].endsWith(
+                "line 1: expected \"not the output\" but got \"\"" ),
+                    lines[ 4 ] );
+        assertTrue( lines[ 5 ].startsWith(
+                "5 game(s), 4 passed, 1 failed, " + threads + " thread(s)" ),
+                    lines[ 5 ] );
+    }
+
+    /**
+     * Write a temporary file.
+     * @param text its contents
+     * @return the file
+     * @throws IOException if it cannot be written
+     */
+    private static File temp( String text ) throws IOException {
+        File file = File.createTempFile( "batch", ".txt" );
+        file.deleteOnExit();
+        Files.writeString( file.toPath(), text );
+        return file;
+    }
+
+    @Test
+    public void setupComplaintsAreOutput() throws IOException {
+        final String moves = read( "board4x2P_in1.txt" );
+        final String board = read( "board4x2P.txt" );
+        final String complaints = "Improper config line: X 1 1 1\n" +
+                                  "Illegal row: R9 9 0\n";
+        File bad = temp( board + "X 1 1 1\nR9 9 0\n" );
+        File badFirst = temp( "4 2 1\nR1 0 0\n" );
+        File expected = temp( complaints + read( "board4x2P_out1.txt" ) );
+        File expectedFirst =
+                temp( "Improper first line of config file: 4 2 1\n" );
+        File in = temp( moves );
+        File manifest = temp( bad + " " + in + " " + expected + "\n" +
+                              badFirst + " " + in + " " + expectedFirst +
+                              "\n" );
+
+        // Nothing may leak to standard output, where the report goes.
+        PrintStream console = System.out;
+        ByteArrayOutputStream leaked = new ByteArrayOutputStream();
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        System.setOut( new PrintStream( leaked ) );
+        try {
+            assertEquals( 0, new Batch( manifest.getPath(),
+                                        BoardStore.Kind.ARRAY, 2 )
+                                     .run( new PrintStream( report ) ),
+                          report.toString() );
+        }
+        finally {
+            System.setOut( console );
+        }
+        assertEquals( "", leaked.toString() );
+    }
+
+    @Test
+    public void runsAManifest() throws IOException {
+        checkManifest( 1 );
+        checkManifest( 3 );
+    }
+}
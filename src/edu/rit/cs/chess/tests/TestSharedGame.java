@@ -0,0 +1,160 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.GameView;
+import edu.rit.cs.chess.MoveStatus;
+import edu.rit.cs.chess.SharedGame;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test sharing a game among threads.
+ *
+ * @author RIT CS
+ */
+public class TestSharedGame {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    /**
+     * Draw a game's board.
+     */
+    private static String show( Game game ) throws IOException {
+        StringWriter text = new StringWriter();
+        game.showBoard( text );
+        return text.toString();
+    }
+
+    /**
+     * Choose a random legal move or an undo, and make it on a game.
+     * @param game the game
+     * @param random where the choice comes from
+     * @return the move's four coordinates, or null for an undo
+     */
+    private static int[] randomMove( Game game, Random random ) {
+        List< int[] > moves = new ArrayList<>();
+        game.generateAllMoves( ( from, to ) -> moves.add(
+                new int[]{ from, to } ) );
+        if ( moves.isEmpty() ||
+             game.undoDepth() > 0 && random.nextInt( 3 ) == 0 ) {
+            game.unmakeMove();
+            return null;
+        }
+        int[] move = moves.get( random.nextInt( moves.size() ) );
+        final int cols = game.numCols();
+        int[] coordinates = { move[ 0 ] / cols, move[ 0 ] % cols,
+                              move[ 1 ] / cols, move[ 1 ] % cols };
+        game.tryMove( coordinates[ 0 ], coordinates[ 1 ],
+                      coordinates[ 2 ], coordinates[ 3 ] );
+        return coordinates;
+    }
+
+    @Test
+    public void viewsDoNotChange() throws IOException {
+        Game game = new Game( TEST_DIR + "board-std.txt" );
+        String before = show( game );
+        SharedGame shared = new SharedGame( new Game( game ) );
+        GameView view = shared.view();
+        assertEquals( 0, view.version() );
+        assertEquals( before, view.toString() );
+        assertEquals( game.positionHash(), view.positionHash() );
+
+        assertEquals( MoveStatus.NO_SUCH_PIECE, shared.tryMove( 3, 3, 4, 4 ) );
+        assertSame( view, shared.view() );
+        assertEquals( MoveStatus.OK, shared.tryMove( 6, 2, 5, 2 ) );
+        assertEquals( before, view.toString() );
+        GameView moved = shared.view();
+        assertEquals( 1, moved.version() );
+        assertEquals( "p2", moved.name( 5, 2 ) );
+        assertNull( moved.name( 6, 2 ) );
+
+        assertTrue( shared.unmakeMove() );
+        assertEquals( 2, shared.view().version() );
+        assertEquals( before, shared.view().toString() );
+        assertEquals( game.positionHash(), shared.view().positionHash() );
+        assertFalse( shared.unmakeMove() );
+        assertEquals( 2, shared.view().version() );
+    }
+
+    @Test
+    public void readersSeeWholeBoards() throws Exception {
+        // Work out every board the writer will publish, in order, so
+        // that readers can check each view they get against it.
+        final int changes = 3000;
+        Game script = new Game( TEST_DIR + "board-std.txt" );
+        SharedGame shared = new SharedGame( new Game( script ) );
+        Random random = new Random( 16 );
+        String[] boards = new String[ changes + 1 ];
+        long[] hashes = new long[ changes + 1 ];
+        int[][] moves = new int[ changes ][];
+        boards[ 0 ] = show( script );
+        hashes[ 0 ] = script.positionHash();
+        for ( int i = 0; i < changes; ++i ) {
+            moves[ i ] = randomMove( script, random );
+            boards[ i + 1 ] = show( script );
+            hashes[ i + 1 ] = script.positionHash();
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference< String > problem = new AtomicReference<>();
+        AtomicLong views = new AtomicLong();
+        List< Thread > readers = new ArrayList<>();
+        for ( int r = 0; r < 8; ++r ) {
+            Thread reader = new Thread( () -> {
+                long last = -1;
+                while ( !done.get() && problem.get() == null ) {
+                    GameView view = shared.view();
+                    final int version = (int)view.version();
+                    if ( version < last ) {
+                        problem.set( "version went back to " + version );
+                    }
+                    else if ( !boards[ version ].equals( view.toString() ) ||
+                              hashes[ version ] != view.positionHash() ) {
+                        problem.set( "view " + version + " is wrong" );
+                    }
+                    last = version;
+                    views.incrementAndGet();
+                }
+            } );
+            readers.add( reader );
+            reader.start();
+        }
+
+        Thread writer = new Thread( () -> {
+            for ( int[] move: moves ) {
+                if ( move == null ) {
+                    if ( !shared.unmakeMove() ) {
+                        problem.set( "nothing to undo" );
+                    }
+                }
+                else if ( shared.tryMove( move[ 0 ], move[ 1 ], move[ 2 ],
+                                          move[ 3 ] ) != MoveStatus.OK ) {
+                    problem.set( "move refused" );
+                }
+            }
+        } );
+        writer.start();
+        writer.join();
+        done.set( true );
+        for ( Thread reader: readers ) reader.join();
+
+        assertNull( problem.get() );
+        assertEquals( changes, shared.view().version() );
+        assertEquals( boards[ changes ], shared.view().toString() );
+        assertTrue( views.get() >= readers.size() );
+    }
+}
@@ -0,0 +1,166 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.BoardStore;
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test saving and loading board snapshots.
+ *
+ * @author RIT CS
+ */
+public class TestSnapshot {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    /**
+     * @return the game's board in the setup file form
+     */
+    private static String setup( Game game ) {
+        StringWriter text = new StringWriter();
+        game.writeSetup( new PrintWriter( text ) );
+        return text.toString();
+    }
+
+    /**
+     * @return the game's snapshot
+     */
+    private static byte[] snapshot( Game game ) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        game.writeSnapshot( bytes );
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Save a game, load it back, and check that nothing changed.
+     * @param game the game
+     * @param kind the representation to load it into
+     */
+    private static void checkRoundTrip( Game game, BoardStore.Kind kind )
+            throws IOException {
+        Game copy = Game.readSnapshot(
+                new ByteArrayInputStream( snapshot( game ) ), kind );
+        assertEquals( setup( game ), setup( copy ) );
+        assertEquals( game.positionHash(), copy.positionHash() );
+        assertEquals( game.pieceCount(), copy.pieceCount() );
+        assertEquals( 0, copy.undoDepth() );
+    }
+
+    /**
+     * Write a setup file with pieces of random types and names.
+     * @return the file's name
+     */
+    private static String randomBoard( int rows, int cols, long seed )
+            throws IOException {
+        Random random = new Random( seed );
+        String[] names = { "R", "r", "R2", "N1", "n", "B", "Bb", "Q",
+                           "Queen", "K", "k9", "P", "P12", "Né" };
+        SetupFile setup = new SetupFile( rows, cols );
+        for ( int i = 0; i < rows * cols / 2; ++i ) {
+            setup.piece( names[ random.nextInt( names.length ) ],
+                         random.nextInt( rows ), random.nextInt( cols ) );
+        }
+        return setup.write().toString();
+    }
+
+    @Test
+    public void roundTrips() throws IOException {
+        for ( String board: new String[]{ "board-std.txt", "board13x13.txt",
+                                          "board4x2P.txt", "board4x4A.txt" } ) {
+            for ( BoardStore.Kind kind: BoardStore.Kind.values() ) {
+                checkRoundTrip( new Game( TEST_DIR + board ), kind );
+            }
+        }
+        int[][] sizes = { { 1, 1 }, { 3, 5 }, { 8, 8 }, { 7, 31 }, { 40, 3 } };
+        for ( int[] size: sizes ) {
+            Game game = new Game( randomBoard( size[ 0 ], size[ 1 ],
+                                               size[ 1 ] ) );
+            for ( BoardStore.Kind kind: BoardStore.Kind.values() ) {
+                checkRoundTrip( game, kind );
+            }
+        }
+    }
+
+    @Test
+    public void savesTheCurrentPosition() throws IOException {
+        Game game = new Game( TEST_DIR + "board4x4A.txt" );
+        Game start = new Game( game );
+        int moves = 0;
+        for ( int from = 0; from < 16; ++from ) {
+            for ( int to = 0; to < 16; ++to ) {
+                if ( from != to &&
+                     game.tryMove( from / 4, from % 4, to / 4, to % 4 ) ==
+                     MoveStatus.OK ) {
+                    ++moves;
+                }
+            }
+        }
+        assertTrue( moves > 0 );
+        assertNotEquals( setup( start ), setup( game ) );
+        checkRoundTrip( game, BoardStore.Kind.ARRAY );
+    }
+
+    @Test
+    public void readsOneAfterAnother() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Game[] games = new Game[ 5 ];
+        for ( int i = 0; i < games.length; ++i ) {
+            games[ i ] = new Game( randomBoard( 5 + i, 6, i ) );
+            games[ i ].writeSnapshot( bytes );
+        }
+        InputStream in = new BufferedInputStream(
+                new ByteArrayInputStream( bytes.toByteArray() ) );
+        for ( Game game: games ) {
+            assertEquals( setup( game ), setup( Game.readSnapshot( in ) ) );
+        }
+        assertEquals( -1, in.read() );
+    }
+
+    @Test
+    public void isCompact() throws IOException {
+        // The header, 64 cells in 32 bytes, and a name count of 0
+        byte[] empty = new byte[ 4 + 3 + 32 + 1 ];
+        System.arraycopy( "CHSN\1\10\10".getBytes(), 0, empty, 0, 7 );
+        Game game = Game.readSnapshot( new ByteArrayInputStream( empty ) );
+        assertEquals( 0, game.pieceCount() );
+        assertArrayEquals( empty, snapshot( game ) );
+
+        // Only the pieces with names other than "R", "N", ... add bytes.
+        game = new Game( TEST_DIR + "board-std.txt" );
+        assertTrue( snapshot( game ).length <=
+                    empty.length + 4 * game.pieceCount() );
+    }
+
+    @Test
+    public void rejectsBadSnapshots() throws IOException {
+        byte[] good = snapshot( new Game( TEST_DIR + "board13x13.txt" ) );
+        assertThrows( IOException.class, () -> Game.readSnapshot(
+                new ByteArrayInputStream( "13 13\n".getBytes() ) ) );
+        for ( int length = 0; length < good.length; ++length ) {
+            final byte[] cut = Arrays.copyOf( good, length );
+            assertThrows( IOException.class, () -> Game.readSnapshot(
+                    new ByteArrayInputStream( cut ) ), "length " + length );
+        }
+        byte[] bad = good.clone();
+        bad[ 7 ] = (byte)0xF0;
+        assertThrows( IOException.class, () -> Game.readSnapshot(
+                new ByteArrayInputStream( bad ) ) );
+    }
+}
@@ -0,0 +1,94 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveStatus;
+import edu.rit.cs.chess.Solver;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test the solitaire chess solver.
+ *
+ * @author RIT CS
+ */
+public class TestSolver {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    /**
+     * Solve a puzzle, then check that its moves are all captures and leave
+     * exactly one piece.
+     * @param boardFile the setup file name within the test directory
+     * @param threads the number of threads to search with
+     * @throws FileNotFoundException if the board file is missing
+     */
+    private static void checkSolution( String boardFile, int threads )
+            throws FileNotFoundException {
+        Game game = new Game( TEST_DIR + boardFile );
+        Solver solver = new Solver( game, threads );
+        assertTrue( solver.solve(), boardFile );
+        int[] moves = solver.solution();
+
+        // The solver must leave the game where it started.
+        Game fresh = new Game( TEST_DIR + boardFile );
+        for ( int r = 0; r < game.numRows(); ++r ) {
+            for ( int c = 0; c < game.numCols(); ++c ) {
+                assertEquals( fresh.tryMove( r, c, r, c ),
+                              game.tryMove( r, c, r, c ) );
+            }
+        }
+
+        for ( int i = 0; i < moves.length; i += 4 ) {
+            assertEquals( MoveStatus.OK,
+                          game.tryMove( moves[ i ], moves[ i + 1 ],
+                                        moves[ i + 2 ], moves[ i + 3 ] ) );
+            assertNotNull( game.lastCaptured() );
+        }
+        int left = 0;
+        for ( int r = 0; r < game.numRows(); ++r ) {
+            for ( int c = 0; c < game.numCols(); ++c ) {
+                if ( game.tryMove( r, c, r, c ) != MoveStatus.NO_SUCH_PIECE ) {
+                    ++left;
+                }
+            }
+        }
+        assertEquals( 1, left );
+    }
+
+    @Test
+    public void solvable() throws FileNotFoundException {
+        checkSolution( "board4x4A.txt", 1 );
+        checkSolution( "board-std.txt", 1 );
+        checkSolution( "board13x13.txt", 1 );
+    }
+
+    @Test
+    public void parallel() throws FileNotFoundException {
+        checkSolution( "board4x4A.txt", 4 );
+        checkSolution( "board-std.txt", 4 );
+        checkSolution( "board13x13.txt", 4 );
+        assertFalse( new Solver( new Game( TEST_DIR + "board4x2P.txt" ), 4 )
+                             .solve() );
+    }
+
+    @Test
+    public void leavesGameAlone() throws FileNotFoundException {
+        Game game = new Game( TEST_DIR + "board-std.txt" );
+        game.setUndoLimit( 1 );
+        assertTrue( new Solver( game ).solve() );
+        assertEquals( 1, game.undoLimit() );
+    }
+
+    @Test
+    public void unsolvable() throws FileNotFoundException {
+        assertFalse( new Solver( new Game( TEST_DIR + "board4x2P.txt" ) )
+                             .solve() );
+    }
+}
@@ -0,0 +1,185 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveStatus;
+import edu.rit.cs.chess.Solver;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to check that positions that differ by a reflection or
+ * rotation of the board that keeps the rules get the same canonical hash,
+ * that the hash is kept right as pieces move, and that such positions
+ * really are solved alike.
+ *
+ * @author RIT CS
+ */
+public class TestSymmetry {
+
+    /**
+     * A piece placed on a random board: the first letter of its name, and
+     * its cell
+     */
+    private static final class Placed {
+        final char type;
+        final int row, col;
+
+        Placed( char type, int row, int col ) {
+            this.type = type;
+            this.row = row;
+            this.col = col;
+        }
+    }
+
+    /**
+     * Make random pieces in distinct cells.
+     */
+    private static Placed[] randomPieces( Random random, int rows,
+                                          int cols, int count,
+                                          String types ) {
+        Placed[] pieces = new Placed[ count ];
+        boolean[] used = new boolean[ rows * cols ];
+        for ( int i = 0; i < count; ) {
+            final int cell = random.nextInt( rows * cols );
+            if ( used[ cell ] ) continue;
+            used[ cell ] = true;
+            pieces[ i++ ] = new Placed(
+                    types.charAt( random.nextInt( types.length() ) ),
+                    cell / cols, cell % cols );
+        }
+        return pieces;
+    }
+
+    /**
+     * Set up a game with the image of some pieces under a symmetry:
+     * 4 swaps rows and columns, then 1 reverses the columns and 2 the
+     * rows.
+     */
+    private static Game game( int rows, int cols, Placed[] pieces,
+                              int symmetry ) throws IOException {
+        final boolean swap = ( symmetry & 4 ) != 0;
+        final int r = swap ? cols : rows, c = swap ? rows : cols;
+        SetupFile setup = new SetupFile( r, c );
+        int i = 0;
+        for ( Placed piece: pieces ) {
+            int row = swap ? piece.col : piece.row;
+            int col = swap ? piece.row : piece.col;
+            if ( ( symmetry & 1 ) != 0 ) col = c - 1 - col;
+            if ( ( symmetry & 2 ) != 0 ) row = r - 1 - row;
+            setup.piece( piece.type + "" + i++, row, col );
+        }
+        return new Game( setup.write().toString() );
+    }
+
+    @Test
+    public void imagesShareHash() throws IOException {
+        Random random = new Random( 5 );
+        for ( int trial = 0; trial < 50; ++trial ) {
+            Placed[] pieces = randomPieces( random, 6, 6, 7, "RNBQK" );
+            final long hash = game( 6, 6, pieces, 0 ).canonicalHash();
+            for ( int s = 1; s < 8; ++s ) {
+                assertEquals( hash, game( 6, 6, pieces, s ).canonicalHash() );
+            }
+
+            // On other boards only the reflections keep the shape.
+            pieces = randomPieces( random, 5, 7, 7, "RNBQK" );
+            final long wide = game( 5, 7, pieces, 0 ).canonicalHash();
+            for ( int s = 1; s < 4; ++s ) {
+                assertEquals( wide, game( 5, 7, pieces, s ).canonicalHash() );
+            }
+
+            // Pawns only move up, so only the left-right mirror counts.
+            pieces = randomPieces( random, 6, 6, 7, "PPPRNBQK" );
+            pieces[ 0 ] = new Placed( 'P', pieces[ 0 ].row,
+                                      pieces[ 0 ].col );
+            Game game = game( 6, 6, pieces, 0 );
+            assertEquals( game.canonicalHash(),
+                          game( 6, 6, pieces, 1 ).canonicalHash() );
+            assertNotEquals( game.canonicalHash(),
+                             game( 6, 6, pieces, 2 ).canonicalHash() );
+        }
+    }
+
+    @Test
+    public void imagesSolveAlike() throws IOException {
+        Random random = new Random( 9 );
+        for ( int trial = 0; trial < 100; ++trial ) {
+            final boolean pawns = trial % 2 == 0;
+            Placed[] pieces = randomPieces( random, 5, 5, 7,
+                                            pawns ? "PRNBQK" : "RNBQK" );
+            final boolean solvable =
+                    new Solver( game( 5, 5, pieces, 0 ) ).solve();
+            for ( int s = 1; s < ( pawns ? 2 : 8 ); ++s ) {
+                assertEquals( solvable,
+                              new Solver( game( 5, 5, pieces, s ) ).solve() );
+            }
+        }
+    }
+
+    @Test
+    public void keptAsPiecesMove() throws IOException {
+        Random random = new Random( 13 );
+        Placed[] pieces = randomPieces( random, 7, 7, 20, "PRNBQK" );
+        Game game = game( 7, 7, pieces, 0 );
+        game.canonicalHash();
+        Game copy = null;
+        for ( int move = 0; move < 5000; ++move ) {
+            if ( game.tryMove( random.nextInt( 7 ), random.nextInt( 7 ),
+                               random.nextInt( 7 ), random.nextInt( 7 ) )
+                 == MoveStatus.OK ) {
+                // A fresh copy works its hashes out from scratch.
+                Game fresh = new Game( game.position() );
+                assertEquals( fresh.canonicalHash(), game.canonicalHash() );
+                if ( copy == null ) copy = new Game( game );
+            }
+        }
+        while ( game.unmakeMove() ) {
+            assertEquals( new Game( game.position() ).canonicalHash(),
+                          game.canonicalHash() );
+        }
+        assertEquals( game( 7, 7, pieces, 1 ).canonicalHash(),
+                      game.canonicalHash() );
+        assertNotNull( copy );
+        assertEquals( new Game( copy.position() ).canonicalHash(),
+                      copy.canonicalHash() );
+    }
+
+    @Test
+    public void hashesOutliveTheirTables() throws IOException {
+        Random random = new Random( 17 );
+        Placed[] pieces = randomPieces( random, 6, 6, 7, "RNBQK" );
+        final Game before = game( 6, 6, pieces, 0 );
+        final long hash = before.canonicalHash();
+
+        // Only the tables of a few board sizes are kept, so these push
+        // out the first board's; its games go on using theirs.
+        for ( int size = 2; size < 40; ++size ) {
+            game( size, size + 1, randomPieces( random, size, size + 1, 2,
+                                                "RNBQK" ), 0 )
+                    .canonicalHash();
+        }
+        assertEquals( hash, game( 6, 6, pieces, 5 ).canonicalHash() );
+        assertEquals( before.positionHash(),
+                      game( 6, 6, pieces, 0 ).positionHash() );
+        assertEquals( hash, before.canonicalHash() );
+    }
+
+    @Test
+    public void symmetricPositions() throws IOException {
+        Placed[] mirrored = { new Placed( 'R', 0, 1 ),
+                              new Placed( 'R', 0, 4 ),
+                              new Placed( 'P', 3, 2 ),
+                              new Placed( 'P', 3, 3 ) };
+        assertTrue( game( 6, 6, mirrored, 0 ).isSymmetric() );
+        Placed[] turned = { new Placed( 'N', 0, 0 ), new Placed( 'N', 5, 5 ) };
+        assertTrue( game( 6, 6, turned, 0 ).isSymmetric() );
+        Placed[] pawn = { new Placed( 'P', 0, 0 ), new Placed( 'P', 5, 5 ) };
+        assertFalse( game( 6, 6, pawn, 0 ).isSymmetric() );
+        assertFalse( game( 6, 6, new Placed[]{ new Placed( 'Q', 1, 2 ) }, 0 )
+                             .isSymmetric() );
+    }
+}
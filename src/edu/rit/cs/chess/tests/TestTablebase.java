@@ -0,0 +1,152 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.Solver;
+import edu.rit.cs.chess.Tablebase;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to check that a tablebase agrees with the solver, and
+ * that making one can be stopped and resumed.
+ *
+ * @author RIT CS
+ */
+public class TestTablebase {
+
+    private static String TEST_DIR = System.getProperty( "user.dir" ) +
+                                     File.separator +
+                                     "Tests" +
+                                     File.separator;
+
+    /**
+     * Make a temporary file that is deleted when the tests end.
+     */
+    private static Path tempFile( String suffix ) throws IOException {
+        Path path = Files.createTempFile( "tablebase", suffix );
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    /**
+     * Set up random positions and check that the table says each can be
+     * solved iff the solver finds a solution.
+     */
+    private static void checkRandom( Tablebase table, int rows, int cols )
+            throws IOException {
+        Random random = new Random( rows * cols );
+        Path path = tempFile( ".txt" );
+        for ( int trial = 0; trial < 300; ++trial ) {
+            final int pieces = 2 + random.nextInt( table.maxPieces() - 1 );
+            SetupFile text =
+                    SetupFile.random( rows, cols, pieces, random.nextLong() );
+            Game game = new Game( text.writeTo( path ).toString() );
+            final boolean solvable = new Solver( game ).solve();
+            game.useTablebase( table );
+            assertTrue( game.fewestPiecesLeft() >= 1, text.toString() );
+            assertEquals( solvable, game.fewestPiecesLeft() == 1,
+                          text.toString() );
+            assertEquals( solvable, game.isSolvable() );
+            assertEquals( solvable, new Solver( game ).solve() );
+        }
+    }
+
+    @Test
+    public void agreesWithSolver() throws IOException {
+        Path file = tempFile( ".tb" );
+        Files.delete( file );
+        Tablebase table = Tablebase.generate( file, 4, 2, 4, 2 );
+        checkRandom( table, 4, 2 );
+        checkRandom( Tablebase.open( file ), 4, 2 );
+
+        Game game = new Game( TEST_DIR + "board4x2P.txt" );
+        game.useTablebase( table );
+        assertEquals( 3, game.fewestPiecesLeft() );
+        assertFalse( game.isSolvable() );
+
+        // Positions the table does not cover are searched.
+        game = new Game( TEST_DIR + "board4x4A.txt" );
+        game.useTablebase( table );
+        assertEquals( -1, game.fewestPiecesLeft() );
+        assertTrue( game.isSolvable() );
+    }
+
+    @Test
+    public void squareBoard() throws IOException {
+        Path file = tempFile( ".tb" );
+        Files.delete( file );
+        checkRandom( Tablebase.generate( file, 3, 3, 5, 1 ), 3, 3 );
+    }
+
+    @Test
+    public void resume() throws IOException {
+        Path file = tempFile( ".tb" );
+        Files.delete( file );
+        Tablebase.generate( file, 4, 2, 4, 1 );
+        final byte[] whole = Files.readAllBytes( file );
+
+        // As if the last chunk had not been finished: with 4 pieces on
+        // 8 cells there are 6 chunks, whose flags follow the 32 byte
+        // header, and the last chunk's entries end the file.
+        byte[] cut = whole.clone();
+        assertEquals( 1, cut[ 32 + 5 ] );
+        cut[ 32 + 5 ] = 0;
+        Arrays.fill( cut, cut.length - 1000, cut.length, (byte)0 );
+        Files.write( file, cut );
+        assertThrows( IOException.class, () -> Tablebase.open( file ) );
+
+        Tablebase.generate( file, 4, 2, 4, 2 );
+        assertArrayEquals( whole, Files.readAllBytes( file ) );
+        Tablebase.open( file );
+
+        assertThrows( IOException.class,
+                      () -> Tablebase.generate( file, 3, 3, 4, 1 ) );
+    }
+
+    @Test
+    public void tooBig() throws IOException {
+        Path file = tempFile( ".tb" );
+        Files.delete( file );
+        for ( int[] size: new int[][]{ { 8, 8, 15 }, { 20, 20, 12 },
+                                       { 30_000, 30_000, 1 } } ) {
+            IllegalArgumentException e = assertThrows(
+                    IllegalArgumentException.class,
+                    () -> Tablebase.generate( file, size[ 0 ], size[ 1 ],
+                                              size[ 2 ], 1 ) );
+            assertTrue( e.getMessage().startsWith( "Tablebase would take" ),
+                        e.getMessage() );
+            assertFalse( Files.exists( file ) );
+        }
+
+        // A header that asks for such a table is not a tablebase.
+        ByteBuffer header = ByteBuffer.allocate( 32 );
+        header.putInt( 0x43485442 ).putInt( 1 ).putInt( 8 ).putInt( 8 )
+              .putInt( 15 );
+        Files.write( file, header.array() );
+        assertThrows( IOException.class, () -> Tablebase.open( file ) );
+    }
+
+    @Test
+    public void stoppedBeforeHeader() throws IOException {
+        Path file = tempFile( ".tb" );
+        Files.delete( file );
+        Tablebase.generate( file, 4, 2, 4, 1 );
+        final byte[] whole = Files.readAllBytes( file );
+
+        // As if the file had been grown to size, but the run stopped
+        // before its header was written.
+        Files.write( file, new byte[ whole.length ] );
+        assertThrows( IOException.class, () -> Tablebase.open( file ) );
+        Tablebase.generate( file, 4, 2, 4, 2 );
+        assertArrayEquals( whole, Files.readAllBytes( file ) );
+    }
+}
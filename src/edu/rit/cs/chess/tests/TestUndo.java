@@ -0,0 +1,108 @@
+package edu.rit.cs.chess.tests;
+
+import edu.rit.cs.chess.BoardStore;
+import edu.rit.cs.chess.Game;
+import edu.rit.cs.chess.MoveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit class to test taking moves back.
+ *
+ * @author RIT CS
+ */
+public class TestUndo {
+
+    private static String TEST_BOARD = System.getProperty( "user.dir" ) +
+                                       File.separator +
+                                       "Tests" +
+                                       File.separator +
+                                       "board13x13.txt";
+
+    /**
+     * Capture what showBoard prints.
+     * @param game the game to show
+     * @return the board as text
+     */
+    private static String render( Game game ) {
+        PrintStream console = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut( new PrintStream( bytes ) );
+        try {
+            game.showBoard();
+        }
+        finally {
+            System.setOut( console );
+        }
+        return bytes.toString();
+    }
+
+    /**
+     * Make random legal moves, then take them all back, checking that
+     * each undo restores the board as it was.
+     * @throws FileNotFoundException if the board file is missing
+     */
+    @Test
+    public void undoAll() throws FileNotFoundException {
+        for ( BoardStore.Kind kind: BoardStore.Kind.values() ) {
+            Game game = new Game( TEST_BOARD, kind );
+            List< String > boards = new ArrayList<>();
+            boards.add( render( game ) );
+            Random random = new Random( 6 );
+            while ( boards.size() < 200 ) {
+                if ( game.tryMove( random.nextInt( 13 ), random.nextInt( 13 ),
+                                   random.nextInt( 13 ),
+                                   random.nextInt( 13 ) ) == MoveStatus.OK ) {
+                    boards.add( render( game ) );
+                }
+            }
+            assertEquals( 199, game.undoDepth() );
+            for ( int i = boards.size() - 1; i > 0; --i ) {
+                assertEquals( boards.get( i ), render( game ) );
+                assertEquals( new Game( game ).positionHash(),
+                              game.positionHash() );
+                assertTrue( game.unmakeMove() );
+            }
+            assertEquals( boards.get( 0 ), render( game ) );
+            assertEquals( new Game( TEST_BOARD ).positionHash(),
+                          game.positionHash() );
+            assertFalse( game.unmakeMove() );
+
+            // Pieces must know where they are again.
+            assertEquals( MoveStatus.OK, game.tryMove( 2, 5, 2, 8 ) );
+            assertEquals( "Q", game.lastCaptured().toString() );
+        }
+    }
+
+    /**
+     * The same position reached by different routes has the same hash,
+     * and different positions have different hashes.
+     * @throws FileNotFoundException if the board file is missing
+     */
+    @Test
+    public void positionHash() throws FileNotFoundException {
+        Game one = new Game( TEST_BOARD );
+        Game two = new Game( TEST_BOARD, BoardStore.Kind.BITBOARD );
+        long start = one.positionHash();
+        assertEquals( start, two.positionHash() );
+
+        assertEquals( MoveStatus.OK, one.tryMove( 2, 8, 0, 8 ) );
+        assertNotEquals( start, one.positionHash() );
+        assertEquals( MoveStatus.OK, one.tryMove( 0, 8, 0, 10 ) );
+        assertEquals( MoveStatus.OK, one.tryMove( 5, 4, 6, 4 ) );
+
+        assertEquals( MoveStatus.OK, two.tryMove( 5, 4, 6, 4 ) );
+        assertEquals( MoveStatus.OK, two.tryMove( 2, 8, 2, 10 ) );
+        assertEquals( MoveStatus.OK, two.tryMove( 2, 10, 0, 10 ) );
+        assertEquals( one.positionHash(), two.positionHash() );
+    }
+}
@@ -27,6 +27,15 @@ public class ActionResult {
         this.errorMessage = errorMessage;
     }
 
+    /**
+     * Initialize an instance whose message is supplied by a subclass
+     * overriding {@link ActionResult#message()}, e.g. to build it lazily.
+     * @param ok true iff all is well
+     */
+    protected ActionResult( boolean ok ) {
+        this( ok, null );
+    }
+
     /**
      * Create an instance of ActionResult for a method that failed.
      * @param errorMessage a string describing what happened
@@ -0,0 +1,390 @@
+package edu.rit.cs.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads text a line at a time and splits each line into fields, without
+ * regular expressions and without creating a string for each line or
+ * field. Lines and fields are kept as UTF-8 bytes in buffers that are
+ * reused, and numbers are parsed straight from those bytes.
+ * <br/>
+ * Lines end at "\n", "\r", or "\r\n". The fields of a line are exactly
+ * what {@link String#split(String) line.split( "\\s+" )} would return:
+ * <ul>
+ *     <li>fields are separated by runs of ASCII whitespace;</li>
+ *     <li>whitespace at the end of the line is ignored;</li>
+ *     <li>whitespace at the start of the line makes an empty first
+ *         field, unless the line is nothing but whitespace, in which case
+ *         it has no fields at all;</li>
+ *     <li>an empty line has a single empty field.</li>
+ * </ul>
+ * Problems reading the input are thrown as UncheckedIOExceptions.
+ * @author RIT CS
+ */
+public final class FieldReader implements Closeable {
+
+    /**
+     * How much input to read at a time
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Where bytes come from, if reading bytes
+     */
+    private final InputStream bytes;
+
+    /**
+     * Where characters come from, if reading characters
+     */
+    private final Reader chars;
+
+    /**
+     * Turns characters into UTF-8 bytes, if reading characters
+     */
+    private final CharsetEncoder encoder;
+
+    /**
+     * Characters read but not yet encoded, if reading characters
+     */
+    private final CharBuffer pending;
+
+    /**
+     * Input not yet split into lines
+     */
+    private final byte[] buffer = new byte[ BUFFER_SIZE ];
+
+    /**
+     * The next byte of {@link #buffer} to look at, and the end of
+     * what is in it
+     */
+    private int position, limit;
+
+    /**
+     * Has the input run out?
+     */
+    private boolean eof;
+
+    /**
+     * Did the last line end with "\r"? If so, a "\n" right after it is
+     * part of the same line ending.
+     */
+    private boolean skipNewline;
+
+    /**
+     * The current line, without its ending
+     */
+    private byte[] line = new byte[ 128 ];
+
+    /**
+     * Number of bytes in the current line
+     */
+    private int length;
+
+    /**
+     * Is every byte of the current line ASCII?
+     */
+    private boolean ascii;
+
+    /**
+     * Where each field of the current line starts, and where it ends
+     * (exclusive)
+     */
+    private int[] starts = new int[ 8 ], ends = new int[ 8 ];
+
+    /**
+     * Number of fields in the current line
+     */
+    private int count;
+
+    /**
+     * Reused by {@link #printLine(PrintWriter)} for ASCII lines
+     */
+    private char[] text = new char[ 0 ];
+
+    /**
+     * Read lines from a stream of bytes encoded in UTF-8.
+     * @param in the stream; it is read in large blocks, so it need not be
+     *           buffered
+     */
+    public FieldReader( InputStream in ) {
+        this.bytes = in;
+        this.chars = null;
+        this.encoder = null;
+        this.pending = null;
+    }
+
+    /**
+     * Read lines from a stream of characters.
+     * @param in the stream; it is read in large blocks, so it need not be
+     *           buffered
+     */
+    public FieldReader( Reader in ) {
+        this.bytes = null;
+        this.chars = in;
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput( CodingErrorAction.REPLACE )
+                .onUnmappableCharacter( CodingErrorAction.REPLACE );
+        this.pending = CharBuffer.allocate( BUFFER_SIZE / 4 );
+        this.pending.flip();
+    }
+
+    /**
+     * Refill the buffer after it has all been used.
+     * @return false iff there is no more input
+     */
+    private boolean fill() {
+        try {
+            if ( this.bytes != null ) {
+                final int n = this.bytes.read( this.buffer );
+                this.position = 0;
+                this.limit = Math.max( n, 0 );
+                return n > 0;
+            }
+            ByteBuffer out = ByteBuffer.wrap( this.buffer );
+            while ( true ) {
+                this.encoder.encode( this.pending, out, this.eof );
+                if ( out.position() > 0 || this.eof ) break;
+                // Everything read so far is encoded, so read some more.
+                this.pending.compact();
+                this.eof = this.chars.read( this.pending ) < 0;
+                this.pending.flip();
+            }
+            this.position = 0;
+            this.limit = out.position();
+            return this.limit > 0;
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Move on to the next line.
+     * @return true if there was another line, or false at the end of the
+     *         input, in which case the current line is empty and has no
+     *         fields
+     */
+    public boolean nextLine() {
+        this.length = 0;
+        this.count = 0;
+        this.ascii = true;
+        if ( this.skipNewline ) {
+            this.skipNewline = false;
+            if ( this.position < this.limit || fill() ) {
+                if ( this.buffer[ this.position ] == '\n' ) ++this.position;
+            }
+        }
+        boolean any = false;
+        while ( true ) {
+            if ( this.position == this.limit && !fill() ) {
+                if ( !any ) return false;
+                break;
+            }
+            any = true;
+            final byte b = this.buffer[ this.position++ ];
+            if ( b == '\n' ) break;
+            if ( b == '\r' ) {
+                this.skipNewline = true;
+                break;
+            }
+            if ( this.length == this.line.length ) {
+                this.line = Arrays.copyOf( this.line, 2 * this.length );
+            }
+            this.line[ this.length++ ] = b;
+            this.ascii &= b >= 0;
+        }
+        split();
+        return true;
+    }
+
+    /**
+     * Find the fields of the current line.
+     */
+    private void split() {
+        final byte[] line = this.line;
+        final int length = this.length;
+        if ( length == 0 || isSpace( line[ 0 ] ) ) {
+            addField( 0, 0 );
+        }
+        int i = 0;
+        while ( true ) {
+            while ( i < length && isSpace( line[ i ] ) ) ++i;
+            if ( i == length ) break;
+            final int start = i;
+            while ( i < length && !isSpace( line[ i ] ) ) ++i;
+            addField( start, i );
+        }
+        if ( length > 0 && this.count == 1 && this.ends[ 0 ] == 0 ) {
+            this.count = 0; // nothing but whitespace
+        }
+    }
+
+    /**
+     * Note where a field is.
+     * @param start its first byte
+     * @param end just past its last byte
+     */
+    private void addField( int start, int end ) {
+        if ( this.count == this.starts.length ) {
+            this.starts = Arrays.copyOf( this.starts, 2 * this.count );
+            this.ends = Arrays.copyOf( this.ends, 2 * this.count );
+        }
+        this.starts[ this.count ] = start;
+        this.ends[ this.count ] = end;
+        ++this.count;
+    }
+
+    /**
+     * Is a byte whitespace, as "\\s" means in a regular expression?
+     * @param b the byte
+     * @return true iff it is a space, tab, newline, vertical tab, form
+     *         feed, or carriage return
+     */
+    private static boolean isSpace( byte b ) {
+        return b == ' ' || ( b >= '\t' && b <= '\r' );
+    }
+
+    /**
+     * @return the number of bytes in the current line
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * @return the first byte of the current line, or -1 if it is empty
+     */
+    public int firstByte() {
+        return this.length == 0 ? -1 : this.line[ 0 ];
+    }
+
+    /**
+     * @return the number of fields in the current line
+     */
+    public int fieldCount() {
+        return this.count;
+    }
+
+    /**
+     * Get a field as a string.
+     * @param i which field, counting from 0
+     * @return the field
+     * @rit.pre 0 &le; i &lt; fieldCount()
+     */
+    public String field( int i ) {
+        return new String( this.line, this.starts[ i ],
+                           this.ends[ i ] - this.starts[ i ],
+                           StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * Is a field a given word, ignoring the case of ASCII letters?
+     * @param i which field, counting from 0
+     * @param word the word, in ASCII
+     * @return true iff the field and the word match
+     * @rit.pre 0 &le; i &lt; fieldCount()
+     */
+    public boolean fieldIs( int i, String word ) {
+        final int start = this.starts[ i ];
+        if ( this.ends[ i ] - start != word.length() ) return false;
+        for ( int j = 0; j < word.length(); ++j ) {
+            if ( Character.toLowerCase( (char)this.line[ start + j ] ) !=
+                 Character.toLowerCase( word.charAt( j ) ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse a field as a decimal int, as {@link Integer#parseInt(String)}
+     * would, except that only ASCII digits are accepted.
+     * @param i which field, counting from 0
+     * @return the number
+     * @throws NumberFormatException if the field is not an int, with the
+     *                               same message Integer.parseInt gives
+     * @rit.pre 0 &le; i &lt; fieldCount()
+     */
+    public int intField( int i ) {
+        int at = this.starts[ i ];
+        final int end = this.ends[ i ];
+        boolean negative = false;
+        if ( at < end &&
+             ( this.line[ at ] == '-' || this.line[ at ] == '+' ) ) {
+            negative = this.line[ at ] == '-';
+            ++at;
+        }
+        if ( at == end ) throw badInt( i );
+        long value = 0;
+        for ( ; at < end; ++at ) {
+            final int digit = this.line[ at ] - '0';
+            if ( digit < 0 || digit > 9 ) throw badInt( i );
+            value = value * 10 + digit;
+            if ( value > -(long)Integer.MIN_VALUE ) throw badInt( i );
+        }
+        if ( !negative && value > Integer.MAX_VALUE ) throw badInt( i );
+        return (int)( negative ? -value : value );
+    }
+
+    /**
+     * Make the exception for a field that is not an int.
+     * @param i which field
+     * @return the exception
+     */
+    private NumberFormatException badInt( int i ) {
+        return new NumberFormatException(
+                "For input string: \"" + field( i ) + "\"" );
+    }
+
+    /**
+     * Get the current line as a string, e.g. for an error message.
+     * @return the line, without its ending
+     */
+    public String line() {
+        return new String( this.line, 0, this.length, StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * Print the current line, without its ending and, if it is all ASCII,
+     * without making a string of it.
+     * @param out where to print it
+     */
+    public void printLine( PrintWriter out ) {
+        if ( !this.ascii ) {
+            out.print( line() );
+            return;
+        }
+        if ( this.text.length < this.length ) {
+            this.text = new char[ this.line.length ];
+        }
+        for ( int i = 0; i < this.length; ++i ) {
+            this.text[ i ] = (char)this.line[ i ];
+        }
+        out.write( this.text, 0, this.length );
+    }
+
+    /**
+     * Close the underlying stream.
+     */
+    @Override
+    public void close() {
+        try {
+            if ( this.bytes != null ) this.bytes.close();
+            else this.chars.close();
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+}